@@ -19,8 +19,15 @@ import org.basex.query.func.*;
  * @author Christian Gruen
  */
 final class RestXqModule {
+  /** Maximum number of parsed module instances that will be kept for subsequent requests. */
+  private static final int MAXPLANS = 8;
+
   /** Supported methods. */
   private final ArrayList<RestXqFunction> functions = new ArrayList<>();
+  /** Parsed module instances, which are copied for each request. */
+  private final ArrayList<QueryPlan> plans = new ArrayList<>();
+  /** Indicates if the parsed module can be copied. */
+  private volatile boolean copyable = true;
   /** File reference. */
   private final IOFile file;
   /** Parsing timestamp. */
@@ -43,6 +50,10 @@ final class RestXqModule {
    */
   boolean parse(final HTTPContext http) throws Exception {
     functions.clear();
+    synchronized(plans) {
+      plans.clear();
+    }
+    copyable = true;
 
     // loop through all functions
     final Context ctx = http.context(false);
@@ -95,7 +106,7 @@ final class RestXqModule {
 
     // create new XQuery instance
     final Context ctx = http.context(false);
-    try(final QueryContext qc = qc(ctx)) {
+    try(final QueryContext qc = copy(ctx)) {
       final RestXqFunction rxf = new RestXqFunction(find(qc, func.function), qc, this);
       rxf.parse(ctx);
       RestXqResponse.create(rxf, qc, http, error);
@@ -121,6 +132,56 @@ final class RestXqModule {
     }
   }
 
+  /**
+   * Retrieves a query context with a copy of the parsed module.
+   * The module will only be parsed if no parsed instance is available.
+   * @param ctx database context
+   * @return query context
+   * @throws Exception exception
+   */
+  private QueryContext copy(final Context ctx) throws Exception {
+    if(!copyable) return qc(ctx);
+
+    QueryPlan plan = null;
+    synchronized(plans) {
+      final Iterator<QueryPlan> iter = plans.iterator();
+      while(plan == null && iter.hasNext()) {
+        final QueryPlan qp = iter.next();
+        if(!qp.uptodate()) iter.remove();
+        else if(qp.acquire()) plan = qp;
+      }
+    }
+    if(plan == null) {
+      // parse new instance (plans with node constructors can only be used by one request)
+      final String query;
+      try {
+        query = string(file.read());
+      } catch(final IOException ex) {
+        throw IOERR_X.get(null, ex);
+      }
+      plan = QueryPlan.parse(query, file.path(), QueryProcessor.isLibrary(query), ctx);
+      // module cannot be parsed (error will be raised by the parser), or cannot be copied
+      if(plan == null) return qc(ctx);
+      if(!plan.acquire()) {
+        copyable = false;
+        return qc(ctx);
+      }
+      // additional instances are discarded after the request
+      synchronized(plans) {
+        if(plans.size() < MAXPLANS) plans.add(plan);
+      }
+    }
+
+    final QueryContext qc = new QueryContext(ctx);
+    try {
+      qc.plan(plan);
+      return qc;
+    } catch(final QueryException ex) {
+      qc.close();
+      throw ex;
+    }
+  }
+
   /**
    * Returns the specified function from the given query context.
    * @param qctx query context.
@@ -0,0 +1,67 @@
+package org.basex.http.restxq;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+/**
+ * This test checks the reuse of parsed RESTXQ modules.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class RestXqPlanTest extends RestXqTest {
+  /** Module with global variables, a node constructor and a local function. */
+  private static final String MODULE =
+    "declare variable $m:v := <v>{ count((1, 2)) }</v>;" +
+    "declare function m:g($p) { <x a='{ $p }'>{ $m:v/text() }</x> };" +
+    "declare %R:path('{$p}') function m:f($p) { string(m:g($p)) || $p };";
+
+  /**
+   * Repeated requests reuse the parsed module.
+   * @throws Exception exception
+   */
+  @Test
+  public void repeated() throws Exception {
+    install(MODULE);
+    for(int i = 0; i < 10; i++) assertEquals("2" + i, get(Integer.toString(i)));
+  }
+
+  /**
+   * Concurrent requests are evaluated with separate copies of the parsed module.
+   * @throws Exception exception
+   */
+  @Test
+  public void concurrent() throws Exception {
+    install(MODULE);
+    final ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      final ArrayList<Future<String>> results = new ArrayList<>();
+      for(int i = 0; i < 50; i++) {
+        final String path = Integer.toString(i);
+        results.add(pool.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            return get(path);
+          }
+        }));
+      }
+      for(int i = 0; i < 50; i++) assertEquals("2" + i, results.get(i).get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Modified modules are parsed again.
+   * @throws Exception exception
+   */
+  @Test
+  public void modified() throws Exception {
+    get(MODULE, "1", "21");
+    get(MODULE.replace("(1, 2)", "(1, 2, 3)"), "1", "31");
+  }
+}
@@ -0,0 +1,75 @@
+package org.basex.bench;
+
+import java.io.*;
+
+import org.basex.build.*;
+import org.basex.build.xml.*;
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for database creation. The numbers include the time for parsing the document
+ * and, if enabled, for building the index structures.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public class BuildBench extends XMarkBench {
+  @Override
+  protected void init() { }
+
+  /**
+   * Creates a database without index structures.
+   * @throws BaseXException database exception
+   */
+  @Benchmark
+  public void disk() throws BaseXException {
+    create(false, false);
+  }
+
+  /**
+   * Creates a database with value and full-text indexes.
+   * @throws BaseXException database exception
+   */
+  @Benchmark
+  public void diskIndexes() throws BaseXException {
+    create(false, true);
+  }
+
+  /**
+   * Creates a main-memory database with value and full-text indexes.
+   * @throws BaseXException database exception
+   */
+  @Benchmark
+  public void mainmem() throws BaseXException {
+    create(true, true);
+  }
+
+  /**
+   * Parses the document with the internal parser and builds a main-memory database instance,
+   * without index structures.
+   * @return database
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public Data parse() throws IOException {
+    return MemBuilder.build(new XMLParser(new IOContent(document), context.options));
+  }
+
+  /**
+   * Creates a database.
+   * @param mainmem main-memory flag
+   * @param indexes index flag
+   * @throws BaseXException database exception
+   */
+  private void create(final boolean mainmem, final boolean indexes) throws BaseXException {
+    final MainOptions opts = context.options;
+    opts.set(MainOptions.MAINMEM, mainmem);
+    opts.set(MainOptions.TEXTINDEX, indexes);
+    opts.set(MainOptions.ATTRINDEX, indexes);
+    opts.set(MainOptions.FTINDEX, indexes);
+    createDB();
+  }
+}
@@ -0,0 +1,59 @@
+package org.basex.bench;
+
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for FLWOR expressions. Some of the queries are based on the XMark queries.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public class FLWORBench extends XMarkBench {
+  /**
+   * Groups items by their location.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value groupBy() throws QueryException {
+    return query("for $i in //item group by $l := $i/location " +
+        "return <group location='{ $l }' count='{ count($i) }'/>");
+  }
+
+  /**
+   * Sorts items by their location (XMark Q19).
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value orderBy() throws QueryException {
+    return query("for $b in //item let $k := $b/name/text() " +
+        "order by zero-or-one($b/location) ascending empty greatest " +
+        "return <item name='{ $k }'>{ $b/location/text() }</item>");
+  }
+
+  /**
+   * Groups and sorts closed auctions.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value groupOrderBy() throws QueryException {
+    return query("for $a in //closed_auction group by $t := $a/type " +
+        "let $s := sum($a/price) order by $s descending return ($t, $s)");
+  }
+
+  /**
+   * Joins persons and closed auctions (XMark Q8).
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value join() throws QueryException {
+    return query("for $p in //person let $a := " +
+        "for $t in //closed_auction where $t/buyer/@person = $p/@id return $t " +
+        "return <item person='{ $p/name/text() }'>{ count($a) }</item>");
+  }
+}
@@ -0,0 +1,120 @@
+package org.basex.bench;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for index lookups. The first benchmarks access the index structures directly;
+ * the remaining ones evaluate queries that are rewritten for index access.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public class IndexBench extends XMarkBench {
+  /** Text tokens. */
+  private static final byte[][] TEXTS = tokens("Germany", "Cash", "Dutch", "Boston", "gold");
+  /** Attribute tokens. */
+  private static final byte[][] ATTRIBUTES = tokens("person1", "item2", "category3", "yes");
+
+  /** Database instance. */
+  private Data data;
+
+  @Override
+  protected void init() throws IOException {
+    super.init();
+    data = context.data();
+  }
+
+  /**
+   * Looks up text tokens.
+   * @return number of results
+   */
+  @Benchmark
+  public int text() {
+    int c = 0;
+    for(final byte[] token : TEXTS) c += count(new StringToken(true, token));
+    return c;
+  }
+
+  /**
+   * Looks up attribute tokens.
+   * @return number of results
+   */
+  @Benchmark
+  public int attribute() {
+    int c = 0;
+    for(final byte[] token : ATTRIBUTES) c += count(new StringToken(false, token));
+    return c;
+  }
+
+  /**
+   * Looks up a numeric attribute range.
+   * @return number of results
+   */
+  @Benchmark
+  public int range() {
+    return count(new NumericRange(false, 10000, 20000));
+  }
+
+  /**
+   * Evaluates a query with a text index lookup.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value queryText() throws QueryException {
+    return query("//person[address/country = 'Germany']/name");
+  }
+
+  /**
+   * Evaluates a query with an attribute index lookup.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value queryAttribute() throws QueryException {
+    return query("for $i in 1 to 100 return //person[@id = 'person' || $i]/name");
+  }
+
+  /**
+   * Evaluates a query with a numeric range lookup.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value queryRange() throws QueryException {
+    return query("//profile[@income >= 10000 and @income <= 20000]/age");
+  }
+
+  /**
+   * Evaluates a query with a full-text index lookup.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value queryFullText() throws QueryException {
+    return query("//text[text() contains text { 'gold', 'silver' } all]");
+  }
+
+  /**
+   * Returns the number of index results for the specified token.
+   * @param token index token
+   * @return number of results
+   */
+  private int count(final IndexToken token) {
+    final IndexIterator ii = data.iter(token);
+    int c = 0;
+    while(ii.more()) {
+      ii.pre();
+      c++;
+    }
+    return c;
+  }
+}
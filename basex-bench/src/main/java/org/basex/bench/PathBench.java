@@ -0,0 +1,63 @@
+package org.basex.bench;
+
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for the evaluation of location paths.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public class PathBench extends XMarkBench {
+  /**
+   * Evaluates a path with child steps.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value child() throws QueryException {
+    return query("/site/regions/*/item/name");
+  }
+
+  /**
+   * Evaluates a path with descendant steps.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value descendant() throws QueryException {
+    return query("//description//emph");
+  }
+
+  /**
+   * Evaluates a path with a positional predicate.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value position() throws QueryException {
+    return query("//open_auction/bidder[last()]/increase");
+  }
+
+  /**
+   * Evaluates a path with a nested predicate that cannot be rewritten for index access.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value predicate() throws QueryException {
+    return query("//person[profile/age > 60][watches/watch]/name");
+  }
+
+  /**
+   * Evaluates a path with a parent step.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value parent() throws QueryException {
+    return query("//increase[. > 25]/../personref");
+  }
+}
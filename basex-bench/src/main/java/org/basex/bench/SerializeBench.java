@@ -0,0 +1,75 @@
+package org.basex.bench;
+
+import java.io.*;
+
+import org.basex.io.out.*;
+import org.basex.io.serial.*;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for the serialization of query results.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public class SerializeBench extends XMarkBench {
+  /** Serialization method. */
+  @Param({ "xml", "adaptive" })
+  public String method;
+  /** Indentation of the output. */
+  @Param({ "no", "yes" })
+  public String indent;
+
+  /** Serialization parameters. */
+  private final SerializerOptions sopts = new SerializerOptions();
+  /** Nodes. */
+  private Value nodes;
+  /** Atomic values. */
+  private Value atomics;
+
+  @Override
+  protected void init() throws IOException {
+    createDB();
+    sopts.set(SerializerOptions.METHOD, method);
+    sopts.set(SerializerOptions.INDENT, indent);
+    try {
+      nodes = query("/site/regions");
+      atomics = query("(//@id/string(), //price/number(), //date/xs:date(replace(., " +
+          "'(..)/(..)/(....)', '$3-$1-$2')))");
+    } catch(final QueryException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  /**
+   * Serializes database nodes.
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public void nodes() throws IOException {
+    serialize(nodes);
+  }
+
+  /**
+   * Serializes atomic values.
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public void atomics() throws IOException {
+    serialize(atomics);
+  }
+
+  /**
+   * Serializes the specified value.
+   * @param value value
+   * @throws IOException I/O exception
+   */
+  private void serialize(final Value value) throws IOException {
+    final Serializer ser = Serializer.get(new NullOutput(), sopts);
+    for(final Item item : value) ser.serialize(item);
+    ser.close();
+  }
+}
@@ -0,0 +1,150 @@
+package org.basex.bench;
+
+import static org.basex.core.Text.*;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.users.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Scope;
+
+/**
+ * Load test for the database server. A server is started, and the specified number of idle
+ * sessions are opened before the throughput of concurrently active clients is measured.
+ * The number of live threads is printed after the sessions have been opened.
+ *
+ * Requests are either processed by one thread per session or, if {@code threads} is
+ * greater than 0, by a fixed number of worker threads (see {@link StaticOptions#SERVERTHREADS}).
+ * Please note that each session occupies a file descriptor on the client and the server side.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Threads(8)
+public class ServerBench {
+  /** Server port. */
+  private static final int PORT = 9986;
+
+  /** Number of server threads (one thread per session if set to 0). */
+  @Param({ "0", "8" })
+  public int threads;
+  /** Number of idle sessions. */
+  @Param({ "10", "1000" })
+  public int idle;
+
+  /** Database context. */
+  private Context context;
+  /** Server instance. */
+  private BaseXServer server;
+  /** Idle sessions. */
+  private final ArrayList<ClientSession> sessions = new ArrayList<>();
+  /** Database directory. */
+  private IOFile dir;
+
+  /**
+   * Active client, which is used by a single benchmark thread.
+   */
+  @State(Scope.Thread)
+  public static class Client {
+    /** Client session. */
+    ClientSession session;
+
+    /**
+     * Opens the session.
+     * @throws IOException I/O exception
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+      session = session();
+    }
+
+    /**
+     * Closes the session.
+     * @throws IOException I/O exception
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      session.close();
+    }
+  }
+
+  /**
+   * Starts the server and opens the idle sessions.
+   * @throws IOException I/O exception
+   */
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new IOFile(Prop.TMP, Util.className(getClass()));
+    dir.delete();
+    if(!dir.md()) throw new IOException("Directory could not be created: " + dir);
+
+    context = new Context(false);
+    context.soptions.set(StaticOptions.DBPATH, dir.path());
+    context.soptions.set(StaticOptions.SERVERTHREADS, threads);
+    server = new BaseXServer(context, "-p" + PORT, "-q", "-z");
+
+    for(int i = 0; i < idle; i++) sessions.add(session());
+    Util.outln("% idle sessions, % live threads", idle,
+        ManagementFactory.getThreadMXBean().getThreadCount());
+  }
+
+  /**
+   * Closes all sessions and stops the server.
+   * @throws IOException I/O exception
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    for(final ClientSession session : sessions) session.close();
+    sessions.clear();
+    server.stop();
+    context.close();
+    dir.delete();
+  }
+
+  /**
+   * Runs a simple query via the query protocol.
+   * @param client active client
+   * @return result
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public String query(final Client client) throws IOException {
+    try(final ClientQuery query = client.session.query("1 to 10")) {
+      return query.execute();
+    }
+  }
+
+  /**
+   * Runs a database command.
+   * @param client active client
+   * @return result
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public String command(final Client client) throws IOException {
+    return client.session.execute("xquery 1 to 10");
+  }
+
+  /**
+   * Opens a new client session.
+   * @return session
+   * @throws IOException I/O exception
+   */
+  static ClientSession session() throws IOException {
+    return new ClientSession(S_LOCALHOST, PORT, UserText.ADMIN, UserText.ADMIN);
+  }
+}
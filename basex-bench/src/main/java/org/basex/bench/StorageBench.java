@@ -0,0 +1,118 @@
+package org.basex.bench;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for the storage layer and for frequently used utility functions: table access,
+ * text retrieval, compression and token operations.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public class StorageBench extends XMarkBench {
+  /** Database instance. */
+  private Data data;
+  /** Texts of the database. */
+  private byte[][] texts;
+  /** Compressed texts (only those that are shorter than the original texts). */
+  private byte[][] packed;
+
+  @Override
+  protected void init() throws IOException {
+    createDB();
+    data = context.data();
+
+    final TokenList tl = new TokenList();
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      if(data.kind(pre) == Data.TEXT) tl.add(data.text(pre, true));
+    }
+    texts = tl.finish();
+
+    // texts that cannot be compressed are skipped
+    final Compress comp = new Compress();
+    final TokenList pl = new TokenList();
+    for(final byte[] text : texts) {
+      final byte[] pack = comp.pack(text);
+      if(pack != text) pl.add(pack);
+    }
+    packed = pl.finish();
+  }
+
+  /**
+   * Scans the table and retrieves kinds, sizes and names of all nodes.
+   * @return checksum
+   */
+  @Benchmark
+  public long table() {
+    long c = 0;
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = data.kind(pre);
+      c += data.size(pre, kind);
+      if(kind == Data.ELEM) c += data.name(pre, kind).length;
+    }
+    return c;
+  }
+
+  /**
+   * Retrieves all texts and attribute values.
+   * @return checksum
+   */
+  @Benchmark
+  public long texts() {
+    long c = 0;
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = data.kind(pre);
+      if(kind == Data.TEXT) c += data.text(pre, true).length;
+      else if(kind == Data.ATTR) c += data.text(pre, false).length;
+    }
+    return c;
+  }
+
+  /**
+   * Compresses all texts.
+   * @return checksum
+   */
+  @Benchmark
+  public long pack() {
+    final Compress comp = new Compress();
+    long c = 0;
+    for(final byte[] text : texts) c += comp.pack(text).length;
+    return c;
+  }
+
+  /**
+   * Decompresses all texts.
+   * @return checksum
+   */
+  @Benchmark
+  public long unpack() {
+    long c = 0;
+    for(final byte[] text : packed) c += Compress.unpack(text).length;
+    return c;
+  }
+
+  /**
+   * Performs common token operations on all texts.
+   * @return checksum
+   */
+  @Benchmark
+  public long tokens() {
+    long c = 0;
+    for(final byte[] text : texts) {
+      c += lc(text).length + uc(text).length + normalize(text).length;
+      c += toInt(text) + string(text).length() + token(text.length).length;
+      if(eq(text, COLON) || contains(text, SPACE)) c++;
+    }
+    return c;
+  }
+}
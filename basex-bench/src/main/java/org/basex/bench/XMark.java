@@ -0,0 +1,320 @@
+package org.basex.bench;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.util.*;
+
+/**
+ * Generator for XMark-style documents. The document structure and the ratio of the
+ * element counts resemble the original XMark instances; the texts are composed from a
+ * small vocabulary. As a fixed seed is used, the same document will be generated for
+ * the same factor.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class XMark {
+  /** Random seed. */
+  private static final long SEED = 0x5EED;
+  /** Regions and their number of items (for factor 1). */
+  private static final Object[][] REGIONS = {
+    { "africa", 550 }, { "asia", 2000 }, { "australia", 2200 },
+    { "europe", 6000 }, { "namerica", 10000 }, { "samerica", 1000 }
+  };
+  /** Number of categories (for factor 1). */
+  private static final int CATEGORIES = 1000;
+  /** Number of persons (for factor 1). */
+  private static final int PERSONS = 25500;
+  /** Number of open auctions (for factor 1). */
+  private static final int OPEN = 12000;
+  /** Number of closed auctions (for factor 1). */
+  private static final int CLOSED = 9750;
+  /** Vocabulary. */
+  private static final String[] WORDS = (
+    "gold silver bronze copper iron steel wood paper glass stone water fire earth air " +
+    "king queen prince duke lord lady knight servant master friend enemy stranger " +
+    "love death life honour truth grace heaven night morning evening summer winter " +
+    "sweet bitter gentle noble proud fair true false good poor rich old young great " +
+    "speak hear see know think make take give come go leave stay live die fight rest"
+  ).split(" ");
+  /** Countries. */
+  private static final String[] COUNTRIES = {
+    "Germany", "France", "Italy", "Spain", "Japan", "China", "India", "Brazil",
+    "Canada", "Mexico", "Egypt", "Kenya", "Australia", "United States"
+  };
+  /** Cities. */
+  private static final String[] CITIES = {
+    "Berlin", "Paris", "Rome", "Madrid", "Tokyo", "Beijing", "Delhi", "Rio",
+    "Toronto", "Cancun", "Cairo", "Nairobi", "Sydney", "Boston", "Konstanz"
+  };
+  /** Payment types. */
+  private static final String[] PAYMENTS = {
+    "Creditcard", "Money order", "Personal Check", "Cash"
+  };
+  /** Auction types. */
+  private static final String[] TYPES = { "Regular", "Featured", "Dutch" };
+
+  /** Random number generator. */
+  private final Random rnd = new Random(SEED);
+  /** Token builder. */
+  private final TokenBuilder tb = new TokenBuilder();
+  /** Number of items. */
+  private final int items;
+  /** Number of categories. */
+  private final int categories;
+  /** Number of persons. */
+  private final int persons;
+  /** Number of open auctions. */
+  private final int opens;
+
+  /**
+   * Constructor.
+   * @param factor scale factor
+   */
+  private XMark(final double factor) {
+    int i = 0;
+    for(final Object[] region : REGIONS) i += scale((Integer) region[1], factor);
+    items = i;
+    categories = scale(CATEGORIES, factor);
+    persons = scale(PERSONS, factor);
+    opens = scale(OPEN, factor);
+  }
+
+  /**
+   * Generates a document.
+   * @param factor scale factor (1.0 corresponds to the original XMark instance)
+   * @return document
+   */
+  public static byte[] generate(final double factor) {
+    return new XMark(factor).site(factor);
+  }
+
+  /**
+   * Generates the document.
+   * @param factor scale factor
+   * @return document
+   */
+  private byte[] site(final double factor) {
+    tb.add("<site>");
+
+    tb.add("<regions>");
+    int id = 0;
+    for(final Object[] region : REGIONS) {
+      tb.add('<').add((String) region[0]).add('>');
+      for(int i = scale((Integer) region[1], factor); i > 0; i--) item(id++);
+      tb.add("</").add((String) region[0]).add('>');
+    }
+    tb.add("</regions>");
+
+    tb.add("<categories>");
+    for(int c = 0; c < categories; c++) {
+      tb.add("<category id=\"category").addInt(c).add("\">");
+      tb.add("<name>").add(words(2)).add("</name>");
+      tb.add("<description>").add(text()).add("</description>");
+      tb.add("</category>");
+    }
+    tb.add("</categories>");
+
+    tb.add("<catgraph>");
+    for(int c = 0; c < categories; c++) {
+      tb.add("<edge from=\"").add(ref("category", categories)).add("\" to=\"");
+      tb.add(ref("category", categories)).add("\"/>");
+    }
+    tb.add("</catgraph>");
+
+    tb.add("<people>");
+    for(int p = 0; p < persons; p++) person(p);
+    tb.add("</people>");
+
+    tb.add("<open_auctions>");
+    for(int o = 0; o < opens; o++) openAuction(o);
+    tb.add("</open_auctions>");
+
+    tb.add("<closed_auctions>");
+    for(int c = scale(CLOSED, factor); c > 0; c--) closedAuction();
+    tb.add("</closed_auctions>");
+
+    return tb.add("</site>").finish();
+  }
+
+  /**
+   * Generates an item.
+   * @param id id
+   */
+  private void item(final int id) {
+    tb.add("<item id=\"item").addInt(id).add('"');
+    if(rnd.nextInt(10) == 0) tb.add(" featured=\"yes\"");
+    tb.add('>');
+    tb.add("<location>").add(pick(COUNTRIES)).add("</location>");
+    tb.add("<quantity>").addInt(1 + rnd.nextInt(3)).add("</quantity>");
+    tb.add("<name>").add(words(1 + rnd.nextInt(3))).add("</name>");
+    tb.add("<payment>").add(pick(PAYMENTS)).add("</payment>");
+    tb.add("<description>").add(text()).add("</description>");
+    tb.add("<shipping>").add(words(4)).add("</shipping>");
+    for(int c = 1 + rnd.nextInt(3); c > 0; c--) {
+      tb.add("<incategory category=\"").add(ref("category", categories)).add("\"/>");
+    }
+    tb.add("<mailbox>");
+    for(int m = rnd.nextInt(3); m > 0; m--) {
+      tb.add("<mail><from>").add(words(2)).add("</from><to>").add(words(2)).add("</to>");
+      tb.add("<date>").add(date()).add("</date>").add(text()).add("</mail>");
+    }
+    tb.add("</mailbox>");
+    tb.add("</item>");
+  }
+
+  /**
+   * Generates a person.
+   * @param id id
+   */
+  private void person(final int id) {
+    tb.add("<person id=\"person").addInt(id).add("\">");
+    final String first = pick(WORDS), last = pick(WORDS);
+    tb.add("<name>").add(first).add(' ').add(last).add("</name>");
+    tb.add("<emailaddress>mailto:").add(last).add('@').add(pick(WORDS)).add(".com");
+    tb.add("</emailaddress>");
+    if(rnd.nextBoolean()) {
+      tb.add("<phone>+").addInt(rnd.nextInt(100)).add(" (").addInt(rnd.nextInt(1000)).add(") ");
+      tb.addInt(rnd.nextInt(100000000)).add("</phone>");
+    }
+    if(rnd.nextBoolean()) {
+      tb.add("<address><street>").addInt(rnd.nextInt(100)).add(' ').add(pick(WORDS));
+      tb.add(" St</street><city>").add(pick(CITIES)).add("</city><country>");
+      tb.add(pick(COUNTRIES)).add("</country><zipcode>").addInt(rnd.nextInt(100000));
+      tb.add("</zipcode></address>");
+    }
+    if(rnd.nextBoolean()) {
+      tb.add("<profile income=\"").add(money(100000)).add("\">");
+      for(int i = rnd.nextInt(4); i > 0; i--) {
+        tb.add("<interest category=\"").add(ref("category", categories)).add("\"/>");
+      }
+      tb.add("<business>").add(rnd.nextBoolean() ? "Yes" : "No").add("</business>");
+      tb.add("<age>").addInt(18 + rnd.nextInt(60)).add("</age>");
+      tb.add("</profile>");
+    }
+    tb.add("<watches>");
+    for(int w = rnd.nextInt(4); w > 0; w--) {
+      tb.add("<watch open_auction=\"").add(ref("open_auction", opens)).add("\"/>");
+    }
+    tb.add("</watches>");
+    tb.add("</person>");
+  }
+
+  /**
+   * Generates an open auction.
+   * @param id id
+   */
+  private void openAuction(final int id) {
+    tb.add("<open_auction id=\"open_auction").addInt(id).add("\">");
+    final double initial = 1 + rnd.nextInt(20000) / 100d;
+    tb.add("<initial>").add(token(initial)).add("</initial>");
+    double current = initial;
+    for(int b = rnd.nextInt(6); b > 0; b--) {
+      final double increase = 1 + rnd.nextInt(3000) / 100d;
+      current += increase;
+      tb.add("<bidder><date>").add(date()).add("</date>");
+      tb.add("<personref person=\"").add(ref("person", persons)).add("\"/>");
+      tb.add("<increase>").add(token(increase)).add("</increase></bidder>");
+    }
+    tb.add("<current>").add(token(Math.round(current * 100) / 100d)).add("</current>");
+    tb.add("<itemref item=\"").add(ref("item", items)).add("\"/>");
+    tb.add("<seller person=\"").add(ref("person", persons)).add("\"/>");
+    tb.add("<annotation>").add(text()).add("</annotation>");
+    tb.add("<quantity>").addInt(1 + rnd.nextInt(3)).add("</quantity>");
+    tb.add("<type>").add(pick(TYPES)).add("</type>");
+    tb.add("</open_auction>");
+  }
+
+  /**
+   * Generates a closed auction.
+   */
+  private void closedAuction() {
+    tb.add("<closed_auction>");
+    tb.add("<seller person=\"").add(ref("person", persons)).add("\"/>");
+    tb.add("<buyer person=\"").add(ref("person", persons)).add("\"/>");
+    tb.add("<itemref item=\"").add(ref("item", items)).add("\"/>");
+    tb.add("<price>").add(money(1000)).add("</price>");
+    tb.add("<date>").add(date()).add("</date>");
+    tb.add("<quantity>").addInt(1 + rnd.nextInt(3)).add("</quantity>");
+    tb.add("<type>").add(pick(TYPES)).add("</type>");
+    tb.add("<annotation>").add(text()).add("</annotation>");
+    tb.add("</closed_auction>");
+  }
+
+  /**
+   * Returns a text element with some paragraphs of random words, some of them emphasized.
+   * @return text
+   */
+  private String text() {
+    final StringBuilder sb = new StringBuilder("<text>");
+    for(int p = 1 + rnd.nextInt(3); p > 0; p--) {
+      sb.append(words(3 + rnd.nextInt(10)));
+      if(rnd.nextInt(3) == 0) sb.append(" <emph>").append(words(2)).append("</emph> ");
+      else sb.append(' ');
+    }
+    return sb.append(words(2)).append("</text>").toString();
+  }
+
+  /**
+   * Returns the specified number of random words.
+   * @param n number of words
+   * @return words
+   */
+  private String words(final int n) {
+    final StringBuilder sb = new StringBuilder();
+    for(int w = 0; w < n; w++) {
+      if(w > 0) sb.append(' ');
+      sb.append(pick(WORDS));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns a reference to a random id.
+   * @param prefix prefix
+   * @param max number of ids
+   * @return reference
+   */
+  private String ref(final String prefix, final int max) {
+    return prefix + rnd.nextInt(Math.max(1, max));
+  }
+
+  /**
+   * Returns a random date.
+   * @return date
+   */
+  private String date() {
+    return String.format(Locale.ENGLISH, "%02d/%02d/%d",
+        1 + rnd.nextInt(12), 1 + rnd.nextInt(28), 1998 + rnd.nextInt(4));
+  }
+
+  /**
+   * Returns a random amount of money.
+   * @param max maximum amount
+   * @return amount
+   */
+  private String money(final int max) {
+    return String.format(Locale.ENGLISH, "%.2f", rnd.nextInt(max * 100) / 100d);
+  }
+
+  /**
+   * Returns a random entry of the specified array.
+   * @param strings strings
+   * @return entry
+   */
+  private String pick(final String[] strings) {
+    return strings[rnd.nextInt(strings.length)];
+  }
+
+  /**
+   * Scales a number.
+   * @param n number
+   * @param factor scale factor
+   * @return scaled number (at least 1)
+   */
+  private static int scale(final int n, final double factor) {
+    return Math.max(1, (int) (n * factor));
+  }
+}
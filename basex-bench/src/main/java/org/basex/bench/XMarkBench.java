@@ -0,0 +1,104 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.io.in.*;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.util.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Scope;
+
+/**
+ * Abstract class for benchmarks on XMark-style databases. A document is generated for the
+ * specified scale factor, and a database is created in a temporary database directory.
+ *
+ * All benchmarks share the same settings for warmup and measurement iterations, which are
+ * chosen to give comparable numbers for different versions. The settings can be overwritten
+ * via the JMH command line.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public abstract class XMarkBench {
+  /** Database name. */
+  protected static final String NAME = "xmark";
+
+  /** Scale factor of the document (1.0 corresponds to the original XMark instance). */
+  @Param("0.1")
+  public double factor;
+
+  /** Generated document. */
+  protected byte[] document;
+  /** Database context. */
+  protected Context context;
+  /** Database directory. */
+  private IOFile dir;
+
+  /**
+   * Generates the document and creates the database.
+   * @throws IOException I/O exception
+   */
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new IOFile(Prop.TMP, Util.className(getClass()));
+    dir.delete();
+    if(!dir.md()) throw new IOException("Directory could not be created: " + dir);
+
+    context = new Context(false);
+    context.soptions.set(StaticOptions.DBPATH, dir.path());
+    document = XMark.generate(factor);
+    init();
+  }
+
+  /**
+   * Closes the context and deletes all databases.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+    dir.delete();
+  }
+
+  /**
+   * Initializes the benchmark. By default, a database with all index structures is created
+   * and opened.
+   * @throws IOException I/O exception
+   */
+  protected void init() throws IOException {
+    context.options.set(MainOptions.FTINDEX, true);
+    createDB();
+  }
+
+  /**
+   * Creates the database from the generated document.
+   * @throws BaseXException database exception
+   */
+  protected final void createDB() throws BaseXException {
+    final CreateDB cmd = new CreateDB(NAME);
+    cmd.setInput(new ArrayInput(document));
+    cmd.execute(context);
+  }
+
+  /**
+   * Evaluates a query and returns the materialized result.
+   * @param query query
+   * @return result
+   * @throws QueryException query exception
+   */
+  protected final Value query(final String query) throws QueryException {
+    try(final QueryProcessor qp = new QueryProcessor(query, context)) {
+      return qp.value();
+    }
+  }
+}
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 import org.basex.api.client.*;
@@ -33,6 +34,8 @@ public final class BaseXServer extends CLI implements Runnable {
   private StringList commands;
   /** Server socket. */
   private ServerSocket socket;
+  /** Dispatcher for client sessions ({@code null} if each session has its own thread). */
+  private ClientSelector selector;
   /** Start as daemon. */
   private boolean service;
   /** Quiet flag. */
@@ -96,7 +99,15 @@ public final class BaseXServer extends CLI implements Runnable {
       // execute initial command-line arguments
       for(final String cmd : commands) execute(cmd);
 
-      socket = new ServerSocket();
+      // sessions are processed by a fixed number of threads if a thread limit is specified
+      final int threads = sopts.get(StaticOptions.SERVERTHREADS);
+      if(threads > 0) {
+        socket = ServerSocketChannel.open().socket();
+        selector = new ClientSelector(threads, context.log);
+        selector.start();
+      } else {
+        socket = new ServerSocket();
+      }
       socket.setReuseAddress(true);
       socket.bind(new InetSocketAddress(addr, port));
       stopFile = stopFile(port);
@@ -146,7 +157,7 @@ public final class BaseXServer extends CLI implements Runnable {
           // start authentication timeout
           final long to = context.soptions.get(StaticOptions.KEEPALIVE) * 1000L;
           if(to > 0) {
-            cl.auth.schedule(new TimerTask() {
+            cl.auth = Scheduler.schedule(new Runnable() {
               @Override
               public void run() {
                 cl.quitAuth();
@@ -154,7 +165,8 @@ public final class BaseXServer extends CLI implements Runnable {
             }, to);
             auth.add(cl);
           }
-          cl.start();
+          if(selector != null) selector.add(cl);
+          else cl.start();
         }
       } catch(final SocketException ex) {
         break;
@@ -190,6 +202,7 @@ public final class BaseXServer extends CLI implements Runnable {
     for(final ClientListener cs : context.sessions) {
       cs.quit();
     }
+    if(selector != null) selector.quit();
 
     try {
       // close interactive input if server was stopped by another process
@@ -320,7 +333,7 @@ public final class BaseXServer extends CLI implements Runnable {
   public void remove(final ClientListener client) {
     synchronized(auth) {
       auth.remove(client);
-      client.auth.cancel();
+      if(client.auth != null) client.auth.cancel(false);
     }
   }
 
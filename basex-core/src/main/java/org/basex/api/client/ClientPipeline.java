@@ -0,0 +1,301 @@
+package org.basex.api.client;
+
+import static org.basex.core.Text.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.in.*;
+import org.basex.io.out.*;
+import org.basex.server.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class sends multiple requests to the server without waiting for the response of each
+ * request. Requests are buffered and sent in batches, and they are evaluated by the server in the
+ * order in which they were sent. The responses are returned when {@link #sync()} is called.</p>
+ *
+ * <p>The responses are read by a separate thread while requests are being sent. This way, the
+ * server is never blocked writing a response while the client is blocked writing a request,
+ * no matter how large the responses or the sent inputs are. The number of requests whose
+ * responses have not been read yet is limited: if the limit is reached, the next request will
+ * only be sent after the oldest response has arrived. If the session is used while a pipeline
+ * has pending requests, the pending responses are read first.</p>
+ *
+ * <p>Queries can be evaluated with the {@code XQUERY} command. External variables can be bound
+ * with the {@link MainOptions#BINDINGS} option. Many documents can be added with a single batch
+ * by disabling the {@link MainOptions#AUTOFLUSH} option.</p>
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientPipeline implements Closeable {
+  /** Client session. */
+  private final ClientSession cs;
+  /** Maximum number of pending requests. */
+  private final int max;
+  /** Pending requests (flag indicates if a result will be returned). */
+  private final ArrayDeque<Boolean> pending = new ArrayDeque<>();
+  /** Received responses: results of commands, or info strings. */
+  private final TokenList responses = new TokenList();
+  /** Indicates if a received response is the result of a command. */
+  private final BoolList results = new BoolList();
+  /** Info string of the last received response. */
+  private String info;
+  /** Error message of the first failed request ({@code null} if no request failed). */
+  private String error;
+  /** Exception raised while reading the responses ({@code null} if no exception occurred). */
+  private IOException failure;
+  /** Thread for reading responses ({@code null} if no request has been sent yet). */
+  private Thread reader;
+  /** Indicates if the pipeline has been closed. */
+  private boolean closed;
+
+  /**
+   * Constructor.
+   * @param session client session
+   * @param max maximum number of pending requests
+   */
+  ClientPipeline(final ClientSession session, final int max) {
+    cs = session;
+    this.max = Math.max(1, max);
+  }
+
+  /**
+   * Sends a command.
+   * @param command command to be executed
+   * @throws IOException I/O exception
+   */
+  public void execute(final Command command) throws IOException {
+    execute(command.toString());
+  }
+
+  /**
+   * Sends a command.
+   * @param command command to be parsed
+   * @throws IOException I/O exception
+   */
+  public void execute(final String command) throws IOException {
+    request();
+    cs.send(command);
+    sent(true);
+  }
+
+  /**
+   * Sends a request for creating a database.
+   * @param name name of database
+   * @param input xml input
+   * @throws IOException I/O exception
+   */
+  public void create(final String name, final InputStream input) throws IOException {
+    send(ServerCmd.CREATE, input, name);
+  }
+
+  /**
+   * Sends a request for adding a document to the opened database.
+   * @param path target path
+   * @param input xml input
+   * @throws IOException I/O exception
+   */
+  public void add(final String path, final InputStream input) throws IOException {
+    send(ServerCmd.ADD, input, path);
+  }
+
+  /**
+   * Sends a request for replacing a document in the opened database.
+   * @param path document(s) to replace
+   * @param input new content
+   * @throws IOException I/O exception
+   */
+  public void replace(final String path, final InputStream input) throws IOException {
+    send(ServerCmd.REPLACE, input, path);
+  }
+
+  /**
+   * Sends a request for storing raw data in the opened database.
+   * @param path target path
+   * @param input binary input
+   * @throws IOException I/O exception
+   */
+  public void store(final String path, final InputStream input) throws IOException {
+    send(ServerCmd.STORE, input, path);
+  }
+
+  /**
+   * Waits for the responses of all pending requests and returns the results of all requests
+   * that have been sent since the last call. For each command, the result is returned, or
+   * {@code null} if the result has been written to the output stream of the session.
+   * For all other requests, the info string is returned.
+   * @return results
+   * @throws IOException I/O exception, or exception with the message of the first failed
+   *   request (all responses will have been read)
+   */
+  public String[] sync() throws IOException {
+    receive();
+    final OutputStream out = cs.getOutputStream();
+    final String[] res;
+    final String err;
+    synchronized(this) {
+      final int rs = responses.size();
+      res = new String[rs];
+      for(int r = 0; r < rs; r++) {
+        final byte[] response = responses.get(r);
+        if(results.get(r) && out != null) {
+          out.write(response);
+        } else {
+          res[r] = Token.string(response);
+        }
+      }
+      responses.reset();
+      results.reset();
+      if(info != null) cs.info = info;
+      err = error;
+      error = null;
+    }
+    if(err != null) throw new BaseXException(err);
+    return res;
+  }
+
+  /**
+   * Waits for the responses of all pending requests and closes the pipeline.
+   * @throws IOException I/O exception
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      sync();
+    } finally {
+      cs.pipeline = null;
+      stop();
+    }
+  }
+
+  /**
+   * Stops the thread that reads the responses.
+   */
+  synchronized void stop() {
+    closed = true;
+    notifyAll();
+  }
+
+  /**
+   * Returns the number of pending requests.
+   * @return number of requests
+   */
+  public synchronized int pending() {
+    return pending.size();
+  }
+
+  /**
+   * Waits for the responses of all pending requests.
+   * @throws IOException I/O exception
+   */
+  void receive() throws IOException {
+    if(pending() == 0) return;
+    cs.sout.flush();
+    await(0);
+  }
+
+  /**
+   * Sends a request with an input stream.
+   * @param command command
+   * @param input input stream
+   * @param arg string argument
+   * @throws IOException I/O exception
+   */
+  private void send(final ServerCmd command, final InputStream input, final String arg)
+      throws IOException {
+    request();
+    cs.send(command, input, arg);
+    sent(false);
+  }
+
+  /**
+   * Prepares a new request. The oldest response will be waited for if the maximum number of
+   * pending requests has been reached.
+   * @throws IOException I/O exception
+   */
+  private void request() throws IOException {
+    if(cs.pipeline != this) throw new BaseXException(PIPELINE_CLOSED);
+    if(reader == null) {
+      reader = new Thread(Prop.NAME + "Pipeline") {
+        @Override
+        public void run() {
+          read();
+        }
+      };
+      reader.setDaemon(true);
+      reader.start();
+    }
+    if(pending() >= max) {
+      cs.sout.flush();
+      await(max - 1);
+    }
+  }
+
+  /**
+   * Registers a request that has been sent.
+   * @param result indicates if a result will be returned
+   */
+  private synchronized void sent(final boolean result) {
+    pending.add(result);
+    notifyAll();
+  }
+
+  /**
+   * Waits until the number of pending requests does not exceed the specified number.
+   * @param n number of pending requests
+   * @throws IOException I/O exception
+   */
+  private synchronized void await(final int n) throws IOException {
+    try {
+      while(pending.size() > n && failure == null) wait();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    }
+    if(failure != null) throw failure;
+  }
+
+  /**
+   * Reads the responses of all pending requests until the pipeline is closed.
+   * This function is called by the reader thread.
+   */
+  private void read() {
+    try {
+      while(true) {
+        final boolean result;
+        synchronized(this) {
+          while(pending.isEmpty() && !closed) wait();
+          if(pending.isEmpty()) return;
+          result = pending.peek();
+        }
+        final BufferInput bi = cs.sin;
+        byte[] res = null;
+        if(result) {
+          final ArrayOutput ao = new ArrayOutput();
+          ClientSession.receive(bi, ao);
+          res = ao.finish();
+        }
+        final String inf = bi.readString();
+        final boolean ok = ClientSession.ok(bi);
+        synchronized(this) {
+          pending.poll();
+          responses.add(result ? res : Token.token(inf));
+          results.add(result);
+          info = inf;
+          if(!ok && error == null) error = inf;
+          notifyAll();
+        }
+      }
+    } catch(final IOException ex) {
+      synchronized(this) {
+        failure = ex;
+        notifyAll();
+      }
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+  }
+}
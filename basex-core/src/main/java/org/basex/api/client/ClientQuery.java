@@ -26,6 +26,10 @@ public class ClientQuery extends Query {
   final ClientSession cs;
   /** Query id. */
   final String id;
+  /** Maximum number of items per chunk (see {@link #fetchSize(int, long)}). */
+  private int items;
+  /** Maximum number of bytes per chunk (see {@link #fetchSize(int, long)}). */
+  private long bytes;
 
   /**
    * Standard constructor.
@@ -41,6 +45,24 @@ public class ClientQuery extends Query {
     id = session.exec(ServerCmd.QUERY, query, null);
   }
 
+  /**
+   * Retrieves the results of {@link #more()} and {@link #next()} in chunks instead of caching the
+   * complete result. The server keeps the result iterator open between the requests, and the
+   * next chunk is only requested when all items of the current chunk have been consumed.
+   * This way, the memory consumption is bounded on both sides, and results are only computed
+   * as fast as the client retrieves them. Please note that the databases accessed by the query
+   * are only locked while a chunk is generated: updates of other clients may become visible
+   * between two chunks. Chunked retrieval is only supported by servers that know the
+   * {@link ServerCmd#FETCH} command.
+   * @param max maximum number of items per chunk ({@code 0}: no limit)
+   * @param size maximum number of bytes per chunk ({@code 0}: no limit). An item will never be
+   *   split; the limit is checked after each item
+   */
+  public void fetchSize(final int max, final long size) {
+    items = Math.max(0, max);
+    bytes = Math.max(0, size);
+  }
+
   @Override
   public String info() throws IOException {
     return cs.exec(ServerCmd.INFO, id, null);
@@ -108,13 +130,27 @@ public class ClientQuery extends Query {
   }
 
   @Override
-  @SuppressWarnings("resource")
   protected void cache() throws IOException {
-    cs.sout.write(ServerCmd.RESULTS.code);
-    cs.send(id);
+    cs.sync();
+    if(items > 0 || bytes > 0) {
+      cs.sout.write(ServerCmd.FETCH.code);
+      cs.send(id);
+      cs.send(Integer.toString(items));
+      cs.send(Long.toString(bytes));
+    } else {
+      cs.sout.write(ServerCmd.RESULTS.code);
+      cs.send(id);
+    }
     cs.sout.flush();
-    final BufferInput bi = new BufferInput(cs.sin);
-    cache(bi);
-    if(!ClientSession.ok(bi)) throw new BaseXException(bi.readString());
+    cache(cs.sin);
+    if(!ClientSession.ok(cs.sin)) throw new BaseXException(cs.sin.readString());
+  }
+
+  @Override
+  protected boolean fetch() throws IOException {
+    if(items == 0 && bytes == 0) return false;
+    // an empty chunk indicates that the result has been exhausted
+    cache();
+    return !cache.isEmpty();
   }
 }
@@ -1,10 +1,14 @@
 package org.basex.api.client;
 
+import static org.basex.core.Text.*;
+
 import java.io.*;
 import java.net.*;
+import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.parse.Commands.Cmd;
+import org.basex.io.*;
 import org.basex.io.in.*;
 import org.basex.io.out.*;
 import org.basex.server.*;
@@ -30,9 +34,11 @@ import org.basex.util.*;
  */
 public class ClientSession extends Session {
   /** Server output (buffered). */
-  final PrintOutput sout;
-  /** Server input. */
-  final InputStream sin;
+  PrintOutput sout;
+  /** Server input (buffered). */
+  BufferInput sin;
+  /** Pipeline with pending requests ({@code null} if no pipeline is open). */
+  ClientPipeline pipeline;
 
   /** Socket reference. */
   private final Socket socket;
@@ -62,6 +68,7 @@ public class ClientSession extends Session {
       final OutputStream output) throws IOException {
     this(context.soptions.get(StaticOptions.HOST),
          context.soptions.get(StaticOptions.PORT), username, password, output);
+    if(context.soptions.get(StaticOptions.COMPRESSION)) compress();
   }
 
   /**
@@ -99,11 +106,11 @@ public class ClientSession extends Session {
     } catch(final IllegalArgumentException ex) {
       throw new BaseXException(ex);
     }
-    sin = socket.getInputStream();
+    // a single buffer is used, because it may contain the responses of several requests
+    sin = new BufferInput(socket.getInputStream());
 
     // receive server response
-    final BufferInput bi = new BufferInput(sin);
-    final String[] response = Strings.split(bi.readString(), ':');
+    final String[] response = Strings.split(sin.readString(), ':');
     final String code, nonce;
     if(response.length > 1) {
       // support for digest authentication
@@ -122,27 +129,27 @@ public class ClientSession extends Session {
     sout.flush();
 
     // receive success flag
-    if(!ok(bi)) throw new LoginException();
+    if(!ok(sin)) throw new LoginException();
   }
 
   @Override
   public void create(final String name, final InputStream input) throws IOException {
-    send(ServerCmd.CREATE, input, name);
+    exec(ServerCmd.CREATE, input, name);
   }
 
   @Override
   public void add(final String path, final InputStream input) throws IOException {
-    send(ServerCmd.ADD, input, path);
+    exec(ServerCmd.ADD, input, path);
   }
 
   @Override
   public void replace(final String path, final InputStream input) throws IOException {
-    send(ServerCmd.REPLACE, input, path);
+    exec(ServerCmd.REPLACE, input, path);
   }
 
   @Override
   public void store(final String path, final InputStream input) throws IOException {
-    send(ServerCmd.STORE, input, path);
+    exec(ServerCmd.STORE, input, path);
   }
 
   @Override
@@ -150,13 +157,60 @@ public class ClientSession extends Session {
     return new ClientQuery(query, this, out);
   }
 
+  /**
+   * Compresses all subsequent data that is exchanged with the server.
+   * Older servers do not support compression; in this case, the data remains uncompressed.
+   * @return {@code true} if compression has been enabled
+   * @throws IOException I/O exception
+   */
+  public boolean compress() throws IOException {
+    sync();
+    sout.write(ServerCmd.COMPRESS.code);
+    send(ServerCmd.DEFLATE);
+    sout.flush();
+    receive(sin, new NullOutput());
+    info = sin.readString();
+    if(!ok(sin)) return false;
+
+    sout = PrintOutput.get(new BufferedOutputStream(new DeflaterOutputStream(
+        socket.getOutputStream(), new Deflater(Deflater.BEST_SPEED), IO.BLOCKSIZE, true),
+        IO.BLOCKSIZE));
+    sin = new BufferInput(new InflaterInput(socket.getInputStream()));
+    return true;
+  }
+
+  /**
+   * Returns a pipeline, which sends multiple requests to the server without waiting for the
+   * responses in between. The pipeline must be closed before another pipeline can be opened.
+   * @return pipeline
+   * @throws IOException I/O exception
+   */
+  public ClientPipeline pipeline() throws IOException {
+    return pipeline(256);
+  }
+
+  /**
+   * Returns a pipeline, which sends multiple requests to the server without waiting for the
+   * responses in between. The pipeline must be closed before another pipeline can be opened.
+   * @param max maximum number of pending requests
+   * @return pipeline
+   * @throws IOException I/O exception
+   */
+  public ClientPipeline pipeline(final int max) throws IOException {
+    if(pipeline != null) throw new BaseXException(PIPELINE_NOT_CLOSED);
+    pipeline = new ClientPipeline(this, max);
+    return pipeline;
+  }
+
   @Override
   public synchronized void close() throws IOException {
+    if(pipeline != null) pipeline.stop();
     socket.close();
   }
 
   @Override
   protected void execute(final String command, final OutputStream output) throws IOException {
+    sync();
     send(command);
     sout.flush();
     receive(output);
@@ -168,29 +222,22 @@ public class ClientSession extends Session {
   }
 
   /**
-   * Sends the specified stream to the server.
-   * @param input input stream
+   * Receives the info string.
+   * @param output output stream to send result to. If {@code null}, no result will be requested
    * @throws IOException I/O exception
    */
-  private void send(final InputStream input) throws IOException {
-    final EncodingOutput eo = new EncodingOutput(sout);
-    for(int b; (b = input.read()) != -1;) eo.write(b);
-    sout.write(0);
-    sout.flush();
-    receive(null);
+  private void receive(final OutputStream output) throws IOException {
+    if(output != null) receive(sin, output);
+    info = sin.readString();
+    if(!ok(sin)) throw new BaseXException(info);
   }
 
   /**
-   * Receives the info string.
-   * @param output output stream to send result to. If {@code null}, no result will be requested
+   * Reads the responses of the pending requests of an open pipeline.
    * @throws IOException I/O exception
    */
-  @SuppressWarnings("resource")
-  private void receive(final OutputStream output) throws IOException {
-    final BufferInput bi = new BufferInput(sin);
-    if(output != null) receive(bi, output);
-    info = bi.readString();
-    if(!ok(bi)) throw new BaseXException(info);
+  void sync() throws IOException {
+    if(pipeline != null) pipeline.receive();
   }
 
   /**
@@ -204,18 +251,37 @@ public class ClientSession extends Session {
   }
 
   /**
-   * Sends the specified command, string arguments and input.
+   * Sends the specified command, string argument and input and receives the info string.
+   * @param command command
+   * @param input input stream
+   * @param arg string argument
+   * @throws IOException I/O exception
+   */
+  private void exec(final ServerCmd command, final InputStream input, final String arg)
+      throws IOException {
+
+    sync();
+    send(command, input, arg);
+    sout.flush();
+    receive(null);
+  }
+
+  /**
+   * Sends the specified command, string argument and input.
    * @param command command
    * @param input input stream
-   * @param args string arguments
+   * @param arg string argument
    * @throws IOException I/O exception
    */
-  private void send(final ServerCmd command, final InputStream input, final String... args)
+  void send(final ServerCmd command, final InputStream input, final String arg)
       throws IOException {
 
     sout.write(command.code);
-    for(final String arg : args) send(arg);
-    send(input);
+    send(arg);
+    final EncodingOutput eo = new EncodingOutput(sout);
+    final byte[] buffer = new byte[IO.BLOCKSIZE];
+    for(int r; (r = input.read(buffer)) != -1;) eo.write(buffer, 0, r);
+    sout.write(0);
   }
 
   /**
@@ -226,7 +292,8 @@ public class ClientSession extends Session {
    */
   static void receive(final BufferInput input, final OutputStream output) throws IOException {
     final DecodingInput di = new DecodingInput(input);
-    for(int b; (b = di.read()) != -1;) output.write(b);
+    final byte[] buffer = new byte[IO.BLOCKSIZE];
+    for(int r; (r = di.read(buffer, 0, buffer.length)) != -1;) output.write(buffer, 0, r);
   }
 
   /**
@@ -247,17 +314,16 @@ public class ClientSession extends Session {
    * @return string
    * @throws IOException I/O exception
    */
-  @SuppressWarnings("resource")
   String exec(final ServerCmd command, final String arg, final OutputStream output)
       throws IOException {
 
+    sync();
     final OutputStream o = output == null ? new ArrayOutput() : output;
     sout.write(command.code);
     send(arg);
     sout.flush();
-    final BufferInput bi = new BufferInput(sin);
-    receive(bi, o);
-    if(!ok(bi)) throw new BaseXException(bi.readString());
+    receive(sin, o);
+    if(!ok(sin)) throw new BaseXException(sin.readString());
     return o.toString();
   }
 }
@@ -74,7 +74,7 @@ public abstract class Query implements Closeable {
    */
   public boolean more() throws IOException {
     if(cache == null) cache();
-    if(pos < cache.size()) return true;
+    if(pos < cache.size() || pos > 0 && fetch()) return true;
     cache = null;
     types = null;
     return false;
@@ -86,6 +86,17 @@ public abstract class Query implements Closeable {
    */
   protected abstract void cache() throws IOException;
 
+  /**
+   * Caches the next chunk of the query result. This function is called if all cached items have
+   * been returned. By default, {@link #cache()} caches the complete result, and no more items
+   * will be cached.
+   * @return {@code true} if new items have been cached
+   * @throws IOException I/O exception
+   */
+  protected boolean fetch() throws IOException {
+    return false;
+  }
+
   /**
    * Returns the next item of the query.
    * @return item string or {@code null}
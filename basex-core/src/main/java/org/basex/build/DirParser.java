@@ -4,12 +4,14 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.MainOptions.MainParser;
 import org.basex.core.cmd.*;
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
 import org.basex.util.*;
@@ -19,12 +21,18 @@ import org.basex.util.list.*;
  * This class recursively scans files and directories and parses all
  * relevant files.
  *
+ * If {@link MainOptions#PARALLELPARSE} is greater than one, the files of a directory
+ * or archive are parsed in parallel to main-memory instances. The parsed documents are
+ * added to the builder in the original order of the files.
+ *
  * @author BaseX Team 2005-15, BSD License
  * @author Christian Gruen
  */
 public final class DirParser extends Parser {
   /** Number of skipped files to log. */
   private static final int SKIPLOG = 10;
+  /** Maximum size of files that will be parsed in parallel. */
+  private static final long MAXPARALLEL = 1 << 24;
   /** Skipped files. */
   private final StringList skipped = new StringList();
   /** File pattern. */
@@ -42,6 +50,12 @@ public final class DirParser extends Parser {
   private final boolean dtd;
   /** Raw parsing. */
   private final boolean rawParser;
+  /** Number of parser threads. */
+  private final int threads;
+  /** Documents that are parsed in parallel, in the order of the input files. */
+  private final ArrayDeque<Parsed> parsed = new ArrayDeque<>();
+  /** Thread pool for parsing documents in parallel ({@code null} if files are parsed serially). */
+  private ExecutorService pool;
   /** Database path for storing binary files. */
   private IOFile rawPath;
 
@@ -67,6 +81,7 @@ public final class DirParser extends Parser {
     addRaw = options.get(MainOptions.ADDRAW);
     dtd = options.get(MainOptions.DTD);
     rawParser = options.get(MainOptions.PARSER) == MainParser.RAW;
+    threads = options.get(MainOptions.PARALLELPARSE);
     filter = !source.isDir() && !source.isArchive() ? null :
       Pattern.compile(IOFile.regex(options.get(MainOptions.CREATEFILTER)));
   }
@@ -86,7 +101,19 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.filesize = 0;
     build.meta.original = source.path();
-    parse(build, source);
+    if(threads > 1 && !rawParser && (source.isDir() || source.isArchive())) {
+      pool = Executors.newFixedThreadPool(threads);
+    }
+    try {
+      parse(build, source);
+      while(!parsed.isEmpty()) add(build);
+    } finally {
+      if(pool != null) {
+        pool.shutdownNow();
+        pool = null;
+        parsed.clear();
+      }
+    }
   }
 
   /**
@@ -179,7 +206,11 @@ public final class DirParser extends Parser {
         if(rawPath != null) {
           Store.store(source.inputSource(), new IOFile(rawPath, targ + name));
         }
+      } else if(pool != null && source.length() <= MAXPARALLEL && cache()) {
+        parallel(b, targ);
       } else {
+        // add documents that have been parsed in parallel
+        while(!parsed.isEmpty()) add(b);
         // store input as XML
         boolean ok = true;
         IO in = source;
@@ -212,6 +243,129 @@ public final class DirParser extends Parser {
     }
   }
 
+  /**
+   * Caches the contents of an archive entry, which is read from a shared stream.
+   * As the size of an entry may be unknown, at most {@link #MAXPARALLEL} bytes are cached.
+   * If the entry is larger, the source is replaced with the cached bytes and the remaining
+   * stream.
+   * @return {@code true} if the source can be parsed in parallel
+   * @throws IOException I/O exception
+   */
+  private boolean cache() throws IOException {
+    if(!(source instanceof IOStream)) return true;
+
+    final InputStream is = source.inputStream();
+    final ByteList bl = new ByteList();
+    final byte[] buffer = new byte[IO.BLOCKSIZE];
+    for(int r; bl.size() <= MAXPARALLEL && (r = is.read(buffer)) != -1;) bl.add(buffer, 0, r);
+    final byte[] cached = bl.finish();
+    if(cached.length <= MAXPARALLEL) {
+      source = new IOContent(cached, source.path());
+      return true;
+    }
+    source = new IOStream(new SequenceInputStream(new ArrayInput(cached), is), source.path());
+    return false;
+  }
+
+  /**
+   * Parses the current source in parallel.
+   * @param builder builder instance
+   * @param targ target path
+   * @throws IOException I/O exception
+   */
+  private void parallel(final Builder builder, final String targ) throws IOException {
+    final IO input = source;
+    parsed.add(new Parsed(source.path(), pool.submit(new Callable<MemData>() {
+      @Override
+      public MemData call() throws IOException {
+        return MemBuilder.build("", Parser.singleParser(input, options, targ));
+      }
+    })));
+    // limit number of cached documents
+    if(parsed.size() > threads << 1) add(builder);
+  }
+
+  /**
+   * Adds the next document that has been parsed in parallel.
+   * @param builder builder instance
+   * @throws IOException I/O exception
+   */
+  private void add(final Builder builder) throws IOException {
+    final Parsed p = parsed.poll();
+    final MemData data;
+    try {
+      data = p.data.get();
+    } catch(final InterruptedException ex) {
+      throw new ProcException();
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof IOException) {
+        if(!skipCorrupt) throw (IOException) th;
+        Util.debug(th);
+        skipped.add(p.path);
+        return;
+      }
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw (Error) th;
+    }
+    builder.checkStop();
+    copy(data, builder);
+    // dump debug data
+    if(Prop.debug && (++c & 0x3FF) == 0) Util.err(";");
+  }
+
+  /**
+   * Sends the nodes of a parsed document to the builder.
+   * @param data parsed document
+   * @param builder builder instance
+   * @throws IOException I/O exception
+   */
+  private static void copy(final Data data, final Builder builder) throws IOException {
+    final Atts atts = new Atts();
+    // pre values after the descendants and kinds of all opened nodes
+    final IntList ends = new IntList(), kinds = new IntList();
+    final int size = data.meta.size;
+    int pre = 0;
+    while(true) {
+      while(!ends.isEmpty() && ends.peek() == pre) {
+        ends.pop();
+        if(kinds.pop() == Data.DOC) builder.closeDoc();
+        else builder.closeElem();
+      }
+      if(pre == size) break;
+
+      final int kind = data.kind(pre);
+      if(kind == Data.DOC) {
+        builder.openDoc(data.text(pre, true));
+        ends.push(pre + data.size(pre, kind));
+        kinds.push(kind);
+        pre++;
+      } else if(kind == Data.ELEM) {
+        final int as = data.attSize(pre, kind), s = data.size(pre, kind);
+        atts.clear();
+        for(int a = pre + 1; a < pre + as; a++) {
+          atts.add(data.name(a, Data.ATTR), data.text(a, false));
+        }
+        final byte[] name = data.name(pre, kind);
+        if(s == as) {
+          builder.emptyElem(name, atts, data.ns(pre));
+        } else {
+          builder.openElem(name, atts, data.ns(pre));
+          ends.push(pre + s);
+          kinds.push(kind);
+        }
+        pre += as;
+      } else {
+        final byte[] value = data.text(pre, true);
+        if(kind == Data.TEXT) builder.text(value);
+        else if(kind == Data.COMM) builder.comment(value);
+        else builder.pi(value);
+        pre++;
+      }
+    }
+    builder.encoding(data.meta.encoding);
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
@@ -245,4 +399,24 @@ public final class DirParser extends Parser {
   public void close() throws IOException {
     if(parser != null) parser.close();
   }
+
+  /**
+   * Document that is parsed in parallel.
+   */
+  private static final class Parsed {
+    /** Path to the input. */
+    final String path;
+    /** Parsed document. */
+    final Future<MemData> data;
+
+    /**
+     * Constructor.
+     * @param path path to the input
+     * @param data parsed document
+     */
+    Parsed(final String path, final Future<MemData> data) {
+      this.path = path;
+      this.data = data;
+    }
+  }
 }
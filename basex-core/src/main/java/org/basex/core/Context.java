@@ -4,7 +4,9 @@ import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.random.*;
+import org.basex.query.*;
 import org.basex.query.util.pkg.*;
+import org.basex.query.util.regex.*;
 import org.basex.query.value.seq.*;
 import org.basex.server.*;
 import org.basex.util.*;
@@ -39,6 +41,10 @@ public final class Context {
   public final Databases databases;
   /** Log. */
   public final Log log;
+  /** Cached query plans. */
+  public final QueryPlans plans;
+  /** Cached regular expressions. */
+  public final RegExCache regexes;
 
   /** Client listener. Set to {@code null} in standalone/server mode. */
   public ClientListener listener;
@@ -91,6 +97,8 @@ public final class Context {
     users = ctx.users;
     repo = ctx.repo;
     log = ctx.log;
+    plans = ctx.plans;
+    regexes = ctx.regexes;
   }
 
   /**
@@ -110,7 +118,7 @@ public final class Context {
    */
   private Context(final StaticOptions soptions) {
     this.soptions = soptions;
-    datas = new Datas();
+    datas = new Datas(soptions);
     sessions = new Sessions();
     blocker = new ClientBlocker();
     databases = new Databases(soptions);
@@ -119,6 +127,8 @@ public final class Context {
     users = new Users(soptions);
     repo = new Repo(soptions);
     log = new Log(soptions);
+    plans = new QueryPlans(soptions);
+    regexes = new RegExCache(soptions);
     user = users.get(UserText.ADMIN);
   }
 
@@ -2,12 +2,15 @@ package org.basex.core;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
 
 import org.basex.data.*;
 import org.basex.util.*;
 
 /**
- * This class organizes pins of currently opened databases.
+ * This class organizes pins of currently opened databases. If {@link StaticOptions#KEEPWARM}
+ * is enabled, databases that are not pinned anymore will be kept open for the specified time,
+ * so that they need not be opened again by subsequent requests.
  *
  * @author BaseX Team 2005-15, BSD License
  * @author Christian Gruen
@@ -15,6 +18,20 @@ import org.basex.util.*;
 public final class Datas {
   /** List of data references. */
   private final IdentityHashMap<Data, Integer> list = new IdentityHashMap<>();
+  /** Databases that are not pinned anymore, and the time of their last use. */
+  private final LinkedHashMap<Data, Long> idle = new LinkedHashMap<>();
+  /** Static options. */
+  private final StaticOptions sopts;
+  /** Scheduled closing of unpinned databases ({@code null} if no database is kept open). */
+  private ScheduledFuture<?> expiry;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public Datas(final StaticOptions sopts) {
+    this.sopts = sopts;
+  }
 
   /**
    * Pins and returns a database with the specified name, or returns {@code null}.
@@ -23,10 +40,18 @@ public final class Datas {
    */
   public synchronized Data pin(final String name) {
     final Entry<Data, Integer> entry = get(name);
-    if(entry == null) return null;
-
-    final Data data = entry.getKey();
-    list.put(data, entry.getValue() + 1);
+    if(entry != null) {
+      final Data data = entry.getKey();
+      list.put(data, entry.getValue() + 1);
+      return data;
+    }
+    // reuse database that has been kept open
+    final Data data = idle(name);
+    if(data != null) {
+      idle.remove(data);
+      list.put(data, 1);
+      schedule();
+    }
     return data;
   }
 
@@ -37,6 +62,7 @@ public final class Datas {
   public synchronized void pin(final Data data) {
     final Integer pins = list.get(data);
     list.put(data, pins == null ? 1 : pins + 1);
+    if(idle.remove(data) != null) schedule();
   }
 
   /**
@@ -51,8 +77,19 @@ public final class Datas {
     data.unpin();
     final int p = pins;
     if(p == 1) {
-      data.close();
       list.remove(data);
+      if(warm()) {
+        idle.put(data, System.currentTimeMillis());
+        // close least recently used databases
+        final Iterator<Data> iter = idle.keySet().iterator();
+        while(idle.size() > sopts.get(StaticOptions.KEEPWARMMAX)) {
+          iter.next().close();
+          iter.remove();
+        }
+        schedule();
+      } else {
+        data.close();
+      }
     } else {
       list.put(data, p - 1);
     }
@@ -60,11 +97,20 @@ public final class Datas {
 
   /**
    * Checks if the database with the specified name is pinned.
+   * If the database is not pinned anymore, but still kept open, it will be closed,
+   * as the caller of this function will usually modify or delete the database files.
    * @param name name of the database
    * @return result of check
    */
   synchronized boolean pinned(final String name) {
-    return get(name) != null;
+    if(get(name) != null) return true;
+    final Data data = idle(name);
+    if(data != null) {
+      idle.remove(data);
+      data.close();
+      schedule();
+    }
+    return false;
   }
 
   /**
@@ -84,6 +130,78 @@ public final class Datas {
   synchronized void close() {
     for(final Data data : list.keySet()) data.close();
     list.clear();
+    for(final Data data : idle.keySet()) data.close();
+    idle.clear();
+    schedule();
+  }
+
+  /**
+   * Checks if a database that is not pinned anymore will be kept open.
+   * Databases will be closed if the memory consumption is high.
+   * @return result of check
+   */
+  private boolean warm() {
+    if(keep() <= 0 || sopts.get(StaticOptions.KEEPWARMMAX) <= 0) return false;
+    final Runtime rt = Runtime.getRuntime();
+    return rt.totalMemory() - rt.freeMemory() < rt.maxMemory() / 4 * 3;
+  }
+
+  /**
+   * Schedules the closing of the least recently used database, or cancels the scheduled task
+   * if no databases are kept open anymore.
+   */
+  private void schedule() {
+    if(idle.isEmpty()) {
+      if(expiry != null) {
+        expiry.cancel(false);
+        expiry = null;
+      }
+    } else if(expiry == null) {
+      // entries are ordered by the time of their last use
+      final long time = idle.values().iterator().next() + keep();
+      expiry = Scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          expire();
+        }
+      }, Math.max(0, time - System.currentTimeMillis()));
+    }
+  }
+
+  /**
+   * Closes databases that have not been used for the specified time.
+   */
+  private synchronized void expire() {
+    expiry = null;
+    final long time = System.currentTimeMillis() - keep();
+    final Iterator<Entry<Data, Long>> iter = idle.entrySet().iterator();
+    while(iter.hasNext()) {
+      final Entry<Data, Long> entry = iter.next();
+      if(entry.getValue() > time) break;
+      entry.getKey().close();
+      iter.remove();
+    }
+    schedule();
+  }
+
+  /**
+   * Returns the time for keeping unpinned databases open.
+   * @return time (ms)
+   */
+  private long keep() {
+    return sopts.get(StaticOptions.KEEPWARM) * 1000L;
+  }
+
+  /**
+   * Returns a database with the specified name that is not pinned anymore, but kept open.
+   * @param name name of the database
+   * @return data reference, or {@code null}
+   */
+  private Data idle(final String name) {
+    for(final Data data : idle.keySet()) {
+      if(eq(data, name)) return data;
+    }
+    return null;
   }
 
   /**
@@ -93,9 +211,19 @@ public final class Datas {
    */
   private Entry<Data, Integer> get(final String name) {
     for(final Entry<Data, Integer> entry : list.entrySet()) {
-      final String db = entry.getKey().meta.name;
-      if(Prop.CASE ? db.equals(name) : db.equalsIgnoreCase(name)) return entry;
+      if(eq(entry.getKey(), name)) return entry;
     }
     return null;
   }
+
+  /**
+   * Checks if the specified database has the specified name.
+   * @param data data reference
+   * @param name name of the database
+   * @return result of check
+   */
+  private static boolean eq(final Data data, final String name) {
+    final String db = data.meta.name;
+    return Prop.CASE ? db.equals(name) : db.equalsIgnoreCase(name);
+  }
 }
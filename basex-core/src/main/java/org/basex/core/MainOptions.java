@@ -68,6 +68,8 @@ public final class MainOptions extends Options {
 
   /** Cache new documents before adding them to a database. */
   public static final BooleanOption ADDCACHE = new BooleanOption("ADDCACHE", false);
+  /** Number of threads for parsing the files of a directory or archive. */
+  public static final NumberOption PARALLELPARSE = new NumberOption("PARALLELPARSE", 1);
 
   // Indexing
 
@@ -82,11 +84,15 @@ public final class MainOptions extends Options {
   public static final NumberOption INDEXSPLITSIZE = new NumberOption("INDEXSPLITSIZE", 0);
   /** Maximum number of fulltext index entries to keep in memory during index creation. */
   public static final NumberOption FTINDEXSPLITSIZE = new NumberOption("FTINDEXSPLITSIZE", 0);
+  /** Maximum number of threads for building index structures (0: number of processors). */
+  public static final NumberOption PARALLELINDEX = new NumberOption("PARALLELINDEX", 0);
 
   /** Maximum length of index entries. */
   public static final NumberOption MAXLEN = new NumberOption("MAXLEN", 96);
   /** Maximum number of name categories. */
   public static final NumberOption MAXCATS = new NumberOption("MAXCATS", 100);
+  /** Maximum size of the cache for text and attribute index entries (in kilobytes). */
+  public static final NumberOption INDEXCACHE = new NumberOption("INDEXCACHE", 8192);
   /** Flag for activating incremental index structures. */
   public static final BooleanOption UPDINDEX = new BooleanOption("UPDINDEX", false);
   /** Flag for automatic index updates. */
@@ -119,6 +125,12 @@ public final class MainOptions extends Options {
   public static final NumberOption INLINELIMIT = new NumberOption("INLINELIMIT", 100);
   /** Flag for tail-call optimization. */
   public static final NumberOption TAILCALLS = new NumberOption("TAILCALLS", 256);
+  /** Maximum number of threads for scanning large database ranges (0: number of processors). */
+  public static final NumberOption PARALLELSCAN = new NumberOption("PARALLELSCAN", 1);
+  /** Evaluate copy/modify expressions on database nodes without copying them first. */
+  public static final BooleanOption LAZYCOPY = new BooleanOption("LAZYCOPY", true);
+  /** Main memory (MB) for sorting the tuples of order by clauses; unlimited if set to 0. */
+  public static final NumberOption SORTMEMORY = new NumberOption("SORTMEMORY", 0);
   /** Favor global database when opening resources. */
   public static final BooleanOption DEFAULTDB = new BooleanOption("DEFAULTDB", false);
   /** Forces database creation for unknown documents. */
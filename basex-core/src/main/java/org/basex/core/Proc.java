@@ -2,9 +2,10 @@ package org.basex.core;
 
 import static org.basex.core.Text.*;
 
-import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.locks.*;
+import org.basex.util.*;
 
 /**
  * This class is implemented by all kinds of processes.
@@ -23,9 +24,9 @@ public abstract class Proc {
   /** Indicates if a process is currently registered. */
   boolean registered;
   /** Stopped flag. */
-  private boolean stopped;
-  /** Timer. */
-  private Timer timer;
+  private volatile boolean stopped;
+  /** Timeout task. */
+  private ScheduledFuture<?> timeout;
   /** Sub process. */
   private Proc sub;
 
@@ -104,26 +105,26 @@ public abstract class Proc {
   }
 
   /**
-   * Starts a timeout thread.
+   * Starts a timeout.
    * @param ms milliseconds to wait; deactivated if set to 0
    */
   public final void startTimeout(final long ms) {
     if(ms == 0) return;
 
-    timer = new Timer(true);
-    timer.schedule(new TimerTask() {
+    timeout = Scheduler.schedule(new Runnable() {
       @Override
       public void run() { stop(); }
     }, ms);
   }
 
   /**
-   * Stops the timeout thread.
+   * Stops the timeout.
    */
   public final void stopTimeout() {
-    if(timer != null) {
-      timer.cancel();
-      timer = null;
+    final ScheduledFuture<?> to = timeout;
+    if(to != null) {
+      to.cancel(false);
+      timeout = null;
     }
   }
 
@@ -5,6 +5,7 @@ import static org.basex.util.Prop.*;
 import java.util.*;
 
 import org.basex.io.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -36,6 +37,10 @@ public final class StaticOptions extends Options {
   public static final BooleanOption LANGKEYS = new BooleanOption("LANGKEYS", false);
   /** Applied locking algorithm: local (database) vs. global (process) locking. */
   public static final BooleanOption GLOBALLOCK = new BooleanOption("GLOBALLOCK", false);
+  /** Maximum size of buffered database pages (in kilobytes), shared by all databases. */
+  public static final NumberOption BUFFERSIZE = new NumberOption("BUFFERSIZE", 32768);
+  /** Memory-map database files for reading (until the first update). */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -50,6 +55,8 @@ public final class StaticOptions extends Options {
   public static final StringOption USER = new StringOption("USER", "");
   /** Default password. */
   public static final StringOption PASSWORD = new StringOption("PASSWORD", "");
+  /** Client: compress the data that is exchanged with the server. */
+  public static final BooleanOption COMPRESSION = new BooleanOption("COMPRESSION", false);
   /** Server: host, used for binding the server. Empty string for wildcard.*/
   public static final StringOption SERVERHOST = new StringOption("SERVERHOST", "");
   /** Server: proxy host (default: ignored). */
@@ -65,8 +72,18 @@ public final class StaticOptions extends Options {
   public static final NumberOption TIMEOUT = new NumberOption("TIMEOUT", 30);
   /** Keep alive time of clients; deactivated if set to 0. */
   public static final NumberOption KEEPALIVE = new NumberOption("KEEPALIVE", 600);
+  /** Number of threads that process client requests; one thread per client if set to 0. */
+  public static final NumberOption SERVERTHREADS = new NumberOption("SERVERTHREADS", 0);
   /** Defines the number of parallel readers. */
   public static final NumberOption PARALLEL = new NumberOption("PARALLEL", 8);
+  /** Maximum number of cached query plans; deactivated if set to 0. */
+  public static final NumberOption PLANCACHE = new NumberOption("PLANCACHE", 1000);
+  /** Maximum number of cached regular expressions; deactivated if set to 0. */
+  public static final NumberOption REGEXCACHE = new NumberOption("REGEXCACHE", 1000);
+  /** Time (seconds) for keeping unused databases open; deactivated if set to 0. */
+  public static final NumberOption KEEPWARM = new NumberOption("KEEPWARM", 0);
+  /** Maximum number of databases that are kept open without being used. */
+  public static final NumberOption KEEPWARMMAX = new NumberOption("KEEPWARMMAX", 16);
   /** Logging flag. */
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
@@ -116,6 +133,8 @@ public final class StaticOptions extends Options {
     language = get(LANG);
     langkeys = get(LANGKEYS);
     debug = get(DEBUG);
+    Buffers.max(get(BUFFERSIZE));
+    Mapping.enable(get(MMAP));
     final String ph = get(PROXYHOST);
     if(!ph.isEmpty()) {
       Prop.setSystem("http.proxyHost", ph);
@@ -171,6 +171,18 @@ public interface Text {
   String LI_SIZE = LI + "Size: ";
   /** Index info. */
   String LI_ENTRIES = LI + "Entries: ";
+  /** Index info. */
+  String LI_CACHE = LI + "Cache: ";
+  /** Index info. */
+  String CACHE_ENTRIES = "entries";
+  /** Index info. */
+  String CACHE_HITS = "hits";
+  /** Index info. */
+  String CACHE_EVICTIONS = "evictions";
+  /** Query plan cache. */
+  String PLAN_CACHE = "Query Plan Cache";
+  /** Regular expression cache info. */
+  String CACHED_PATTERNS_X_X_X_X = "% of % patterns, % hits, % misses";
 
   /** Index info. */
   String HASH = "Hash";
@@ -246,10 +258,16 @@ public interface Text {
   String SRV_RUNNING = lang("srv_running");
   /** Unknown host. */
   String UNKNOWN_HOST_X = lang("unknown_host_x");
+  /** Unknown compression method. */
+  String UNKNOWN_COMPRESSION_X = "Unknown compression: %";
   /** Timeout exceeded. */
   String TIMEOUT_EXCEEDED = lang("timeout_exceeded");
   /** Connection error. */
   String CONNECTION_ERROR = lang("connection_error");
+  /** Pipeline has been closed. */
+  String PIPELINE_CLOSED = lang("pipeline_closed");
+  /** Pipeline has not been closed. */
+  String PIPELINE_NOT_CLOSED = lang("pipeline_not_closed");
   /** Access denied. */
   String ACCESS_DENIED = lang("access_denied");
   /** User name. */
@@ -645,6 +663,8 @@ public interface Text {
   String RESULT = lang("result");
   /** Query info: plan. */
   String QUERY_PLAN = lang("query_plan");
+  /** Query info: index results. */
+  String INDEX_RESULTS = lang("index_results");
 
   /** "Query: ". */
   String QUERY_CC = lang("query") + COLS;
@@ -828,6 +848,8 @@ public interface Text {
   String GLOBAL_OPTIONS = lang("global_options");
   /** "Local Options". */
   String LOCAL_OPTIONS = lang("local_options");
+  /** "RegEx Cache". */
+  String REGEX_CACHE = lang("regex_cache");
 
   /** "(chopped)". */
   String CHOPPED = '(' + lang("chopped") + ") ";
@@ -18,6 +18,7 @@ import org.basex.query.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 
 /**
@@ -86,6 +87,7 @@ public abstract class AQuery extends Command {
               hits = result.size();
             } else {
               hits = 0;
+              qp.qc.serialize = true;
               final Iter ir = qp.iter();
               info.evaluating += p.time();
               for(Item it; (it = ir.next()) != null;) {
@@ -97,6 +99,7 @@ public abstract class AQuery extends Command {
           }
           qp.close();
           info.serializing += p.time();
+          if(r == 0) results();
         }
         // dump some query info
         out.flush();
@@ -259,17 +262,7 @@ public abstract class AQuery extends Command {
 
     // show dot plan
     try {
-      if(options.get(MainOptions.DOTPLAN)) {
-        final String path = options.get(MainOptions.QUERYPATH);
-        final String dot = path.isEmpty() ? "plan.dot" :
-            new IOFile(path).name().replaceAll("\\..*?$", ".dot");
-
-        try(final BufferOutput bo = new BufferOutput(dot)) {
-          try(final DOTSerializer d = new DOTSerializer(bo, options.get(MainOptions.DOTCOMPACT))) {
-            d.serialize(qp.plan());
-          }
-        }
-      }
+      if(options.get(MainOptions.DOTPLAN)) dot();
 
       // show XML plan
       if(options.get(MainOptions.XMLPLAN)) {
@@ -281,6 +274,49 @@ public abstract class AQuery extends Command {
     }
   }
 
+  /**
+   * Shows the actual number of results of index access expressions,
+   * which are counted during evaluation if a query plan is requested.
+   */
+  private void results() {
+    if(!options.get(MainOptions.COMPPLAN)) return;
+
+    try {
+      // update dot plan
+      if(options.get(MainOptions.DOTPLAN)) dot();
+
+      // show index access expressions
+      if(options.get(MainOptions.XMLPLAN)) {
+        final TokenBuilder tb = new TokenBuilder();
+        for(final ANode node : qp.plan().descendant()) {
+          if(node.attribute(QueryText.RESULTS) == null) continue;
+          final FElem elem = new FElem(node.qname());
+          for(final ANode attr : node.attributes()) elem.add(attr.qname(), attr.string());
+          tb.add(elem.serialize().toString()).add(NL);
+        }
+        if(!tb.isEmpty()) info(NL + INDEX_RESULTS + COL + NL + tb.toString().trim());
+      }
+    } catch(final Exception ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Writes the query plan to a dot file.
+   * @throws IOException I/O exception
+   */
+  private void dot() throws IOException {
+    final String path = options.get(MainOptions.QUERYPATH);
+    final String dot = path.isEmpty() ? "plan.dot" :
+        new IOFile(path).name().replaceAll("\\..*?$", ".dot");
+
+    try(final BufferOutput bo = new BufferOutput(dot)) {
+      try(final DOTSerializer d = new DOTSerializer(bo, options.get(MainOptions.DOTCOMPACT))) {
+        d.serialize(qp.plan());
+      }
+    }
+  }
+
   @Override
   public boolean updating(final Context ctx) {
     return args[0] != null && updating(ctx, args[0]);
@@ -47,6 +47,8 @@ public final class Info extends AInfo {
 
     final User user = context.user();
     info(tb, USED_MEM, Performance.getMemory());
+    info(tb, PLAN_CACHE, context.plans);
+    info(tb, REGEX_CACHE, context.regexes);
 
     if(user.has(Perm.ADMIN)) {
       final StaticOptions sopts = context.soptions;
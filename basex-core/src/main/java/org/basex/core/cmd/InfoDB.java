@@ -91,6 +91,7 @@ public final class InfoDB extends AInfo {
         info(tb, MainOptions.AUTOOPTIMIZE.name(), meta.autoopt);
         info(tb, MainOptions.MAXCATS.name(), meta.maxcats);
         info(tb, MainOptions.MAXLEN.name(), meta.maxlen);
+        info(tb, MainOptions.INDEXCACHE.name(), meta.indexcache);
       }
     }
     return tb.toString();
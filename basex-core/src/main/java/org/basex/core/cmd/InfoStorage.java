@@ -12,6 +12,7 @@ import org.basex.core.parse.Commands.Cmd;
 import org.basex.core.parse.Commands.CmdInfo;
 import org.basex.core.users.*;
 import org.basex.data.*;
+import org.basex.io.random.*;
 import org.basex.query.*;
 import org.basex.query.value.*;
 import org.basex.query.value.seq.*;
@@ -74,6 +75,7 @@ public final class InfoStorage extends AQuery {
       }
       out.print(table(data, ps, pe));
     }
+    if(data instanceof DiskData) out.print(buffers((DiskData) data));
     return true;
   }
 
@@ -102,6 +104,24 @@ public final class InfoStorage extends AQuery {
     return tb.finish();
   }
 
+  /**
+   * Returns statistics on the buffered pages of the specified database.
+   * @param data data reference
+   * @return info
+   */
+  private static byte[] buffers(final DiskData data) {
+    final TokenBuilder tb = new TokenBuilder(NL);
+    tb.add(BUFFERS).add(COLS).addInt(Buffers.allocated()).add('/').addInt(Buffers.max());
+    tb.add(NL);
+    final Buffers[] bm = data.buffers();
+    for(int b = 0; b < bm.length; b++) {
+      tb.add(LI).add(BUFFERFILES[b]).add(COLS).addInt(bm[b].size()).add(' ').add(BUFFERPAGES);
+      tb.add(", ").addLong(bm[b].hits()).add(' ').add(BUFFERHITS);
+      tb.add(", ").addLong(bm[b].misses()).add(' ').add(BUFFERMISSES).add(NL);
+    }
+    return tb.finish();
+  }
+
   /**
    * Writes the header for the 'table' command.
    * @return table
@@ -115,6 +115,7 @@ public final class OptimizeAll extends ACreate {
     options.set(MainOptions.AUTOOPTIMIZE, ometa.autoopt);
     options.set(MainOptions.MAXCATS,  ometa.maxcats);
     options.set(MainOptions.MAXLEN,   ometa.maxlen);
+    options.set(MainOptions.INDEXCACHE, ometa.indexcache);
     // adopt original full-text index options
     options.set(MainOptions.STEMMING,   ometa.stemming);
     options.set(MainOptions.CASESENS,   ometa.casesens);
@@ -12,7 +12,7 @@ public interface DataText {
   // META DATA ====================================================================================
 
   /** Database version; older version cannot open these instances. */
-  String STORAGE = "7.8";
+  String STORAGE = "8.2";
   /** Index version; older version cannot open indexes of these instances. */
   String ISTORAGE = "7.8";
 
@@ -60,6 +60,8 @@ public interface DataText {
   String DBMAXLEN = "MAXLEN";
   /** Maximum number of categories. */
   String DBMAXCATS = "MAXCATS";
+  /** Maximum size of the index cache. */
+  String DBINDEXCACHE = "INDEXCACHE";
   /** Up-to-date flag. */
   String DBUPTODATE = "UPTODATE";
   /** Last (highest) id. */
@@ -258,4 +260,15 @@ public interface DataText {
   byte[] TABLEURI = token("URI");
   /** Table kinds. */
   byte[][] TABLEKINDS = tokens("DOC ", "ELEM", "TEXT", "ATTR", "COMM", "PI  ");
+
+  /** Buffer statistics. */
+  String BUFFERS = "Buffers";
+  /** Buffered files. */
+  String[] BUFFERFILES = { "Table", "Texts", "Values" };
+  /** Buffered pages. */
+  String BUFFERPAGES = "pages";
+  /** Buffer hits. */
+  String BUFFERHITS = "hits";
+  /** Buffer misses. */
+  String BUFFERMISSES = "misses";
 }
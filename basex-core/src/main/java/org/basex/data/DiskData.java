@@ -31,7 +31,7 @@ import org.basex.util.list.*;
  * @author Tim Petrowsky
  */
 public final class DiskData extends Data {
-  /** Text compressor. One instance per thread. */
+  /** Text compressor (used for updates). One instance per thread. */
   private static final ThreadLocal<Compress> COMPRESS = new ThreadLocal<Compress>() {
     @Override
     protected Compress initialValue() {
@@ -83,6 +83,8 @@ public final class DiskData extends Data {
       if(meta.textindex) textIndex = new DiskValues(this, true);
       if(meta.attrindex) attrIndex = new DiskValues(this, false);
     }
+    // full-text indexes of older versions cannot be updated
+    if(meta.ftxtindex && meta.updindex && !FTIndex.updatable(this)) meta.ftxtindex = false;
     if(meta.ftxtindex) ftxtIndex = new FTIndex(this);
   }
 
@@ -118,6 +120,15 @@ public final class DiskData extends Data {
     values = new DataAccess(meta.dbfile(DATAATV));
   }
 
+  /**
+   * Returns the buffer managers of the table, text and attribute value files.
+   * @return buffer managers
+   */
+  public Buffers[] buffers() {
+    return new Buffers[] { ((TableDiskAccess) table).buffers(), texts.buffers(),
+      values.buffers() };
+  }
+
   /**
    * Writes all meta data to disk.
    * @throws IOException I/O exception
@@ -148,6 +159,7 @@ public final class DiskData extends Data {
     if(closed) return;
     closed = true;
     try {
+      if(ftxtIndex != null) ((FTIndex) ftxtIndex).flush();
       write();
       table.close();
       texts.close();
@@ -255,6 +267,7 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) ((DiskValues) textIndex).flush();
         if(attrIndex != null) ((DiskValues) attrIndex).flush();
+        if(ftxtIndex != null) ((FTIndex) ftxtIndex).flush();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -284,9 +297,11 @@ public final class DiskData extends Data {
     final long o = textOff(pre);
     if(number(o)) return numDigits((int) o);
     final DataAccess da = text ? texts : values;
-    final int l = da.readNum(o & IO.OFFCOMP - 1);
-    // compressed: next number contains number of compressed bytes
-    return compressed(o) ? da.readNum() : l;
+    synchronized(da) {
+      final int l = da.readNum(o & IO.OFFCOMP - 1);
+      // compressed: next number contains number of compressed bytes
+      return compressed(o) ? da.readNum() : l;
+    }
   }
 
   /**
@@ -296,8 +311,7 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long off, final boolean text) {
-    final byte[] txt = (text ? texts : values).readToken(off & IO.OFFCOMP - 1);
-    return compressed(off) ? COMPRESS.get().unpack(txt) : txt;
+    return (text ? texts : values).readToken(off & IO.OFFCOMP - 1, compressed(off));
   }
 
   /**
@@ -339,6 +353,11 @@ public final class DiskData extends Data {
       final DiskValues index = (DiskValues) (text ? textIndex : attrIndex);
       // don't index document names
       if(index != null && kind != DOC) index.replace(oldval, value, id);
+      if(ftxtIndex != null && kind == TEXT) {
+        final FTIndex ftindex = (FTIndex) ftxtIndex;
+        ftindex.delete(id, oldval);
+        ftindex.add(id, value);
+      }
     }
 
     // reference to text store
@@ -413,6 +432,7 @@ public final class DiskData extends Data {
       }
       ids.add(id);
     }
+    if(meta.updindex && ftxtIndex != null && kind == TEXT) ((FTIndex) ftxtIndex).add(id, value);
 
     // add text to text file
     // inline integer value...
@@ -429,7 +449,8 @@ public final class DiskData extends Data {
   @Override
   protected void indexDelete(final int pre, final int size) {
     final boolean textI = meta.textindex, attrI = meta.attrindex;
-    if(textI || attrI) {
+    final FTIndex ftindex = (FTIndex) ftxtIndex;
+    if(textI || attrI || ftindex != null) {
       // collect all keys and ids
       indexBegin();
       final int l = pre + size;
@@ -437,6 +458,7 @@ public final class DiskData extends Data {
         final int k = kind(p);
         // consider nodes which are attribute, text, comment, or proc. instruction
         final boolean text = k == TEXT || k == COMM || k == PI;
+        if(ftindex != null && k == TEXT) ftindex.delete(id(p), text(p, true));
         if(textI && text || attrI && k == ATTR) {
           final byte[] key = text(p, text);
           if(key.length <= meta.maxlen) {
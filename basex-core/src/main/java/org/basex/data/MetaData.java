@@ -71,6 +71,8 @@ public final class MetaData {
   public volatile int maxcats;
   /** Maximum token length. */
   public volatile int maxlen;
+  /** Maximum size of the index cache (in kilobytes). */
+  public volatile int indexcache;
 
   /** Language of full-text search index. */
   public volatile Language language;
@@ -122,6 +124,7 @@ public final class MetaData {
     autoopt = options.get(MainOptions.AUTOOPTIMIZE);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
+    indexcache = options.get(MainOptions.INDEXCACHE);
     stopwords = options.get(MainOptions.STOPWORDS);
     language = Language.get(options);
   }
@@ -289,6 +292,7 @@ public final class MetaData {
         else if(k.equals(DBSCTYPE))   scoring    = toInt(v);
         else if(k.equals(DBMAXLEN))   maxlen     = toInt(v);
         else if(k.equals(DBMAXCATS))  maxcats    = toInt(v);
+        else if(k.equals(DBINDEXCACHE)) indexcache = toInt(v);
         else if(k.equals(DBLASTID))   lastid     = toInt(v);
         else if(k.equals(DBTIME))     time       = toLong(v);
         else if(k.equals(DBFSIZE))    filesize   = toLong(v);
@@ -351,6 +355,7 @@ public final class MetaData {
     writeInfo(out, DBFTSW,     stopwords);
     writeInfo(out, DBMAXLEN,   maxlen);
     writeInfo(out, DBMAXCATS,  maxcats);
+    writeInfo(out, DBINDEXCACHE, indexcache);
     writeInfo(out, DBUPTODATE, uptodate);
     writeInfo(out, DBLASTID,   lastid);
     if(language != null) writeInfo(out, DBFTLN, language.toString());
@@ -368,8 +373,8 @@ public final class MetaData {
     if(!updindex) {
       textindex = false;
       attrindex = false;
+      ftxtindex = false;
     }
-    ftxtindex = false;
   }
 
   /**
@@ -3,6 +3,8 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -16,12 +18,17 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public abstract class IndexBuilder extends Proc {
+  /** Minimum number of nodes that will be indexed by a single worker. */
+  private static final int CHUNK = 1 << 16;
+
   /** Data reference. */
   protected final Data data;
   /** Total parsing value. */
   protected final int size;
   /** Number of index operations to perform before writing a partial index to disk. */
   private final int splitSize;
+  /** Number of parallel workers. */
+  private final int workers;
 
   /** Maximum memory to consume. */
   private final long maxMem = (long) (Runtime.getRuntime().maxMemory() * 0.8);
@@ -39,11 +46,15 @@ public abstract class IndexBuilder extends Proc {
    * Constructor.
    * @param data reference
    * @param max maximum number of operations per partial index
+   * @param parallel maximum number of parallel workers ({@code 0}: number of processors)
    */
-  protected IndexBuilder(final Data data, final int max) {
+  protected IndexBuilder(final Data data, final int max, final int parallel) {
     this.data = data;
     size = data.meta.size;
     splitSize = max;
+    // small databases will be indexed by a single thread
+    final int w = parallel > 0 ? parallel : Runtime.getRuntime().availableProcessors();
+    workers = Math.max(1, Math.min(w, size / CHUNK));
     if(Performance.memory() >= maxMem) Performance.gc(1);
   }
 
@@ -76,20 +87,88 @@ public abstract class IndexBuilder extends Proc {
     } else {
       // if not, estimate how much main memory is left
       split = Performance.memory() >= maxMem;
-      // stop operation if index splitting degenerates
-      int gc = gcCount;
-      if(split) {
-        if(gc >= 0) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
-        gc = 30;
-      } else {
-        gc = Math.max(-1, gc - 1);
-      }
-      gcCount = gc;
+      gcCount = gc(split, gcCount);
     }
     if(split && Prop.debug) Util.err("|");
     return split;
   }
 
+  /**
+   * Checks if the index structures are built in parallel.
+   * @return result of check
+   */
+  protected final boolean parallel() {
+    return workers > 1;
+  }
+
+  /**
+   * Divides the database nodes into ranges of pre values and indexes them in parallel.
+   * Each worker writes its own partial index structures, which need to be merged afterwards.
+   * @throws IOException I/O Exception
+   */
+  protected final void indexParallel() throws IOException {
+    final ArrayList<Worker> tasks = new ArrayList<>(workers);
+    for(int w = 0; w < workers; w++) {
+      tasks.add(worker((int) ((long) size * w / workers),
+          (int) ((long) size * (w + 1) / workers)));
+    }
+    final ForkJoinPool pool = new ForkJoinPool(workers);
+    try {
+      for(final Future<Void> future : pool.invokeAll(tasks)) future.get();
+    } catch(final InterruptedException ex) {
+      throw new ProcException();
+    } catch(final ExecutionException ex) {
+      final Throwable th = Util.cause(ex);
+      if(th instanceof IOException) throw (IOException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw (Error) th;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns a worker for indexing the specified range of pre values.
+   * Needs to be overwritten by builders that support parallel indexing.
+   * @param start first pre value
+   * @param end pre value after the last node to be indexed
+   * @return worker
+   */
+  protected Worker worker(final int start, final int end) {
+    throw Util.notExpected();
+  }
+
+  /**
+   * Returns a new number for a partial index structure.
+   * @return number
+   */
+  protected final synchronized int nextSplit() {
+    return splits++;
+  }
+
+  /**
+   * Adds the number of indexed nodes and index operations of a worker.
+   * @param nodes number of indexed nodes
+   * @param ops number of index operations
+   */
+  private synchronized void add(final int nodes, final long ops) {
+    pre += nodes;
+    count += ops;
+  }
+
+  /**
+   * Checks if index splitting degenerates.
+   * @param split split flag
+   * @param gc number of remaining checks before a new split is accepted
+   * @return new number of remaining checks
+   * @throws IOException I/O Exception
+   */
+  private static int gc(final boolean split, final int gc) throws IOException {
+    if(!split) return Math.max(-1, gc - 1);
+    if(gc >= 0) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
+    return 30;
+  }
+
   /**
    * Performs memory cleanup after writing partial memory if necessary.
    */
@@ -111,6 +190,80 @@ public abstract class IndexBuilder extends Proc {
     Util.errln(sb);
   }
 
+  /**
+   * Worker for indexing a range of pre values.
+   */
+  protected abstract class Worker implements Callable<Void> {
+    /** First pre value. */
+    protected final int start;
+    /** Pre value after the last node to be indexed. */
+    protected final int end;
+    /** Number of index operations since the last partial index was written. */
+    protected long ops;
+    /** Threshold for freeing memory when estimating main memory consumption. */
+    private int gc;
+    /** Number of reported nodes. */
+    private int reported;
+
+    /**
+     * Constructor.
+     * @param start first pre value
+     * @param end pre value after the last node to be indexed
+     */
+    protected Worker(final int start, final int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    /**
+     * Indexes the nodes of this worker.
+     * @throws IOException I/O Exception
+     */
+    protected abstract void index() throws IOException;
+
+    @Override
+    public final Void call() throws IOException {
+      index();
+      return null;
+    }
+
+    /**
+     * Checks if the command was interrupted, reports the progress, and decides whether
+     * the in-memory index structures of this worker must be written to disk.
+     * The maximum number of index operations is divided by the number of workers.
+     * @param p current pre value
+     * @return true if structures shall be flushed to disk
+     * @throws IOException I/O Exception
+     */
+    protected final boolean split(final int p) throws IOException {
+      checkStop();
+      add(p - start - reported, 0);
+      reported = p - start;
+
+      final boolean split;
+      if(splitSize > 0) {
+        split = ops >= Math.max(1, splitSize / workers);
+      } else {
+        split = Performance.memory() >= maxMem;
+        gc = gc(split, gc);
+      }
+      if(split) {
+        add(0, ops);
+        ops = 0;
+      }
+      return split;
+    }
+
+    /**
+     * Finishes indexing and reports the remaining nodes and index operations.
+     */
+    protected final void finish() {
+      add(end - start - reported, ops);
+      reported = end - start;
+      ops = 0;
+    }
+  }
+
   @Override
   public final String tit() {
     return CREATING_INDEXES;
@@ -2,49 +2,78 @@ package org.basex.index;
 
 import static org.basex.util.Token.*;
 
-import java.lang.ref.*;
-import java.util.concurrent.locks.*;
-
 import org.basex.util.*;
 
 /**
  * This class caches sizes and offsets from index results.
  *
+ * The memory consumption of the cache is limited by the specified number of bytes.
+ * Entries are evicted via a segmented LRU strategy: new entries are added to a
+ * probationary segment, and they are only moved to the protected segment if they are
+ * requested again. Entries that are only requested once (e.g., when all keys of an index
+ * are traversed) will thus be evicted before frequently requested entries.
+ *
  * @author BaseX Team 2005-15, BSD License
  * @author Dimitar Popov
  */
 public final class IndexCache {
-  /** Queue used to collect unused keys. */
-  private final ReferenceQueue<IndexEntry> queue = new ReferenceQueue<>();
-  /** Read-write lock. */
-  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
+  /** Estimated memory consumption of a cache entry, excluding the key (in bytes). */
+  private static final int OVERHEAD = 96;
+
+  /** Maximum memory consumption (in bytes). */
+  private long max;
+  /** Maximum memory consumption of the protected segment (in bytes). */
+  private long maxProtected;
+  /** Probationary segment (sentinel of a circular list; least recently used entry first). */
+  private final Node probation = new Node();
+  /** Protected segment (sentinel of a circular list; least recently used entry first). */
+  private final Node protect = new Node();
   /** Hash table buckets. */
-  private BucketEntry[] buckets = new BucketEntry[Array.CAPACITY];
+  private Node[] buckets = new Node[Array.CAPACITY];
   /** Number of entries in the cache. */
   private int size;
+  /** Memory consumption of all entries (in bytes). */
+  private long bytes;
+  /** Memory consumption of the protected entries (in bytes). */
+  private long protectedBytes;
+
+  /** Number of successful requests. */
+  private long hits;
+  /** Number of unsuccessful requests. */
+  private long misses;
+  /** Number of evicted entries. */
+  private long evictions;
+
+  /**
+   * Constructor, using a default size.
+   */
+  public IndexCache() {
+    this(8L << 20);
+  }
+
+  /**
+   * Constructor.
+   * @param max maximum memory consumption (in bytes)
+   */
+  public IndexCache(final long max) {
+    this.max = max;
+    maxProtected = max / 5 * 4;
+  }
 
   /**
    * Gets cached entry for the specified key.
    * @param key key
-   * @return cached entry or {@code null} if the entry is stale
+   * @return cached entry or {@code null} if the entry does not exist
    */
-  public IndexEntry get(final byte[] key) {
-    final int hash = hash(key);
-    rwl.readLock().lock();
-
-    try {
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i];
-      while(e != null) {
-        final IndexEntry entry = e.get();
-        if(entry != null && e.hash == hash && eq(entry.key, key)) return entry;
-        e = e.next;
-      }
-    } finally {
-      rwl.readLock().unlock();
+  public synchronized IndexEntry get(final byte[] key) {
+    final Node node = node(key, hash(key));
+    if(node == null) {
+      misses++;
+      return null;
     }
-
-    return null;
+    hits++;
+    touch(node);
+    return node.entry;
   }
 
   /**
@@ -55,177 +84,242 @@ public final class IndexCache {
    * @param off offset to id list
    * @return cache entry
    */
-  public IndexEntry add(final byte[] key, final int sz, final long off) {
+  public synchronized IndexEntry add(final byte[] key, final int sz, final long off) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry current = buckets[i], prev = current;
-      while(current != null) {
-        final BucketEntry next = current.next;
-        final IndexEntry entry = current.get();
-        if(entry == null) {
-          delete(i, current, prev, next);
-        } else if(current.hash == hash && eq(entry.key, key)) {
-          update(entry, sz, off);
-          return entry;
-        }
-        prev = current;
-        current = next;
-      }
-
-      final IndexEntry entry = new IndexEntry(key, sz, off);
-      add(i, hash, entry);
-      return entry;
-    } finally {
-      rwl.writeLock().unlock();
+    final Node node = node(key, hash);
+    if(node != null) {
+      node.entry.size = sz;
+      node.entry.offset = off;
+      return node.entry;
     }
+
+    final IndexEntry entry = new IndexEntry(key, sz, off);
+    final Node n = new Node(entry, hash);
+    final int i = hash & buckets.length - 1;
+    n.next = buckets[i];
+    buckets[i] = n;
+    if(++size == buckets.length) rehash();
+
+    n.link(probation);
+    bytes += n.bytes;
+    evict();
+    return entry;
+  }
+
+  /**
+   * Assigns a new maximum memory consumption. If the cache gets too large, protected entries
+   * are moved to the probationary segment, and least recently used entries are evicted.
+   * @param mx maximum memory consumption (in bytes)
+   */
+  public synchronized void max(final long mx) {
+    max = mx;
+    maxProtected = mx / 5 * 4;
+    while(protectedBytes > maxProtected) demote();
+    evict();
   }
 
   /**
    * Deletes a cached entry.
    * @param key key
    */
-  public void delete(final byte[] key) {
-    final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i], prev = e;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final IndexEntry entry = e.get();
-        if(entry == null) {
-          delete(i, e, prev, next);
-        } else if(e.hash == hash && eq(entry.key, key)) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = e;
-        e = next;
-      }
-    } finally {
-      rwl.writeLock().unlock();
+  public synchronized void delete(final byte[] key) {
+    final Node node = node(key, hash(key));
+    if(node != null) remove(node);
+  }
+
+  /**
+   * Returns the number of cached entries.
+   * @return number of entries
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the estimated memory consumption of the cached entries.
+   * @return number of bytes
+   */
+  public synchronized long bytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns the maximum memory consumption.
+   * @return number of bytes
+   */
+  public synchronized long max() {
+    return max;
+  }
+
+  /**
+   * Returns the number of successful requests.
+   * @return number of hits
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of unsuccessful requests.
+   * @return number of misses
+   */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of evicted entries.
+   * @return number of evictions
+   */
+  public synchronized long evictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns the node with the specified key.
+   * @param key key
+   * @param hash hash code of the key
+   * @return node or {@code null}
+   */
+  private Node node(final byte[] key, final int hash) {
+    for(Node n = buckets[hash & buckets.length - 1]; n != null; n = n.next) {
+      if(n.hash == hash && eq(n.entry.key, key)) return n;
     }
+    return null;
   }
 
   /**
-   * Purges stale entries from the cache.
+   * Marks the specified node as recently used. Probationary nodes are moved to the
+   * protected segment. If the protected segment gets too large, its least recently used
+   * nodes are moved back to the probationary segment.
+   * @param node node
    */
-  private void purge() {
-    for(Object x; (x = queue.poll()) != null;) {
-      final BucketEntry e = (BucketEntry) x;
-      final int i = indexFor(e.hash, buckets.length);
-      BucketEntry prev = buckets[i], p = prev;
-      while(p != null) {
-        final BucketEntry next = p.next;
-        if(p == e) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = p;
-        p = next;
-      }
+  private void touch(final Node node) {
+    node.unlink();
+    if(!node.prot) {
+      node.prot = true;
+      protectedBytes += node.bytes;
     }
+    node.link(protect);
+    while(protectedBytes > maxProtected && protect.after != node) demote();
   }
 
   /**
-   * Add a new index entry to the bucket with the specified index.
-   * @param i bucket index
-   * @param hash hash of the new index key
-   * @param entry index entry
+   * Moves the least recently used protected node to the probationary segment.
    */
-  private void add(final int i, final int hash, final IndexEntry entry) {
-    buckets[i] = new BucketEntry(hash, buckets[i], entry, queue);
-    if(++size == buckets.length) rehash();
+  private void demote() {
+    final Node lru = protect.after;
+    lru.unlink();
+    lru.prot = false;
+    protectedBytes -= lru.bytes;
+    lru.link(probation);
   }
 
   /**
-   * Update an existing index entry.
-   * @param entry index entry to update
-   * @param sz new size
-   * @param off new offset
+   * Evicts least recently used entries (probationary entries first) until the memory
+   * consumption does not exceed the maximum. At least one entry is kept.
    */
-  private static void update(final IndexEntry entry, final int sz, final long off) {
-    entry.size = sz;
-    entry.offset = off;
+  private void evict() {
+    while(bytes > max && size > 1) {
+      remove(probation.after != probation ? probation.after : protect.after);
+      evictions++;
+    }
   }
 
   /**
-   * Deletes a cached entry from the buckets with the specified index.
-   * @param i buckets index
-   * @param e cached entry to delete
-   * @param p previous cache entry
-   * @param n next cache entry
+   * Removes the specified node from the hash table and its segment.
+   * @param node node
    */
-  private void delete(final int i, final BucketEntry e, final BucketEntry p, final BucketEntry n) {
-    if(p == e) buckets[i] = n;
-    else p.next = n;
-    e.next = null;
-    --size;
+  private void remove(final Node node) {
+    final int i = node.hash & buckets.length - 1;
+    if(buckets[i] == node) {
+      buckets[i] = node.next;
+    } else {
+      Node p = buckets[i];
+      while(p.next != node) p = p.next;
+      p.next = node.next;
+    }
+    node.next = null;
+    node.unlink();
+    if(node.prot) protectedBytes -= node.bytes;
+    bytes -= node.bytes;
+    size--;
   }
 
   /**
    * Resizes the hash table.
    */
   private void rehash() {
-    purge();
-
-    final int s = size << 1;
-    final BucketEntry[] tmp = new BucketEntry[s];
-
-    final int l = buckets.length;
-    for(int i = 0; i < l; ++i) {
-      BucketEntry e = buckets[i];
-      buckets[i] = null;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final int p = indexFor(e.hash, tmp.length);
-        e.next = tmp[p];
-        tmp[p] = e;
-        e = next;
+    final Node[] tmp = new Node[buckets.length << 1];
+    for(final Node bucket : buckets) {
+      Node n = bucket;
+      while(n != null) {
+        final Node next = n.next;
+        final int p = n.hash & tmp.length - 1;
+        n.next = tmp[p];
+        tmp[p] = n;
+        n = next;
       }
     }
     buckets = tmp;
   }
 
   /**
-   * Returns buckets index for a hash code.
-   * @param h hash code
-   * @param n number of available buckets
-   * @return index of a buckets
-   */
-  private static int indexFor(final int h, final int n) {
-    return h & n - 1;
-  }
-
-  /**
-   * Cache buckets entry. Used to implement a linked list of cache entries for
-   * each buckets. It also stores the hash of the current entry for better
-   * performance.
+   * Cache node. Nodes are organized in hash buckets and in doubly linked segment lists.
    */
-  private static class BucketEntry extends SoftReference<IndexEntry> {
-    /** Hash code of the stored cache entry key. */
+  private static final class Node {
+    /** Cached entry. */
+    final IndexEntry entry;
+    /** Hash code of the key. */
     final int hash;
-    /** Next buckets entry or {@code null} if the last one for this buckets. */
-    BucketEntry next;
+    /** Estimated memory consumption. */
+    final int bytes;
+    /** Next node in the same bucket. */
+    Node next;
+    /** Previous node in the segment list. */
+    Node before = this;
+    /** Next node in the segment list. */
+    Node after = this;
+    /** Flag for protected nodes. */
+    boolean prot;
+
+    /**
+     * Constructor for list sentinels.
+     */
+    Node() {
+      this(null, 0);
+    }
 
     /**
      * Constructor.
-     * @param h hash code of the cache entry key
-     * @param n next buckets entry or {@code null} if the last one
-     * @param v stored cache entry
-     * @param rq reference queue
+     * @param entry cached entry
+     * @param hash hash code of the key
+     */
+    Node(final IndexEntry entry, final int hash) {
+      this.entry = entry;
+      this.hash = hash;
+      bytes = entry != null ? entry.key.length + OVERHEAD : 0;
+    }
+
+    /**
+     * Adds this node as most recently used node of the specified list.
+     * @param list list sentinel
+     */
+    void link(final Node list) {
+      before = list.before;
+      after = list;
+      list.before.after = this;
+      list.before = this;
+    }
+
+    /**
+     * Removes this node from its list.
      */
-    BucketEntry(final int h, final BucketEntry n, final IndexEntry v,
-        final ReferenceQueue<IndexEntry> rq) {
-      super(v, rq);
-      hash = h;
-      next = n;
+    void unlink() {
+      before.after = after;
+      after.before = before;
+      before = this;
+      after = this;
     }
   }
 }
@@ -35,7 +35,8 @@ public final class FTBuilder extends IndexBuilder {
    * @throws IOException IOException
    */
   public FTBuilder(final Data data, final MainOptions options) throws IOException {
-    super(data, options.get(MainOptions.FTINDEXSPLITSIZE));
+    super(data, options.get(MainOptions.FTINDEXSPLITSIZE),
+        options.get(MainOptions.PARALLELINDEX));
     tree = new FTIndexTrees(data.meta.maxlen);
 
     final FTOpt fto = new FTOpt();
@@ -64,34 +65,43 @@ public final class FTBuilder extends IndexBuilder {
     final Performance perf = Prop.debug ? new Performance() : null;
     Util.debug(det());
 
-    for(pre = 0; pre < size; ++pre) {
-      if((pre & 0xFFFF) == 0) check();
-
-      final int k = data.kind(pre);
-      if(k != Data.TEXT) continue;
-
-      /* Current lexer position. */
-      final StopWords sw = lex.ftOpt().sw;
-      lex.init(data.text(pre, true));
-      int pos = -1;
-      while(lex.hasNext()) {
-        final byte[] tok = lex.nextToken();
-        ++pos;
-        // skip too long and stopword tokens
-        if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
-          // check if main memory is exhausted
-          if((ntok++ & 0x0FFF) == 0 && split()) {
-            writeIndex(true);
-            finishSplit();
+    if(parallel()) {
+      // index ranges of pre values in parallel, and merge partial index structures
+      indexParallel();
+      merge();
+    } else {
+      for(pre = 0; pre < size; ++pre) {
+        if((pre & 0xFFFF) == 0) check();
+
+        final int k = data.kind(pre);
+        if(k != Data.TEXT) continue;
+
+        // updatable indexes reference ids instead of pre values
+        final int id = data.meta.updindex ? data.id(pre) : pre;
+        /* Current lexer position. */
+        final StopWords sw = lex.ftOpt().sw;
+        lex.init(data.text(pre, true));
+        int pos = -1;
+        while(lex.hasNext()) {
+          final byte[] tok = lex.nextToken();
+          ++pos;
+          // skip too long and stopword tokens
+          if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
+            // check if main memory is exhausted
+            if((ntok++ & 0x0FFF) == 0 && split()) {
+              writeIndex(true);
+              finishSplit();
+            }
+            tree.index(tok, id, pos, splits);
+            count++;
           }
-          tree.index(tok, pre, pos, splits);
-          count++;
         }
       }
+      // finalize partial or all index structures
+      write(splits > 0);
     }
-
-    // finalize partial or all index structures
-    write(splits > 0);
+    // updatable index: create empty file for changes
+    if(data.meta.updindex) new FTDelta(data.meta.dbfile(DATAFTX + 'd')).write();
 
     data.meta.ftxtindex = true;
     finishIndex(perf);
@@ -103,6 +113,45 @@ public final class FTBuilder extends IndexBuilder {
     return new FTIndex(data);
   }
 
+  @Override
+  protected Worker worker(final int start, final int end) {
+    return new Worker(start, end) {
+      @Override
+      protected void index() throws IOException {
+        // each worker uses its own word parser and index trees
+        final FTLexer lexer = new FTLexer(lex.ftOpt());
+        final StopWords sw = lexer.ftOpt().sw;
+        final FTIndexTrees trees = new FTIndexTrees(data.meta.maxlen);
+        int cf = 0;
+        long tokens = 0;
+        for(int p = start; p < end; ++p) {
+          if((p & 0xFFFF) == 0) checkStop();
+          if(data.kind(p) != Data.TEXT) continue;
+
+          final int id = data.meta.updindex ? data.id(p) : p;
+          lexer.init(data.text(p, true));
+          int pos = -1;
+          while(lexer.hasNext()) {
+            final byte[] tok = lexer.nextToken();
+            ++pos;
+            // skip too long and stopword tokens
+            if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
+              // check if main memory is exhausted
+              if((tokens++ & 0x0FFF) == 0 && split(p)) {
+                writeIndex(trees, cf++, DATAFTX + nextSplit());
+                finishSplit();
+              }
+              trees.index(tok, id, pos, cf);
+              ops++;
+            }
+          }
+        }
+        finish();
+        writeIndex(trees, cf, DATAFTX + nextSplit());
+      }
+    };
+  }
+
   /**
    * Writes the index data to disk.
    * @param partial write partial index
@@ -110,9 +159,14 @@ public final class FTBuilder extends IndexBuilder {
    */
   private void write(final boolean partial) throws IOException {
     writeIndex(partial);
-    if(!partial) return;
+    if(partial) merge();
+  }
 
-    // merges temporary index files
+  /**
+   * Merges the partial index structures.
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
     try(final DataOutput outX = new DataOutput(data.meta.dbfile(DATAFTX + 'x'));
         final DataOutput outY = new DataOutput(data.meta.dbfile(DATAFTX + 'y'));
         final DataOutput outZ = new DataOutput(data.meta.dbfile(DATAFTX + 'z'))) {
@@ -154,7 +208,7 @@ public final class FTBuilder extends IndexBuilder {
         // merge and write data size
         outY.write4(merge(outZ, il, v));
       }
-      writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size());
+      writeInd(outX, ind, ind.isEmpty() ? 1 : ind.get(ind.size() - 2) + 1, (int) outY.size());
     }
   }
 
@@ -166,7 +220,7 @@ public final class FTBuilder extends IndexBuilder {
    * @param lp last offset
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il,
+  static void writeInd(final DataOutput outX, final IntList il,
       final int ls, final int lp) throws IOException {
 
     final int is = il.size();
@@ -185,18 +239,31 @@ public final class FTBuilder extends IndexBuilder {
    * @throws IOException I/O exception
    */
   private void writeIndex(final boolean partial) throws IOException {
-    final String name = DATAFTX + (partial ? splits : "");
+    writeIndex(tree, splits, DATAFTX + (partial ? splits : ""));
+    // increase split counter
+    splits++;
+  }
+
+  /**
+   * Writes index trees to disk.
+   * @param trees index trees
+   * @param cf number of index structures that have already been written for the trees
+   * @param name name of the index files
+   * @throws IOException I/O exception
+   */
+  private void writeIndex(final FTIndexTrees trees, final int cf, final String name)
+      throws IOException {
     try(final DataOutput outX = new DataOutput(data.meta.dbfile(name + 'x'));
         final DataOutput outY = new DataOutput(data.meta.dbfile(name + 'y'));
         final DataOutput outZ = new DataOutput(data.meta.dbfile(name + 'z'))) {
 
       final IntList ind = new IntList();
-      tree.init();
+      trees.init();
       long dr = 0;
       int tr = 0;
       int j = 0;
-      while(tree.more(splits)) {
-        final FTIndexTree t = tree.nextTree();
+      while(trees.more(cf)) {
+        final FTIndexTree t = trees.nextTree();
         t.next();
         final byte[] key = t.nextTok();
 
@@ -219,10 +286,7 @@ public final class FTBuilder extends IndexBuilder {
       }
       writeInd(outX, ind, ++j, tr);
     }
-    tree.initFT();
-
-    // increase split counter
-    splits++;
+    trees.initFT();
   }
 
   /**
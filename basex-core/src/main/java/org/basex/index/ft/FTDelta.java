@@ -0,0 +1,191 @@
+package org.basex.index.ft;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class contains the changes of an updatable full-text index that have not been merged
+ * into the index files yet. It stores the id/pos references of all tokens of new texts, and
+ * the ids of all texts that have been deleted or replaced since the last merge.
+ *
+ * The changes are stored in the file {@link org.basex.data.DataText#DATAFTX} + {@code 'd'}
+ * in the following format:
+ * {@code [n, t1, s1, id/pos ..., t2, ..., d, id1, id2, ...]}, where {@code n} is the number of
+ * tokens, {@code t} a token, {@code s} the number of its id/pos references, and {@code d}
+ * the number of deleted ids.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+final class FTDelta {
+  /** File storing the changes. */
+  private final IOFile file;
+  /** Tokens and id/pos references of new texts. */
+  private final TokenObjMap<IntList> tokens = new TokenObjMap<>();
+  /** Ids of deleted texts, which may still be referenced in the index files. */
+  private IntSet deleted = new IntSet();
+  /** Number of id/pos references. */
+  private int refs;
+  /** Flag for changes that have not been written to disk. */
+  private boolean dirty;
+
+  /**
+   * Constructor.
+   * @param file file storing the changes (will be parsed if it exists)
+   * @throws IOException I/O exception
+   */
+  FTDelta(final IOFile file) throws IOException {
+    this.file = file;
+    if(!file.exists()) return;
+
+    try(final DataInput in = new DataInput(file)) {
+      for(int t = in.readNum(); t > 0; t--) {
+        final byte[] token = in.readToken();
+        final int s = in.readNum() << 1;
+        final IntList list = new IntList(s);
+        for(int i = 0; i < s; i++) list.add(in.readNum());
+        tokens.put(token, list);
+        refs += s >>> 1;
+      }
+      for(int d = in.readNum(); d > 0; d--) deleted.add(in.readNum());
+    }
+  }
+
+  /**
+   * Adds an id/pos reference for the specified token.
+   * @param token token
+   * @param id id of the text
+   * @param pos position of the token in the text
+   */
+  void add(final byte[] token, final int id, final int pos) {
+    IntList list = tokens.get(token);
+    if(list == null) {
+      list = new IntList(2);
+      tokens.put(token, list);
+    }
+    list.add(id);
+    list.add(pos);
+    refs++;
+    dirty = true;
+  }
+
+  /**
+   * Removes all id/pos references of the specified text from the specified token.
+   * @param token token
+   * @param id id of the text
+   */
+  void delete(final byte[] token, final int id) {
+    final IntList list = tokens.get(token);
+    if(list == null) return;
+
+    final int s = list.size();
+    final IntList tmp = new IntList(s);
+    for(int i = 0; i < s; i += 2) {
+      if(list.get(i) == id) continue;
+      tmp.add(list.get(i));
+      tmp.add(list.get(i + 1));
+    }
+    if(tmp.size() == s) return;
+
+    // empty lists are kept, and skipped when the tokens are returned
+    refs -= s - tmp.size() >>> 1;
+    tokens.put(token, tmp);
+    dirty = true;
+  }
+
+  /**
+   * Marks the references of the specified text in the index files as deleted.
+   * @param id id of the text
+   */
+  void delete(final int id) {
+    if(deleted.add(id)) dirty = true;
+  }
+
+  /**
+   * Checks if the specified text has been deleted.
+   * @param id id of the text
+   * @return result of check
+   */
+  boolean deleted(final int id) {
+    return deleted.contains(id);
+  }
+
+  /**
+   * Returns the id/pos references of the specified token.
+   * @param token token
+   * @return references (can be empty) or {@code null}
+   */
+  IntList get(final byte[] token) {
+    return tokens.get(token);
+  }
+
+  /**
+   * Returns all tokens, sorted by their length and contents (the order of the index files).
+   * @return tokens
+   */
+  byte[][] tokens() {
+    final ArrayList<byte[]> list = new ArrayList<>(tokens.size());
+    for(final byte[] token : tokens) {
+      if(!tokens.get(token).isEmpty()) list.add(token);
+    }
+    final byte[][] toks = list.toArray(new byte[list.size()][]);
+    Arrays.sort(toks, new Comparator<byte[]>() {
+      @Override
+      public int compare(final byte[] token1, final byte[] token2) {
+        final int d = token1.length - token2.length;
+        return d != 0 ? d : diff(token1, token2);
+      }
+    });
+    return toks;
+  }
+
+  /**
+   * Returns the number of changes.
+   * @return number of id/pos references and deleted ids
+   */
+  int size() {
+    return refs + deleted.size();
+  }
+
+  /**
+   * Removes all changes.
+   */
+  void clear() {
+    tokens.clear();
+    deleted = new IntSet();
+    refs = 0;
+    dirty = true;
+  }
+
+  /**
+   * Writes the changes to disk.
+   * @throws IOException I/O exception
+   */
+  void write() throws IOException {
+    if(!dirty && file.exists()) return;
+
+    try(final DataOutput out = new DataOutput(file)) {
+      final byte[][] toks = tokens();
+      out.writeNum(toks.length);
+      for(final byte[] token : toks) {
+        final IntList list = tokens.get(token);
+        final int s = list.size();
+        out.writeToken(token);
+        out.writeNum(s >>> 1);
+        for(int i = 0; i < s; i++) out.writeNum(list.get(i));
+      }
+      final int[] ids = deleted.toArray();
+      out.writeNum(ids.length);
+      for(final int id : ids) out.writeNum(id);
+    }
+    dirty = false;
+  }
+}
@@ -12,6 +12,8 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.util.ft.*;
@@ -44,12 +46,19 @@ import org.basex.util.list.*;
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
  * </ul>
  *
+ * <p>If the index is updatable, ids are stored instead of pre values, and the file <b>d</b>
+ * contains all changes that have not been merged into the index files yet
+ * (see {@link FTDelta}). The changes are merged when the database is flushed and their
+ * size exceeds a fraction of the index size.</p>
+ *
  * @author BaseX Team 2005-15, BSD License
  * @author Christian Gruen
  */
 public final class FTIndex implements Index {
   /** Entry size. */
   private static final int ENTRY = 9;
+  /** Ratio between the index size and the size of the changes that triggers a merge (2^n). */
+  private static final int MERGE = 5;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   private final IntObjMap<byte[]> ctext = new IntObjMap<>();
@@ -58,18 +67,23 @@ public final class FTIndex implements Index {
   /** Data reference. */
   private final Data data;
 
+  /** Changes of an updatable index ({@code null} if the index is not updatable). */
+  private final FTDelta delta;
+
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess inX;
+  private DataAccess inX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess inY;
+  private DataAccess inY;
   /** Storing pre and pos values for each token. */
-  private final DataAccess inZ;
+  private DataAccess inZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private IndexCache cache;
   /** Token positions. */
-  private final int[] tp;
+  private int[] tp;
+  /** Word parser for updated texts (lazy instantiation). */
+  private FTLexer lexer;
 
   /**
    * Constructor, initializing the index structure.
@@ -78,6 +92,28 @@ public final class FTIndex implements Index {
    */
   public FTIndex(final Data data) throws IOException {
     this.data = data;
+    delta = updatable(data) ? new FTDelta(data.meta.dbfile(DATAFTX + 'd')) : null;
+    open();
+  }
+
+  /**
+   * Checks if the full-text index of the specified database can be updated.
+   * Indexes that have been created without updatable index structures contain pre values,
+   * which will be invalidated by updates.
+   * @param data data reference
+   * @return result of check
+   */
+  public static boolean updatable(final Data data) {
+    return data.meta.updindex && data.meta.dbfile(DATAFTX + 'd').exists();
+  }
+
+  /**
+   * Opens the index files.
+   * @throws IOException I/O Exception
+   */
+  private void open() throws IOException {
+    cache = new IndexCache();
+    ctext.clear();
 
     // cache token length index
     inY = new DataAccess(data.meta.dbfile(DATAFTX + 'y'));
@@ -115,7 +151,7 @@ public final class FTIndex implements Index {
     final FTOpt opt = ((FTLexer) it).ftOpt();
     if(opt.is(FZ) || opt.is(WC)) return Math.max(1, data.meta.size >> 4);
 
-    return entry(tok).size;
+    return entry(tok).size + refs(tok).size() / 2;
   }
 
   @Override
@@ -132,7 +168,13 @@ public final class FTIndex implements Index {
 
     // return cached or new result
     final IndexEntry e = entry(tok);
-    return e.size > 0 ? iter(e.offset, e.size, inZ, tok) : FTIndexIterator.FTEMPTY;
+    final IntList refs = refs(tok);
+    if(e.size == 0 && refs.isEmpty()) return FTIndexIterator.FTEMPTY;
+
+    final IntList pr = new IntList(e.size), ps = new IntList(e.size);
+    read(e.offset, e.size, pr, ps);
+    add(refs, pr, ps);
+    return iter(pr, ps, tok);
   }
 
   /**
@@ -244,6 +286,206 @@ public final class FTIndex implements Index {
     inZ.close();
   }
 
+  /**
+   * Adds the tokens of a new text to the index.
+   * @param id id of the text
+   * @param text text
+   */
+  public synchronized void add(final int id, final byte[] text) {
+    if(delta == null) {
+      // index has no updatable structures: invalidate it
+      data.meta.ftxtindex = false;
+      return;
+    }
+    final FTLexer lex = lexer();
+    final StopWords sw = lex.ftOpt().sw;
+    lex.init(text);
+    for(int pos = 0; lex.hasNext(); pos++) {
+      final byte[] tok = lex.nextToken();
+      // skip too long and stopword tokens
+      if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
+        delta.add(tok, id, pos);
+      }
+    }
+  }
+
+  /**
+   * Removes the tokens of a deleted text from the index.
+   * @param id id of the text
+   * @param text text
+   */
+  public synchronized void delete(final int id, final byte[] text) {
+    if(delta == null) {
+      // index has no updatable structures: invalidate it
+      data.meta.ftxtindex = false;
+      return;
+    }
+    // references in the index files will be skipped when the index is accessed
+    delta.delete(id);
+    final FTLexer lex = lexer();
+    lex.init(text);
+    while(lex.hasNext()) delta.delete(lex.nextToken(), id);
+  }
+
+  /**
+   * Writes the changes to disk. If the size of the changes exceeds a fraction of the
+   * index size, they will be merged into the index files.
+   * @throws IOException I/O exception
+   */
+  public synchronized void flush() throws IOException {
+    if(delta == null) return;
+    if((long) delta.size() << MERGE > inZ.length()) merge();
+    delta.write();
+  }
+
+  /**
+   * Merges the changes into the index files.
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
+    final String name = DATAFTX + 'm';
+    try(final DataOutput outX = new DataOutput(data.meta.dbfile(name + 'x'));
+        final DataOutput outY = new DataOutput(data.meta.dbfile(name + 'y'));
+        final DataOutput outZ = new DataOutput(data.meta.dbfile(name + 'z'))) {
+
+      final IntList ind = new IntList(), pr = new IntList(), ps = new IntList();
+      final byte[][] toks = delta.tokens();
+      final int ts = toks.length, tl = tp.length;
+      int t = 0, last = 0;
+
+      // parse all index entries and merge them with the changed tokens
+      for(int l = 0; l < tl - 1; l++) {
+        int p = tp[l];
+        if(p == -1) continue;
+        int e = -1;
+        for(int c = l + 1; e == -1; c++) e = tp[c];
+        for(; p < e; p += l + ENTRY) {
+          final byte[] tok = inY.readBytes(p, l);
+          // write changed tokens that precede the current token
+          for(; t < ts && (toks[t].length < l || toks[t].length == l &&
+              diff(toks[t], tok) < 0); t++) {
+            pr.reset();
+            ps.reset();
+            add(delta.get(toks[t]), pr, ps);
+            last = write(toks[t], pr, ps, outY, outZ, ind, last);
+          }
+          pr.reset();
+          ps.reset();
+          read(pointer(p, l), size(p, l), pr, ps);
+          if(t < ts && eq(toks[t], tok)) add(delta.get(toks[t++]), pr, ps);
+          last = write(tok, pr, ps, outY, outZ, ind, last);
+        }
+      }
+      // write remaining changed tokens
+      for(; t < ts; t++) {
+        pr.reset();
+        ps.reset();
+        add(delta.get(toks[t]), pr, ps);
+        last = write(toks[t], pr, ps, outY, outZ, ind, last);
+      }
+      FTBuilder.writeInd(outX, ind, last + 1, (int) outY.size());
+    }
+
+    // replace index files
+    close();
+    for(final char c : new char[] { 'x', 'y', 'z' }) {
+      final IOFile file = data.meta.dbfile(DATAFTX + c);
+      if(!file.delete() || !data.meta.dbfile(name + c).rename(file))
+        throw new IOException("Could not replace " + file);
+    }
+    delta.clear();
+    open();
+  }
+
+  /**
+   * Writes an index entry.
+   * @param token token
+   * @param pr ids
+   * @param ps positions
+   * @param outY index storing tokens
+   * @param outZ index storing id/pos references
+   * @param ind token lengths and offsets
+   * @param last length of the last written token
+   * @return length of the last written token
+   * @throws IOException I/O exception
+   */
+  private static int write(final byte[] token, final IntList pr, final IntList ps,
+      final DataOutput outY, final DataOutput outZ, final IntList ind, final int last)
+      throws IOException {
+
+    // skip tokens without references
+    final int s = pr.size(), tl = token.length;
+    if(s == 0) return last;
+
+    if(ind.isEmpty() || last < tl) {
+      ind.add(tl);
+      ind.add((int) outY.size());
+    }
+    outY.writeBytes(token);
+    outY.write5(outZ.size());
+    outY.write4(s);
+    for(int i = 0; i < s; i++) {
+      outZ.writeNum(pr.get(i));
+      outZ.writeNum(ps.get(i));
+    }
+    return tl;
+  }
+
+  /**
+   * Returns the word parser for updated texts.
+   * @return lexer
+   */
+  private FTLexer lexer() {
+    if(lexer == null) {
+      final FTOpt opt = new FTOpt().copy(data.meta);
+      opt.sw = new StopWords();
+      opt.sw.comp(data);
+      lexer = new FTLexer(opt);
+    }
+    return lexer;
+  }
+
+  /**
+   * Returns the id/pos references of a token that have not been merged yet.
+   * @param token token
+   * @return references
+   */
+  private IntList refs(final byte[] token) {
+    final IntList refs = delta != null ? delta.get(token) : null;
+    return refs != null ? refs : new IntList(0);
+  }
+
+  /**
+   * Reads the id/pos references of an index entry. References to deleted texts are skipped.
+   * @param off offset on entries
+   * @param size number of id/pos entries
+   * @param pr ids or pre values
+   * @param ps positions
+   */
+  private void read(final long off, final int size, final IntList pr, final IntList ps) {
+    inZ.cursor(off);
+    for(int c = 0; c < size; c++) {
+      final int pre = inZ.readNum(), pos = inZ.readNum();
+      if(delta != null && delta.deleted(pre)) continue;
+      pr.add(pre);
+      ps.add(pos);
+    }
+  }
+
+  /**
+   * Adds id/pos references that have not been merged yet.
+   * @param refs references
+   * @param pr ids
+   * @param ps positions
+   */
+  private static void add(final IntList refs, final IntList pr, final IntList ps) {
+    final int rs = refs.size();
+    for(int r = 0; r < rs; r += 2) {
+      pr.add(refs.get(r));
+      ps.add(refs.get(r + 1));
+    }
+  }
+
   /**
    * Determines the pointer on a token.
    * @param token token looking for
@@ -333,12 +575,26 @@ public final class FTIndex implements Index {
       int t = s + 1, r = -1;
       while(t < tl && r == -1) r = tp[t++];
       while(p < r) {
-        if(ls.similar(inY.readBytes(p, s), token, k)) {
-          it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ, token), it);
+        final byte[] tok = inY.readBytes(p, s);
+        if(ls.similar(tok, token, k)) {
+          final IntList pr = new IntList(), ps = new IntList();
+          read(pointer(p, s), size(p, s), pr, ps);
+          add(refs(tok), pr, ps);
+          it = FTIndexIterator.union(iter(pr, ps, token), it);
         }
         p += s + ENTRY;
       }
     }
+
+    // add tokens that only occur in the changes
+    if(delta != null) {
+      for(final byte[] tok : delta.tokens()) {
+        if(token(tok) != -1 || !ls.similar(tok, token, k)) continue;
+        final IntList pr = new IntList(), ps = new IntList();
+        add(delta.get(tok), pr, ps);
+        it = FTIndexIterator.union(iter(pr, ps, token), it);
+      }
+    }
     return it;
   }
 
@@ -368,36 +624,32 @@ public final class FTIndex implements Index {
       while(i < e) {
         final byte[] t = inY.readBytes(i, ti);
         if(!startsWith(t, pref)) break;
-        if(wc.match(t)) {
-          inZ.cursor(pointer(i, ti));
-          final int s = size(i, ti);
-          for(int d = 0; d < s; d++) {
-            pr.add(inZ.readNum());
-            ps.add(inZ.readNum());
-          }
-        }
+        if(wc.match(t)) read(pointer(i, ti), size(i, ti), pr, ps);
         i += ti + ENTRY;
       }
     }
-    return iter(new FTCache(pr, ps), token);
+
+    // add references that have not been merged yet
+    if(delta != null) {
+      for(final byte[] t : delta.tokens()) {
+        if(startsWith(t, pref) && wc.match(t)) add(delta.get(t), pr, ps);
+      }
+    }
+    return iter(pr, ps, token);
   }
 
   /**
-   * Returns an iterator for an index entry.
-   * @param off offset on entries
-   * @param size number of id/pos entries
-   * @param da data source
+   * Returns an iterator for the specified references.
+   * @param pr ids or pre values
+   * @param ps positions
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
-    final IntList pr = new IntList(size);
-    final IntList ps = new IntList(size);
-    for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+  private FTIndexIterator iter(final IntList pr, final IntList ps, final byte[] token) {
+    if(delta != null) {
+      // updatable index: replace ids with pre values
+      final int s = pr.size();
+      for(int i = 0; i < s; i++) pr.set(i, data.pre(pr.get(i)));
     }
     return iter(new FTCache(pr, ps), token);
   }
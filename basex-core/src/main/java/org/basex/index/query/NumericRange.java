@@ -16,17 +16,63 @@ public final class NumericRange implements IndexToken {
   public final double min;
   /** Maximum value. */
   public final double max;
+  /** Include minimum value. */
+  public final boolean mni;
+  /** Include maximum value. */
+  public final boolean mxi;
 
   /**
-   * Constructor.
+   * Constructor, including the minimum and maximum values.
    * @param text text/attribute index
    * @param min minimum value
    * @param max maximum value
    */
   public NumericRange(final boolean text, final double min, final double max) {
+    this(text, min, true, max, true);
+  }
+
+  /**
+   * Constructor.
+   * @param text text/attribute index
+   * @param min minimum value
+   * @param mni include minimum value
+   * @param max maximum value
+   * @param mxi include maximum value
+   */
+  public NumericRange(final boolean text, final double min, final boolean mni,
+      final double max, final boolean mxi) {
     this.text = text;
     this.min = min;
+    this.mni = mni;
     this.max = max;
+    this.mxi = mxi;
+  }
+
+  /**
+   * Checks if the specified value is within the range.
+   * @param value value
+   * @return result of check
+   */
+  public boolean contains(final double value) {
+    return (mni ? value >= min : value > min) && (mxi ? value <= max : value < max);
+  }
+
+  /**
+   * Checks if the specified value is smaller than the range.
+   * @param value value
+   * @return result of check
+   */
+  public boolean below(final double value) {
+    return mni ? value < min : value <= min;
+  }
+
+  /**
+   * Checks if the specified value is larger than the range.
+   * @param value value
+   * @return result of check
+   */
+  public boolean above(final double value) {
+    return mxi ? value > max : value >= max;
   }
 
   @Override
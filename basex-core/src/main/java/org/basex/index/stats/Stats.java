@@ -3,6 +3,7 @@ package org.basex.index.stats;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.data.*;
 import org.basex.io.in.DataInput;
@@ -16,6 +17,13 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 public final class Stats {
+  /** Number of hash values that are used for estimating the number of distinct values. */
+  private static final int HASHES = 64;
+  /** Maximum number of sampled numeric values. */
+  private static final int SAMPLES = 256;
+  /** Maximum number of histogram buckets. */
+  private static final int BUCKETS = 16;
+
   /** Categories. */
   public TokenIntMap cats;
   /** Data type. */
@@ -30,6 +38,25 @@ public final class Stats {
    * texts and attributes. */
   private boolean leaf;
 
+  /** Indicates if all values have been added to this instance. If the statistics have been
+   * read from disk, the histogram and the number of distinct values are invalidated by
+   * subsequent updates. */
+  private final boolean complete;
+  /** Stored number of distinct values ({@code -1} if unknown). */
+  private int distinct;
+  /** Bucket boundaries of the equi-depth histogram (can be {@code null}). */
+  private double[] histogram;
+  /** Smallest hash values of all added values, sorted in ascending order (can be {@code null}). */
+  private int[] hashes;
+  /** Number of hash values. */
+  private int hsize;
+  /** Sampled numeric values (can be {@code null}). */
+  private double[] sample;
+  /** Number of numeric values that have been passed on to the sample. */
+  private int sampled;
+  /** Seed for choosing sampled values. */
+  private long seed = 1;
+
   /**
    * Default constructor.
    */
@@ -39,6 +66,7 @@ public final class Stats {
     min = Double.MAX_VALUE;
     max = Double.MIN_VALUE;
     leaf = true;
+    complete = true;
   }
 
   /**
@@ -65,6 +93,7 @@ public final class Stats {
    */
   public Stats(final DataInput in) throws IOException {
     // 0x10 indicates format introduced with Version 7.1
+    // 0x20 indicates histograms and distinct values, introduced with Version 8.2
     final int k = in.readNum();
     type = StatsType.values()[k & 0xF];
 
@@ -83,6 +112,16 @@ public final class Stats {
     count = in.readNum();
     leaf = in.readBool();
     in.readDouble();
+    distinct = -1;
+    if((k & 0x20) != 0) {
+      distinct = in.readNum() - 1;
+      final int hl = in.readNum();
+      if(hl != 0) {
+        histogram = new double[hl];
+        for(int h = 0; h < hl; h++) histogram[h] = in.readDouble();
+      }
+    }
+    complete = false;
   }
 
   /**
@@ -92,7 +131,7 @@ public final class Stats {
    */
   public void write(final DataOutput out) throws IOException {
     // 0x10 indicates format introduced with Version 7.1
-    out.writeNum(type.ordinal() | 0x10);
+    out.writeNum(type.ordinal() | 0x30);
     if(type == StatsType.INTEGER || type == StatsType.DOUBLE) {
       out.writeDouble(min);
       out.writeDouble(max);
@@ -103,6 +142,91 @@ public final class Stats {
     out.writeBool(leaf);
     // legacy since version 7.1
     out.writeDouble(0);
+    out.writeNum(distinct() + 1);
+    final double[] hist = histogram();
+    if(hist == null) {
+      out.writeNum(0);
+    } else {
+      out.writeNum(hist.length);
+      for(final double h : hist) out.writeDouble(h);
+    }
+  }
+
+  /**
+   * Returns the estimated number of distinct values. The number of categories is exact.
+   * Otherwise, the number is estimated from the smallest hash values of all values.
+   * @return number of distinct values, or {@code -1} if unknown
+   */
+  public int distinct() {
+    if(type == StatsType.CATEGORY) return cats.size();
+    if(!complete) return distinct;
+    if(hsize < HASHES) return hsize;
+    // k minimum values: n distinct hashes are uniformly distributed, and the k-th smallest
+    // hash, relative to the maximum, will be close to k/n
+    final double n = (HASHES - 1) * (double) Integer.MAX_VALUE / (hashes[HASHES - 1] + 1d);
+    return (int) Math.min(count, Math.round(n));
+  }
+
+  /**
+   * Estimates the number of occurrences of a single value, tending to the worst case.
+   * @return number of occurrences, or {@code -1} if unknown
+   */
+  public int occurrences() {
+    if(type == StatsType.CATEGORY) {
+      int o = 0;
+      for(final byte[] cat : cats) o = Math.max(o, cats.get(cat));
+      // categories of old databases have no counts
+      return o == 0 ? -1 : o;
+    }
+    final int d = distinct();
+    return d > 0 ? (count + d - 1) / d : -1;
+  }
+
+  /**
+   * Estimates the number of numeric values in the specified range.
+   * The equi-depth histogram is consulted if it is available. Otherwise, a uniform
+   * distribution between the minimum and maximum value is assumed.
+   * @param mn minimum (inclusive)
+   * @param mx maximum (inclusive)
+   * @return number of values, or {@code -1} if the values are not numeric
+   */
+  public int occurrences(final double mn, final double mx) {
+    if(type != StatsType.INTEGER && type != StatsType.DOUBLE) return -1;
+    final double[] hist = histogram();
+    final double[] bounds = hist != null ? hist : new double[] { min, max };
+    final int bl = bounds.length - 1;
+    double buckets = 0;
+    for(int b = 0; b < bl; b++) {
+      final double lo = bounds[b], hi = bounds[b + 1];
+      if(lo == hi) {
+        if(mn <= lo && lo <= mx) buckets++;
+      } else {
+        final double o = Math.min(mx, hi) - Math.max(mn, lo);
+        if(o > 0) buckets += Math.min(1, o / (hi - lo));
+      }
+    }
+    return (int) Math.ceil(count * buckets / bl);
+  }
+
+  /**
+   * Returns the bucket boundaries of an equi-depth histogram for numeric values.
+   * Each bucket contains the same number of values.
+   * @return boundaries, or {@code null} if no histogram is available
+   */
+  private double[] histogram() {
+    if(type != StatsType.INTEGER && type != StatsType.DOUBLE) return null;
+    if(histogram == null && sample != null && sampled > 0) {
+      final int sl = Math.min(sampled, SAMPLES), bl = Math.min(sl, BUCKETS);
+      final double[] sorted = Arrays.copyOf(sample, sl);
+      Arrays.sort(sorted);
+      final double[] hist = new double[bl + 1];
+      for(int b = 0; b <= bl; b++) hist[b] = sorted[(int) ((long) b * (sl - 1) / bl)];
+      // include minimum and maximum of all values
+      hist[0] = min;
+      hist[bl] = max;
+      histogram = hist;
+    }
+    return histogram;
   }
 
   /**
@@ -116,7 +240,14 @@ public final class Stats {
    */
   public void add(final byte[] value, final MetaData meta) {
     final int vl = value.length;
-    if(vl == 0 || type == StatsType.TEXT || ws(value)) return;
+    if(vl == 0 || ws(value)) return;
+    if(complete) {
+      sketch(value);
+    } else {
+      distinct = -1;
+      histogram = null;
+    }
+    if(type == StatsType.TEXT) return;
 
     StatsType t = type;
     if(t == StatsType.NONE) t = StatsType.INTEGER;
@@ -136,15 +267,18 @@ public final class Stats {
       } else {
         if(min > d) min = d;
         if(max < d) max = d;
+        sample(d);
       }
     }
     if(t == StatsType.DOUBLE) {
       final double d = toDouble(value);
       if(Double.isNaN(d)) {
         t = cats.size() <= meta.maxcats ? StatsType.CATEGORY : StatsType.TEXT;
+        sample = null;
       } else {
         if(min > d) min = d;
         if(max < d) max = d;
+        sample(d);
       }
     } else if(t == StatsType.CATEGORY) {
       if(cats.size() > meta.maxcats) {
@@ -155,6 +289,51 @@ public final class Stats {
     type = t;
   }
 
+  /**
+   * Adds the hash value of the specified value to the smallest hash values.
+   * @param value value
+   */
+  private void sketch(final byte[] value) {
+    // spread bits of the token hash
+    int h = hash(value) * 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h = (h ^ h >>> 16) & Integer.MAX_VALUE;
+
+    if(hsize == HASHES && h >= hashes[HASHES - 1]) return;
+    int i = hashes == null ? -1 : Arrays.binarySearch(hashes, 0, hsize, h);
+    if(i >= 0) return;
+    i = -i - 1;
+    // arrays are enlarged on demand, as many instances will only contain few values
+    if(hashes == null) hashes = new int[8];
+    else if(hsize == hashes.length && hsize < HASHES) hashes = Arrays.copyOf(hashes, hsize << 1);
+    System.arraycopy(hashes, i, hashes, i + 1, Math.min(hsize, HASHES - 1) - i);
+    hashes[i] = h;
+    if(hsize < HASHES) hsize++;
+  }
+
+  /**
+   * Adds a numeric value to the sample. If the sample is full, the value replaces a random
+   * entry with decreasing probability (reservoir sampling).
+   * @param value value
+   */
+  private void sample(final double value) {
+    histogram = null;
+    if(!complete) return;
+    if(sample == null) {
+      if(sampled != 0) return;
+      sample = new double[8];
+    } else if(sampled == sample.length && sampled < SAMPLES) {
+      sample = Arrays.copyOf(sample, sampled << 1);
+    }
+    int s = sampled++;
+    if(s >= SAMPLES) {
+      seed = seed * 0x5DEECE66DL + 0xBL & 0xFFFFFFFFFFFFL;
+      s = (int) ((seed >>> 16) % sampled);
+    }
+    if(s < SAMPLES) sample[s] = value;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder(count + "x");
@@ -171,6 +350,8 @@ public final class Stats {
         break;
       case TEXT:
         sb.append(", strings");
+        final int d = distinct();
+        if(leaf && d != -1) sb.append(", ").append(d).append(" distinct");
         break;
       default:
         break;
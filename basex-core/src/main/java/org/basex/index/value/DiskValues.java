@@ -12,6 +12,7 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -29,10 +30,12 @@ public class DiskValues implements Index {
   final DataAccess idxr;
   /** ID lists. */
   final DataAccess idxl;
+  /** Numeric keys, sorted by their values (can be {@code null}). */
+  final DataAccess idxn;
   /** Data reference. */
   final Data data;
   /** Cached index entries: mapping between keys and index entries. */
-  final IndexCache cache = new IndexCache();
+  final IndexCache cache;
   /** Cached texts: mapping between key positions and indexed texts. */
   final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
@@ -63,14 +66,24 @@ public class DiskValues implements Index {
   DiskValues(final Data data, final boolean text, final String pref) throws IOException {
     this.data = data;
     this.text = text;
+    cache = new IndexCache((long) data.meta.indexcache << 10);
     idxl = new DataAccess(data.meta.dbfile(pref + 'l'));
     idxr = new DataAccess(data.meta.dbfile(pref + 'r'));
+    final IOFile file = data.meta.dbfile(pref + 'n');
+    idxn = data.meta.updindex || !file.exists() ? null : new DataAccess(file);
     size.set(idxl.read4());
   }
 
   @Override
   public void init() { }
 
+  /**
+   * Resizes the index cache to the size specified in the meta data.
+   */
+  public void resize() {
+    cache.max((long) data.meta.indexcache << 10);
+  }
+
   @Override
   public byte[] info(final MainOptions options) {
     final TokenBuilder tb = new TokenBuilder();
@@ -78,7 +91,7 @@ public class DiskValues implements Index {
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
 
     synchronized(monitor) {
-      final long l = idxl.length() + idxr.length();
+      final long l = idxl.length() + idxr.length() + (idxn != null ? idxn.length() : 0);
       tb.add(LI_SIZE).add(Performance.format(l, true)).add(NL);
       final int s = size();
       for(int m = 0; m < s; ++m) {
@@ -88,13 +101,23 @@ public class DiskValues implements Index {
       }
     }
     stats.print(tb);
+
+    final long hits = cache.hits(), requests = hits + cache.misses();
+    tb.add(LI_CACHE).add(Performance.format(cache.bytes(), true)).add('/').
+      add(Performance.format(cache.max(), true)).add(", ").addInt(cache.size()).add(' ').
+      add(CACHE_ENTRIES).add(", ").addInt(requests == 0 ? 0 : (int) (hits * 100 / requests)).
+      add("% ").add(CACHE_HITS).add(", ").addLong(cache.evictions()).add(' ').
+      add(CACHE_EVICTIONS).add(NL);
     return tb.finish();
   }
 
   @Override
   public int costs(final IndexToken it) {
     if(it instanceof StringRange) return idRange((StringRange) it).size();
-    if(it instanceof NumericRange) return idRange((NumericRange) it).size();
+    if(it instanceof NumericRange) {
+      // without numeric keys, all index entries would need to be parsed
+      return idxn != null ? numRange((NumericRange) it, null) : Integer.MAX_VALUE;
+    }
     final byte[] key = it.get();
     return key.length <= data.meta.maxlen ? entry(key).size : Integer.MAX_VALUE;
   }
@@ -102,7 +125,13 @@ public class DiskValues implements Index {
   @Override
   public IndexIterator iter(final IndexToken it) {
     if(it instanceof StringRange) return idRange((StringRange) it);
-    if(it instanceof NumericRange) return idRange((NumericRange) it);
+    if(it instanceof NumericRange) {
+      final NumericRange nr = (NumericRange) it;
+      if(idxn == null) return idRange(nr);
+      final IntList pres = new IntList();
+      numRange(nr, pres);
+      return iter(pres.sort());
+    }
     final IndexEntry e = entry(it.get());
     return iter(e.size, e.offset);
   }
@@ -117,6 +146,7 @@ public class DiskValues implements Index {
     synchronized(monitor) {
       idxl.close();
       idxr.close();
+      if(idxn != null) idxn.close();
     }
   }
 
@@ -450,7 +480,7 @@ public class DiskValues implements Index {
         final int pre = pre(id);
 
         final double v = data.textDbl(pre, text);
-        if(v >= min && v <= max) {
+        if(tok.contains(v)) {
           // value is in range
           for(int d = 0; d < ds; ++d) {
             pres.add(pre(id));
@@ -467,6 +497,50 @@ public class DiskValues implements Index {
     return iter(pres.sort());
   }
 
+  /**
+   * Performs a range query on the numeric keys.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param tok index term
+   * @param pres list for the resulting pre values (if {@code null}, the results will only be
+   *   counted)
+   * @return number of results
+   */
+  private int numRange(final NumericRange tok, final IntList pres) {
+    int count = 0;
+    synchronized(monitor) {
+      // binary search for the first key in the range
+      final int s = idxn.read4(0);
+      int l = 0, h = s - 1;
+      while(l <= h) {
+        final int m = l + h >>> 1;
+        if(tok.below(numKey(m))) l = m + 1;
+        else h = m - 1;
+      }
+      // sequentially read the id lists of all keys in the range
+      for(; l < s && !tok.above(numKey(l)); l++) {
+        final int ds = idxl.readNum(idxr.read5(idxn.read4() * 5L));
+        count += ds;
+        if(pres == null) continue;
+        for(int d = 0, id = 0; d < ds; d++) {
+          id += idxl.readNum();
+          pres.add(pre(id));
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the numeric key at the specified position.
+   * <p><em>Important:</em> This method is NOT thread-safe, since it is used in loops.</p>
+   * @param index key position
+   * @return value
+   */
+  private double numKey(final int index) {
+    final long bits = (long) idxn.read4(4 + index * 12L) << 32 | idxn.read4() & 0xFFFFFFFFL;
+    return Double.longBitsToDouble(bits);
+  }
+
   /**
    * Returns an iterator for the specified id list.
    * @param pres pre values
@@ -29,6 +29,11 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the id references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV + 'n'}: contains all keys that can be converted to numbers,
+ *   sorted by their numeric values. The number of keys is stored in the first 4 bytes of
+ *   the file. Each key is represented by its 8-byte double value and the 4-byte position of
+ *   its reference. This file is only created if the index is not updatable.
+ * </li>
  * </ul>
  *
  * @author BaseX Team 2005-15, BSD License
@@ -47,7 +52,7 @@ public final class DiskValuesBuilder extends IndexBuilder {
    * @param text value type (text/attribute)
    */
   public DiskValuesBuilder(final Data data, final MainOptions options, final boolean text) {
-    super(data, options.get(MainOptions.INDEXSPLITSIZE));
+    super(data, options.get(MainOptions.INDEXSPLITSIZE), options.get(MainOptions.PARALLELINDEX));
     this.text = text;
   }
 
@@ -59,32 +64,36 @@ public final class DiskValuesBuilder extends IndexBuilder {
     final Performance perf = Prop.debug ? new Performance() : null;
     Util.debug(det());
 
-    final int k = text ? Data.TEXT : Data.ATTR;
-
-    for(pre = 0; pre < size; ++pre) {
-      if((pre & 0x0FFF) == 0) {
-        check();
-        // check if main memory is exhausted
-        if(split()) {
-          writeIndex(true);
-          index = new IndexTree();
-          finishSplit();
+    if(parallel()) {
+      // index ranges of pre values in parallel; each worker writes partial index structures
+      indexParallel();
+    } else {
+      final int k = text ? Data.TEXT : Data.ATTR;
+      for(pre = 0; pre < size; ++pre) {
+        if((pre & 0x0FFF) == 0) {
+          check();
+          // check if main memory is exhausted
+          if(split()) {
+            writeIndex(true);
+            index = new IndexTree();
+            finishSplit();
+          }
+        }
+        // skip too long values
+        if(data.kind(pre) == k && data.textLen(pre, text) <= data.meta.maxlen) {
+          index.index(data.text(pre, text), data.meta.updindex ? data.id(pre) : pre);
+          count++;
         }
       }
-      // skip too long values
-      if(data.kind(pre) == k && data.textLen(pre, text) <= data.meta.maxlen) {
-        index.index(data.text(pre, text), data.meta.updindex ? data.id(pre) : pre);
-        count++;
-      }
+      writeIndex(splits > 0);
     }
-
-    writeIndex(splits > 0);
     // merge partial index structures
     if(splits > 1) {
       index = null;
       Performance.gc(1);
       merge();
     }
+    if(!data.meta.updindex) writeNumeric();
 
     if(text) data.meta.textindex = true;
     else data.meta.attrindex = true;
@@ -155,22 +164,62 @@ public final class DiskValuesBuilder extends IndexBuilder {
     }
   }
 
+  @Override
+  protected Worker worker(final int start, final int end) {
+    return new Worker(start, end) {
+      @Override
+      protected void index() throws IOException {
+        final int k = text ? Data.TEXT : Data.ATTR;
+        IndexTree tree = new IndexTree();
+        for(int p = start; p < end; ++p) {
+          // check if main memory is exhausted
+          if((p & 0x0FFF) == 0 && split(p)) {
+            writeIndex(tree, nextSplit(), true);
+            tree = new IndexTree();
+            finishSplit();
+          }
+          // skip too long values
+          if(data.kind(p) == k && data.textLen(p, text) <= data.meta.maxlen) {
+            tree.index(data.text(p, text), data.meta.updindex ? data.id(p) : p);
+            ops++;
+          }
+        }
+        finish();
+        writeIndex(tree, nextSplit(), true);
+      }
+    };
+  }
+
   /**
    * Writes the current index tree to disk.
    * @param partial partial flag
    * @throws IOException I/O exception
    */
   private void writeIndex(final boolean partial) throws IOException {
+    writeIndex(index, splits, partial);
+    // increase split counter
+    splits++;
+  }
+
+  /**
+   * Writes an index tree to disk.
+   * @param tree index tree
+   * @param split number of the partial index
+   * @param partial partial flag
+   * @throws IOException I/O exception
+   */
+  private void writeIndex(final IndexTree tree, final int split, final boolean partial)
+      throws IOException {
     // write id arrays and references
-    final String name = (text ? DATATXT : DATAATV) + (partial ? splits : "");
+    final String name = (text ? DATATXT : DATAATV) + (partial ? split : "");
     try(final DataOutput outL = new DataOutput(data.meta.dbfile(name + 'l'));
         final DataOutput outR = new DataOutput(data.meta.dbfile(name + 'r'))) {
-      outL.write4(index.size());
+      outL.write4(tree.size());
 
       final IntList il = new IntList();
-      index.init();
-      while(index.more()) {
-        final byte[] values = index.values.get(index.next());
+      tree.init();
+      while(tree.more()) {
+        final byte[] values = tree.values.get(tree.next());
         final int vs = Num.size(values);
 
         if(partial) {
@@ -191,12 +240,47 @@ public final class DiskValuesBuilder extends IndexBuilder {
     // temporarily write texts
     if(partial) {
       try(final DataOutput outT = new DataOutput(data.meta.dbfile(name + 't'))) {
-        index.init();
-        while(index.more()) outT.writeToken(index.keys.get(index.next()));
+        tree.init();
+        while(tree.more()) outT.writeToken(tree.keys.get(tree.next()));
+      }
+    }
+  }
+
+  /**
+   * Writes the numeric keys, sorted by their values, to disk.
+   * @throws IOException I/O exception
+   */
+  private void writeNumeric() throws IOException {
+    final String f = text ? DATATXT : DATAATV;
+    final IntList keys = new IntList();
+    final double[] values;
+    try(final DataAccess inL = new DataAccess(data.meta.dbfile(f + 'l'));
+        final DataAccess inR = new DataAccess(data.meta.dbfile(f + 'r'))) {
+      final int s = inL.read4(0);
+      values = new double[s];
+      for(int i = 0; i < s; i++) {
+        if((i & 0x0FFF) == 0) checkStop();
+        // the first id of a key references a text with this key
+        inL.readNum(inR.read5(i * 5L));
+        final double v = data.textDbl(inL.readNum(), text);
+        if(v == v) {
+          values[keys.size()] = v;
+          keys.add(i);
+        }
+      }
+    }
+
+    keys.sort(values, true);
+    try(final DataOutput outN = new DataOutput(data.meta.dbfile(f + 'n'))) {
+      final int ks = keys.size();
+      outN.write4(ks);
+      for(int k = 0; k < ks; k++) {
+        final long bits = Double.doubleToLongBits(values[k]);
+        outN.write4((int) (bits >>> 32));
+        outN.write4((int) bits);
+        outN.write4(keys.get(k));
       }
     }
-    // increase split counter
-    splits++;
   }
 
   /**
@@ -138,6 +138,18 @@ public class BufferInput extends InputStream {
     return bl.finish();
   }
 
+  /**
+   * Returns the number of bytes that can be read without blocking: the remaining bytes of the
+   * buffer and the number of bytes reported by the underlying stream.
+   * @return number of bytes
+   * @throws IOException I/O exception
+   */
+  @Override
+  public int available() throws IOException {
+    final int a = Math.max(0, bsize - bpos);
+    return in == null ? a : a + in.available();
+  }
+
   @Override
   public final void close() throws IOException {
     if(in != null && !(in instanceof FilterInputStream)) in.close();
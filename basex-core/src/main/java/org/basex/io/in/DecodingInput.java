@@ -16,6 +16,8 @@ import java.io.*;
 public final class DecodingInput extends InputStream {
   /** Input stream. */
   private final InputStream input;
+  /** Buffer input, whose buffer will be decoded directly ({@code null} if not available). */
+  private final BufferInput buffer;
   /** All bytes have been read. */
   private boolean more = true;
 
@@ -25,6 +27,7 @@ public final class DecodingInput extends InputStream {
    */
   public DecodingInput(final InputStream input) {
     this.input = input;
+    buffer = input.getClass() == BufferInput.class ? (BufferInput) input : null;
   }
 
   @Override
@@ -37,6 +40,55 @@ public final class DecodingInput extends InputStream {
     return -1;
   }
 
+  /**
+   * Reads and decodes a block of bytes. If the wrapped stream is a {@link BufferInput},
+   * the bytes are decoded directly from its buffer.
+   * @param b target array
+   * @param off offset
+   * @param len maximum number of bytes
+   * @return number of decoded bytes, or {@code -1} if all bytes have been read
+   * @throws IOException I/O exception
+   */
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if(!more) return -1;
+    int n = 0;
+    while(n < len && more) {
+      final BufferInput bi = buffer;
+      if(bi != null && bi.bpos < bi.bsize) {
+        // decode buffered bytes
+        final byte[] array = bi.array;
+        final int size = bi.bsize;
+        int p = bi.bpos;
+        while(n < len && p < size) {
+          final byte c = array[p];
+          if(c == 0) {
+            more = false;
+            p++;
+            break;
+          }
+          if(c == (byte) 0xFF) {
+            // escaped byte is not buffered yet: read it below
+            if(p + 1 == size) break;
+            p++;
+          }
+          b[off + n++] = array[p++];
+        }
+        bi.bpos = p;
+        if(n == len || !more) break;
+      }
+      // return bytes that have been decoded so far instead of blocking
+      if(n > 0 && input.available() == 0) break;
+      final int c = read();
+      if(c == -1) {
+        more = false;
+        break;
+      }
+      b[off + n++] = (byte) c;
+    }
+    return n == 0 && !more ? -1 : n;
+  }
+
   /**
    * Flushes the remaining client data.
    * @throws IOException I/O exception
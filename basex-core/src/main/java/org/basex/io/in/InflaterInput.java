@@ -0,0 +1,91 @@
+package org.basex.io.in;
+
+import java.io.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+
+/**
+ * This class decompresses a stream that has been compressed with the deflate algorithm.
+ * In contrast to {@link InflaterInputStream}, {@link #available()} returns the number of
+ * bytes that can be read without blocking, and {@code 0} if a compressed block has been
+ * completely read. This way, it can be checked if a client has sent more data.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class InflaterInput extends InputStream {
+  /** Input stream. */
+  private final InputStream in;
+  /** Inflater. */
+  private final Inflater inflater = new Inflater();
+  /** Compressed input. */
+  private final byte[] input = new byte[IO.BLOCKSIZE];
+  /** Decompressed output. */
+  private final byte[] output = new byte[IO.BLOCKSIZE];
+  /** Current output position. */
+  private int opos;
+  /** Current output size. */
+  private int osize;
+
+  /**
+   * Constructor.
+   * @param in input stream to be wrapped
+   */
+  public InflaterInput(final InputStream in) {
+    this.in = in;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return opos < osize || fill(true) ? output[opos++] & 0xFF : -1;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if(len == 0) return 0;
+    if(opos == osize && !fill(true)) return -1;
+    final int l = Math.min(len, osize - opos);
+    System.arraycopy(output, opos, b, off, l);
+    opos += l;
+    return l;
+  }
+
+  @Override
+  public int available() throws IOException {
+    if(opos == osize) fill(false);
+    return osize - opos;
+  }
+
+  @Override
+  public void close() throws IOException {
+    inflater.end();
+    in.close();
+  }
+
+  /**
+   * Decompresses the next bytes.
+   * @param block block until data is available
+   * @return {@code false} if no more data is available
+   * @throws IOException I/O exception
+   */
+  private boolean fill(final boolean block) throws IOException {
+    opos = 0;
+    osize = 0;
+    try {
+      while(true) {
+        osize = inflater.inflate(output);
+        if(osize > 0) return true;
+        if(inflater.finished() || inflater.needsDictionary()) return false;
+        if(inflater.needsInput()) {
+          if(!block && in.available() <= 0) return false;
+          final int r = in.read(input);
+          if(r == -1) return false;
+          inflater.setInput(input, 0, r);
+        }
+      }
+    } catch(final DataFormatException ex) {
+      throw new IOException(ex);
+    }
+  }
+}
@@ -31,6 +31,22 @@ public final class EncodingOutput extends OutputStream {
     os.write(b);
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    // write chunks of bytes that need not be escaped
+    final int end = off + len;
+    int s = off;
+    for(int i = off; i < end; i++) {
+      final int c = b[i] & 0xFF;
+      if(c == 0x00 || c == 0xFF) {
+        os.write(b, s, i - s);
+        os.write(0xFF);
+        s = i;
+      }
+    }
+    os.write(b, s, end - s);
+  }
+
   @Override
   public void flush() throws IOException {
     os.flush();
@@ -15,4 +15,6 @@ final class Buffer {
   long pos = -1;
   /** Dirty flag. */
   boolean dirty;
+  /** Reference flag (set if the buffer is accessed again). */
+  boolean ref;
 }
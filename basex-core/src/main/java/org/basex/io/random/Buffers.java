@@ -1,32 +1,112 @@
 package org.basex.io.random;
 
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+import org.basex.io.*;
+
 /**
- * This class provides a simple, clock-based buffer management.
+ * This class provides a clock-based buffer management.
+ *
+ * Buffers are allocated on demand. Each instance may use at least {@link #MIN} buffers;
+ * additional buffers will be allocated as long as the process-wide budget, which is
+ * shared by all instances, has not been exhausted. If no buffer can be allocated,
+ * the next victim is chosen via the clock algorithm: buffers that have been referenced
+ * again since they were read get a second chance. As the reference flag is only set when
+ * a buffer is accessed again, blocks that are read only once (e.g., by a sequential scan)
+ * are replaced first.
+ *
+ * If the budget is exhausted, an instance with fewer buffers than its fair share (the budget
+ * divided by the number of instances) reclaims a clean buffer from the instance with the
+ * largest number of buffers. This way, buffers of files that are not accessed anymore are
+ * handed on to the files that are currently in use.
  *
  * @author BaseX Team 2005-15, BSD License
  * @author Christian Gruen
  */
-final class Buffers {
-  /** Number of buffers (must be 1 << n). */
-  private static final int BUFFERS = 1 << 4;
-  /** Buffers. */
-  private final Buffer[] buf = new Buffer[BUFFERS];
+public final class Buffers {
+  /** Minimum number of buffers per instance (must be 1 << n). */
+  private static final int MIN = 1 << 4;
+  /** Maximum number of buffers, shared by all instances. */
+  private static volatile int max = 1 << 13;
+  /** Number of buffers allocated by all instances. */
+  private static final AtomicInteger ALLOCATED = new AtomicInteger();
+  /** All open instances. */
+  private static final Set<Buffers> INSTANCES =
+      Collections.newSetFromMap(new ConcurrentHashMap<Buffers, Boolean>());
+
+  /** Lock for changing the buffer structures. */
+  private final Lock lock = new ReentrantLock();
+  /** Buffers (entries may be {@code null} if a buffer has been reclaimed). */
+  private Buffer[] buf = new Buffer[MIN];
+  /** Number of used buffer slots. */
+  private int slots;
+  /** Number of allocated buffers. */
+  private volatile int size;
+  /** Hash buckets, pointing to the first buffer of a chain (offset by 1; 0: empty bucket). */
+  private int[] buckets;
+  /** Pointers to the next buffers in a chain (offset by 1; 0: end of chain). */
+  private int[] next;
+  /** Number of bits used for hashing. */
+  private int bits;
   /** Current buffer offset. */
   private int off;
+  /** Clock hand. */
+  private int hand;
+  /** Number of requests that could be served by a buffer. */
+  private long hits;
+  /** Number of requests that required a block to be read. */
+  private long misses;
 
   /**
    * Constructor.
    */
   Buffers() {
-    for(int b = 0; b < BUFFERS; ++b) buf[b] = new Buffer();
+    rehash();
+    add();
+    INSTANCES.add(this);
+  }
+
+  /**
+   * Assigns the maximum size of all buffers.
+   * @param kb size in kilobytes
+   */
+  public static void max(final int kb) {
+    max = Math.max(MIN, (int) ((long) kb * 1024 / IO.BLOCKSIZE));
+  }
+
+  /**
+   * Returns the maximum number of buffers, shared by all instances.
+   * @return maximum number of buffers
+   */
+  public static int max() {
+    return max;
+  }
+
+  /**
+   * Returns the number of buffers allocated by all instances.
+   * @return number of buffers
+   */
+  public static int allocated() {
+    return ALLOCATED.get();
   }
 
   /**
-   * Returns all buffers.
+   * Returns all allocated buffers.
    * @return buffers
    */
   Buffer[] all() {
-    return buf;
+    lock.lock();
+    try {
+      final Buffer[] all = new Buffer[size];
+      int a = 0;
+      for(int b = 0; b < slots; b++) if(buf[b] != null) all[a++] = buf[b];
+      return all;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -39,15 +119,219 @@ final class Buffers {
 
   /**
    * Chooses a buffer and sets the offset.
+   * If {@code true} is returned, the current buffer must be assigned the new position.
    * @param p buffer pointer
    * @return true if cursor has changed
    */
   boolean cursor(final long p) {
-    final int o = off;
-    do {
-      if(buf[off].pos == p) return false;
-    } while((off = off + 1 & BUFFERS - 1) != o);
-    off = o + 1 & BUFFERS - 1;
-    return true;
+    if(buf[off].pos == p) return false;
+
+    lock.lock();
+    try {
+      // check if block has already been buffered
+      for(int b = buckets[hash(p)]; b != 0; b = next[b - 1]) {
+        final Buffer bf = buf[b - 1];
+        if(bf.pos == p) {
+          bf.ref = true;
+          off = b - 1;
+          hits++;
+          return false;
+        }
+      }
+
+      // choose new buffer: allocate new buffer or replace existing one
+      misses++;
+      if(buf[off].pos == -1) {
+        // current buffer has not been assigned yet
+        unlink(off);
+      } else if(grow()) {
+        off = add();
+      } else {
+        while(buf[hand] == null || buf[hand].ref) {
+          if(buf[hand] != null) buf[hand].ref = false;
+          hand = (hand + 1) % slots;
+        }
+        off = hand;
+        hand = (hand + 1) % slots;
+        unlink(off);
+      }
+      // link buffer with new position (position itself will be assigned by the caller)
+      final int h = hash(p);
+      buf[off].ref = false;
+      next[off] = buckets[h];
+      buckets[h] = off + 1;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of allocated buffers.
+   * @return number of buffers
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of requests that could be served by a buffer.
+   * @return number of hits
+   */
+  public long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of requests that required a block to be read.
+   * @return number of misses
+   */
+  public long misses() {
+    return misses;
+  }
+
+  /**
+   * Releases all buffers from the process-wide budget.
+   */
+  void close() {
+    INSTANCES.remove(this);
+    lock.lock();
+    try {
+      ALLOCATED.addAndGet(-size);
+      size = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Checks if a new buffer can be allocated.
+   * @return result of check
+   */
+  private boolean grow() {
+    if(ALLOCATED.get() < max) return size < max;
+    // budget exhausted: reclaim a buffer from another instance
+    return size < share() && reclaim() || size < MIN;
+  }
+
+  /**
+   * Returns the number of buffers an instance may keep if the budget is exhausted.
+   * @return number of buffers
+   */
+  private static int share() {
+    return Math.max(MIN, max / Math.max(1, INSTANCES.size()));
+  }
+
+  /**
+   * Reclaims a buffer from the instance with the largest number of buffers.
+   * @return success flag
+   */
+  private boolean reclaim() {
+    Buffers victim = null;
+    for(final Buffers bs : INSTANCES) {
+      if(bs != this && (victim == null || bs.size > victim.size)) victim = bs;
+    }
+    return victim != null && victim.release();
+  }
+
+  /**
+   * Releases a clean buffer if this instance exceeds its fair share.
+   * Does not wait for the lock, as the calling instance already holds its own lock.
+   * @return success flag
+   */
+  private boolean release() {
+    if(size <= share() || !lock.tryLock()) return false;
+    try {
+      final int s = size;
+      if(s <= share()) return false;
+      // choose victim via the clock algorithm; skip current and dirty buffers
+      for(int i = 0; i < slots << 1; i++) {
+        final int b = hand;
+        hand = (hand + 1) % slots;
+        final Buffer bf = buf[b];
+        if(bf == null || b == off || bf.dirty) continue;
+        if(bf.ref) {
+          bf.ref = false;
+        } else {
+          unlink(b);
+          buf[b] = null;
+          size = s - 1;
+          ALLOCATED.decrementAndGet();
+          return true;
+        }
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Allocates a new buffer.
+   * @return offset of the new buffer
+   */
+  private int add() {
+    int b = 0;
+    if(size < slots) {
+      // reuse slot of a reclaimed buffer
+      while(buf[b] != null) b++;
+    } else {
+      if(slots == buf.length) {
+        buf = Arrays.copyOf(buf, slots << 1);
+        rehash();
+      }
+      b = slots++;
+    }
+    buf[b] = new Buffer();
+    ALLOCATED.incrementAndGet();
+    size++;
+    return b;
+  }
+
+  /**
+   * Removes the specified buffer from its hash chain.
+   * @param b buffer offset
+   */
+  private void unlink(final int b) {
+    final long p = buf[b].pos;
+    if(p == -1) return;
+    final int h = hash(p);
+    if(buckets[h] == b + 1) {
+      buckets[h] = next[b];
+    } else {
+      int c = buckets[h];
+      while(next[c - 1] != b + 1) c = next[c - 1];
+      next[c - 1] = next[b];
+    }
+    next[b] = 0;
+  }
+
+  /**
+   * Resizes the hash structures and re-indexes all buffers.
+   */
+  private void rehash() {
+    final int cap = buf.length << 1;
+    bits = Integer.numberOfTrailingZeros(cap);
+    buckets = new int[cap];
+    next = new int[buf.length];
+    for(int b = 0; b < slots; b++) {
+      if(buf[b] == null) continue;
+      final long p = buf[b].pos;
+      if(p == -1) continue;
+      final int h = hash(p);
+      next[b] = buckets[h];
+      buckets[h] = b + 1;
+    }
+  }
+
+  /**
+   * Computes the hash bucket for the specified position.
+   * @param p position
+   * @return bucket
+   */
+  private int hash(final long p) {
+    return (int) (p ^ p >>> 32) * 0x9E3779B9 >>> 32 - bits;
   }
 }
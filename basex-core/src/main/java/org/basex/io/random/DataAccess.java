@@ -1,17 +1,28 @@
 package org.basex.io.random;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.io.*;
 import org.basex.util.*;
 
 /**
  * This class allows positional read and write access to a database file.
+ * Tokens can also be read by concurrent threads via {@link #readToken(long, boolean)}:
+ * tokens are served from the buffers as long as no other thread is reading a token. Otherwise,
+ * if no data has been written since the last flush, positional reads will be performed,
+ * and the shared cursor will not be changed.
  *
  * @author BaseX Team 2005-15, BSD License
  * @author Christian Gruen
  */
 public final class DataAccess implements Closeable {
+  /** Number of bytes that are read in advance by positional reads. */
+  private static final int CHUNK = 1 << 7;
+
   /** Buffer manager. */
   private final Buffers bm = new Buffers();
   /** Reference to the data input stream. */
@@ -22,6 +33,14 @@ public final class DataAccess implements Closeable {
   private boolean changed;
   /** Offset. */
   private int off;
+  /** Memory mapping (dropped by the first write operation). */
+  private volatile Mapping map;
+  /** File position in mapped mode. */
+  private long mpos;
+  /** Indicates if data has been written since the last flush. */
+  private volatile boolean written;
+  /** Indicates if a token is currently read via the shared cursor. */
+  private final AtomicBoolean reading = new AtomicBoolean();
 
   /**
    * Constructor, initializing the file reader.
@@ -34,6 +53,7 @@ public final class DataAccess implements Closeable {
       f = new RandomAccessFile(file.file(), "rw");
       length = f.length();
       raf = f;
+      map = Mapping.get(f);
       cursor(0);
     } catch(final IOException ex) {
       if(f != null) f.close();
@@ -51,6 +71,7 @@ public final class DataAccess implements Closeable {
         raf.setLength(length);
         changed = false;
       }
+      written = false;
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -59,11 +80,21 @@ public final class DataAccess implements Closeable {
   @Override
   public synchronized void close() {
     flush();
+    map = null;
     try {
       raf.close();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
+    bm.close();
+  }
+
+  /**
+   * Returns the buffer manager.
+   * @return buffer manager
+   */
+  public Buffers buffers() {
+    return bm;
   }
 
   /**
@@ -71,7 +102,7 @@ public final class DataAccess implements Closeable {
    * @return position in the file
    */
   public long cursor() {
-    return buffer(false).pos + off;
+    return map != null ? mpos : buffer(false).pos + off;
   }
 
   /**
@@ -164,6 +195,33 @@ public final class DataAccess implements Closeable {
     return readToken();
   }
 
+  /**
+   * Reads a token from disk. This method can be called by concurrent threads. If another thread
+   * is reading a token via the shared cursor, the token will be read via positional access.
+   * @param pos text position
+   * @param packed decompress token
+   * @return text as byte array
+   */
+  public byte[] readToken(final long pos, final boolean packed) {
+    // use the shared cursor and the buffers if no other thread is reading a token
+    final boolean shared = reading.compareAndSet(false, true);
+    try {
+      if(!shared && !written) {
+        try {
+          final byte[] token = read(pos, packed);
+          if(token != null) return token;
+        } catch(final IOException ex) {
+          Util.debug(ex);
+        }
+      }
+      // no contention, pending changes, or positional read failed: use shared cursor
+      final byte[] token = readToken(pos);
+      return packed ? Compress.unpack(token) : token;
+    } finally {
+      if(shared) reading.set(false);
+    }
+  }
+
   /**
    * Reads the next token from disk.
    * @return text as byte array
@@ -190,6 +248,13 @@ public final class DataAccess implements Closeable {
    * @return byte array
    */
   public synchronized byte[] readBytes(final int len) {
+    if(map != null) {
+      final byte[] b = new byte[len];
+      map.read(mpos, b, 0, len);
+      mpos += len;
+      return b;
+    }
+
     int l = len;
     int ll = IO.BLOCKSIZE - off;
     final byte[] b = new byte[l];
@@ -213,6 +278,11 @@ public final class DataAccess implements Closeable {
    * @param pos read position
    */
   public void cursor(final long pos) {
+    if(map != null) {
+      mpos = pos;
+      return;
+    }
+
     off = (int) (pos & IO.BLOCKSIZE - 1);
     final long b = pos - off;
     if(!bm.cursor(b)) return;
@@ -310,6 +380,7 @@ public final class DataAccess implements Closeable {
    * @param len token length
    */
   public void writeBytes(final byte[] buffer, final int offset, final int len) {
+    modify();
     final int last = offset + len;
     int o = offset;
 
@@ -380,6 +451,7 @@ public final class DataAccess implements Closeable {
    * @param len file length
    */
   private synchronized void length(final long len) {
+    modify();
     if(len != length) {
       changed = true;
       length = len;
@@ -393,6 +465,7 @@ public final class DataAccess implements Closeable {
    * @return next byte
    */
   private int read() {
+    if(map != null) return map.read1(mpos++) & 0xFF;
     final Buffer bf = buffer();
     return bf.data[off++] & 0xFF;
   }
@@ -402,6 +475,7 @@ public final class DataAccess implements Closeable {
    * @param value byte to be written
    */
   private void write(final int value) {
+    modify();
     final Buffer bf = buffer();
     bf.dirty = true;
     bf.data[off++] = (byte) value;
@@ -437,6 +511,73 @@ public final class DataAccess implements Closeable {
     }
   }
 
+  /**
+   * Prepares a write operation: disables positional reads until the next flush,
+   * drops the memory mapping and continues with buffered access.
+   */
+  private void modify() {
+    written = true;
+    if(map != null) {
+      map = null;
+      cursor(mpos);
+    }
+  }
+
+  /**
+   * Reads a token via positional access.
+   * @param pos position
+   * @param packed decompress token
+   * @return token, or {@code null} if the entry at the specified position is invalid
+   * @throws IOException I/O exception
+   */
+  private byte[] read(final long pos, final boolean packed) throws IOException {
+    final int cl = (int) Math.min(CHUNK, length - pos);
+    if(cl <= 0) return null;
+    final byte[] chunk = new byte[cl];
+    read(pos, chunk, 0, cl);
+
+    final int s = Num.length(chunk, 0);
+    if(s > cl) return null;
+    final int l = Num.get(chunk, 0), e = s + l;
+    if(e <= cl) {
+      // token is completely contained in the chunk
+      if(!packed) return Arrays.copyOfRange(chunk, s, e);
+      final byte[] token = new byte[Compress.length(chunk, s)];
+      Compress.unpack(chunk, s, token);
+      return token;
+    }
+    if(pos + e > length) return null;
+    final byte[] token = new byte[l];
+    System.arraycopy(chunk, s, token, 0, cl - s);
+    read(pos + cl, token, cl - s, e - cl);
+    return packed ? Compress.unpack(token) : token;
+  }
+
+  /**
+   * Reads a number of bytes from the specified position, either from the memory mapping
+   * or from the file channel. The shared cursor will not be changed.
+   * @param pos position
+   * @param bytes target array
+   * @param off offset in the target array
+   * @param len number of bytes to read
+   * @throws IOException I/O exception
+   */
+  private void read(final long pos, final byte[] bytes, final int off, final int len)
+      throws IOException {
+    final Mapping m = map;
+    if(m != null) {
+      m.read(pos, bytes, off, len);
+    } else {
+      final FileChannel fc = raf.getChannel();
+      final ByteBuffer bb = ByteBuffer.wrap(bytes, off, len);
+      for(long p = pos; bb.hasRemaining();) {
+        final int r = fc.read(bb, p);
+        if(r == -1) throw new EOFException();
+        p += r;
+      }
+    }
+  }
+
   /**
    * Writes the specified block to disk.
    * @param buffer buffer to write
@@ -0,0 +1,129 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.basex.util.*;
+
+/**
+ * This class provides read access to a memory-mapped file.
+ * Files larger than 1 GB are mapped in several segments.
+ * All methods are thread-safe, as absolute positions are used for reading.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class Mapping {
+  /** Bits of a segment size. */
+  private static final int POWER = 30;
+  /** Size of a segment. */
+  private static final int SEGMENT = 1 << POWER;
+  /** Flag for mapping files. */
+  private static volatile boolean enabled;
+
+  /** Mapped segments. */
+  private final MappedByteBuffer[] segments;
+
+  /**
+   * Constructor.
+   * @param segments mapped segments
+   */
+  private Mapping(final MappedByteBuffer[] segments) {
+    this.segments = segments;
+  }
+
+  /**
+   * Enables or disables the mapping of files.
+   * @param map flag
+   */
+  public static void enable(final boolean map) {
+    enabled = map;
+  }
+
+  /**
+   * Maps the specified file into memory.
+   * @param file file to be mapped
+   * @return mapping, or {@code null} if mapping is disabled or failed
+   */
+  static Mapping get(final RandomAccessFile file) {
+    if(!enabled) return null;
+    try {
+      final FileChannel fc = file.getChannel();
+      final long length = fc.size();
+      final int sl = (int) ((length + SEGMENT - 1) >>> POWER);
+      final MappedByteBuffer[] segments = new MappedByteBuffer[sl];
+      for(int s = 0; s < sl; s++) {
+        final long pos = (long) s << POWER;
+        segments[s] = fc.map(MapMode.READ_ONLY, pos, Math.min(SEGMENT, length - pos));
+      }
+      return new Mapping(segments);
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      return null;
+    }
+  }
+
+  /**
+   * Reads a byte value from the specified position.
+   * @param pos position
+   * @return byte value
+   */
+  byte read1(final long pos) {
+    return segments[(int) (pos >>> POWER)].get((int) (pos & SEGMENT - 1));
+  }
+
+  /**
+   * Reads a short value from the specified position.
+   * The value must not span two segments.
+   * @param pos position
+   * @return short value
+   */
+  int read2(final long pos) {
+    return segments[(int) (pos >>> POWER)].getShort((int) (pos & SEGMENT - 1)) & 0xFFFF;
+  }
+
+  /**
+   * Reads an integer value from the specified position.
+   * The value must not span two segments.
+   * @param pos position
+   * @return integer value
+   */
+  int read4(final long pos) {
+    return segments[(int) (pos >>> POWER)].getInt((int) (pos & SEGMENT - 1));
+  }
+
+  /**
+   * Reads a 5-byte value from the specified position.
+   * The value must not span two segments.
+   * @param pos position
+   * @return long value
+   */
+  long read5(final long pos) {
+    final MappedByteBuffer mbb = segments[(int) (pos >>> POWER)];
+    final int p = (int) (pos & SEGMENT - 1);
+    return ((long) (mbb.get(p) & 0xFF) << 32) + (mbb.getInt(p + 1) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Reads a number of bytes from the specified position.
+   * @param pos position
+   * @param bytes target array
+   * @param off offset in the target array
+   * @param len number of bytes to read
+   */
+  void read(final long pos, final byte[] bytes, final int off, final int len) {
+    long p = pos;
+    int o = off, l = len;
+    while(l > 0) {
+      final ByteBuffer bb = segments[(int) (p >>> POWER)].duplicate();
+      final int s = (int) (p & SEGMENT - 1), n = Math.min(l, SEGMENT - s);
+      bb.position(s);
+      bb.get(bytes, o, n);
+      p += n;
+      o += n;
+      l -= n;
+    }
+  }
+}
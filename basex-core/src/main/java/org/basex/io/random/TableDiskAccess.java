@@ -16,7 +16,8 @@ import org.basex.util.*;
 /**
  * This class stores the table on disk and reads it block-wise.
  *
- * NOTE: this class is not thread-safe.
+ * Read operations are thread-safe: each reading thread has its own cursor with a copy of
+ * the currently accessed block. Write operations require exclusive access to the table.
  *
  * @author BaseX Team 2005-15, BSD License
  * @author Christian Gruen
@@ -31,6 +32,17 @@ public final class TableDiskAccess extends TableAccess {
   private BitArray usedPages;
   /** File lock. */
   private FileLock fl;
+  /** Memory mapping (only assigned if pages are regular; dropped by the first update). */
+  private volatile Mapping map;
+  /** Cursors of the reading threads. */
+  private final ThreadLocal<Cursor> cursors = new ThreadLocal<Cursor>() {
+    @Override
+    protected Cursor initialValue() {
+      return new Cursor();
+    }
+  };
+  /** Modification counter (invalidates the cursors of the reading threads). */
+  private volatile int version;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fpres;
@@ -85,6 +97,7 @@ public final class TableDiskAccess extends TableAccess {
     // initialize data file
     file = new RandomAccessFile(meta.dbfile(DATATBL).file(), "rw");
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, md.name);
+    if(!write && fpres == null) map = Mapping.get(file);
   }
 
   /**
@@ -128,11 +141,23 @@ public final class TableDiskAccess extends TableAccess {
   @Override
   public synchronized void close() throws IOException {
     flush(true);
+    map = null;
     file.close();
+    bm.close();
+  }
+
+  /**
+   * Returns the buffer manager.
+   * @return buffer manager
+   */
+  public Buffers buffers() {
+    return bm;
   }
 
   @Override
   public boolean lock(final boolean write) {
+    if(write) map = null;
+    version++;
     try {
       if(fl != null && write != fl.isShared()) return true;
       if(fl != null) fl.release();
@@ -144,37 +169,48 @@ public final class TableDiskAccess extends TableAccess {
   }
 
   @Override
-  public synchronized int read1(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
-    return b[o] & 0xFF;
+  public int read1(final int pre, final int off) {
+    final Mapping m = map;
+    if(m != null) return m.read1(position(pre, off)) & 0xFF;
+    final Cursor c = reader(pre);
+    return c.data[c.offset(pre) + off] & 0xFF;
   }
 
   @Override
-  public synchronized int read2(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
+  public int read2(final int pre, final int off) {
+    final Mapping m = map;
+    if(m != null) return m.read2(position(pre, off));
+    final Cursor c = reader(pre);
+    final int o = c.offset(pre) + off;
+    final byte[] b = c.data;
     return ((b[o] & 0xFF) << 8) + (b[o + 1] & 0xFF);
   }
 
   @Override
-  public synchronized int read4(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
+  public int read4(final int pre, final int off) {
+    final Mapping m = map;
+    if(m != null) return m.read4(position(pre, off));
+    final Cursor c = reader(pre);
+    final int o = c.offset(pre) + off;
+    final byte[] b = c.data;
     return ((b[o] & 0xFF) << 24) + ((b[o + 1] & 0xFF) << 16) +
       ((b[o + 2] & 0xFF) << 8) + (b[o + 3] & 0xFF);
   }
 
   @Override
-  public synchronized long read5(final int pre, final int off) {
-    final int o = off + cursor(pre);
-    final byte[] b = bm.current().data;
+  public long read5(final int pre, final int off) {
+    final Mapping m = map;
+    if(m != null) return m.read5(position(pre, off));
+    final Cursor c = reader(pre);
+    final int o = c.offset(pre) + off;
+    final byte[] b = c.data;
     return ((long) (b[o] & 0xFF) << 32) + ((long) (b[o + 1] & 0xFF) << 24) +
       ((b[o + 2] & 0xFF) << 16) + ((b[o + 3] & 0xFF) << 8) + (b[o + 4] & 0xFF);
   }
 
   @Override
   public void write1(final int pre, final int off, final int v) {
+    version++;
     final int o = off + cursor(pre);
     final Buffer bf = bm.current();
     final byte[] b = bf.data;
@@ -184,6 +220,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write2(final int pre, final int off, final int v) {
+    version++;
     final int o = off + cursor(pre);
     final Buffer bf = bm.current();
     final byte[] b = bf.data;
@@ -194,6 +231,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write4(final int pre, final int off, final int v) {
+    version++;
     final int o = off + cursor(pre);
     final Buffer bf = bm.current();
     final byte[] b = bf.data;
@@ -206,6 +244,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write5(final int pre, final int off, final long v) {
+    version++;
     final int o = off + cursor(pre);
     final Buffer bf = bm.current();
     final byte[] b = bf.data;
@@ -219,6 +258,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   protected void copy(final byte[] entries, final int pre, final int last) {
+    version++;
     for(int o = 0, i = pre; i < last; ++i, o += IO.NODESIZE) {
       final int off = cursor(i);
       final Buffer bf = bm.current();
@@ -417,6 +457,8 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   protected void dirty() {
+    map = null;
+    version++;
     // initialize data structures required for performing updates
     if(fpres == null) {
       final int b = blocks;
@@ -433,6 +475,41 @@ public final class TableDiskAccess extends TableAccess {
 
   // PRIVATE METHODS ==========================================================
 
+  /**
+   * Returns the file position of an entry in a table with regular pages.
+   * @param pre pre value
+   * @param off offset in the entry
+   * @return position
+   */
+  private static long position(final int pre, final int off) {
+    return ((long) pre << IO.NODEPOWER) + off;
+  }
+
+  /**
+   * Returns the cursor of the current thread, pointing to the block with the specified entry.
+   * @param pre pre value
+   * @return cursor
+   */
+  private Cursor reader(final int pre) {
+    final Cursor c = cursors.get();
+    if(c.version != version || pre < c.fpre || pre >= c.npre) load(c, pre);
+    return c;
+  }
+
+  /**
+   * Assigns the block with the specified entry to the specified cursor.
+   * @param c cursor
+   * @param pre pre value
+   */
+  private synchronized void load(final Cursor c, final int pre) {
+    c.version = version;
+    cursor(pre);
+    // always copy the block: the buffer may be replaced by another reading thread
+    System.arraycopy(bm.current().data, 0, c.data, 0, IO.BLOCKSIZE);
+    c.fpre = fpre;
+    c.npre = npre;
+  }
+
   /**
    * Searches for the block containing the entry for the specified pre value.
    * Reads the block and returns its offset inside the block.
@@ -594,4 +671,25 @@ public final class TableDiskAccess extends TableAccess {
   private int occSpace(final int i) {
     return (i + 1 < used ? fpres[i + 1] : meta.size) - fpres[i];
   }
+
+  /** Cursor of a reading thread. */
+  private static final class Cursor {
+    /** Copy of a block. */
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    /** Pre value of the first entry in the block. */
+    int fpre = -1;
+    /** First pre value of the next block. */
+    int npre = -1;
+    /** Modification counter. */
+    int version = -1;
+
+    /**
+     * Returns the offset of the specified entry in the block.
+     * @param pre pre value
+     * @return offset
+     */
+    int offset(final int pre) {
+      return pre - fpre << IO.NODEPOWER;
+    }
+  }
 }
@@ -18,6 +18,7 @@ import org.basex.io.serial.csv.*;
 import org.basex.io.serial.json.*;
 import org.basex.query.*;
 import org.basex.query.iter.*;
+import org.basex.query.up.atomic.*;
 import org.basex.query.util.ft.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
@@ -174,6 +175,10 @@ public abstract class Serializer implements Closeable {
 
     if(node instanceof DBNode) {
       node((DBNode) node);
+    } else if(node instanceof PatchedNode && ((PatchedNode) node).updates() != null) {
+      // serialize database node and apply pending updates
+      final PatchedNode pn = (PatchedNode) node;
+      new Patches(pn.updates()).walk(pn.source().pre());
     } else {
       final Type type = node.type;
       if(type == NodeType.COM) {
@@ -525,4 +530,115 @@ public abstract class Serializer implements Closeable {
     elems.push(elem);
     level++;
   }
+
+  /**
+   * Serializes a database node with pending updates. Adjacent texts are merged.
+   */
+  private final class Patches extends PatchWalker {
+    /** Indentation flags of the opened elements. */
+    private final BoolList indt = new BoolList();
+    /** Pending text (can be {@code null}). */
+    private TokenBuilder text;
+
+    /**
+     * Constructor.
+     * @param auc atomic update cache
+     */
+    Patches(final AtomicUpdateCache auc) {
+      super(auc);
+    }
+
+    @Override
+    protected void nodes(final DataClip clip) throws IOException {
+      final Data dt = clip.data;
+      for(int p = clip.start; p < clip.end; p += dt.size(p, dt.kind(p))) {
+        if(dt.kind(p) == Data.TEXT) {
+          text(dt.text(p, true));
+        } else {
+          flush();
+          Serializer.this.node(new DBNode(dt, p));
+        }
+      }
+    }
+
+    @Override
+    protected void leaf(final int pre, final int kind) throws IOException {
+      if(kind == Data.TEXT) {
+        text(value(pre, kind));
+      } else {
+        flush();
+        if(kind == Data.COMM) prepareComment(value(pre, kind));
+        else preparePi(name(pre, kind), value(pre, kind));
+      }
+    }
+
+    @Override
+    protected void open(final int pre, final int kind) throws IOException {
+      flush();
+      if(kind == Data.DOC) {
+        openDoc(data.text(pre, true));
+      } else {
+        openElement(new QNm(name(pre, kind)));
+        indt.push(indent);
+      }
+    }
+
+    @Override
+    protected void attribute(final int pre) throws IOException {
+      attribute(name(pre, Data.ATTR), value(pre, Data.ATTR));
+    }
+
+    @Override
+    protected void delete(final int pre) { }
+
+    @Override
+    protected void attributes(final DataClip clip) throws IOException {
+      final Data dt = clip.data;
+      for(int p = clip.start; p < clip.end; p++) {
+        attribute(dt.name(p, Data.ATTR), dt.text(p, false));
+      }
+    }
+
+    @Override
+    protected void close(final int pre, final int kind) throws IOException {
+      flush();
+      if(kind == Data.DOC) {
+        closeDoc();
+      } else {
+        closeElement();
+        indent = indt.pop();
+      }
+    }
+
+    /**
+     * Serializes an attribute.
+     * @param name name
+     * @param value value
+     * @throws IOException I/O exception
+     */
+    private void attribute(final byte[] name, final byte[] value) throws IOException {
+      Serializer.this.attribute(name, value, false);
+      if(eq(name, XML_SPACE) && indent) indent = !eq(value, PRESERVE);
+    }
+
+    /**
+     * Caches a text, which will be merged with adjacent texts.
+     * @param value value
+     */
+    private void text(final byte[] value) {
+      if(text == null) text = new TokenBuilder(value);
+      else text.add(value);
+    }
+
+    /**
+     * Serializes a pending text.
+     * @throws IOException I/O exception
+     */
+    private void flush() throws IOException {
+      if(text != null) {
+        prepareText(text.finish(), null);
+        text = null;
+      }
+    }
+  }
 }
@@ -14,6 +14,7 @@ import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
 /**
@@ -128,6 +129,17 @@ public final class MainModule extends StaticScope {
     };
   }
 
+  /**
+   * Creates a copy of this uncompiled module for the specified query context.
+   * @param qc query context
+   * @return copy
+   */
+  MainModule copy(final QueryContext qc) {
+    final IntObjMap<Var> vs = new IntObjMap<>();
+    final VarScope scp = scope.copy(qc, vs);
+    return new MainModule(expr.copy(qc, scp, vs), scp, declType, null, sc, info);
+  }
+
   @Override
   public String toString() {
     return expr.toString();
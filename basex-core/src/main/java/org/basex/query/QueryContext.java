@@ -92,7 +92,7 @@ public final class QueryContext extends Proc implements Closeable {
   /** Current full-text token. */
   public FTLexer ftToken;
   /** Current full-text options. */
-  private FTOpt ftOpt;
+  FTOpt ftOpt;
   /** Full-text token positions (needed for highlighting full-text results). */
   public int ftPos;
   /** Scoring flag. */
@@ -138,11 +138,17 @@ public final class QueryContext extends Proc implements Closeable {
 
   /** Root expression of the query. */
   public MainModule root;
+  /** Query plan from which the query was copied (can be {@code null}). */
+  private QueryPlan plan;
+  /** Copies of static declarations (only assigned while a query plan is copied). */
+  private IdentityHashMap<StaticDecl, StaticDecl> copies;
 
   /** Serialization parameters. */
-  private SerializerOptions serParams;
+  SerializerOptions serParams;
   /** Indicates if the default serialization parameters are used. */
   public boolean defaultOutput;
+  /** Indicates if the results will only be serialized. */
+  public boolean serialize;
 
   /** Indicates if the query has been compiled. */
   private boolean compiled;
@@ -247,6 +253,79 @@ public final class QueryContext extends Proc implements Closeable {
     updating = rt.expr.has(Flag.UPD);
   }
 
+  /**
+   * Assigns copies of the functions, variables and the main module of a parsed query plan,
+   * and the options that have been declared in the query.
+   * @param qp query plan, which must have been acquired before
+   * @throws QueryException query exception
+   */
+  public void plan(final QueryPlan qp) throws QueryException {
+    // assign plan first: it will be released when the query context is closed
+    plan = qp;
+    info.query = qp.query;
+    copies = new IdentityHashMap<>();
+    try {
+      // declare all functions and variables before their expressions are copied
+      final ArrayList<StaticDecl> decls = new ArrayList<>();
+      final ArrayList<IntObjMap<Var>> maps = new ArrayList<>();
+      for(final StaticFunc sf : qp.funcs.funcs()) {
+        final IntObjMap<Var> vs = new IntObjMap<>();
+        copies.put(sf, sf.copy(this, vs));
+        decls.add(sf);
+        maps.add(vs);
+      }
+      for(final StaticVar sv : qp.vars) {
+        final IntObjMap<Var> vs = new IntObjMap<>();
+        copies.put(sv, sv.copy(this, vs));
+        decls.add(sv);
+        maps.add(vs);
+      }
+      final int ds = decls.size();
+      for(int d = 0; d < ds; d++) {
+        final StaticDecl decl = decls.get(d), copy = copies.get(decl);
+        if(decl.expr != null) copy.expr = decl.expr.copy(this, copy.scope, maps.get(d));
+      }
+      if(qp.root != null) root = qp.root.copy(this);
+    } finally {
+      copies = null;
+    }
+
+    if(qp.serParams != null) serParams = new SerializerOptions(qp.serParams);
+    if(qp.ftOpt != null) ftOpt().copy(qp.ftOpt);
+    if(qp.collations != null) {
+      collations = new TokenObjMap<>();
+      for(final byte[] key : qp.collations) collations.put(key, qp.collations.get(key));
+    }
+    for(final Option<?> opt : qp.staticOpts) staticOpts.put(opt, context.options.get(opt));
+    tempOpts.add(qp.tempOpts);
+    readLocks.add(qp.readLocks);
+    writeLocks.add(qp.writeLocks);
+    updating = qp.updating;
+  }
+
+  /**
+   * Returns the copy of the specified declaration if a query plan is currently copied.
+   * @param decl declaration
+   * @param <T> declaration type
+   * @return copy, or specified declaration
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends StaticDecl> T decl(final T decl) {
+    final StaticDecl copy = copies != null ? copies.get(decl) : null;
+    return copy != null ? (T) copy : decl;
+  }
+
+  /**
+   * Checks if the parsed query can be copied to other query contexts.
+   * This is not the case if the query has been parsed with custom resources, or if it
+   * contains declarations or imports that cannot be copied.
+   * @return result of check
+   */
+  boolean copyable() {
+    return ctxItem == null && vars.copyable() && modDeclared.isEmpty() &&
+        resources.modules == null && stop == null && thes == null;
+  }
+
   /**
    * Checks function calls and variable references.
    * @param main main module
@@ -590,6 +669,10 @@ public final class QueryContext extends Proc implements Closeable {
   public void close() {
     // close only once
     if(closed) return;
+    if(plan != null) {
+      plan.release();
+      plan = null;
+    }
 
     if(qcParent == null) {
       closed = true;
@@ -812,6 +895,32 @@ public final class QueryContext extends Proc implements Closeable {
     return as;
   }
 
+  /**
+   * Creates a context for evaluating expressions of this query in another thread.
+   * The focus, the date and time context and the local variables of the current stack frame
+   * are adopted. Resources are shared with this context.
+   * @return new context
+   * @throws QueryException query exception
+   */
+  public QueryContext fork() throws QueryException {
+    final QueryContext qc = new QueryContext(this);
+    initDateTime();
+    qc.time = time;
+    qc.date = date;
+    qc.dtm = dtm;
+    qc.zone = zone;
+    qc.nano = nano;
+    qc.value = value;
+    qc.pos = pos;
+    qc.size = size;
+    qc.http = http;
+    qc.scoring = scoring;
+    qc.ftOpt = ftOpt;
+    qc.maxCalls = maxCalls;
+    qc.stack.enterFrame(stack);
+    return qc;
+  }
+
   /**
    * Initializes the static date and time context of a query if not done yet.
    * @return self reference
@@ -43,6 +43,12 @@ public enum QueryError {
   BASX_ANNTYPE_X_X_X(BASX, 6, "%: % expected, % found."),
   /** BASX0007. */
   BASX_TWICE_X_X(BASX, 6, "Annotation %% was declared twice."),
+  /** BASX0008. */
+  BASX_PARALLEL(BASX, 8, "Parallel evaluation: FLWOR expression with for clause expected."),
+  /** BASX0009. */
+  BASX_PARALLEL_X(BASX, 9, "Parallel evaluation: expression must not be %."),
+  /** BASX0010. */
+  BASX_THREADS_X(BASX, 10, "Parallel evaluation: invalid number of threads: '%'."),
 
   /** XUST0002. */
   BASEX_MOD(XUST, 2, "All transform expressions must be updating or return an empty sequence."),
@@ -1752,6 +1752,14 @@ public class QueryParser extends InputParser {
     final Pragma[] pragmas = pragma();
     if(pragmas == null) return null;
     final Expr expr = enclosed(NOPRAGMA);
+    for(final Pragma pragma : pragmas) {
+      final int threads = pragma instanceof BaseXPragma ?
+        ((BaseXPragma) pragma).parallel(info()) : 0;
+      if(threads == 0) continue;
+      if(!(expr instanceof GFLWOR && ((GFLWOR) expr).parallel(threads))) {
+        throw error(BASX_PARALLEL);
+      }
+    }
     return pragmas.length == 0 ? expr : new Extension(info(), pragmas, expr);
   }
 
@@ -0,0 +1,188 @@
+package org.basex.query;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.io.serial.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.Expr.Flag;
+import org.basex.query.func.*;
+import org.basex.query.util.collation.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+import org.basex.util.options.*;
+
+/**
+ * A parsed query or module, which can be shared by all executions of the same query string.
+ * The parsed expressions are never compiled or evaluated: each query context works on its
+ * own copy (see {@link QueryContext#plan(QueryPlan)}).
+ *
+ * Node constructors temporarily add namespaces to the shared static context while they are
+ * compiled or evaluated. Plans with constructors can thus only be used by one query at a time;
+ * other queries will parse the query string again.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPlan {
+  /** Plan for queries that cannot be copied. */
+  static final QueryPlan NONE = new QueryPlan(null);
+
+  /** Query string. */
+  final String query;
+  /** Parsed main module ({@code null} for library modules and {@link #NONE}). */
+  final MainModule root;
+  /** Functions. */
+  final StaticFuncs funcs;
+  /** Static variables. */
+  final Variables vars;
+  /** Read locks. */
+  final StringList readLocks;
+  /** Write locks. */
+  final StringList writeLocks;
+  /** Updating flag. */
+  final boolean updating;
+  /** Serialization parameters (can be {@code null}). */
+  final SerializerOptions serParams;
+  /** Full-text options (can be {@code null}). */
+  final FTOpt ftOpt;
+  /** Collations (can be {@code null}). */
+  final TokenObjMap<Collation> collations;
+  /** Database options assigned by option declarations (key/value pairs). */
+  final StringList tempOpts;
+  /** Database options that will be reset after query execution. */
+  final Set<Option<?>> staticOpts;
+
+  /** Parsed module files. */
+  private final IO[] files;
+  /** Timestamps of the parsed module files. */
+  private final long[] times;
+  /** Indicates if the plan can only be used by one query at a time. */
+  private final boolean exclusive;
+  /** Indicates if the plan is currently used. */
+  private boolean used;
+
+  /**
+   * Constructor.
+   * @param qc query context with the parsed query (can be {@code null})
+   */
+  private QueryPlan(final QueryContext qc) {
+    if(qc != null) {
+      query = qc.info.query;
+      root = qc.root;
+      funcs = qc.funcs;
+      vars = qc.vars;
+      readLocks = qc.readLocks;
+      writeLocks = qc.writeLocks;
+      updating = qc.updating;
+      serParams = qc.serParams;
+      ftOpt = qc.ftOpt;
+      collations = qc.collations;
+      tempOpts = qc.tempOpts;
+      staticOpts = qc.staticOpts.keySet();
+
+      final TokenMap modules = qc.modParsed;
+      final ArrayList<IO> list = new ArrayList<>(modules.size());
+      for(final byte[] path : modules) {
+        if(path.length != 0) list.add(IO.get(string(path)));
+      }
+      final int fl = list.size();
+      files = list.toArray(new IO[fl]);
+      times = new long[fl];
+      for(int f = 0; f < fl; f++) times[f] = files[f].timeStamp();
+
+      boolean cns = root != null && root.expr.has(Flag.CNS);
+      for(final StaticFunc sf : funcs.funcs()) cns |= has(sf.expr);
+      for(final StaticVar sv : vars) cns |= has(sv.expr);
+      exclusive = cns;
+    } else {
+      query = null;
+      root = null;
+      funcs = null;
+      vars = null;
+      readLocks = null;
+      writeLocks = null;
+      updating = false;
+      serParams = null;
+      ftOpt = null;
+      collations = null;
+      tempOpts = null;
+      staticOpts = null;
+      files = null;
+      times = null;
+      exclusive = false;
+    }
+  }
+
+  /**
+   * Parses a query or module and creates a new plan.
+   * @param query query string
+   * @param path file path (may be {@code null})
+   * @param library library module flag
+   * @param ctx database context
+   * @return plan, a plan that will never be acquired if the parsed query cannot be copied,
+   *   or {@code null} if it could not be parsed
+   */
+  public static QueryPlan parse(final String query, final String path, final boolean library,
+      final Context ctx) {
+
+    final QueryContext qc = new QueryContext(ctx);
+    try {
+      qc.parse(query, library, path, null);
+      return qc.copyable() ? new QueryPlan(qc) : NONE;
+    } catch(final QueryException ex) {
+      // errors will be reported when the query is parsed again
+      Util.debug(ex);
+      return null;
+    } finally {
+      qc.close();
+    }
+  }
+
+  /**
+   * Checks if none of the parsed module files has been modified.
+   * @return result of check
+   */
+  public boolean uptodate() {
+    if(files != null) {
+      final int fl = files.length;
+      for(int f = 0; f < fl; f++) {
+        if(files[f].timeStamp() != times[f]) return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Tries to acquire the plan for a query. A plan that has been acquired will be released
+   * when the query context to which it is assigned is closed.
+   * @return success flag
+   */
+  public synchronized boolean acquire() {
+    if(funcs == null || used) return false;
+    used = exclusive;
+    return true;
+  }
+
+  /**
+   * Releases the plan.
+   */
+  synchronized void release() {
+    used = false;
+  }
+
+  /**
+   * Checks if the specified expression contains node constructors.
+   * @param expr expression (can be {@code null})
+   * @return result of check
+   */
+  private static boolean has(final Expr expr) {
+    return expr != null && expr.has(Flag.CNS);
+  }
+}
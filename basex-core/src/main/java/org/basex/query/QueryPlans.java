@@ -0,0 +1,117 @@
+package org.basex.query;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+import org.basex.core.*;
+import org.basex.core.users.*;
+import org.basex.util.*;
+
+/**
+ * This class caches the plans of parsed queries. Plans are indexed by the query string and
+ * by the options that are evaluated by the parser. Plans are parsed again if an imported
+ * module has been modified. If the maximum number of plans is exceeded, the least recently
+ * used plan is removed.
+ *
+ * Only uncompiled plans are cached: the compiler rewrites the expression tree in place and
+ * pre-evaluates expressions that depend on the opened databases, the bound variables and the
+ * current time. Instead, each query execution compiles its own copy of the parsed plan.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPlans {
+  /** Cached plans. */
+  private final LinkedHashMap<String, QueryPlan> plans;
+  /** Maximum number of plans. */
+  private final int max;
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public QueryPlans(final StaticOptions sopts) {
+    max = sopts.get(StaticOptions.PLANCACHE);
+    plans = new LinkedHashMap<String, QueryPlan>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Entry<String, QueryPlan> eldest) {
+        return size() > max;
+      }
+    };
+  }
+
+  /**
+   * Returns a plan for the specified query. If the query has not been cached yet,
+   * it will be parsed and added to the cache.
+   * @param query query string
+   * @param ctx database context
+   * @return plan, or {@code null} if no plan can be used for the query
+   */
+  QueryPlan get(final String query, final Context ctx) {
+    if(max <= 0) return null;
+
+    // external bindings will be assigned by the parser
+    final MainOptions opts = ctx.options;
+    if(!opts.get(MainOptions.BINDINGS).isEmpty()) return null;
+    // error messages depend on the permissions of the current user
+    final String key = opts.get(MainOptions.QUERYPATH) + '\0' +
+        opts.get(MainOptions.MIXUPDATES) + '\0' + ctx.user().has(Perm.ADMIN) + '\0' + query;
+
+    QueryPlan plan;
+    synchronized(this) {
+      plan = plans.get(key);
+      if(plan != null && !plan.uptodate()) plan = null;
+      if(plan != null) hits++;
+      else misses++;
+    }
+    if(plan == null) {
+      plan = QueryPlan.parse(query, null, false, ctx);
+      // plans of queries that cannot be copied are not cached
+      if(plan == null || plan == QueryPlan.NONE) return null;
+      synchronized(this) {
+        plans.put(key, plan);
+      }
+    }
+    return plan.acquire() ? plan : null;
+  }
+
+  /**
+   * Removes all plans.
+   */
+  public synchronized void clear() {
+    plans.clear();
+  }
+
+  /**
+   * Returns the number of cached plans.
+   * @return number of plans
+   */
+  public synchronized int size() {
+    return plans.size();
+  }
+
+  /**
+   * Returns the number of cache hits.
+   * @return number of hits
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of cache misses.
+   * @return number of misses
+   */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return Util.info("% of % plans, % hits, % misses", plans.size(), max, hits, misses);
+  }
+}
@@ -56,7 +56,12 @@ public final class QueryProcessor extends Proc implements Closeable {
   public void parse() throws QueryException {
     if(parsed) return;
     parsed = true;
-    qc.parseMain(query, null, sc);
+
+    // use cached plan if the static context and the query context have not been modified
+    final QueryPlan plan = sc.initial() && qc.modDeclared.isEmpty() && qc.stop == null &&
+        qc.thes == null ? qc.context.plans.get(query, qc.context) : null;
+    if(plan != null) qc.plan(plan);
+    else qc.parseMain(query, null, sc);
     updating = qc.updating;
   }
 
@@ -117,7 +122,7 @@ public final class QueryProcessor extends Proc implements Closeable {
    */
   public QueryProcessor bind(final String name, final Object value, final String type)
       throws QueryException {
-    qc.bind(name, value, type, sc);
+    qc.bind(name, value, type, sc());
     return this;
   }
 
@@ -140,7 +145,7 @@ public final class QueryProcessor extends Proc implements Closeable {
    * @throws QueryException query exception
    */
   public QueryProcessor bind(final String name, final Value value) throws QueryException {
-    qc.bind(name, value, sc);
+    qc.bind(name, value, sc());
     return this;
   }
 
@@ -160,7 +165,7 @@ public final class QueryProcessor extends Proc implements Closeable {
    * @return self reference
    */
   public QueryProcessor context(final Value value) {
-    qc.context(value, sc);
+    qc.context(value, sc());
     return this;
   }
 
@@ -183,7 +188,7 @@ public final class QueryProcessor extends Proc implements Closeable {
    * @throws QueryException query exception
    */
   public QueryProcessor context(final Object value, final String type) throws QueryException {
-    qc.context(value, type, sc);
+    qc.context(value, type, sc());
     return this;
   }
 
@@ -223,7 +228,7 @@ public final class QueryProcessor extends Proc implements Closeable {
   public Serializer getSerializer(final OutputStream os) throws IOException, QueryException {
     compile();
     try {
-      return Serializer.get(os, qc.serParams()).sc(sc);
+      return Serializer.get(os, qc.serParams()).sc(sc());
     } catch(final QueryIOException ex) {
       throw ex.getCause();
     }
@@ -272,6 +277,15 @@ public final class QueryProcessor extends Proc implements Closeable {
     return qc.info();
   }
 
+  /**
+   * Returns the static context of the parsed query, or the initial static context.
+   * The contexts differ if the query plan was retrieved from the cache.
+   * @return static context
+   */
+  private StaticContext sc() {
+    return qc.root != null ? qc.root.sc : sc;
+  }
+
   /**
    * Checks if the specified XQuery string is a library module.
    * @param qu query string
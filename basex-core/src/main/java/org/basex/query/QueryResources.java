@@ -45,7 +45,7 @@ public final class QueryResources {
   private boolean globalData;
 
   /** Module loader. */
-  private ModuleLoader modules;
+  ModuleLoader modules;
   /** External resources. */
   private final HashMap<Class<? extends QueryResource>, QueryResource> external = new HashMap<>();
 
@@ -122,7 +122,7 @@ public final class QueryResources {
    * @return database instance
    * @throws QueryException query exception
    */
-  public Data database(final String name, final InputInfo info) throws QueryException {
+  public synchronized Data database(final String name, final InputInfo info) throws QueryException {
     // check if a database with the same name has already been opened
     for(final Data data : datas) {
       if(data.inMemory()) continue;
@@ -147,7 +147,7 @@ public final class QueryResources {
    * @return document
    * @throws QueryException query exception
    */
-  public DBNode doc(final QueryInput qi, final IO baseIO, final InputInfo info)
+  public synchronized DBNode doc(final QueryInput qi, final IO baseIO, final InputInfo info)
       throws QueryException {
 
     // favor default database
@@ -195,7 +195,7 @@ public final class QueryResources {
    * @return collection
    * @throws QueryException query exception
    */
-  public Value collection(final QueryInput qi, final IO baseIO, final InputInfo info)
+  public synchronized Value collection(final QueryInput qi, final IO baseIO, final InputInfo info)
       throws QueryException {
 
     // favor default database
@@ -366,6 +366,8 @@ public interface QueryText {
   String WRITE_LOCK = "write-lock";
   /** Pragma: write-lock. */
   String NON_DETERMNISTIC = "non-deterministic";
+  /** Pragma: parallel. */
+  String PARALLEL = "parallel";
 
   // ERROR INFORMATION ========================================================
 
@@ -746,6 +748,10 @@ public interface QueryText {
   /** Query Plan. */
   byte[] SIZE = token("size");
   /** Query Plan. */
+  byte[] ESTIMATE = token("estimate");
+  /** Query Plan. */
+  byte[] RESULTS = token("results");
+  /** Query Plan. */
   byte[] AXIS = token("axis");
   /** Query Plan. */
   byte[] TEST = token("test");
@@ -80,6 +80,15 @@ public final class StaticContext {
     }
   }
 
+  /**
+   * Checks if this context is still in its initial state, i.e., if no namespaces, base URI
+   * or resolver have been assigned.
+   * @return result of check
+   */
+  boolean initial() {
+    return ns.isEmpty() && elemNS == null && resolver == null && baseURI == Uri.EMPTY;
+  }
+
   /**
    * Returns an IO representation of the static base URI or {@code null}.
    * @return IO reference
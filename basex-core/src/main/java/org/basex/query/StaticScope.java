@@ -30,8 +30,8 @@ public abstract class StaticScope extends ExprInfo implements Scope {
   public Expr expr;
   /** Compilation flag. */
   protected boolean compiled;
-  /** Documentation. */
-  private final byte[] doc;
+  /** Documentation (may be {@code null}). */
+  protected final byte[] doc;
 
   /**
    * Constructor.
@@ -34,6 +34,20 @@ public final class BaseXPragma extends Pragma {
     return flag == Flag.NDT && Token.eq(name.local(), Token.token(QueryText.NON_DETERMNISTIC));
   }
 
+  /**
+   * Returns the maximum number of threads if this is a parallel pragma.
+   * @param info input info
+   * @return number of threads, or {@code 0} if this is no parallel pragma
+   * @throws QueryException query exception
+   */
+  public int parallel(final InputInfo info) throws QueryException {
+    if(!Token.eq(name.local(), Token.token(QueryText.PARALLEL))) return 0;
+    if(value.length == 0) return Runtime.getRuntime().availableProcessors();
+    final int threads = Token.toInt(value);
+    if(threads < 1) throw QueryError.BASX_THREADS_X.get(info, value);
+    return threads;
+  }
+
   @Override
   public Pragma copy() {
     return new BaseXPragma(name, value);
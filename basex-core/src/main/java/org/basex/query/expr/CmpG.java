@@ -7,6 +7,7 @@ import java.util.*;
 
 import org.basex.data.*;
 import org.basex.index.query.*;
+import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.expr.CmpV.OpV;
 import org.basex.query.func.*;
@@ -359,6 +360,7 @@ public final class CmpG extends Cmp {
           final int costs = data.costs(new StringToken(ii.text, string));
           if(costs != 0) {
             final ValueAccess va = new ValueAccess(info, it, ii.text, ii.test, ii.ic);
+            va.estimate(costs);
             tmp.add(va);
             if(costs == 1) va.seqType(va.seqType().withOcc(Occ.ZERO_ONE));
             ii.costs += costs;
@@ -378,8 +380,10 @@ public final class CmpG extends Cmp {
       if(!arg.seqType().type.isStringOrUntyped() || arg.has(Flag.CTX) || arg.has(Flag.NDT) ||
         arg.has(Flag.UPD)) return false;
 
-      // estimate costs (tend to worst case)
-      ii.costs = Math.max(2, data.meta.size / 10);
+      // estimate costs from the statistics of the indexed name (tend to worst case)
+      final Stats stats = arg.seqType().zeroOrOne() ? ii.stats() : null;
+      final int occ = stats != null ? stats.occurrences() : -1;
+      ii.costs = Math.max(2, occ != -1 ? occ : data.meta.size / 10);
       root = new ValueAccess(info, arg, ii.text, ii.test, ii.ic);
     }
 
@@ -4,12 +4,9 @@ import static org.basex.query.QueryText.*;
 import static org.basex.util.Token.*;
 
 import org.basex.data.*;
-import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
-import org.basex.query.expr.path.*;
-import org.basex.query.expr.path.Test.Kind;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.item.*;
@@ -149,10 +146,10 @@ public final class CmpR extends Single {
     // accept only location path, string and equality expressions
     final Data data = ii.ic.data;
     // sequential main memory scan is assumed to be faster than range index access
-    if(!mni || !mxi || data.inMemory() || !ii.check(expr, false)) return false;
+    if(data.inMemory() || !ii.check(expr, false)) return false;
 
-    final Stats key = key(ii, ii.text);
-    if(key == null) return false;
+    final Stats key = ii.stats();
+    if(key == null || key.type != StatsType.INTEGER && key.type != StatsType.DOUBLE) return false;
 
     // estimate costs for range access; all values out of range: no results
     final NumericRange nr = new NumericRange(ii.text,
@@ -164,56 +161,36 @@ public final class CmpR extends Single {
       return true;
     }
 
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(mni ? '[' : '(').addExt(min).add(',').addExt(max).add(mxi ? ']' : ')');
+
+    // use numeric index keys if available (exact costs)
+    final NumericRange range = new NumericRange(ii.text, min, mni, max, mxi);
+    final int costs = data.costs(range);
+    if(costs != Integer.MAX_VALUE) {
+      ii.costs = costs;
+      ii.create(new RangeAccess(info, range, ii.ic), info, Util.info(OPTRNGINDEX, tb), true);
+      return true;
+    }
+
+    // otherwise, accept only closed ranges
+    if(!mni || !mxi) return false;
     // skip if numbers are negative, doubles, or of different string length
     final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
     final int mxl = max >= 0 && (long) max == max ? token(max).length : -1;
     if(mnl != mxl || mnl == -1) return false;
 
-    // estimate costs (conservative value)
-    ii.costs = Math.max(2, data.meta.size / 3);
+    // estimate costs from the distribution of the values
+    ii.costs = Math.max(2, key.occurrences(nr.min, nr.max));
 
     // don't use index if min/max values are infinite
     if(min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY ||
         token((int) nr.min).length != token((int) nr.max).length) return false;
 
-    final TokenBuilder tb = new TokenBuilder();
-    tb.add(mni ? '[' : '(').addExt(min).add(',').addExt(max).add(mxi ? ']' : ')');
     ii.create(new RangeAccess(info, nr, ii.ic), info, Util.info(OPTRNGINDEX, tb), true);
     return true;
   }
 
-  /**
-   * Retrieves the statistics key for the element/attribute name.
-   * @param ii index info
-   * @param text text flag
-   * @return key
-   */
-  private Stats key(final IndexInfo ii, final boolean text) {
-    // statistics are not up-to-date
-    final Data data = ii.ic.data;
-    if(!data.meta.uptodate || data.nspaces.size() != 0 || !(expr instanceof AxisPath)) return null;
-
-    NameTest test = ii.test;
-    if(test == null) {
-      final Step step;
-      final AxisPath path = (AxisPath) expr;
-      final int st = path.steps.length - 1;
-      if(text) {
-        step = st == 0 ? ii.step : path.step(st - 1);
-        if(step.test.kind != Kind.NAME) return null;
-      } else {
-        step = path.step(st);
-        if(!step.simple(Axis.ATTR, true)) return null;
-      }
-      test = (NameTest) step.test;
-    }
-
-    final Names names = text ? data.elemNames : data.attrNames;
-    final Stats key = names.stat(names.id(test.name.local()));
-    return key == null || key.type == StatsType.INTEGER ||
-        key.type == StatsType.DOUBLE ? key : null;
-  }
-
   @Override
   public Expr copy(final QueryContext qc, final VarScope scp, final IntObjMap<Var> vs) {
     return new CmpR(expr.copy(qc, scp, vs), min, mni, max, mxi, info);
@@ -50,7 +50,8 @@ public final class DBPragma extends Pragma {
 
   @Override
   public boolean has(final Flag flag) {
-    return false;
+    // the original option value is assigned to the pragma during evaluation
+    return flag == Flag.STA;
   }
 
   @Override
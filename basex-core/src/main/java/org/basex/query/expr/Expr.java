@@ -37,6 +37,7 @@ public abstract class Expr extends ExprInfo {
     /** Focus-dependent. Example: position(). */             FCS,
     /** Performs updates. Example: insert expression. */     UPD,
     /** Invokes user-supplied functions. Example: fold. */   HOF,
+    /** Keeps evaluation state. Example: full-text. */       STA,
   }
 
   /**
@@ -1,8 +1,14 @@
 package org.basex.query.expr;
 
+import static org.basex.query.QueryText.*;
+
+import java.util.concurrent.atomic.*;
+
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 
 /**
@@ -14,6 +20,11 @@ import org.basex.util.*;
 public abstract class IndexAccess extends Simple {
   /** Index context. */
   final IndexContext ictx;
+  /** Estimated number of results ({@code -1} if unknown). */
+  private long estimate = -1;
+  /** Number of results of all evaluations ({@code -1} if the results have not been counted).
+   * Index access may be evaluated by several threads in parallel. */
+  private final AtomicLong results = new AtomicLong(-1);
 
   /**
    * Constructor.
@@ -34,6 +45,14 @@ public abstract class IndexAccess extends Simple {
     seqType = seqType().withSize(s);
   }
 
+  /**
+   * Sets the estimated number of results, which will be shown in the query plan.
+   * @param e estimated number of results
+   */
+  public void estimate(final long e) {
+    estimate = e;
+  }
+
   @Override
   public abstract NodeIter iter(final QueryContext qc) throws QueryException;
 
@@ -41,4 +60,35 @@ public abstract class IndexAccess extends Simple {
   public final boolean iterable() {
     return ictx.iterable || seqType().zeroOrOne();
   }
+
+  /**
+   * Returns an iterator that counts the returned results if a query plan will be shown.
+   * This way, the estimated and actual number of results can be compared.
+   * @param iter node iterator
+   * @param qc query context
+   * @return iterator
+   */
+  final NodeIter count(final NodeIter iter, final QueryContext qc) {
+    final MainOptions opts = qc.context.options;
+    if(!opts.get(MainOptions.XMLPLAN) && !opts.get(MainOptions.DOTPLAN)) return iter;
+
+    results.compareAndSet(-1, 0);
+    return new NodeIter() {
+      @Override
+      public ANode next() throws QueryException {
+        final ANode node = iter.next();
+        if(node != null) results.incrementAndGet();
+        return node;
+      }
+    };
+  }
+
+  @Override
+  protected FElem planElem(final Object... atts) {
+    final FElem el = super.planElem(atts);
+    if(estimate != -1) el.add(planAttr(ESTIMATE, estimate));
+    final long res = results.get();
+    if(res != -1) el.add(planAttr(RESULTS, res));
+    return el;
+  }
 }
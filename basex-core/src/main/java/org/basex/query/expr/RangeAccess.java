@@ -37,16 +37,16 @@ public final class RangeAccess extends IndexAccess {
   }
 
   @Override
-  public BasicNodeIter iter(final QueryContext qc) {
+  public NodeIter iter(final QueryContext qc) {
     final byte kind = index.type() == IndexType.TEXT ? Data.TEXT : Data.ATTR;
 
-    return new BasicNodeIter() {
+    return count(new BasicNodeIter() {
       final IndexIterator it = ictx.data.iter(index);
       @Override
       public ANode next() {
         return it.more() ? new DBNode(ictx.data, it.pre(), kind) : null;
       }
-    };
+    }, qc);
   }
 
   @Override
@@ -75,7 +75,7 @@ public final class Root extends Simple {
 
   @Override
   public boolean accept(final ASTVisitor visitor) {
-    return visitor.lock(DBLocking.CONTEXT);
+    return visitor.upward(this) && visitor.lock(DBLocking.CONTEXT);
   }
 
   @Override
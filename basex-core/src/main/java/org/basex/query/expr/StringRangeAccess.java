@@ -36,19 +36,19 @@ public final class StringRangeAccess extends IndexAccess {
   }
 
   @Override
-  public BasicNodeIter iter(final QueryContext qc) {
+  public NodeIter iter(final QueryContext qc) {
     final byte kind = index.text ? Data.TEXT : Data.ATTR;
     final Data data = ictx.data;
     final int ml = data.meta.maxlen;
     final IndexIterator ii = index.min.length <= ml && index.max.length <= ml &&
         (index.text ? data.meta.textindex : data.meta.attrindex) ? data.iter(index) : scan();
 
-    return new BasicNodeIter() {
+    return count(new BasicNodeIter() {
       @Override
       public ANode next() {
         return ii.more() ? new DBNode(data, ii.pre(), kind) : null;
       }
-    };
+    }, qc);
   }
 
   /**
@@ -55,8 +55,8 @@ public final class ValueAccess extends IndexAccess {
     final Iter ir = qc.iter(expr);
     for(Item it; (it = ir.next()) != null;) iter.add(index(it.string(info)));
     final int is = iter.size();
-    return is == 0 ? BasicNodeIter.EMPTY : is == 1 ? iter.get(0) :
-      new Union(info, expr).eval(iter.toArray(new NodeIter[is])).iter();
+    return count(is == 0 ? BasicNodeIter.EMPTY : is == 1 ? iter.get(0) :
+      new Union(info, expr).eval(iter.toArray(new NodeIter[is])).iter(), qc);
   }
 
   /**
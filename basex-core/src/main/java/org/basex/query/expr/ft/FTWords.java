@@ -393,6 +393,8 @@ public final class FTWords extends FTExpr {
 
   @Override
   public boolean has(final Flag flag) {
+    // matches are assigned to the expression during evaluation
+    if(flag == Flag.STA) return true;
     if(occ != null) for(final Expr o : occ) if(o.has(flag)) return true;
     return query.has(flag);
   }
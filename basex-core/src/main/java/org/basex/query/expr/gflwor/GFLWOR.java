@@ -1,7 +1,12 @@
 package org.basex.query.expr.gflwor;
 
+import static org.basex.query.QueryError.*;
+
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.path.*;
@@ -29,6 +34,8 @@ public final class GFLWOR extends ParseExpr {
   private final LinkedList<Clause> clauses;
   /** Return expression. */
   public Expr ret;
+  /** Maximum number of threads for parallel evaluation ({@code 0}: sequential evaluation). */
+  private int parallel;
 
   /**
    * Constructor.
@@ -65,8 +72,127 @@ public final class GFLWOR extends ParseExpr {
     return out;
   }
 
+  /**
+   * Requests the parallel evaluation of this expression. The iterations of the first for clause
+   * that is not followed by a group by, order by or count clause will be evaluated in parallel.
+   * The request will be ignored if no such clause exists anymore after the compilation, or if
+   * the expression is evaluated by a thread that belongs to a fork/join pool, such as a nested
+   * parallel expression.
+   * @param threads maximum number of threads
+   * @return {@code true} if the expression can be evaluated in parallel
+   */
+  public boolean parallel(final int threads) {
+    parallel = threads;
+    return parallelFor() != -1;
+  }
+
+  /**
+   * Returns the position of the for clause whose iterations can be evaluated in parallel.
+   * @return position, or {@code -1} if no such clause exists
+   */
+  private int parallelFor() {
+    int f = -1, c = 0;
+    for(final Clause clause : clauses) {
+      if(clause instanceof GroupBy || clause instanceof OrderBy || clause instanceof Count) {
+        f = -1;
+      } else if(f == -1 && clause instanceof For) {
+        f = c;
+      }
+      c++;
+    }
+    return f;
+  }
+
+  /**
+   * Evaluates the iterations of a for clause in parallel. The clauses before the for clause are
+   * evaluated sequentially. For each of their tuples, the items of the for clause are partitioned,
+   * and the remaining clauses and the return expression are evaluated for each partition with
+   * a separate query context. The results are concatenated in the original order.
+   * @param qc query context
+   * @param f position of the for clause
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  private Value parallel(final QueryContext qc, final int f) throws QueryException {
+    Eval pre = new StartEval();
+    for(final Clause clause : clauses.subList(0, f)) pre = clause.eval(pre);
+    final For fr = (For) clauses.get(f);
+    final List<Clause> tail = clauses.subList(f + 1, clauses.size());
+
+    final ValueBuilder vb = new ValueBuilder();
+    final ForkJoinPool pool = new ForkJoinPool(parallel);
+    try {
+      while(pre.next(qc)) {
+        final Value value = fr.items(qc);
+        final long size = value.size();
+        if(size == 0) {
+          if(fr.empty) {
+            fr.bind(null, 0, qc);
+            tail(tail, qc, vb);
+          }
+          continue;
+        }
+
+        // split the items into more partitions than threads to balance the load
+        final int parts = (int) Math.min(size, parallel * 4L);
+        final ArrayList<Callable<Value>> tasks = new ArrayList<>(parts);
+        final ArrayList<QueryContext> forks = new ArrayList<>(parts);
+        for(int p = 0; p < parts; p++) {
+          final long start = size * p / parts, end = size * (p + 1) / parts;
+          final QueryContext qcp = qc.fork();
+          forks.add(qcp);
+          tasks.add(new Callable<Value>() {
+            @Override
+            public Value call() throws QueryException {
+              final ValueBuilder part = new ValueBuilder();
+              for(long i = start; i < end; i++) {
+                qc.checkStop();
+                fr.bind(value.itemAt(i), i + 1, qcp);
+                tail(tail, qcp, part);
+              }
+              return part.value();
+            }
+          });
+        }
+        try {
+          for(final Future<Value> future : pool.invokeAll(tasks)) vb.add(future.get());
+        } finally {
+          for(final QueryContext qcp : forks) qcp.close();
+        }
+      }
+    } catch(final InterruptedException ex) {
+      throw new ProcException();
+    } catch(final ExecutionException ex) {
+      final Throwable th = Util.cause(ex);
+      if(th instanceof QueryException) throw (QueryException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw (Error) th;
+    } finally {
+      pool.shutdownNow();
+    }
+    return vb.value();
+  }
+
+  /**
+   * Evaluates the specified clauses and the return expression, and adds the results.
+   * @param tail clauses
+   * @param qc query context
+   * @param vb value builder
+   * @throws QueryException query exception
+   */
+  private void tail(final List<Clause> tail, final QueryContext qc, final ValueBuilder vb)
+      throws QueryException {
+    Eval eval = new StartEval();
+    for(final Clause clause : tail) eval = clause.eval(eval);
+    while(eval.next(qc)) vb.add(ret.value(qc));
+  }
+
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    if(parallel > 1 && !ForkJoinTask.inForkJoinPool()) {
+      final int f = parallelFor();
+      if(f != -1) return parallel(qc, f);
+    }
     final Eval eval = newEval();
     if(!eval.next(qc)) return Empty.SEQ;
     final Value v1 = ret.value(qc);
@@ -80,7 +206,8 @@ public final class GFLWOR extends ParseExpr {
   }
 
   @Override
-  public Iter iter(final QueryContext qc) {
+  public Iter iter(final QueryContext qc) throws QueryException {
+    if(parallel > 1) return value(qc).iter();
     return new Iter() {
       /** Clause evaluator. */
       private final Eval ev = newEval();
@@ -118,6 +245,16 @@ public final class GFLWOR extends ParseExpr {
       clauseError(qe, iter);
     }
 
+    // reject expressions that cannot be evaluated in parallel
+    if(parallel != 0) {
+      if(has(Flag.UPD)) throw BASX_PARALLEL_X.get(info, "updating");
+      if(has(Flag.NDT)) throw BASX_PARALLEL_X.get(info, "non-deterministic");
+      // element constructors modify the namespace stack of the shared static context
+      if(has(Flag.CNS)) throw BASX_PARALLEL_X.get(info, "node-constructing");
+      // full-text expressions and option pragmas assign their state to the shared expression tree
+      if(has(Flag.STA)) throw BASX_PARALLEL_X.get(info, "stateful");
+    }
+
     return optimize(qc, scp);
   }
 
@@ -767,7 +904,9 @@ public final class GFLWOR extends ParseExpr {
   public Expr copy(final QueryContext qc, final VarScope scp, final IntObjMap<Var> vs) {
     final LinkedList<Clause> cls = new LinkedList<>();
     for(final Clause clause : clauses) cls.add(clause.copy(qc, scp, vs));
-    return copyType(new GFLWOR(info, cls, ret.copy(qc, scp, vs)));
+    final GFLWOR gflwor = new GFLWOR(info, cls, ret.copy(qc, scp, vs));
+    gflwor.parallel = parallel;
+    return copyType(gflwor);
   }
 
   /**
@@ -819,7 +958,7 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public void plan(final FElem plan) {
-    final FElem e = planElem();
+    final FElem e = parallel == 0 ? planElem() : planElem(QueryText.PARALLEL, parallel);
     for(final Clause clause : clauses) clause.plan(e);
     ret.plan(e);
     plan.add(e);
@@ -4,8 +4,8 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
 import java.util.*;
-import java.util.List;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.gflwor.GFLWOR.Clause;
@@ -49,82 +49,143 @@ public final class OrderBy extends Clause {
       /** Sorted output tuples. */
       private Value[][] tpls;
       /** Permutation of the values. */
-      private Integer[] perm;
+      private int[] perm;
+      /** Sorted runs that are merged ({@code null} if all tuples are sorted in main memory). */
+      private SortRuns runs;
       /** Current position. */
       int pos;
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
-        final int p = perm[pos++];
-        final Value[] tuple = tpls[p];
-        // free the space occupied by the tuple
-        tpls[p] = null;
+        if(tpls == null && runs == null) sort(qc);
+        final Value[] tuple;
+        if(runs != null) {
+          tuple = runs.next();
+          if(tuple == null) return false;
+        } else {
+          if(pos == tpls.length) return false;
+          final int p = perm[pos++];
+          tuple = tpls[p];
+          // free the space occupied by the tuple
+          tpls[p] = null;
+        }
         final int rl = refs.length;
         for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[r], info);
         return true;
       }
 
       /**
-       * Caches and sorts all incoming tuples.
+       * Caches and sorts all incoming tuples. If the tuples exceed the main memory limit,
+       * sorted runs are written to disk.
        * @param qc query context
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
-        while(sub.next(qc)) {
-          final int kl = keys.length;
-          final Item[] key = new Item[kl];
-          for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info);
-          tuples.add(key);
+        final long max = (long) qc.context.options.get(MainOptions.SORTMEMORY) << 20;
+        boolean spill = max > 0;
+        long mem = 0;
 
-          final int rl = refs.length;
+        final int kl = keys.length, rl = refs.length;
+        ArrayList<Item[]> kys = new ArrayList<>();
+        ArrayList<Value[]> tuples = new ArrayList<>();
+        while(sub.next(qc)) {
+          final Item[] ks = new Item[kl];
+          for(int k = 0; k < kl; k++) {
+            final Item key = keys[k].expr.atomItem(qc, keys[k].info);
+            ks[k] = key == Dbl.NAN || key == Flt.NAN ? null : key;
+          }
           final Value[] vals = new Value[rl];
           for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
+          kys.add(ks);
           tuples.add(vals);
+
+          if(spill) {
+            final long size = size(ks, vals);
+            if(size == -1) {
+              // tuple cannot be written to disk: sort remaining tuples in main memory
+              spill = false;
+            } else if((mem += size) > max) {
+              if(runs == null) runs = runs(qc);
+              final Item[][] ka = kys.toArray(new Item[kys.size()][]);
+              final Value[][] ta = tuples.toArray(new Value[tuples.size()][]);
+              runs.write(ka, ta, order(ka));
+              kys = new ArrayList<>();
+              tuples = new ArrayList<>();
+              mem = 0;
+            }
+          }
         }
 
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
+        final Item[][] ka = kys.toArray(new Item[kys.size()][]);
+        tpls = tuples.toArray(new Value[tuples.size()][]);
+        perm = order(ka);
+        if(runs != null) {
+          runs.merge(ka, tpls, perm);
+          tpls = null;
+          perm = null;
         }
-        // be nice to the garbage collector
-        tuples = null;
-        try {
-          Arrays.sort(perm, new Comparator<Integer>() {
-            @Override
-            public int compare(final Integer x, final Integer y) {
-              try {
-                final Item[] a = ks[x], b = ks[y];
-                final int kl = keys.length;
-                for(int k = 0; k < kl; k++) {
-                  final Key or = keys[k];
-                  Item m = a[k], n = b[k];
-                  if(m == Dbl.NAN || m == Flt.NAN) m = null;
-                  if(n == Dbl.NAN || n == Flt.NAN) n = null;
-                  if(m != null && n != null && !m.comparable(n))
-                    throw castError(or.info, n, m.type);
-
-                  final int c = m == null
-                      ? n == null ? 0                 : or.least ? -1 : 1
-                      : n == null ? or.least ? 1 : -1 : m.diff(n, or.coll, or.info);
-                  if(c != 0) return or.desc ? -c : c;
-                }
-                return 0;
-              } catch(final QueryException ex) {
-                throw new QueryRTException(ex);
-              }
-            }
-          });
-        } catch(final QueryRTException ex) {
-          throw ex.getCause();
+      }
+    };
+  }
+
+  /**
+   * Returns the permutation of the sorted tuples.
+   * @param ks keys of the tuples
+   * @return permutation
+   * @throws QueryException query exception
+   */
+  private int[] order(final Item[][] ks) throws QueryException {
+    // keys are stored in columns
+    final int tl = ks.length, kl = keys.length;
+    final KeySort sort = new KeySort(tl, true);
+    for(int k = 0; k < kl; k++) {
+      final Item[] col = new Item[tl];
+      for(int t = 0; t < tl; t++) col[t] = ks[t][k];
+      final Key key = keys[k];
+      sort.add(col, key.desc, key.least, key.coll, key.info);
+    }
+    return sort.sort();
+  }
+
+  /**
+   * Returns the estimated main memory occupied by a tuple.
+   * @param ks keys
+   * @param vals values
+   * @return number of bytes, or {@code -1} if the tuple cannot be written to disk
+   */
+  private static long size(final Item[] ks, final Value[] vals) {
+    long size = 16 + (ks.length + vals.length << 3);
+    for(final Item key : ks) {
+      if(key != null) {
+        final long s = SortRuns.size(key);
+        if(s == -1) return -1;
+        size += s;
+      }
+    }
+    for(final Value val : vals) {
+      final long s = SortRuns.size(val);
+      if(s == -1) return -1;
+      size += s;
+    }
+    return size;
+  }
+
+  /**
+   * Creates sorted runs for the tuples of this clause.
+   * @param qc query context
+   * @return runs
+   */
+  private SortRuns runs(final QueryContext qc) {
+    final KeySort sort = new KeySort(0, true);
+    return new SortRuns(keys.length, refs.length, qc, info) {
+      @Override
+      int compare(final Item[] keys1, final Item[] keys2) throws QueryException {
+        final int kl = keys.length;
+        for(int k = 0; k < kl; k++) {
+          final Key key = keys[k];
+          final int c = sort.compare(keys1[k], keys2[k], key.desc, key.least, key.coll, key.info);
+          if(c != 0) return c;
         }
+        return 0;
       }
     };
   }
@@ -0,0 +1,567 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.math.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.util.list.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Sorted runs of the tuples of an order by clause. If the tuples exceed the main memory limit,
+ * sorted runs are written to temporary files. The tuples are returned by merging all runs.
+ *
+ * Only tuples with strings, untyped atomics, numbers, booleans and database nodes can be
+ * written to disk: all other items, such as constructed nodes and function items, would lose
+ * their identity or cannot be restored. Database nodes are stored as data references and pre
+ * values.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+abstract class SortRuns {
+  /** Item kind: empty key. */
+  private static final int EMPTY = 0;
+  /** Item kind: string. */
+  private static final int STR = 1;
+  /** Item kind: untyped atomic. */
+  private static final int ATM = 2;
+  /** Item kind: integer. */
+  private static final int INT = 3;
+  /** Item kind: double. */
+  private static final int DBL = 4;
+  /** Item kind: float. */
+  private static final int FLT = 5;
+  /** Item kind: decimal. */
+  private static final int DEC = 6;
+  /** Item kind: boolean. */
+  private static final int BLN = 7;
+  /** Item kind: database node. */
+  private static final int NODE = 8;
+  /** Atomic types. */
+  private static final AtomType[] TYPES = AtomType.values();
+
+  /** Query context. */
+  private final QueryContext qc;
+  /** Input info. */
+  private final InputInfo info;
+  /** Number of keys of a tuple. */
+  private final int kl;
+  /** Number of values of a tuple. */
+  private final int vl;
+  /** Data references of database nodes. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+  /** Indexes of data references. */
+  private final IdentityHashMap<Data, Integer> ids = new IdentityHashMap<>();
+  /** Runs that have been written to disk. */
+  private final ArrayList<IOFile> files = new ArrayList<>();
+  /** Number of tuples of the runs that have been written to disk. */
+  private final IntList counts = new IntList();
+  /** Runs that are merged, ordered as binary heap. */
+  private Run[] heap;
+  /** Number of runs in the heap. */
+  private int size;
+
+  /**
+   * Constructor.
+   * @param kl number of keys of a tuple
+   * @param vl number of values of a tuple
+   * @param qc query context
+   * @param info input info
+   */
+  SortRuns(final int kl, final int vl, final QueryContext qc, final InputInfo info) {
+    this.kl = kl;
+    this.vl = vl;
+    this.qc = qc;
+    this.info = info;
+    Spills spills = qc.resources.get(Spills.class);
+    if(spills == null) {
+      spills = new Spills();
+      qc.resources.add(spills);
+    }
+    spills.add(this);
+  }
+
+  /**
+   * Estimates the main memory that is occupied by a value.
+   * @param value value
+   * @return number of bytes, or {@code -1} if the value cannot be written to disk
+   */
+  static long size(final Value value) {
+    final long vs = value.size();
+    if(vs > Integer.MAX_VALUE) return -1;
+    long s = vs == 1 ? 0 : 32 + (vs << 3);
+    for(final Item it : value) {
+      final int k = kind(it);
+      if(k == -1) return -1;
+      s += k == STR ? 48 + ((Str) it).string().length :
+           k == ATM ? 48 + ((Atm) it).string(null).length : k == NODE ? 40 : 24;
+    }
+    return s;
+  }
+
+  /**
+   * Writes a sorted run to a temporary file.
+   * @param keys keys of the tuples
+   * @param tuples tuples
+   * @param perm permutation of the sorted tuples
+   * @throws QueryException query exception
+   */
+  final void write(final Item[][] keys, final Value[][] tuples, final int[] perm)
+      throws QueryException {
+
+    try {
+      final IOFile file = new IOFile(File.createTempFile("sort", IO.BASEXSUFFIX));
+      files.add(file);
+      counts.add(perm.length);
+      try(final DataOutput out = new DataOutput(file)) {
+        for(final int p : perm) {
+          qc.checkStop();
+          for(final Item key : keys[p]) write(out, key);
+          for(final Value value : tuples[p]) {
+            out.writeNum((int) value.size());
+            for(final Item it : value) write(out, it);
+          }
+        }
+      }
+    } catch(final IOException ex) {
+      throw BASX_GENERIC_X.get(info, ex);
+    }
+  }
+
+  /**
+   * Starts merging the runs that have been written to disk with a run in main memory.
+   * @param keys keys of the tuples in main memory
+   * @param tuples tuples in main memory
+   * @param perm permutation of the sorted tuples in main memory
+   * @throws QueryException query exception
+   */
+  final void merge(final Item[][] keys, final Value[][] tuples, final int[] perm)
+      throws QueryException {
+
+    final int fl = files.size();
+    heap = new Run[fl + 1];
+    try {
+      for(int f = 0; f < fl; f++) add(new FileRun(f, files.get(f), counts.get(f)));
+    } catch(final IOException ex) {
+      throw BASX_GENERIC_X.get(info, ex);
+    }
+    // tuples in main memory were the last to be added
+    add(new MemRun(fl, keys, tuples, perm));
+  }
+
+  /**
+   * Returns the next tuple.
+   * @return tuple, or {@code null} if all tuples have been returned
+   * @throws QueryException query exception
+   */
+  final Value[] next() throws QueryException {
+    if(size == 0) {
+      close();
+      return null;
+    }
+    final Run run = heap[0];
+    final Value[] tuple = run.values;
+    try {
+      if(run.next()) {
+        down(0);
+      } else {
+        heap[0] = heap[--size];
+        heap[size] = null;
+        if(size != 0) down(0);
+      }
+    } catch(final IOException ex) {
+      throw BASX_GENERIC_X.get(info, ex);
+    }
+    return tuple;
+  }
+
+  /**
+   * Compares the keys of two tuples.
+   * @param keys1 first keys
+   * @param keys2 second keys
+   * @return difference
+   * @throws QueryException query exception
+   */
+  abstract int compare(Item[] keys1, Item[] keys2) throws QueryException;
+
+  /**
+   * Closes all runs and deletes the temporary files.
+   */
+  final void close() {
+    for(int h = 0; h < size; h++) heap[h].close();
+    size = 0;
+    for(final IOFile file : files) file.delete();
+    files.clear();
+    final Spills spills = qc.resources.get(Spills.class);
+    if(spills != null) spills.remove(this);
+  }
+
+  /**
+   * Adds a run to the heap, if it is not empty.
+   * @param run run
+   * @throws QueryException query exception
+   */
+  private void add(final Run run) throws QueryException {
+    try {
+      if(!run.next()) {
+        run.close();
+        return;
+      }
+    } catch(final IOException ex) {
+      throw BASX_GENERIC_X.get(info, ex);
+    }
+    int h = size++;
+    heap[h] = run;
+    // move run up the heap
+    while(h > 0) {
+      final int p = h - 1 >>> 1;
+      if(compare(heap[p], run) <= 0) break;
+      heap[h] = heap[p];
+      heap[p] = run;
+      h = p;
+    }
+  }
+
+  /**
+   * Moves a run down the heap.
+   * @param pos position of the run
+   * @throws QueryException query exception
+   */
+  private void down(final int pos) throws QueryException {
+    final Run run = heap[pos];
+    int h = pos;
+    while(true) {
+      int c = (h << 1) + 1;
+      if(c >= size) break;
+      if(c + 1 < size && compare(heap[c + 1], heap[c]) < 0) c++;
+      if(compare(run, heap[c]) <= 0) break;
+      heap[h] = heap[c];
+      h = c;
+    }
+    heap[h] = run;
+  }
+
+  /**
+   * Compares the current tuples of two runs. Tuples with equal keys are ordered by their runs.
+   * @param run1 first run
+   * @param run2 second run
+   * @return difference
+   * @throws QueryException query exception
+   */
+  private int compare(final Run run1, final Run run2) throws QueryException {
+    final int c = compare(run1.keys, run2.keys);
+    return c != 0 ? c : run1.index - run2.index;
+  }
+
+  /**
+   * Returns the kind of an item.
+   * @param it item (can be {@code null})
+   * @return kind, or {@code -1} if the item cannot be written to disk
+   */
+  private static int kind(final Item it) {
+    if(it == null) return EMPTY;
+    if(it.score() != 0) return -1;
+    final Class<?> c = it.getClass();
+    if(c == Str.class) return STR;
+    if(c == Atm.class) return ATM;
+    if(c == Int.class) return INT;
+    if(c == Dbl.class) return DBL;
+    if(c == Flt.class) return FLT;
+    if(c == Dec.class) return DEC;
+    if(c == Bln.class) return BLN;
+    // nodes with a parent reference are created by copying database nodes
+    if(c == DBNode.class) {
+      final DBNode node = (DBNode) it;
+      return node.pre() != 0 || node.parent() == null ? NODE : -1;
+    }
+    return -1;
+  }
+
+  /**
+   * Writes an item.
+   * @param out output
+   * @param it item (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out, final Item it) throws IOException {
+    final int k = kind(it);
+    out.write1(k);
+    switch(k) {
+      case STR:
+        out.write1(((AtomType) it.type).ordinal());
+        out.writeToken(((Str) it).string());
+        break;
+      case ATM:
+        out.writeToken(((Atm) it).string(null));
+        break;
+      case INT:
+        out.write1(((AtomType) it.type).ordinal());
+        write(out, ((Int) it).itr());
+        break;
+      case DBL:
+        write(out, Double.doubleToRawLongBits(((Dbl) it).dbl()));
+        break;
+      case FLT:
+        out.writeNum(Float.floatToRawIntBits((float) ((Flt) it).dbl()));
+        break;
+      case DEC:
+        final BigDecimal dec = ((Dec) it).dec(null);
+        out.writeToken(Token.token(dec.unscaledValue().toString()));
+        out.writeNum(dec.scale());
+        break;
+      case BLN:
+        out.writeBool(((Bln) it).bool(null));
+        break;
+      case NODE:
+        final DBNode node = (DBNode) it;
+        final Data data = node.data();
+        Integer id = ids.get(data);
+        if(id == null) {
+          id = datas.size();
+          datas.add(data);
+          ids.put(data, id);
+        }
+        out.writeNum(id);
+        out.writeNum(node.pre());
+        break;
+      default:
+    }
+  }
+
+  /**
+   * Reads an item.
+   * @param in input
+   * @return item (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private Item read(final DataInput in) throws IOException {
+    switch(in.read()) {
+      case STR:
+        final AtomType type = TYPES[in.read()];
+        final byte[] string = in.readToken();
+        return type == AtomType.STR ? Str.get(string) : new Str(string, type);
+      case ATM:
+        return new Atm(in.readToken());
+      case INT:
+        final AtomType itype = TYPES[in.read()];
+        return Int.get(readLong(in), itype);
+      case DBL:
+        return Dbl.get(Double.longBitsToDouble(readLong(in)));
+      case FLT:
+        return Flt.get(Float.intBitsToFloat(in.readNum()));
+      case DEC:
+        final BigInteger unscaled = new BigInteger(Token.string(in.readToken()));
+        return Dec.get(new BigDecimal(unscaled, in.readNum()));
+      case BLN:
+        return Bln.get(in.readBool());
+      case NODE:
+        final Data data = datas.get(in.readNum());
+        return new DBNode(data, in.readNum());
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Writes a long value.
+   * @param out output
+   * @param value value
+   * @throws IOException I/O exception
+   */
+  private static void write(final DataOutput out, final long value) throws IOException {
+    out.writeNum((int) (value >>> 32));
+    out.writeNum((int) value);
+  }
+
+  /**
+   * Reads a long value.
+   * @param in input
+   * @return value
+   * @throws IOException I/O exception
+   */
+  private static long readLong(final DataInput in) throws IOException {
+    final long high = in.readNum();
+    return high << 32 | in.readNum() & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Sorted run.
+   */
+  private abstract static class Run {
+    /** Index of the run. */
+    final int index;
+    /** Keys of the current tuple. */
+    Item[] keys;
+    /** Values of the current tuple. */
+    Value[] values;
+
+    /**
+     * Constructor.
+     * @param index index of the run
+     */
+    Run(final int index) {
+      this.index = index;
+    }
+
+    /**
+     * Proceeds to the next tuple.
+     * @return {@code true} if a tuple was found
+     * @throws IOException I/O exception
+     */
+    abstract boolean next() throws IOException;
+
+    /**
+     * Closes the run.
+     */
+    abstract void close();
+  }
+
+  /**
+   * Run in main memory.
+   */
+  private static final class MemRun extends Run {
+    /** Keys of the tuples. */
+    private final Item[][] tkeys;
+    /** Tuples. */
+    private final Value[][] tuples;
+    /** Permutation of the sorted tuples. */
+    private final int[] perm;
+    /** Current position. */
+    private int pos;
+
+    /**
+     * Constructor.
+     * @param index index of the run
+     * @param tkeys keys of the tuples
+     * @param tuples tuples
+     * @param perm permutation of the sorted tuples
+     */
+    MemRun(final int index, final Item[][] tkeys, final Value[][] tuples, final int[] perm) {
+      super(index);
+      this.tkeys = tkeys;
+      this.tuples = tuples;
+      this.perm = perm;
+    }
+
+    @Override
+    boolean next() {
+      if(pos == perm.length) return false;
+      final int p = perm[pos++];
+      keys = tkeys[p];
+      values = tuples[p];
+      // free the space occupied by the tuple
+      tkeys[p] = null;
+      tuples[p] = null;
+      return true;
+    }
+
+    @Override
+    void close() {
+      pos = perm.length;
+    }
+  }
+
+  /**
+   * Run in a temporary file.
+   */
+  private final class FileRun extends Run {
+    /** Input. */
+    private final DataInput in;
+    /** Number of remaining tuples. */
+    private int count;
+
+    /**
+     * Constructor.
+     * @param index index of the run
+     * @param file file
+     * @param count number of tuples
+     * @throws IOException I/O exception
+     */
+    FileRun(final int index, final IOFile file, final int count) throws IOException {
+      super(index);
+      this.count = count;
+      in = new DataInput(file);
+    }
+
+    @Override
+    boolean next() throws IOException {
+      if(count == 0) {
+        close();
+        return false;
+      }
+      count--;
+      keys = new Item[kl];
+      for(int k = 0; k < kl; k++) keys[k] = read(in);
+      values = new Value[vl];
+      for(int v = 0; v < vl; v++) {
+        final int size = in.readNum();
+        if(size == 1) {
+          values[v] = read(in);
+        } else if(size == 0) {
+          values[v] = Empty.SEQ;
+        } else {
+          final ItemList items = new ItemList(size);
+          for(int s = 0; s < size; s++) items.add(read(in));
+          values[v] = items.value();
+        }
+      }
+      return true;
+    }
+
+    @Override
+    void close() {
+      try {
+        in.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+  }
+
+  /**
+   * Sorted runs of a query, which will be deleted when the query is closed.
+   */
+  static final class Spills implements QueryResource {
+    /** Runs that have not been closed yet. */
+    private final ArrayList<SortRuns> list = new ArrayList<>();
+
+    /**
+     * Adds runs.
+     * @param runs runs
+     */
+    synchronized void add(final SortRuns runs) {
+      list.add(runs);
+    }
+
+    /**
+     * Removes runs.
+     * @param runs runs
+     */
+    synchronized void remove(final SortRuns runs) {
+      list.remove(runs);
+    }
+
+    @Override
+    public void close() {
+      final SortRuns[] runs;
+      synchronized(this) {
+        runs = list.toArray(new SortRuns[list.size()]);
+      }
+      for(final SortRuns run : runs) run.close();
+    }
+  }
+}
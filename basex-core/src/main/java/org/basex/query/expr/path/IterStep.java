@@ -1,6 +1,9 @@
-
 package org.basex.query.expr.path;
 
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
@@ -8,6 +11,7 @@ import org.basex.query.value.node.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * Iterative step expression without numeric predicates.
@@ -16,6 +20,11 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 final class IterStep extends Step {
+  /** Minimum number of nodes that will be scanned by a single worker. */
+  private static final int MINSCAN = 1 << 16;
+  /** Minimum number of children whose predicates will be evaluated by a single worker. */
+  private static final int MINPREDS = 1 << 10;
+
   /**
    * Constructor.
    * @param info input info
@@ -31,10 +40,32 @@ final class IterStep extends Step {
   public NodeIter iter(final QueryContext qc) {
     return new NodeIter() {
       BasicNodeIter iter;
+      /** Parallel scan. */
+      ParallelScan scan;
+      /** Database reference of parallel scans. */
+      Data data;
+      /** Current results. */
+      IntList pres;
+      /** Current result position. */
+      int p;
 
       @Override
       public ANode next() throws QueryException {
-        if(iter == null) iter = axis.iter(checkNode(qc));
+        if(iter == null) {
+          final ANode node = checkNode(qc);
+          scan = scan(node, qc);
+          if(scan != null) data = node.data();
+          iter = axis.iter(node);
+        }
+        if(scan != null) {
+          while(pres == null || p == pres.size()) {
+            pres = scan.next();
+            if(pres == null) return null;
+            p = 0;
+          }
+          final int pre = pres.get(p++);
+          return new DBNode(data, pre, data.kind(pre));
+        }
         for(ANode node; (node = iter.next()) != null;) {
           qc.checkStop();
           if(test.eq(node) && preds(node, qc)) return node.finish();
@@ -44,6 +75,92 @@ final class IterStep extends Step {
     };
   }
 
+  /**
+   * Scans the descendants or children of a database node in parallel if the database range is
+   * large enough. Descendants are divided into ranges of pre values. Children are collected
+   * first, and their predicates are evaluated in parallel. The partitions are evaluated by
+   * separate workers with their own query contexts. Their results are returned in document order.
+   * @param node context node
+   * @param qc query context
+   * @return parallel scan, or {@code null} if the nodes will be scanned sequentially
+   * @throws QueryException query exception
+   */
+  private ParallelScan scan(final ANode node, final QueryContext qc)
+      throws QueryException {
+
+    final boolean desc = axis == Axis.DESC || axis == Axis.DESCORSELF;
+    if(!(desc || axis == Axis.CHILD && preds.length != 0) || !(node instanceof DBNode) ||
+        qc.scoring || ForkJoinTask.inForkJoinPool()) return null;
+
+    final int parallel = qc.context.options.get(MainOptions.PARALLELSCAN);
+    final int threads = parallel > 0 ? parallel : Runtime.getRuntime().availableProcessors();
+    final Data data = node.data();
+    final int pre = ((DBNode) node).pre(), kind = data.kind(pre), size = data.size(pre, kind);
+    if(threads < 2 || size < MINSCAN << 1) return null;
+    // predicates with constructors or evaluation state are evaluated sequentially
+    if(has(Flag.NDT) || has(Flag.CNS) || has(Flag.STA)) return null;
+
+    // choose pre values of children, or range of descendants
+    final IntList children;
+    final int start, end;
+    if(desc) {
+      children = null;
+      start = axis == Axis.DESC ? pre + data.attSize(pre, kind) : pre;
+      end = pre + size;
+    } else {
+      children = new IntList();
+      final BasicNodeIter iter = axis.iter(node);
+      for(ANode child; (child = iter.next()) != null;) {
+        if(test.eq(child)) children.add(((DBNode) child).pre());
+      }
+      start = 0;
+      end = children.size();
+    }
+    // split the range into more partitions than threads to balance the load
+    final int workers = (int) Math.max(1, Math.min(threads * 4L,
+        (end - start) / (desc ? MINSCAN : MINPREDS)));
+
+    final ParallelScan scan = new ParallelScan(threads, qc);
+    try {
+      for(int w = 0; w < workers; w++) {
+        final int s = (int) (start + (long) (end - start) * w / workers);
+        final int e = (int) (start + (long) (end - start) * (w + 1) / workers);
+        final QueryContext qcw = scan.fork();
+        scan.submit(new Callable<IntList>() {
+          @Override
+          public IntList call() throws QueryException {
+            final IntList il = new IntList();
+            final DBNode nd = new DBNode(data, pre, kind);
+            if(children != null) {
+              for(int c = s; c < e; c++) {
+                scan.checkStop();
+                final int p = children.get(c);
+                nd.set(p, data.kind(p));
+                if(preds(nd, qcw)) il.add(p);
+              }
+            } else {
+              // skip attributes at the beginning of the partition
+              int p = s;
+              while(p < e && data.kind(p) == Data.ATTR) p++;
+              while(p < e) {
+                scan.checkStop();
+                final int k = data.kind(p);
+                nd.set(p, k);
+                if(test.eq(nd) && preds(nd, qcw)) il.add(p);
+                p += data.attSize(p, k);
+              }
+            }
+            return il;
+          }
+        });
+      }
+    } catch(final QueryException ex) {
+      scan.close();
+      throw ex;
+    }
+    return scan;
+  }
+
   @Override
   public IterStep copy(final QueryContext qc, final VarScope scp, final IntObjMap<Var> vs) {
     return copyType(new IterStep(info, axis, test.copy(), Arr.copyAll(qc, scp, vs, preds)));
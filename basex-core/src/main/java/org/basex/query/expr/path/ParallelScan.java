@@ -0,0 +1,158 @@
+package org.basex.query.expr.path;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.query.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Partitions of a database range that are scanned in parallel.
+ * The partitions are stopped if their results are not requested anymore: if a partition
+ * fails, or if the query is closed before all results have been returned.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+final class ParallelScan {
+  /** Thread pool. */
+  private final ForkJoinPool pool;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Results of the partitions. */
+  private final ArrayList<Future<IntList>> parts = new ArrayList<>();
+  /** Query contexts of the partitions. */
+  private final ArrayList<QueryContext> forks = new ArrayList<>();
+  /** Stop flag. */
+  private volatile boolean stopped;
+  /** Index of the next partition. */
+  private int next;
+
+  /**
+   * Constructor.
+   * @param threads number of threads
+   * @param qc query context
+   */
+  ParallelScan(final int threads, final QueryContext qc) {
+    this.qc = qc;
+    pool = new ForkJoinPool(threads);
+    Scans scans = qc.resources.get(Scans.class);
+    if(scans == null) {
+      scans = new Scans();
+      qc.resources.add(scans);
+    }
+    scans.add(this);
+  }
+
+  /**
+   * Returns a query context for a new partition.
+   * @return query context
+   * @throws QueryException query exception
+   */
+  QueryContext fork() throws QueryException {
+    final QueryContext qcp = qc.fork();
+    forks.add(qcp);
+    return qcp;
+  }
+
+  /**
+   * Submits a partition.
+   * @param part partition
+   */
+  void submit(final Callable<IntList> part) {
+    parts.add(pool.submit(part));
+  }
+
+  /**
+   * Checks if the partitions have been stopped, or if the query was interrupted.
+   */
+  void checkStop() {
+    if(stopped) throw new ProcException();
+    qc.checkStop();
+  }
+
+  /**
+   * Returns the results of the next partition.
+   * @return pre values, or {@code null} if all results have been returned
+   * @throws QueryException query exception
+   */
+  IntList next() throws QueryException {
+    if(next == parts.size()) {
+      close();
+      return null;
+    }
+    boolean ok = false;
+    try {
+      final IntList il = parts.get(next).get();
+      parts.set(next++, null);
+      ok = true;
+      return il;
+    } catch(final InterruptedException ex) {
+      throw new ProcException();
+    } catch(final ExecutionException ex) {
+      final Throwable th = Util.cause(ex);
+      if(th instanceof QueryException) throw (QueryException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw (Error) th;
+    } finally {
+      if(!ok) close();
+    }
+  }
+
+  /**
+   * Stops all partitions and waits until the workers have terminated.
+   */
+  void close() {
+    if(stopped) return;
+    stopped = true;
+    for(final Future<IntList> part : parts) {
+      if(part != null) part.cancel(true);
+    }
+    for(final QueryContext qcp : forks) qcp.stop();
+    pool.shutdownNow();
+    try {
+      // the database must not be accessed anymore after the query has been closed
+      pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+    for(final QueryContext qcp : forks) qcp.close();
+    final Scans scans = qc.resources.get(Scans.class);
+    if(scans != null) scans.remove(this);
+  }
+
+  /**
+   * Parallel scans of a query, which will be stopped when the query is closed.
+   */
+  static final class Scans implements QueryResource {
+    /** Scans that have not been closed yet. */
+    private final ArrayList<ParallelScan> list = new ArrayList<>();
+
+    /**
+     * Adds a scan.
+     * @param scan scan
+     */
+    synchronized void add(final ParallelScan scan) {
+      list.add(scan);
+    }
+
+    /**
+     * Removes a scan.
+     * @param scan scan
+     */
+    synchronized void remove(final ParallelScan scan) {
+      list.remove(scan);
+    }
+
+    @Override
+    public void close() {
+      final ParallelScan[] scans;
+      synchronized(this) {
+        scans = list.toArray(new ParallelScan[list.size()]);
+      }
+      for(final ParallelScan scan : scans) scan.close();
+    }
+  }
+}
@@ -662,8 +662,8 @@ public abstract class Path extends ParseExpr {
       }
     }
 
-    // skip rewriting if no index access is possible, or if it is too expensive
-    if(index == null || index.costs > data.meta.size) return this;
+    // skip rewriting if no index access is possible, or if it is more expensive than a scan
+    if(index == null || index.costs > scanCosts(data, iStep)) return this;
 
     // rewrite for index access
     qc.compInfo(index.info);
@@ -731,6 +731,37 @@ public abstract class Path extends ParseExpr {
     return resultSteps.isEmpty() ? resultRoot : get(info, resultRoot, resultSteps.finish());
   }
 
+  /**
+   * Estimates the number of nodes that will be visited if the steps up to the specified step
+   * are evaluated sequentially. If the path summary allows it, descendant steps will be
+   * rewritten to child steps (see {@link #children}), and only the children of the
+   * ancestors of the resulting nodes need to be traversed.
+   * @param data data reference
+   * @param last last step to be evaluated
+   * @return number of nodes
+   */
+  private long scanCosts(final Data data, final int last) {
+    if(data.nspaces.globalNS() == null) return data.meta.size;
+    for(int s = 0; s < last; s++) {
+      if(axisStep(s).preds.length != 0) return data.meta.size;
+    }
+    final ArrayList<PathNode> nodes = pathNodes(data, last);
+    if(nodes == null) return data.meta.size;
+
+    final HashSet<PathNode> parents = new HashSet<>();
+    for(final PathNode node : nodes) {
+      PathNode par = node.parent;
+      while(par != null && parents.add(par)) par = par.parent;
+    }
+    long costs = 0;
+    for(final PathNode par : parents) {
+      for(final PathNode child : par.children) {
+        if(child.kind != Data.ATTR) costs += child.stats.count;
+      }
+    }
+    return Math.min(costs, data.meta.size);
+  }
+
   /**
    * Checks if steps before index step need to be inverted and traversed.
    * @param data data reference
@@ -216,6 +216,9 @@ public abstract class Step extends Preds {
 
   @Override
   public boolean accept(final ASTVisitor visitor) {
+    if(!axis.down || axis == Axis.PARENT) {
+      if(!visitor.upward(this)) return false;
+    }
     for(final Expr pred : preds) {
       visitor.enterFocus();
       if(!pred.accept(visitor)) return false;
@@ -1101,6 +1101,8 @@ public enum Function {
   _PROF_VOID(ProfVoid.class, "void(value)", arg(ITEM_ZM), EMP, flag(NDT), PROF_URI),
   /** XQuery function. */
   _PROF_VARIABLES(ProfVariables.class, "variables()", arg(), EMP, flag(NDT), PROF_URI),
+  /** XQuery function. */
+  _PROF_REGEX_CACHE(ProfRegexCache.class, "regex-cache()", arg(), MAP_O, flag(NDT), PROF_URI),
 
   /* Random Module. */
 
@@ -1406,7 +1408,7 @@ public enum Function {
    * Returns the namespace URI of this function.
    * @return function
    */
-  final byte[] uri() {
+  public final byte[] uri() {
     return uri;
   }
 
@@ -132,6 +132,11 @@ public abstract class StandardFunc extends Arr {
     return sig.has(flag) || flag != Flag.HOF && super.has(flag);
   }
 
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return visitor.funcCall(this) && super.accept(visitor);
+  }
+
   @Override
   public final boolean isFunction(final Function f) {
     return sig == f;
@@ -96,6 +96,23 @@ public final class StaticFunc extends StaticDecl implements XQFunction {
     compiling = false;
   }
 
+  /**
+   * Declares a copy of this function in the specified query context.
+   * The function body needs to be copied and assigned by the caller.
+   * @param qc query context
+   * @param vs mapping from old variable IDs to new variable copies
+   * @return copy
+   * @throws QueryException query exception
+   */
+  public StaticFunc copy(final QueryContext qc, final IntObjMap<Var> vs) throws QueryException {
+    final VarScope scp = scope.copy(qc, vs);
+    final int al = args.length;
+    final Var[] arg = new Var[al];
+    for(int a = 0; a < al; a++) arg[a] = vs.get(args[a].id);
+    return qc.funcs.declare(anns, name, arg, declType, null, sc, scp,
+        doc != null ? Token.string(doc) : null, info);
+  }
+
   @Override
   public void plan(final FElem plan) {
     final FElem el = planElem(NAM, name.string());
@@ -83,7 +83,8 @@ public final class StaticFuncCall extends FuncCall {
   @Override
   public StaticFuncCall copy(final QueryContext qc, final VarScope scp, final IntObjMap<Var> vs) {
     final Expr[] args = Arr.copyAll(qc, scp, vs, exprs);
-    final StaticFuncCall call = new StaticFuncCall(name, args, sc, func, info);
+    // reference the copied function if a query plan is copied
+    final StaticFuncCall call = new StaticFuncCall(name, args, sc, qc.decl(func), info);
     call.seqType = seqType;
     call.size = size;
     return call;
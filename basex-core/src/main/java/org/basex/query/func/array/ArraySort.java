@@ -30,7 +30,7 @@ public final class ArraySort extends StandardFunc {
       for(final Value val : array.members()) vl.add(val);
     }
 
-    final Integer[] order = FnSort.sort(vl, this);
+    final int[] order = FnSort.sort(vl, this);
     final ArrayBuilder builder = new ArrayBuilder();
     if(exprs.length > 1) {
       for(int r = 0; r < sz; r++) builder.append(array.get(order[r]));
@@ -1,12 +1,9 @@
 package org.basex.query.func.fn;
 
-import static org.basex.query.QueryError.*;
-
-import java.util.*;
-
 import org.basex.query.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
@@ -31,7 +28,7 @@ public final class FnSort extends StandardFunc {
       for(final Value v : value) vl.add(v);
     }
 
-    final Integer[] order = sort(vl, this);
+    final int[] order = sort(vl, this);
     return new ValueIter() {
       int c;
       @Override
@@ -61,36 +58,10 @@ public final class FnSort extends StandardFunc {
    * @return item order
    * @throws QueryException query exception
    */
-  public static Integer[] sort(final ValueList vl, final StandardFunc sf) throws QueryException {
+  public static int[] sort(final ValueList vl, final StandardFunc sf) throws QueryException {
     final int al = vl.size();
-    final Integer[] order = new Integer[al];
-    for(int o = 0; o < al; o++) order[o] = o;
-    try {
-      Arrays.sort(order, new Comparator<Integer>() {
-        @Override
-        public int compare(final Integer i1, final Integer i2) {
-          try {
-            final Value v1 = vl.get(i1), v2 = vl.get(i2);
-            final long s1 = v1.size(), s2 = v2.size(), sl = Math.min(s1, s2);
-            for(int v = 0; v < sl; v++) {
-              final Item it1 = v1.itemAt(v), it2 = v2.itemAt(v);
-              if(!it1.comparable(it2)) {
-                if(it1 instanceof FItem) throw FIEQ_X.get(sf.info, it1.type);
-                if(it2 instanceof FItem) throw FIEQ_X.get(sf.info, it2.type);
-                throw diffError(sf.info, it1, it2);
-              }
-              final int d = it1.diff(it2, sf.sc.collation, sf.info);
-              if(d != 0) return d;
-            }
-            return (int) (s1 - s2);
-          } catch(final QueryException ex) {
-            throw new QueryRTException(ex);
-          }
-        }
-      });
-    } catch(final QueryRTException ex) {
-      throw ex.getCause();
-    }
-    return order;
+    final Value[] keys = new Value[al];
+    for(int a = 0; a < al; a++) keys[a] = vl.get(a);
+    return new KeySort(al, false).add(keys, sf.sc.collation, sf.info).sort();
   }
 }
@@ -5,9 +5,7 @@ import java.util.regex.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
-import org.basex.query.util.regex.parse.*;
 import org.basex.util.*;
-import org.basex.util.hash.*;
 
 /**
  * Regular expression functions.
@@ -16,8 +14,8 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 abstract class RegEx extends StandardFunc {
-  /** Pattern cache. */
-  private final TokenObjMap<Pattern> patterns = new TokenObjMap<>();
+  /** Last pattern of this expression (may be accessed by concurrent threads). */
+  private volatile Cached last;
 
   /**
    * Returns a regular expression pattern.
@@ -36,11 +34,29 @@ abstract class RegEx extends StandardFunc {
     final TokenBuilder tb = new TokenBuilder(pat);
     if(mod != null) tb.add(0).add(mod);
     final byte[] key = tb.finish();
-    Pattern p = patterns.get(key);
-    if(p == null) {
-      p = RegExParser.parse(pat, mod, info, check);
-      patterns.put(key, p);
-    }
+    final Cached c = last;
+    if(c != null && Token.eq(key, c.key)) return c.pattern;
+
+    final Pattern p = qc.context.regexes.get(pat, mod, check, info);
+    last = new Cached(key, p);
     return p;
   }
+
+  /** Pattern and its key. */
+  private static final class Cached {
+    /** Key (pattern and modifiers). */
+    final byte[] key;
+    /** Compiled pattern. */
+    final Pattern pattern;
+
+    /**
+     * Constructor.
+     * @param key key
+     * @param pattern compiled pattern
+     */
+    Cached(final byte[] key, final Pattern pattern) {
+      this.key = key;
+      this.pattern = pattern;
+    }
+  }
 }
@@ -1,15 +1,13 @@
 package org.basex.query.func.hof;
 
-import java.util.*;
-
 import org.basex.query.*;
-import org.basex.query.expr.CmpV.OpV;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
-import org.basex.util.*;
 
 /**
  * Function implementation.
@@ -18,6 +16,9 @@ import org.basex.util.*;
  * @author Leo Woerteler
  */
 public final class HofTopKBy extends StandardFunc {
+  /** Minimum number of items that will be cached before they are sorted. */
+  private static final int CACHE = 1 << 10;
+
   @Override
   public Iter iter(final QueryContext qc) throws QueryException {
     return value(qc).iter();
@@ -29,27 +30,41 @@ public final class HofTopKBy extends StandardFunc {
     final long k = Math.min(toLong(exprs[2], qc), Integer.MAX_VALUE);
     if(k < 1) return Empty.SEQ;
 
+    // cache items and keys, and drop all but the top k items whenever the cache is full
+    final long max = Math.max(k, CACHE) << 1;
     final Iter iter = exprs[0].iter(qc);
-    final MinHeap<Item, Item> heap = new MinHeap<>(new Comparator<Item>() {
-      @Override
-      public int compare(final Item it1, final Item it2) {
-        try {
-          return OpV.LT.eval(it1, it2, sc.collation, sc, info) ? -1 : 1;
-        } catch(final QueryException qe) {
-          throw new QueryRTException(qe);
-        }
+    ItemList items = new ItemList(), keys = new ItemList();
+    for(Item it; (it = iter.next()) != null;) {
+      items.add(it);
+      keys.add(checkNoEmpty(getKey.invokeItem(qc, info, it)));
+      if(items.size() == max) {
+        final ItemList[] top = top(items, keys, k);
+        items = top[0];
+        keys = top[1];
       }
-    });
+    }
+    return top(items, keys, k)[0].value();
+  }
 
-    try {
-      for(Item it; (it = iter.next()) != null;) {
-        heap.insert(checkNoEmpty(getKey.invokeItem(qc, info, it)), it);
-        if(heap.size() > k) heap.removeMin();
-      }
-    } catch(final QueryRTException ex) { throw ex.getCause(); }
+  /**
+   * Returns the top k items and their keys, sorted by their keys in descending order.
+   * @param items items
+   * @param keys keys
+   * @param k number of items to return
+   * @return items and keys
+   * @throws QueryException query exception
+   */
+  private ItemList[] top(final ItemList items, final ItemList keys, final long k)
+      throws QueryException {
 
-    final ValueBuilder vb = new ValueBuilder();
-    while(!heap.isEmpty()) vb.addFront(heap.removeMin());
-    return vb.value();
+    final int is = items.size(), ks = (int) Math.min(is, k);
+    final int[] order = new KeySort(is, false).add(keys.internal(), true, false, sc.collation,
+        info).sort();
+    final ItemList[] top = { new ItemList(ks), new ItemList(ks) };
+    for(int i = 0; i < ks; i++) {
+      top[0].add(items.get(order[i]));
+      top[1].add(keys.get(order[i]));
+    }
+    return top;
   }
 }
@@ -0,0 +1,33 @@
+package org.basex.query.func.prof;
+
+import org.basex.query.*;
+import org.basex.query.func.*;
+import org.basex.query.util.regex.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.map.Map;
+import org.basex.util.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class ProfRegexCache extends StandardFunc {
+  /** Size key. */
+  private static final Str SIZE = Str.get("size");
+  /** Maximum size key. */
+  private static final Str MAX = Str.get("max");
+  /** Hits key. */
+  private static final Str HITS = Str.get("hits");
+  /** Misses key. */
+  private static final Str MISSES = Str.get("misses");
+
+  @Override
+  public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
+    final RegExCache cache = qc.context.regexes;
+    return Map.EMPTY.put(SIZE, Int.get(cache.size()), info).
+        put(MAX, Int.get(cache.max()), info).put(HITS, Int.get(cache.hits()), info).
+        put(MISSES, Int.get(cache.misses()), info);
+  }
+}
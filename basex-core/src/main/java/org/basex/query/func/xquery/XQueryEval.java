@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
@@ -75,7 +76,7 @@ public class XQueryEval extends StandardFunc {
     final HashMap<String, Value> bindings = toBindings(1, qc);
     final User user = qc.context.user();
     final Perm tmp = user.perm(null);
-    Timer to = null;
+    ScheduledFuture<?> mem = null, to = null;
 
     try(final QueryContext qctx = qc.proc(new QueryContext(qc))) {
       if(exprs.length > 2) {
@@ -88,8 +89,7 @@ public class XQueryEval extends StandardFunc {
         final long mb = opts.get(XQueryOptions.MEMORY);
         if(mb != 0) {
           final long limit = Performance.memory() + (mb << 20);
-          to = new Timer(true);
-          to.schedule(new TimerTask() {
+          mem = Scheduler.schedule(new Runnable() {
             @Override
             public void run() {
               // limit reached: perform garbage collection and check again
@@ -99,8 +99,7 @@ public class XQueryEval extends StandardFunc {
         }
         final long ms = opts.get(XQueryOptions.TIMEOUT) * 1000L;
         if(ms != 0) {
-          if(to == null) to = new Timer(true);
-          to.schedule(new TimerTask() {
+          to = Scheduler.schedule(new Runnable() {
             @Override
             public void run() { qctx.stop(); }
           }, ms);
@@ -138,7 +137,8 @@ public class XQueryEval extends StandardFunc {
     } finally {
       user.perm(tmp, null);
       qc.proc(null);
-      if(to != null) to.cancel();
+      if(mem != null) mem.cancel(false);
+      if(to != null) to.cancel(false);
     }
   }
 
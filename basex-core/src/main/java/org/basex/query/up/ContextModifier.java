@@ -70,6 +70,15 @@ public abstract class ContextModifier {
     }
   }
 
+  /**
+   * Returns the updates for the specified database.
+   * @param data data reference
+   * @return updates, or {@code null} if the database is not updated
+   */
+  final DataUpdates updates(final Data data) {
+    return dbUpdates.get(data);
+  }
+
   /**
    * Adds the names of all databases to be updated to the specified list.
    * @param db databases
@@ -207,6 +207,14 @@ final class DataUpdates {
     }
   }
 
+  /**
+   * Returns the atomic updates, which have been created by {@link #prepare}.
+   * @return atomic update cache
+   */
+  AtomicUpdateCache updates() {
+    return auc;
+  }
+
   /**
    * Prepares the {@link NodeUpdate} for execution incl. ordering,
    * and removes the update primitive references to save memory.
@@ -6,8 +6,10 @@ import java.util.*;
 
 import org.basex.data.*;
 import org.basex.query.*;
+import org.basex.query.up.atomic.*;
 import org.basex.query.up.primitives.*;
 import org.basex.query.up.primitives.node.*;
+import org.basex.query.value.node.*;
 
 /**
  * The Transform context modifier carries out updates of a single transform
@@ -24,6 +26,28 @@ public final class TransformModifier extends ContextModifier {
    * (XUDY0014) if the data reference of the corresponding target node is not
    * part of this set, hence the target node has not been copied. */
   private final Set<Data> refs = new HashSet<>();
+  /** Database node that is updated instead of a copy (can be {@code null}). */
+  private final DBNode source;
+  /** Indicates if an update cannot be applied to a copy of the database node. */
+  private boolean invalid;
+
+  /**
+   * Constructor.
+   */
+  public TransformModifier() {
+    this(null);
+  }
+
+  /**
+   * Constructor. If a database node is specified, all updates of the modify clause must
+   * target this node or its descendants. The updates will not be applied to the database
+   * node, but to the copy that is created by {@link #copy(QueryContext)}.
+   * @param source database node (can be {@code null})
+   */
+  public TransformModifier(final DBNode source) {
+    this.source = source;
+    if(source != null) refs.add(source.data());
+  }
 
   /**
    * Adds a data reference to list which keeps track of the nodes copied
@@ -38,11 +62,51 @@ public final class TransformModifier extends ContextModifier {
   void add(final Update up, final QueryContext qc) throws QueryException {
     // Disallow side-effecting updates within transform expressions.
     if(!(up instanceof NodeUpdate)) throw BASX_DBTRANSFORM.get(up.info());
-    super.add(up, qc);
-
+    final NodeUpdate nodeUp = (NodeUpdate) up;
     // Check if the target node of the given primitive has been copied in the
     // 'copy' statement of this transform expression.
-    final NodeUpdate nodeUp = (NodeUpdate) up;
     if(!refs.contains(nodeUp.data())) throw UPNOTCOPIED_X.get(nodeUp.info(), nodeUp.node());
+    if(source != null && !copied(nodeUp)) {
+      invalid = true;
+      return;
+    }
+    super.add(up, qc);
+  }
+
+  /**
+   * Checks if the specified update could also be applied to a copy of the database node.
+   * The target must be the database node or one of its descendants, and the database node
+   * must not be deleted, replaced or supplemented with siblings.
+   * @param up node update
+   * @return result of check
+   */
+  private boolean copied(final NodeUpdate up) {
+    final Data data = source.data();
+    final int pre = source.pre(), p = up.pre;
+    if(up.data() != data || p < pre || p >= pre + data.size(pre, data.kind(pre))) return false;
+    final UpdateType type = up.type;
+    return p != pre || type != UpdateType.DELETENODE && type != UpdateType.REPLACENODE &&
+        type != UpdateType.INSERTBEFORE && type != UpdateType.INSERTAFTER;
+  }
+
+  /**
+   * Returns a copy of the database node with all updates applied.
+   * The database node itself remains unchanged.
+   * @param serialize indicates if the copy will only be serialized. If yes, and if the
+   *   updates introduce no namespaces, the copy will only be created if it is accessed
+   * @param qc query context
+   * @return copy, or {@code null} if the updates can only be applied to a node that has
+   *   been copied before the modify clause was evaluated
+   * @throws QueryException query exception
+   */
+  public ANode copy(final boolean serialize, final QueryContext qc) throws QueryException {
+    if(invalid) return null;
+    prepare(new HashSet<Data>(), qc);
+
+    final Data data = source.data();
+    final DataUpdates ups = updates(data);
+    final AtomicUpdateCache auc = ups != null ? ups.updates() : new AtomicUpdateCache(data);
+    final PatchedNode node = new PatchedNode(source, auc, qc.context.options);
+    return serialize && !auc.namespaces() ? node : node.node();
   }
 }
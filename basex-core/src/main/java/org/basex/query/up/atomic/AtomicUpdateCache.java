@@ -1,5 +1,6 @@
 package org.basex.query.up.atomic;
 
+import java.io.*;
 import java.util.*;
 
 import org.basex.data.*;
@@ -285,6 +286,54 @@ public final class AtomicUpdateCache {
     clear();
   }
 
+  /**
+   * Appends a copy of the specified document or element node with all updates applied to
+   * another data instance. The target data of this cache will not be changed.
+   * @param pre pre value of the node to be copied
+   * @param target target data instance
+   */
+  public void copy(final int pre, final Data target) {
+    try {
+      new PatchedCopy(this, target).walk(pre);
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+    clear();
+  }
+
+  /**
+   * Checks if the updates introduce namespaces.
+   * @return result of check
+   */
+  public boolean namespaces() {
+    flush();
+    for(final StructuralUpdate su : struct) {
+      if(!(su instanceof Delete) && su.getInsertionData().data.nspaces.size() != 0) return true;
+    }
+    for(final BasicUpdate bu : val) {
+      if(bu instanceof Rename && ((Rename) bu).uri.length != 0) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the structural updates.
+   * @return structural updates, ordered by their locations
+   */
+  List<StructuralUpdate> structural() {
+    flush();
+    return struct;
+  }
+
+  /**
+   * Returns the value updates.
+   * @return value updates, ordered by their locations
+   */
+  List<BasicUpdate> values() {
+    flush();
+    return val;
+  }
+
   /**
    * Carries out structural updates.
    */
@@ -1,6 +1,7 @@
 package org.basex.query.up.atomic;
 
 import org.basex.data.*;
+import org.basex.util.*;
 
 /**
  * Abstract atomic update.
@@ -39,6 +40,15 @@ public abstract class BasicUpdate {
    */
   abstract void apply(final Data data);
 
+  /**
+   * Applies a non-structural update to a node of another data instance.
+   * @param data data instance on which to execute the update
+   * @param pre pre value of the target node
+   */
+  void apply(final Data data, final int pre) {
+    throw Util.notExpected("Update cannot be applied to other nodes: " + this);
+  }
+
   /**
    * Returns the data to be inserted (for inserts,...).
    * @return Insertion sequence data instance
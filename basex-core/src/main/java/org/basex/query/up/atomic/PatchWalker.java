@@ -0,0 +1,250 @@
+package org.basex.query.up.atomic;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Walks a database node in document order and reports the nodes that result from
+ * applying the atomic updates of a cache. The database remains unchanged: subtrees
+ * without updates are reported as a whole, and only the updated nodes are visited.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public abstract class PatchWalker {
+  /** Source data. */
+  protected final Data data;
+  /** Structural updates, indexed by their locations. */
+  private final IntObjMap<List<StructuralUpdate>> structs = new IntObjMap<>();
+  /** Value updates, indexed by their locations. */
+  final IntObjMap<List<BasicUpdate>> values = new IntObjMap<>();
+  /** Sorted locations of all updates. */
+  private final IntList locations = new IntList();
+
+  /**
+   * Constructor.
+   * @param auc atomic update cache
+   */
+  protected PatchWalker(final AtomicUpdateCache auc) {
+    data = auc.data;
+    for(final StructuralUpdate su : auc.structural()) {
+      List<StructuralUpdate> list = structs.get(su.location);
+      if(list == null) {
+        list = new ArrayList<>(1);
+        structs.put(su.location, list);
+      }
+      list.add(su);
+      locations.add(su.location);
+    }
+    for(final BasicUpdate bu : auc.values()) {
+      List<BasicUpdate> list = values.get(bu.location);
+      if(list == null) {
+        list = new ArrayList<>(1);
+        values.put(bu.location, list);
+      }
+      list.add(bu);
+      locations.add(bu.location);
+    }
+    locations.sort().distinct();
+  }
+
+  /**
+   * Walks the specified document or element node.
+   * @param pre pre value of the node
+   * @throws IOException I/O exception
+   */
+  public final void walk(final int pre) throws IOException {
+    node(pre);
+  }
+
+  /**
+   * Reports a node that is neither deleted nor replaced.
+   * @param pre pre value of the node
+   * @throws IOException I/O exception
+   */
+  private void node(final int pre) throws IOException {
+    final int kind = data.kind(pre), end = pre + data.size(pre, kind);
+
+    // texts, comments and processing instructions
+    if(kind != Data.ELEM && kind != Data.DOC) {
+      leaf(pre, kind);
+      return;
+    }
+    // unchanged subtree
+    if(values.get(pre) == null && unchanged(pre, end)) {
+      nodes(new DataClip(data, pre, end));
+      return;
+    }
+
+    open(pre, kind);
+    final int ae = pre + data.attSize(pre, kind);
+    for(int a = pre + 1; a <= ae; a++) {
+      boolean keep = a < ae;
+      final List<StructuralUpdate> list = structs.get(a);
+      if(list != null) {
+        for(final StructuralUpdate su : list) {
+          if(su instanceof InsertAttr && su.parent == pre) {
+            attributes(su.getInsertionData());
+          } else if(keep && su.destructive()) {
+            delete(a);
+            keep = false;
+            if(su instanceof Replace) attributes(su.getInsertionData());
+          }
+        }
+      }
+      if(keep) attribute(a);
+    }
+
+    // report sequences of unchanged children at once
+    int run = -1;
+    for(int c = ae; c < end;) {
+      final int ce = c + data.size(c, data.kind(c));
+      if(unchanged(c, ce) && values.get(c) == null) {
+        if(run == -1) run = c;
+      } else {
+        if(run != -1) nodes(new DataClip(data, run, c));
+        run = -1;
+        final StructuralUpdate su = inserts(c, pre);
+        if(su == null) node(c);
+        else if(su instanceof Replace) nodes(su.getInsertionData());
+      }
+      c = ce;
+    }
+    if(run != -1) nodes(new DataClip(data, run, end));
+    inserts(end, pre);
+    close(pre, kind);
+  }
+
+  /**
+   * Reports the nodes that are inserted at the specified location.
+   * @param loc location
+   * @param par pre value of the parent
+   * @return delete or replace operation for the node at the specified location
+   * (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private StructuralUpdate inserts(final int loc, final int par) throws IOException {
+    StructuralUpdate destructive = null;
+    final List<StructuralUpdate> list = structs.get(loc);
+    if(list != null) {
+      for(final StructuralUpdate su : list) {
+        if(su.destructive()) destructive = su;
+        else if(su instanceof Insert && su.parent == par) nodes(su.getInsertionData());
+      }
+    }
+    return destructive;
+  }
+
+  /**
+   * Checks if the nodes of the specified range and the nodes inserted at the end of the
+   * range are not affected by any update.
+   * @param start first pre value
+   * @param end pre value after the last node
+   * @return result of check
+   */
+  private boolean unchanged(final int start, final int end) {
+    int i = locations.sortedIndexOf(start);
+    if(i < 0) i = -i - 1;
+    if(i == locations.size()) return true;
+    final int loc = locations.get(i);
+    if(loc < end) return false;
+    if(loc == end) {
+      final List<StructuralUpdate> list = structs.get(end);
+      if(list != null) {
+        for(final StructuralUpdate su : list) {
+          if(!su.destructive() && su.parent >= start && su.parent < end) return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the name of a node after all updates.
+   * @param pre pre value
+   * @param kind node kind
+   * @return name
+   */
+  protected final byte[] name(final int pre, final int kind) {
+    final List<BasicUpdate> list = values.get(pre);
+    if(list != null) {
+      for(final BasicUpdate bu : list) {
+        if(bu instanceof Rename) return ((Rename) bu).name;
+      }
+    }
+    return data.name(pre, kind);
+  }
+
+  /**
+   * Returns the value of a node after all updates.
+   * @param pre pre value
+   * @param kind node kind
+   * @return value
+   */
+  protected final byte[] value(final int pre, final int kind) {
+    final List<BasicUpdate> list = values.get(pre);
+    if(list != null) {
+      for(final BasicUpdate bu : list) {
+        if(bu instanceof UpdateValue) return ((UpdateValue) bu).value;
+      }
+    }
+    return kind == Data.PI ? data.atom(pre) : data.text(pre, kind != Data.ATTR);
+  }
+
+  /**
+   * Reports a sequence of nodes whose subtrees are not changed.
+   * @param clip clip with the root nodes and their descendants
+   * @throws IOException I/O exception
+   */
+  protected abstract void nodes(DataClip clip) throws IOException;
+
+  /**
+   * Reports a text, comment or processing instruction of the source data.
+   * @param pre pre value
+   * @param kind node kind
+   * @throws IOException I/O exception
+   */
+  protected abstract void leaf(int pre, int kind) throws IOException;
+
+  /**
+   * Reports the start of a document or element node of the source data whose subtree
+   * is changed.
+   * @param pre pre value
+   * @param kind node kind
+   * @throws IOException I/O exception
+   */
+  protected abstract void open(int pre, int kind) throws IOException;
+
+  /**
+   * Reports an attribute of the source data that is neither deleted nor replaced.
+   * @param pre pre value
+   * @throws IOException I/O exception
+   */
+  protected abstract void attribute(int pre) throws IOException;
+
+  /**
+   * Reports an attribute of the source data that is deleted or replaced.
+   * @param pre pre value
+   * @throws IOException I/O exception
+   */
+  protected abstract void delete(int pre) throws IOException;
+
+  /**
+   * Reports inserted attributes.
+   * @param clip clip with the attributes
+   * @throws IOException I/O exception
+   */
+  protected abstract void attributes(DataClip clip) throws IOException;
+
+  /**
+   * Reports the end of a document or element node that has been opened before.
+   * @param pre pre value
+   * @param kind node kind
+   * @throws IOException I/O exception
+   */
+  protected abstract void close(int pre, int kind) throws IOException;
+}
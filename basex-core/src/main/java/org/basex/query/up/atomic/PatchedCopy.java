@@ -0,0 +1,129 @@
+package org.basex.query.up.atomic;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.util.list.*;
+
+/**
+ * Creates a copy of a database node with all atomic updates applied. The source database
+ * remains unchanged: nodes are appended to the target instance in a single pass, subtrees
+ * without updates are copied as a whole, and only the updated nodes are patched.
+ * Time and memory for the patches scale with the number of updates, as all rows are
+ * appended to the end of the target table.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+final class PatchedCopy extends PatchWalker {
+  /** Target data. */
+  private final Data trg;
+  /** Pre values of the opened target nodes. */
+  private final IntList pars = new IntList();
+  /** Pre value of the next attribute of the currently opened target node. */
+  private int att;
+
+  /**
+   * Constructor.
+   * @param auc atomic update cache
+   * @param trg target data
+   */
+  PatchedCopy(final AtomicUpdateCache auc, final Data trg) {
+    super(auc);
+    this.trg = trg;
+  }
+
+  @Override
+  protected void nodes(final DataClip clip) {
+    final Data dt = clip.data;
+    final int par = parent();
+    int start = clip.start;
+    if(dt.kind(start) == Data.TEXT && adjacent(par)) merge(dt.text(start++, true));
+    if(start < clip.end) trg.insert(trg.meta.size, par, new DataClip(dt, start, clip.end));
+  }
+
+  @Override
+  protected void leaf(final int pre, final int kind) {
+    final int par = parent();
+    if(kind == Data.TEXT && adjacent(par)) {
+      merge(value(pre, kind));
+    } else {
+      final int tpre = trg.meta.size;
+      trg.insert(tpre, par, new DataClip(data, pre, pre + 1));
+      apply(pre, tpre);
+    }
+  }
+
+  @Override
+  protected void open(final int pre, final int kind) {
+    // copy node and attributes, which will be patched afterwards
+    final int tpre = trg.meta.size, as = data.attSize(pre, kind);
+    trg.insert(tpre, parent(), new DataClip(data, pre, pre + as));
+    trg.size(tpre, kind, as);
+    apply(pre, tpre);
+    pars.push(tpre);
+    att = tpre + 1;
+  }
+
+  @Override
+  protected void attribute(final int pre) {
+    apply(pre, att++);
+  }
+
+  @Override
+  protected void delete(final int pre) {
+    trg.delete(att);
+  }
+
+  @Override
+  protected void attributes(final DataClip clip) {
+    trg.insertAttr(att, pars.peek(), clip);
+    att += clip.size();
+  }
+
+  @Override
+  protected void close(final int pre, final int kind) {
+    pars.pop();
+  }
+
+  /**
+   * Returns the pre value of the current target parent.
+   * @return pre value ({@code -1} for the root node)
+   */
+  private int parent() {
+    return pars.isEmpty() ? -1 : pars.peek();
+  }
+
+  /**
+   * Checks if the last node of the target data is a text node with the specified parent.
+   * @param par pre value of the target parent
+   * @return result of check
+   */
+  private boolean adjacent(final int par) {
+    final int last = trg.meta.size - 1;
+    return last > 0 && trg.kind(last) == Data.TEXT && trg.parent(last, Data.TEXT) == par;
+  }
+
+  /**
+   * Appends a string to the last text node of the target data.
+   * @param text text to be appended
+   */
+  private void merge(final byte[] text) {
+    final int last = trg.meta.size - 1;
+    trg.update(last, Data.TEXT, concat(trg.text(last, true), text));
+  }
+
+  /**
+   * Applies the value updates of a source node to a target node.
+   * @param pre pre value of the source node
+   * @param tpre pre value of the target node
+   */
+  private void apply(final int pre, final int tpre) {
+    final List<BasicUpdate> vals = values.get(pre);
+    if(vals != null) {
+      for(final BasicUpdate bu : vals) bu.apply(trg, tpre);
+    }
+  }
+}
@@ -13,9 +13,9 @@ final class Rename extends BasicUpdate {
   /** Kind of updated node. */
   private final int kind;
   /** The new name of the node. */
-  private final byte[] name;
+  final byte[] name;
   /** Name URI. */
-  private final byte[] uri;
+  final byte[] uri;
 
   /**
    * Constructor.
@@ -48,7 +48,12 @@ final class Rename extends BasicUpdate {
 
   @Override
   void apply(final Data data) {
-    data.update(location, kind, name, uri);
+    apply(data, location);
+  }
+
+  @Override
+  void apply(final Data data, final int pre) {
+    data.update(pre, kind, name, uri);
   }
 
   @Override
@@ -14,7 +14,7 @@ final class UpdateValue extends BasicUpdate {
   /** Target node kind. */
   private final int kind;
   /** New value for target node. */
-  private final byte[] value;
+  final byte[] value;
 
   /**
    * Constructor.
@@ -42,7 +42,12 @@ final class UpdateValue extends BasicUpdate {
 
   @Override
   void apply(final Data data) {
-    data.update(location, kind, value);
+    apply(data, location);
+  }
+
+  @Override
+  void apply(final Data data, final int pre) {
+    data.update(pre, kind, value);
   }
 
   @Override
@@ -0,0 +1,184 @@
+package org.basex.query.up.expr;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.locks.*;
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.Expr.Flag;
+import org.basex.query.func.*;
+import org.basex.query.up.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+
+/**
+ * Evaluates the modify clause of a copy/modify expression with the original database node.
+ * The updates are applied to a copy, which is created after the modify clause has been
+ * evaluated: subtrees without updates are copied as a whole, and the database remains
+ * unchanged. If the result will only be serialized, no copy is created at all: the updates
+ * are applied while the database node is serialized.
+ *
+ * This is only possible if the modify clause cannot distinguish the original node from a
+ * copy: it must only access the node, its descendants and new nodes, and it must not call
+ * functions that return the roots, locations or database properties of nodes. As a result,
+ * all updates target the node, its descendants or new nodes, and the modify clause will only
+ * be evaluated once.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+final class LazyCopy extends ASTVisitor {
+  /** Functions that return the roots, locations or properties of nodes, or other documents. */
+  private static final Function[] NODE_INFO = {
+    Function.DOC, Function.COLLECTION, Function.ROOT, Function.PATH, Function.ID,
+    Function.IDREF, Function.ELEMENT_WITH_ID, Function.LANG, Function.BASE_URI,
+    Function.DOCUMENT_URI, Function.GENERATE_ID, Function.IN_SCOPE_PREFIXES,
+    Function.NAMESPACE_URI_FOR_PREFIX
+  };
+  /** Namespaces of the functions that may be called. */
+  private static final byte[][] URIS = { FN_URI, MATH_URI, MAP_URI, ARRAY_URI };
+
+  /** Variables that may be referenced. */
+  private final HashSet<Var> vars = new HashSet<>();
+  /** Indicates if the context value is the updated node. */
+  private final boolean context;
+  /** Depth of nested foci. */
+  private int focus;
+
+  /**
+   * Constructor.
+   * @param var variable bound to the updated node ({@code null} for the context value)
+   */
+  private LazyCopy(final Var var) {
+    context = var == null;
+    if(var != null) vars.add(var);
+  }
+
+  /**
+   * Evaluates the modify clause with the specified node and returns an updated copy.
+   * @param node node to be updated
+   * @param mod modify clause
+   * @param var variable bound to the updated node ({@code null} for the context value)
+   * @param serialize indicates if the copy will only be serialized
+   * @param info input info
+   * @param qc query context
+   * @return updated copy, or {@code null} if the node must be copied before the
+   *   modify clause is evaluated
+   * @throws QueryException query exception
+   */
+  static ANode modify(final ANode node, final Expr mod, final Var var, final boolean serialize,
+      final InputInfo info, final QueryContext qc) throws QueryException {
+
+    // only consider document and element nodes without namespaces
+    if(!qc.context.options.get(MainOptions.LAZYCOPY) || !(node instanceof DBNode)) return null;
+    final DBNode dbnode = (DBNode) node;
+    final Data data = dbnode.data();
+    final int kind = data.kind(dbnode.pre());
+    if(kind != Data.DOC && kind != Data.ELEM || data.nspaces.size() != 0 ||
+        mod.has(Flag.NDT) || !mod.accept(new LazyCopy(var))) return null;
+
+    final int o = qc.resources.output.size();
+    final Updates updates = qc.resources.updates();
+    final ContextModifier tmp = updates.mod;
+    final TransformModifier pu = new TransformModifier(dbnode);
+    updates.mod = pu;
+
+    final Value cv = qc.value;
+    try {
+      if(var == null) qc.value = dbnode;
+      else qc.set(var, dbnode, info);
+
+      final Value v = qc.value(mod);
+      if(!v.isEmpty()) throw BASEX_MOD.get(info);
+      return pu.copy(serialize, qc);
+    } finally {
+      qc.resources.output.size(o);
+      updates.mod = tmp;
+      qc.value = cv;
+    }
+  }
+
+  /**
+   * Checks if the result of the specified expression will only be serialized.
+   * @param expr expression
+   * @param qc query context
+   * @return result of check
+   */
+  static boolean serialized(final Expr expr, final QueryContext qc) {
+    return qc.serialize && qc.root != null && qc.root.expr == expr;
+  }
+
+  @Override
+  public boolean declared(final Var var) {
+    vars.add(var);
+    return true;
+  }
+
+  @Override
+  public boolean used(final VarRef ref) {
+    return vars.contains(ref.var);
+  }
+
+  @Override
+  public boolean staticVar(final StaticVar var) {
+    return false;
+  }
+
+  @Override
+  public boolean inlineFunc(final Scope sub) {
+    return sub.visit(this);
+  }
+
+  @Override
+  public boolean staticFuncCall(final StaticFuncCall call) {
+    return false;
+  }
+
+  @Override
+  public boolean funcItem(final FuncItem func) {
+    return false;
+  }
+
+  @Override
+  public boolean funcCall(final StandardFunc func) {
+    for(final Function f : NODE_INFO) {
+      if(func.sig == f) return false;
+    }
+    final byte[] uri = func.sig.uri();
+    for(final byte[] u : URIS) {
+      if(eq(uri, u)) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean upward(final Expr expr) {
+    return false;
+  }
+
+  @Override
+  public boolean lock(final String db) {
+    // the context value outside a focus is only accessible if it is the updated node
+    return DBLocking.CONTEXT.equals(db) && (context || focus > 0);
+  }
+
+  @Override
+  public void enterFocus() {
+    focus++;
+  }
+
+  @Override
+  public void exitFocus() {
+    focus--;
+  }
+}
@@ -57,6 +57,15 @@ public final class Modify extends Arr {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    final Iter ir = qc.iter(exprs[0]);
+    Item i = ir.next();
+    if(!(i instanceof ANode) || ir.next() != null) throw UPSOURCE.get(info);
+
+    // database node: try to update the original node
+    final ANode node = LazyCopy.modify((ANode) i, exprs[1], null, LazyCopy.serialized(this, qc),
+        info, qc);
+    if(node != null) return node;
+
     final int o = qc.resources.output.size();
     final Updates updates = qc.resources.updates();
     final ContextModifier tmp = updates.mod;
@@ -65,10 +74,6 @@ public final class Modify extends Arr {
 
     final Value cv = qc.value;
     try {
-      final Iter ir = qc.iter(exprs[0]);
-      Item i = ir.next();
-      if(!(i instanceof ANode) || ir.next() != null) throw UPSOURCE.get(info);
-
       // copy node to main memory data instance
       i = ((ANode) i).dbCopy(qc.context.options);
       // set resulting node as context
@@ -61,6 +61,34 @@ public final class Transform extends Arr {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    // single database node: try to update the original node
+    final int cl = copies.length;
+    if(cl == 1) {
+      final Let fo = copies[0];
+      final ANode node = copy(fo, qc);
+      final boolean ser = exprs[1] instanceof VarRef && ((VarRef) exprs[1]).var.is(fo.var) &&
+          LazyCopy.serialized(this, qc);
+      final ANode upd = LazyCopy.modify(node, exprs[0], fo.var, ser, info, qc);
+      if(upd != null) {
+        qc.set(fo.var, upd, info);
+        return qc.value(exprs[1]);
+      }
+      return value(node, qc);
+    }
+    return value(null, qc);
+  }
+
+  /**
+   * Binds copies of the source nodes to the copy variables, evaluates the modify clause and
+   * returns the result of the return clause.
+   * @param node already evaluated source node of a single copy clause (if {@code null}, the
+   *   copy expressions will be evaluated one by one, as each copy variable is visible to the
+   *   subsequent copy expressions)
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value value(final ANode node, final QueryContext qc) throws QueryException {
     final int o = qc.resources.output.size();
     final Updates updates = qc.resources.updates();
     final ContextModifier tmp = updates.mod;
@@ -68,13 +96,11 @@ public final class Transform extends Arr {
     updates.mod = pu;
 
     try {
-      for(final Let fo : copies) {
-        final Iter ir = qc.iter(fo.expr);
-        Item i = ir.next();
-        if(!(i instanceof ANode) || ir.next() != null) throw UPCOPYMULT_X.get(fo.info, fo.var.name);
-
+      final int cl = copies.length;
+      for(int c = 0; c < cl; c++) {
+        final Let fo = copies[c];
         // copy node to main memory data instance
-        i = ((ANode) i).dbCopy(qc.context.options);
+        final DBNode i = (node != null ? node : copy(fo, qc)).dbCopy(qc.context.options);
         // add resulting node to variable
         qc.set(fo.var, i, info);
         pu.addData(i.data());
@@ -91,6 +117,20 @@ public final class Transform extends Arr {
     return qc.value(exprs[1]);
   }
 
+  /**
+   * Evaluates a copy expression and returns the resulting node.
+   * @param fo copy clause
+   * @param qc query context
+   * @return node
+   * @throws QueryException query exception
+   */
+  private static ANode copy(final Let fo, final QueryContext qc) throws QueryException {
+    final Iter ir = qc.iter(fo.expr);
+    final Item i = ir.next();
+    if(!(i instanceof ANode) || ir.next() != null) throw UPCOPYMULT_X.get(fo.info, fo.var.name);
+    return (ANode) i;
+  }
+
   @Override
   public boolean has(final Flag flag) {
     return flag != Flag.UPD && super.has(flag);
@@ -8,6 +8,8 @@ import java.util.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.value.*;
 import org.basex.query.*;
 import org.basex.query.up.primitives.*;
 import org.basex.util.*;
@@ -75,6 +77,11 @@ public final class DBOptimize extends DBUpdate {
     meta.createattr = opts.get(MainOptions.ATTRINDEX);
     meta.createftxt = opts.get(MainOptions.FTINDEX);
     meta.updindex = opts.get(MainOptions.UPDINDEX);
+    final int ic = opts.get(MainOptions.INDEXCACHE);
+    if(ic != meta.indexcache) {
+      meta.indexcache = ic;
+      meta.dirty = true;
+    }
 
     // check if indexing options have changed
     final int mc = opts.get(MainOptions.MAXCATS);
@@ -105,6 +112,11 @@ public final class DBOptimize extends DBUpdate {
       throw UPDBOPTERR_X.get(info, ex);
     }
 
+    // resize the caches of value indexes that have not been rebuilt
+    for(final Index index : new Index[] { data.textIndex, data.attrIndex }) {
+      if(index instanceof DiskValues) ((DiskValues) index).resize();
+    }
+
     // remove old database reference
     if(all) qc.resources.remove(meta.name);
   }
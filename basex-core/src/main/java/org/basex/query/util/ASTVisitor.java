@@ -63,6 +63,27 @@ public abstract class ASTVisitor {
     return true;
   }
 
+  /**
+   * Notifies the visitor of a built-in function call.
+   * @param func function call
+   * @return if more expressions should be visited
+   */
+  @SuppressWarnings("unused")
+  public boolean funcCall(final StandardFunc func) {
+    return true;
+  }
+
+  /**
+   * Notifies the visitor of an expression that may access nodes outside the subtrees of
+   * its input nodes. Examples: parent step, root node.
+   * @param expr expression
+   * @return if more expressions should be visited
+   */
+  @SuppressWarnings("unused")
+  public boolean upward(final Expr expr) {
+    return true;
+  }
+
   /**
    * Notifies the visitor of a dynamic function call.
    * @param call function call
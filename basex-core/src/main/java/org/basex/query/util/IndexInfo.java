@@ -1,6 +1,7 @@
 package org.basex.query.util;
 
 import org.basex.data.*;
+import org.basex.index.name.*;
 import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
@@ -97,6 +98,33 @@ public final class IndexInfo {
     return text || attr;
   }
 
+  /**
+   * Returns the statistics of the element or attribute whose values will be requested
+   * from the index. Must be called after {@link #check(Expr, boolean)}.
+   * @return statistics, or {@code null} if they are not available or not up-to-date
+   */
+  public Stats stats() {
+    final Data data = ic.data;
+    if(!data.meta.uptodate || data.nspaces.size() != 0 || !(orig instanceof AxisPath)) return null;
+
+    NameTest nt = test;
+    if(nt == null) {
+      final Step st;
+      final AxisPath path = (AxisPath) orig;
+      final int sl = path.steps.length - 1;
+      if(text) {
+        st = sl == 0 ? step : path.step(sl - 1);
+        if(st.test.kind != Kind.NAME) return null;
+      } else {
+        st = path.step(sl);
+        if(!st.simple(Axis.ATTR, true)) return null;
+      }
+      nt = (NameTest) st.test;
+    }
+    final Names names = text ? data.elemNames : data.attrNames;
+    return names.stat(names.id(nt.name.local()));
+  }
+
   /**
    * Creates an index expression with an inverted axis path.
    * @param root new root expression
@@ -107,6 +135,7 @@ public final class IndexInfo {
   public void create(final ParseExpr root, final InputInfo ii, final String opt,
       final boolean parent) {
 
+    if(root instanceof IndexAccess) ((IndexAccess) root).estimate(costs);
     expr = invert(test == null || !parent ? root :
       Path.get(ii, root, Step.get(ii, Axis.PARENT, test)));
     info = opt;
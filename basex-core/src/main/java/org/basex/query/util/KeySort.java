@@ -0,0 +1,321 @@
+package org.basex.query.util;
+
+import static org.basex.query.QueryError.*;
+
+import org.basex.query.*;
+import org.basex.query.util.collation.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Stable sort of entries by their keys. The keys are extracted before sorting and stored
+ * in columns. Columns with items of the same type are stored as primitive arrays, and
+ * entries are sorted via a permutation of integers.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class KeySort {
+  /** Number of entries up to which an insertion sort will be used. */
+  private static final int INSERTION = 7;
+
+  /** Number of entries. */
+  private final int size;
+  /** Report incomparable keys as type errors of order by clauses. */
+  private final boolean order;
+  /** Key columns. */
+  private Column[] columns = {};
+
+  /**
+   * Constructor.
+   * @param size number of entries
+   * @param order report incomparable keys as type errors of order by clauses
+   */
+  public KeySort(final int size, final boolean order) {
+    this.size = size;
+    this.order = order;
+  }
+
+  /**
+   * Adds a column with single keys.
+   * @param keys keys ({@code null} references represent empty keys)
+   * @param desc descending order
+   * @param least empty keys are sorted first
+   * @param coll collation (can be {@code null})
+   * @param info input info
+   * @return self reference
+   * @throws QueryException query exception
+   */
+  public KeySort add(final Item[] keys, final boolean desc, final boolean least,
+      final Collation coll, final InputInfo info) throws QueryException {
+
+    // find common type of all keys
+    boolean[] empty = null;
+    Type type = null;
+    boolean string = true, nan = false;
+    for(int i = 0; i < size; i++) {
+      final Item it = keys[i];
+      if(it == null) {
+        if(empty == null) empty = new boolean[size];
+        empty[i] = true;
+      } else {
+        final Type tp = it.type;
+        if(type == null) type = tp;
+        else if(type != tp) type = AtomType.ITEM;
+        string &= tp.isStringOrUntyped();
+        nan |= (tp == AtomType.DBL || tp == AtomType.FLT) && Double.isNaN(it.dbl(info));
+      }
+    }
+
+    final Column col;
+    if(type == null) {
+      col = new Column(empty, desc, least) {
+        @Override
+        int diff(final int i1, final int i2) {
+          return 0;
+        }
+      };
+    } else if(!nan && (type == AtomType.DBL || type == AtomType.FLT)) {
+      final double[] nums = new double[size];
+      for(int i = 0; i < size; i++) if(keys[i] != null) nums[i] = keys[i].dbl(info);
+      col = new Column(empty, desc, least) {
+        @Override
+        int diff(final int i1, final int i2) {
+          final double n1 = nums[i1], n2 = nums[i2];
+          return n1 < n2 ? -1 : n1 > n2 ? 1 : 0;
+        }
+      };
+    } else if(allInt(keys)) {
+      final long[] nums = new long[size];
+      for(int i = 0; i < size; i++) if(keys[i] != null) nums[i] = keys[i].itr(info);
+      col = new Column(empty, desc, least) {
+        @Override
+        int diff(final int i1, final int i2) {
+          final long n1 = nums[i1], n2 = nums[i2];
+          return n1 < n2 ? -1 : n1 > n2 ? 1 : 0;
+        }
+      };
+    } else if(string) {
+      final byte[][] tokens = new byte[size][];
+      for(int i = 0; i < size; i++) if(keys[i] != null) tokens[i] = keys[i].string(info);
+      col = new Column(empty, desc, least) {
+        @Override
+        int diff(final int i1, final int i2) {
+          return coll == null ? Token.diff(tokens[i1], tokens[i2]) :
+            coll.compare(tokens[i1], tokens[i2]);
+        }
+      };
+    } else {
+      col = new Column(empty, desc, least) {
+        @Override
+        int diff(final int i1, final int i2) throws QueryException {
+          return itemDiff(keys[i1], keys[i2], coll, info);
+        }
+      };
+    }
+    columns = Array.add(columns, col);
+    return this;
+  }
+
+  /**
+   * Adds a column with keys of arbitrary length, which will be compared item by item.
+   * Shorter keys are sorted first if all other items are equal.
+   * @param keys keys
+   * @param coll collation (can be {@code null})
+   * @param info input info
+   * @return self reference
+   * @throws QueryException query exception
+   */
+  public KeySort add(final Value[] keys, final Collation coll, final InputInfo info)
+      throws QueryException {
+
+    boolean single = true;
+    for(int i = 0; i < size && single; i++) single = keys[i].size() < 2;
+    // keys with single items will be converted to specialized columns
+    if(single) {
+      final Item[] items = new Item[size];
+      for(int i = 0; i < size; i++) {
+        if(!keys[i].isEmpty()) items[i] = keys[i].itemAt(0);
+      }
+      return add(items, false, true, coll, info);
+    }
+
+    columns = Array.add(columns, new Column(null, false, true) {
+      @Override
+      int diff(final int i1, final int i2) throws QueryException {
+        final Value v1 = keys[i1], v2 = keys[i2];
+        final long s1 = v1.size(), s2 = v2.size(), sl = Math.min(s1, s2);
+        for(long v = 0; v < sl; v++) {
+          final int d = itemDiff(v1.itemAt(v), v2.itemAt(v), coll, info);
+          if(d != 0) return d;
+        }
+        return s1 < s2 ? -1 : s1 > s2 ? 1 : 0;
+      }
+    });
+    return this;
+  }
+
+  /**
+   * Returns the permutation of the sorted entries.
+   * @return positions of the entries in sorted order
+   * @throws QueryException query exception
+   */
+  public int[] sort() throws QueryException {
+    final int[] order = new int[size];
+    for(int o = 0; o < size; o++) order[o] = o;
+    if(size > 1) sort(order.clone(), order, 0, size);
+    return order;
+  }
+
+  /**
+   * Merge sort, derived from the legacy implementation of {@link java.util.Arrays}.
+   * @param src source array
+   * @param dst destination array
+   * @param low first position
+   * @param high position after the last entry
+   * @throws QueryException query exception
+   */
+  private void sort(final int[] src, final int[] dst, final int low, final int high)
+      throws QueryException {
+
+    if(high - low < INSERTION) {
+      for(int i = low; i < high; i++) {
+        for(int j = i; j > low && compare(dst[j - 1], dst[j]) > 0; j--) {
+          final int t = dst[j];
+          dst[j] = dst[j - 1];
+          dst[j - 1] = t;
+        }
+      }
+      return;
+    }
+
+    final int mid = low + high >>> 1;
+    sort(dst, src, low, mid);
+    sort(dst, src, mid, high);
+
+    // skip merge if the two halves are already in order
+    if(compare(src[mid - 1], src[mid]) <= 0) {
+      System.arraycopy(src, low, dst, low, high - low);
+      return;
+    }
+    for(int i = low, p = low, q = mid; i < high; i++) {
+      dst[i] = q >= high || p < mid && compare(src[p], src[q]) <= 0 ? src[p++] : src[q++];
+    }
+  }
+
+  /**
+   * Compares two entries.
+   * @param i1 first entry
+   * @param i2 second entry
+   * @return difference
+   * @throws QueryException query exception
+   */
+  private int compare(final int i1, final int i2) throws QueryException {
+    for(final Column col : columns) {
+      final int c = col.compare(i1, i2);
+      if(c != 0) return c;
+    }
+    return 0;
+  }
+
+  /**
+   * Compares two single keys in the same way as the columns that are added via
+   * {@link #add(Item[], boolean, boolean, Collation, InputInfo)}. This way, entries that have
+   * been sorted in separate runs can be merged.
+   * @param it1 first key ({@code null} for an empty key)
+   * @param it2 second key ({@code null} for an empty key)
+   * @param desc descending order
+   * @param least empty keys are sorted first
+   * @param coll collation (can be {@code null})
+   * @param info input info
+   * @return difference
+   * @throws QueryException query exception
+   */
+  public int compare(final Item it1, final Item it2, final boolean desc, final boolean least,
+      final Collation coll, final InputInfo info) throws QueryException {
+    final int c = it1 == null ? it2 == null ? 0 : least ? -1 : 1 :
+      it2 == null ? least ? 1 : -1 : itemDiff(it1, it2, coll, info);
+    return desc ? -c : c;
+  }
+
+  /**
+   * Compares two items.
+   * @param it1 first item
+   * @param it2 second item
+   * @param coll collation (can be {@code null})
+   * @param info input info
+   * @return difference
+   * @throws QueryException query exception
+   */
+  private int itemDiff(final Item it1, final Item it2, final Collation coll,
+      final InputInfo info) throws QueryException {
+
+    if(!it1.comparable(it2)) {
+      if(order) throw castError(info, it2, it1.type);
+      if(it1 instanceof FItem) throw FIEQ_X.get(info, it1.type);
+      if(it2 instanceof FItem) throw FIEQ_X.get(info, it2.type);
+      throw diffError(info, it1, it2);
+    }
+    return it1.diff(it2, coll, info);
+  }
+
+  /**
+   * Checks if all non-empty keys are integers.
+   * @param keys keys
+   * @return result of check
+   */
+  private boolean allInt(final Item[] keys) {
+    for(int i = 0; i < size; i++) {
+      if(keys[i] != null && !(keys[i] instanceof Int)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Key column.
+   */
+  private abstract static class Column {
+    /** Flags for empty keys (can be {@code null}). */
+    private final boolean[] empty;
+    /** Descending order. */
+    private final boolean desc;
+    /** Empty keys are sorted first. */
+    private final boolean least;
+
+    /**
+     * Constructor.
+     * @param empty flags for empty keys (can be {@code null})
+     * @param desc descending order
+     * @param least empty keys are sorted first
+     */
+    Column(final boolean[] empty, final boolean desc, final boolean least) {
+      this.empty = empty;
+      this.desc = desc;
+      this.least = least;
+    }
+
+    /**
+     * Compares two entries of this column.
+     * @param i1 first entry
+     * @param i2 second entry
+     * @return difference
+     * @throws QueryException query exception
+     */
+    final int compare(final int i1, final int i2) throws QueryException {
+      final boolean e1 = empty != null && empty[i1], e2 = empty != null && empty[i2];
+      final int c = e1 ? e2 ? 0 : least ? -1 : 1 : e2 ? least ? 1 : -1 : diff(i1, i2);
+      return desc ? -c : c;
+    }
+
+    /**
+     * Compares two non-empty keys.
+     * @param i1 first entry
+     * @param i2 second entry
+     * @return difference
+     * @throws QueryException query exception
+     */
+    abstract int diff(int i1, int i2) throws QueryException;
+  }
+}
@@ -72,6 +72,14 @@ public final class NSContext {
     return u == null ? pref.length == 0 ? null : NSGlobal.uri(pref) : u.length == 0 ? null : u;
   }
 
+  /**
+   * Checks if no namespaces have been declared.
+   * @return result of check
+   */
+  public boolean isEmpty() {
+    return ns.size() == 0 && (stack == null || stack.size() == 0);
+  }
+
   /**
    * Returns the number of dynamic namespaces.
    * @return namespaces
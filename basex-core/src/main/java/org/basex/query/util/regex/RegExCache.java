@@ -0,0 +1,116 @@
+package org.basex.query.util.regex;
+
+import static org.basex.core.Text.*;
+import static org.basex.util.Token.*;
+
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.regex.*;
+
+import org.basex.core.*;
+import org.basex.query.*;
+import org.basex.query.util.regex.parse.*;
+import org.basex.util.*;
+
+/**
+ * This class caches compiled regular expressions. Patterns are indexed by the XQuery
+ * pattern string, the flags and the check for empty matches, and they are shared by all
+ * queries of a database context. Invalid patterns are not cached. If the maximum number of
+ * patterns is exceeded, the least recently used pattern is removed.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class RegExCache {
+  /** Cached patterns. */
+  private final LinkedHashMap<String, Pattern> patterns;
+  /** Maximum number of patterns. */
+  private final int max;
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public RegExCache(final StaticOptions sopts) {
+    max = sopts.get(StaticOptions.REGEXCACHE);
+    patterns = new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Entry<String, Pattern> eldest) {
+        return size() > max;
+      }
+    };
+  }
+
+  /**
+   * Returns a compiled pattern for the specified regular expression. If the expression
+   * has not been cached yet, it will be parsed and added to the cache.
+   * @param regex regular expression
+   * @param mod modifiers (can be {@code null})
+   * @param check check result for empty strings
+   * @param info input info
+   * @return pattern
+   * @throws QueryException query exception
+   */
+  public Pattern get(final byte[] regex, final byte[] mod, final boolean check,
+      final InputInfo info) throws QueryException {
+
+    if(max <= 0) return RegExParser.parse(regex, mod, info, check);
+
+    final String key = (check ? '1' : '0') + (mod == null ? "" : string(mod)) + '\0' +
+        string(regex);
+    Pattern pattern;
+    synchronized(this) {
+      pattern = patterns.get(key);
+      if(pattern != null) hits++;
+      else misses++;
+    }
+    if(pattern == null) {
+      pattern = RegExParser.parse(regex, mod, info, check);
+      synchronized(this) {
+        patterns.put(key, pattern);
+      }
+    }
+    return pattern;
+  }
+
+  /**
+   * Returns the number of cached patterns.
+   * @return number of patterns
+   */
+  public synchronized int size() {
+    return patterns.size();
+  }
+
+  /**
+   * Returns the maximum number of cached patterns.
+   * @return maximum number
+   */
+  public int max() {
+    return max;
+  }
+
+  /**
+   * Returns the number of cache hits.
+   * @return number of hits
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of cache misses.
+   * @return number of misses
+   */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return Util.info(CACHED_PATTERNS_X_X_X_X, patterns.size(), max, hits, misses);
+  }
+}
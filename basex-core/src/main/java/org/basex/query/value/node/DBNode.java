@@ -96,11 +96,11 @@ public class DBNode extends ANode {
   }
 
   /**
-   * Sets the node type.
+   * Assigns a pre value and the node type.
    * @param p pre value
    * @param k node kind
    */
-  private void set(final int p, final int k) {
+  public final void set(final int p, final int k) {
     type = type(k);
     parent = null;
     value = null;
@@ -0,0 +1,239 @@
+package org.basex.query.value.node;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.up.atomic.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
+import org.basex.query.value.type.Type.ID;
+import org.basex.util.*;
+
+/**
+ * Database node with pending updates. The updated node is only created if it is accessed.
+ * If it is serialized, the updates will be applied while the database node is written.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class PatchedNode extends ANode {
+  /** Database node. */
+  private final DBNode source;
+  /** Main options. */
+  private final MainOptions options;
+  /** Pending updates ({@code null} if the updated node has been created). */
+  private AtomicUpdateCache updates;
+  /** Updated node (created on demand). */
+  private DBNode node;
+
+  /**
+   * Constructor.
+   * @param source database node
+   * @param updates pending updates
+   * @param options main options
+   */
+  public PatchedNode(final DBNode source, final AtomicUpdateCache updates,
+      final MainOptions options) {
+    super(source.nodeType());
+    this.source = source;
+    this.updates = updates;
+    this.options = options;
+  }
+
+  /**
+   * Returns the database node.
+   * @return database node
+   */
+  public DBNode source() {
+    return source;
+  }
+
+  /**
+   * Returns the pending updates.
+   * @return updates, or {@code null} if the updated node has already been created
+   */
+  public AtomicUpdateCache updates() {
+    return updates;
+  }
+
+  /**
+   * Returns the updated node. It will be created if it is requested for the first time.
+   * @return updated node
+   */
+  public DBNode node() {
+    if(node == null) {
+      final Data data = source.data();
+      final int pre = source.pre();
+      final MemData md = new MemData(options);
+      md.meta.update();
+      updates.copy(pre, md);
+      // assign base uri to document nodes
+      if(data.kind(pre) == Data.DOC) md.update(0, Data.DOC, source.baseURI());
+      node = new DBNode(md);
+      updates = null;
+    }
+    return node;
+  }
+
+  @Override
+  public Data data() {
+    return node().data();
+  }
+
+  @Override
+  public byte[] string() {
+    return node().string();
+  }
+
+  @Override
+  public long itr(final InputInfo ii) throws QueryException {
+    return node().itr(ii);
+  }
+
+  @Override
+  public double dbl(final InputInfo ii) throws QueryException {
+    return node().dbl(ii);
+  }
+
+  @Override
+  public byte[] name() {
+    return node().name();
+  }
+
+  @Override
+  public QNm qname() {
+    return node().qname();
+  }
+
+  @Override
+  public QNm qname(final QNm name) {
+    return node().qname(name);
+  }
+
+  @Override
+  public Atts namespaces() {
+    return node().namespaces();
+  }
+
+  @Override
+  public byte[] baseURI() {
+    return source.baseURI();
+  }
+
+  @Override
+  public boolean is(final ANode nd) {
+    return nd == this || node().is(nd);
+  }
+
+  @Override
+  public int diff(final ANode nd) {
+    return nd == this ? 0 : node().diff(nd);
+  }
+
+  @Override
+  public ANode copy() {
+    return node().copy();
+  }
+
+  @Override
+  public DBNode dbCopy(final MainOptions opts) {
+    return node().dbCopy(opts);
+  }
+
+  @Override
+  public DBNode deepCopy(final MainOptions opts) {
+    return node().deepCopy(opts);
+  }
+
+  @Override
+  public DBNode finish() {
+    return node().finish();
+  }
+
+  @Override
+  public ANode parent() {
+    return null;
+  }
+
+  @Override
+  protected ANode parent(final ANode par) {
+    return node().parent(par);
+  }
+
+  @Override
+  public boolean hasChildren() {
+    return node().hasChildren();
+  }
+
+  @Override
+  public BasicNodeIter ancestor() {
+    return BasicNodeIter.EMPTY;
+  }
+
+  @Override
+  public BasicNodeIter ancestorOrSelf() {
+    return node().ancestorOrSelf();
+  }
+
+  @Override
+  public BasicNodeIter attributes() {
+    return node().attributes();
+  }
+
+  @Override
+  public BasicNodeIter children() {
+    return node().children();
+  }
+
+  @Override
+  public BasicNodeIter descendant() {
+    return node().descendant();
+  }
+
+  @Override
+  public BasicNodeIter descendantOrSelf() {
+    return node().descendantOrSelf();
+  }
+
+  @Override
+  public BasicNodeIter following() {
+    return BasicNodeIter.EMPTY;
+  }
+
+  @Override
+  public BasicNodeIter followingSibling() {
+    return BasicNodeIter.EMPTY;
+  }
+
+  @Override
+  public BasicNodeIter parentIter() {
+    return BasicNodeIter.EMPTY;
+  }
+
+  @Override
+  public ID typeId() {
+    // the type of documents depends on their children
+    return type == NodeType.DOC ? node().typeId() : type.id();
+  }
+
+  @Override
+  public byte[] xdmInfo() {
+    return type == NodeType.DOC ? node().xdmInfo() : super.xdmInfo();
+  }
+
+  @Override
+  public void plan(final FElem plan) {
+    node().plan(plan);
+  }
+
+  @Override
+  public String toErrorString() {
+    return node().toErrorString();
+  }
+
+  @Override
+  public String toString() {
+    return node().toString();
+  }
+}
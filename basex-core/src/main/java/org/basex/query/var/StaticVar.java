@@ -15,6 +15,7 @@ import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Static variable to which an expression can be assigned.
@@ -84,7 +85,7 @@ public final class StaticVar extends StaticDecl {
    * @return value of this variable
    * @throws QueryException query exception
    */
-  Value value(final QueryContext qc) throws QueryException {
+  synchronized Value value(final QueryContext qc) throws QueryException {
     if(dontEnter) throw circVarError(this);
 
     if(lazy) {
@@ -116,6 +117,28 @@ public final class StaticVar extends StaticDecl {
     if(expr != null && expr.has(Flag.UPD)) throw UPNOT_X.get(info, description());
   }
 
+  /**
+   * Checks if this variable can be declared in another query context.
+   * This is the case if it has not been compiled yet.
+   * @return result of check
+   */
+  boolean copyable() {
+    return !compiled;
+  }
+
+  /**
+   * Declares a copy of this variable in the specified query context.
+   * The bound expression needs to be copied and assigned by the caller.
+   * @param qc query context
+   * @param vs mapping from old variable IDs to new variable copies
+   * @return copy
+   * @throws QueryException query exception
+   */
+  public StaticVar copy(final QueryContext qc, final IntObjMap<Var> vs) throws QueryException {
+    return qc.vars.declare(name, declType, anns, null, external, sc, scope.copy(qc, vs),
+        doc != null ? Token.string(doc) : null, info);
+  }
+
   /**
    * Binds an expression to this variable from outside the query.
    * @param value value to bind
@@ -72,8 +72,9 @@ final class StaticVarRef extends ParseExpr {
 
   @Override
   public Expr copy(final QueryContext qc, final VarScope scp, final IntObjMap<Var> vs) {
+    // reference the copied variable if a query plan is copied
     final StaticVarRef ref = new StaticVarRef(info, name, sc);
-    ref.var = var;
+    ref.var = qc.decl(var);
     return ref;
   }
 
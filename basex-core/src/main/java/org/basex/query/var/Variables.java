@@ -101,6 +101,17 @@ public final class Variables extends ExprInfo implements Iterable<StaticVar> {
     return ref;
   }
 
+  /**
+   * Checks if all variables are declared and can be copied to another query context.
+   * @return result of check
+   */
+  public boolean copyable() {
+    for(final VarEntry ve : vars.values()) {
+      if(ve.var == null || !ve.var.copyable()) return false;
+    }
+    return true;
+  }
+
   /**
    * Binds all external variables.
    * @param qc query context
@@ -5,12 +5,15 @@ import static org.basex.core.Text.*;
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
 
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.core.parse.*;
 import org.basex.core.users.*;
+import org.basex.io.*;
 import org.basex.io.in.*;
 import org.basex.io.out.*;
 import org.basex.query.*;
@@ -26,8 +29,8 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class ClientListener extends Thread {
-  /** Timer for authentication time out. */
-  public final Timer auth = new Timer();
+  /** Authentication timeout (can be {@code null}). */
+  public ScheduledFuture<?> auth;
   /** Timestamp of last interaction. */
   public long last;
 
@@ -48,6 +51,8 @@ public final class ClientListener extends Thread {
   private PrintOutput out;
   /** Current command. */
   private Command command;
+  /** Timestamp that has been sent to the client for authentication. */
+  private String nonce;
   /** Query id counter. */
   private int id;
   /** Indicates if the server thread is running. */
@@ -69,88 +74,127 @@ public final class ClientListener extends Thread {
 
   @Override
   public void run() {
-    if(!authenticate()) return;
+    if(authenticate()) {
+      while(request());
+    }
+  }
 
+  /**
+   * Processes the pending requests of this session. If the session has not been authenticated
+   * yet, the login data will be evaluated first. Requests are processed until the input buffer
+   * is exhausted. This method is called by the worker threads of a {@link ClientSelector}.
+   * @return {@code true} if the session is still running
+   */
+  boolean process() {
+    if(in == null) {
+      if(!authenticate()) return false;
+    } else if(!request()) {
+      return false;
+    }
     try {
-      while(running) {
-        command = null;
-        String cmd;
-        final ServerCmd sc;
-        try {
-          final int b = in.read();
-          if(b == -1) {
-            // end of stream: exit session
-            quit();
-            break;
-          }
-
-          last = System.currentTimeMillis();
-          perf.time();
-          sc = ServerCmd.get(b);
-          cmd = null;
-          if(sc == ServerCmd.CREATE) {
-            create();
-          } else if(sc == ServerCmd.ADD) {
-            add();
-          } else if(sc == ServerCmd.REPLACE) {
-            replace();
-          } else if(sc == ServerCmd.STORE) {
-            store();
-          } else if(sc != ServerCmd.COMMAND) {
-            query(sc);
-          } else {
-            // database command
-            cmd = new ByteList().add(b).add(in.readBytes()).toString();
-          }
-        } catch(final IOException ex) {
-          // this exception may be thrown if a session is stopped
+      while(in.available() > 0) {
+        if(!request()) return false;
+      }
+    } catch(final IOException ex) {
+      log(LogType.ERROR, Util.message(ex));
+      quit();
+    }
+    return running;
+  }
+
+  /**
+   * Returns the socket of this session.
+   * @return socket
+   */
+  Socket socket() {
+    return socket;
+  }
+
+  /**
+   * Reads and processes a single request.
+   * @return {@code true} if the session is still running
+   */
+  private boolean request() {
+    try {
+      command = null;
+      String cmd;
+      final ServerCmd sc;
+      try {
+        final int b = in.read();
+        if(b == -1) {
+          // end of stream: exit session
           quit();
-          break;
-        }
-        if(sc != ServerCmd.COMMAND) continue;
-
-        // parse input and create command instance
-        try {
-          command = new CommandParser(cmd, context).parseSingle();
-          log(LogType.REQUEST, command.toString(true));
-        } catch(final QueryException ex) {
-          // log invalid command
-          final String msg = ex.getMessage();
-          log(LogType.REQUEST, cmd);
-          log(LogType.ERROR, msg);
-          // send 0 to mark end of potential result
-          out.write(0);
-          // send {INFO}0
-          out.print(msg);
-          out.write(0);
-          // send 1 to mark error
-          send(false);
-          continue;
+          return false;
         }
 
-        // execute command and send {RESULT}
-        boolean ok = true;
-        String info;
-        try {
-          // run command
-          command.execute(context, new EncodingOutput(out));
-          info = command.info();
-        } catch(final BaseXException ex) {
-          ok = false;
-          info = ex.getMessage();
-          if(info.startsWith(INTERRUPTED)) info = TIMEOUT_EXCEEDED;
+        last = System.currentTimeMillis();
+        perf.time();
+        sc = ServerCmd.get(b);
+        cmd = null;
+        if(sc == ServerCmd.CREATE) {
+          create();
+        } else if(sc == ServerCmd.ADD) {
+          add();
+        } else if(sc == ServerCmd.REPLACE) {
+          replace();
+        } else if(sc == ServerCmd.STORE) {
+          store();
+        } else if(sc == ServerCmd.COMPRESS) {
+          compress();
+        } else if(sc != ServerCmd.COMMAND) {
+          query(sc);
+        } else {
+          // database command
+          cmd = new ByteList().add(b).add(in.readBytes()).toString();
         }
-
-        // send 0 to mark end of result
+      } catch(final IOException ex) {
+        // this exception may be thrown if a session is stopped
+        quit();
+        return false;
+      }
+      if(sc != ServerCmd.COMMAND) return running;
+
+      // parse input and create command instance
+      try {
+        command = new CommandParser(cmd, context).parseSingle();
+        log(LogType.REQUEST, command.toString(true));
+      } catch(final QueryException ex) {
+        // log invalid command
+        final String msg = ex.getMessage();
+        log(LogType.REQUEST, cmd);
+        log(LogType.ERROR, msg);
+        // send 0 to mark end of potential result
+        out.write(0);
+        // send {INFO}0
+        out.print(msg);
         out.write(0);
-        // send info
-        info(info, ok);
+        // send 1 to mark error
+        send(false);
+        return running;
+      }
 
-        // stop console
-        if(command instanceof Exit) {
-          command = null;
-          quit();
-        }
+      // execute command and send {RESULT}
+      boolean ok = true;
+      String info;
+      try {
+        // run command
+        command.execute(context, new EncodingOutput(out));
+        info = command.info();
+      } catch(final BaseXException ex) {
+        ok = false;
+        info = ex.getMessage();
+        if(info.startsWith(INTERRUPTED)) info = TIMEOUT_EXCEEDED;
+      }
+
+      // send 0 to mark end of result
+      out.write(0);
+      // send info
+      info(info, ok);
+
+      // stop console
+      if(command instanceof Exit) {
+        command = null;
+        quit();
       }
     } catch(final IOException ex) {
       log(LogType.ERROR, Util.message(ex));
@@ -158,6 +202,7 @@ public final class ClientListener extends Thread {
       quit();
     }
     command = null;
+    return running;
   }
 
   /**
@@ -165,15 +210,10 @@ public final class ClientListener extends Thread {
    * @return success flag
    */
   private boolean authenticate() {
+    if(nonce == null && !challenge()) return false;
     try {
-      final String nonce = Long.toString(System.nanoTime());
       final byte[] address = socket.getInetAddress().getAddress();
 
-      // send {REALM:TIMESTAMP}0
-      out = PrintOutput.get(socket.getOutputStream());
-      out.print(Prop.NAME + ':' + nonce);
-      send(true);
-
       // evaluate login data
       in = new BufferInput(socket.getInputStream());
       // receive {USER}0{DIGEST-HASH}0
@@ -207,6 +247,25 @@ public final class ClientListener extends Thread {
     return running;
   }
 
+  /**
+   * Sends the realm and a timestamp to the client, which will be used to authenticate the session.
+   * @return success flag
+   */
+  boolean challenge() {
+    try {
+      // send {REALM:TIMESTAMP}0
+      nonce = Long.toString(System.nanoTime());
+      out = PrintOutput.get(socket.getOutputStream());
+      out.print(Prop.NAME + ':' + nonce);
+      send(true);
+      return true;
+    } catch(final IOException ex) {
+      log(LogType.ERROR, Util.message(ex));
+      server.remove(this);
+      return false;
+    }
+  }
+
   /**
    * Quits the authentication.
    */
@@ -235,6 +294,8 @@ public final class ClientListener extends Thread {
     context.sessions.remove(this);
 
     try {
+      // close open cursors
+      for(final ServerQuery qp : queries.values()) qp.close();
       new Close().run(context);
       socket.close();
     } catch(final Throwable ex) {
@@ -333,6 +394,26 @@ public final class ClientListener extends Thread {
     execute(new Store(in.readString()));
   }
 
+  /**
+   * Compresses all subsequent data. The response has the same format as a database command,
+   * so that older servers will report an error.
+   * @throws IOException I/O exception
+   */
+  private void compress() throws IOException {
+    final String method = in.readString();
+    final boolean ok = method.equals(ServerCmd.DEFLATE);
+    // send 0 to mark end of result, {INFO}0 and success flag
+    out.write(0);
+    info(ok ? ServerCmd.COMPRESS + "[" + method + ']' : Util.info(UNKNOWN_COMPRESSION_X, method),
+        ok);
+    if(ok) {
+      out = PrintOutput.get(new BufferedOutputStream(new DeflaterOutputStream(
+          socket.getOutputStream(), new Deflater(Deflater.BEST_SPEED), IO.BLOCKSIZE, true),
+          IO.BLOCKSIZE));
+      in = new BufferInput(new InflaterInput(socket.getInputStream()));
+    }
+  }
+
   /**
    * Executes the specified command.
    * @param cmd command to be executed
@@ -393,6 +474,10 @@ public final class ClientListener extends Thread {
           qp.context(val, typ);
           info.append(val);
           if(!typ.isEmpty()) info.append(" as ").append(typ);
+        } else if(sc == ServerCmd.FETCH) {
+          final int items = Strings.toInt(in.readString());
+          final long bytes = Strings.toLong(in.readString());
+          qp.fetch(items, bytes, out);
         } else if(sc == ServerCmd.RESULTS) {
           qp.execute(true, out, true, false);
         } else if(sc == ServerCmd.EXEC) {
@@ -406,7 +491,7 @@ public final class ClientListener extends Thread {
         } else if(sc == ServerCmd.UPDATING) {
           out.print(Boolean.toString(qp.updating()));
         } else if(sc == ServerCmd.CLOSE) {
-          queries.remove(arg);
+          queries.remove(arg).close();
         } else if(sc == ServerCmd.NEXT) {
           throw new Exception("Protocol for query iteration is out-of-date.");
         }
@@ -423,7 +508,8 @@ public final class ClientListener extends Thread {
       error = Util.message(ex);
       log(LogType.REQUEST, sc + "[" + arg + ']');
       log(LogType.ERROR, error);
-      queries.remove(arg);
+      final ServerQuery qp = queries.remove(arg);
+      if(qp != null) qp.close();
     }
     if(error != null) {
       // send 0 as end marker, 1 as error flag, and {MSG}0
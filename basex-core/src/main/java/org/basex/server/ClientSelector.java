@@ -0,0 +1,154 @@
+package org.basex.server;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.server.Log.LogType;
+import org.basex.util.*;
+
+/**
+ * Dispatcher for client sessions, which are processed by a fixed number of worker threads.
+ * New and idle sessions are registered with a single selector and do not occupy a thread. As soon
+ * as new input arrives, the session is switched to blocking mode and passed on to a worker, which
+ * authenticates the session or processes all pending requests with the existing protocol
+ * implementation. Afterwards, the session is registered with the selector again.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSelector extends Thread {
+  /** Selector. */
+  private final Selector selector;
+  /** Worker threads. */
+  private final ExecutorService workers;
+  /** Sessions to be registered with the selector. */
+  private final ConcurrentLinkedQueue<ClientListener> idle = new ConcurrentLinkedQueue<>();
+  /** Server log. */
+  private final Log log;
+  /** Indicates if the selector is running. */
+  private volatile boolean running = true;
+
+  /**
+   * Constructor.
+   * @param threads number of worker threads
+   * @param log server log
+   * @throws IOException I/O exception
+   */
+  public ClientSelector(final int threads, final Log log) throws IOException {
+    super(Prop.NAME + "Selector");
+    setDaemon(true);
+    this.log = log;
+    selector = Selector.open();
+    workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger id = new AtomicInteger();
+      @Override
+      public Thread newThread(final Runnable r) {
+        final Thread thread = new Thread(r, Prop.NAME + "Worker" + id.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /**
+   * Adds a new session. The authentication timestamp is sent to the client, and the session is
+   * registered with the selector. It will be authenticated by one of the workers as soon as the
+   * login data arrives. The socket of the session must have been created by a server socket
+   * channel.
+   * @param client client session
+   */
+  public void add(final ClientListener client) {
+    if(client.challenge()) {
+      idle.add(client);
+      selector.wakeup();
+    }
+  }
+
+  @Override
+  public void run() {
+    final ArrayList<ClientListener> ready = new ArrayList<>();
+    while(running) {
+      try {
+        // wait for new input. selectNow() below resets pending wakeups, so the selector must not
+        // block if sessions are waiting to be registered
+        if(idle.isEmpty()) selector.select();
+
+        // register sessions that are waiting for new requests
+        for(ClientListener client; (client = idle.poll()) != null;) {
+          try {
+            final SocketChannel ch = client.socket().getChannel();
+            ch.configureBlocking(false);
+            ch.register(selector, SelectionKey.OP_READ, client);
+          } catch(final IOException ex) {
+            // channel has been closed in the meantime
+            client.quit();
+          }
+        }
+
+        // deregister sessions with new input
+        final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while(keys.hasNext()) {
+          final SelectionKey key = keys.next();
+          keys.remove();
+          key.cancel();
+          ready.add((ClientListener) key.attachment());
+        }
+        if(ready.isEmpty()) continue;
+
+        // flush cancelled keys, switch channels to blocking mode and pass them on to the workers
+        selector.selectNow();
+        for(final ClientListener client : ready) {
+          try {
+            client.socket().getChannel().configureBlocking(true);
+            execute(client);
+          } catch(final IOException ex) {
+            client.quit();
+          }
+        }
+        ready.clear();
+      } catch(final ClosedSelectorException ex) {
+        break;
+      } catch(final Throwable ex) {
+        Util.errln(ex);
+        log.writeServer(LogType.ERROR, Util.message(ex));
+      }
+    }
+  }
+
+  /**
+   * Shuts down the selector and the workers.
+   */
+  public void quit() {
+    running = false;
+    workers.shutdownNow();
+    try {
+      selector.close();
+    } catch(final IOException ex) {
+      Util.errln(ex);
+    }
+  }
+
+  /**
+   * Lets a worker process the pending requests of a session.
+   * @param client client session
+   */
+  private void execute(final ClientListener client) {
+    try {
+      workers.execute(new Runnable() {
+        @Override
+        public void run() {
+          if(client.process()) {
+            idle.add(client);
+            selector.wakeup();
+          }
+        }
+      });
+    } catch(final RejectedExecutionException ex) {
+      // selector has been shut down
+      client.quit();
+    }
+  }
+}
@@ -33,6 +33,10 @@ public enum ServerCmd {
   STORE(13),
   /** Code for binding a context value: {id}0{val}0{type}0. */
   CONTEXT(14),
+  /** Code for compressing all subsequent data: {method}0. */
+  COMPRESS(15),
+  /** Code for returning the next chunk of results: {id}0{items}0{bytes}0. */
+  FETCH(16),
   /** Code for returning the update flag: {id}0. */
   UPDATING(30),
   /** Code for executing a query and returning all information relevant for XQJ: {id}0. */
@@ -40,6 +44,9 @@ public enum ServerCmd {
   /** Code for running a database command: {path}0{input}0. */
   COMMAND(-1);
 
+  /** Name of the supported compression method. */
+  public static final String DEFLATE = "deflate";
+
   /** Control code (soon obsolete). */
   public final int code;
 
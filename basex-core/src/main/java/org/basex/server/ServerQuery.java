@@ -35,6 +35,17 @@ public final class ServerQuery extends Proc {
   /** Query info. */
   private String info = "";
 
+  /** Result iterator of an open cursor ({@code null} if no cursor is open). */
+  private Iter iter;
+  /** Serialization parameters of an open cursor. */
+  private SerializerOptions sopts;
+  /** Number of items returned by the open cursor. */
+  private long items;
+  /** Number of bytes returned by the open cursor. */
+  private long size;
+  /** Indicates if all results of the last cursor have been returned. */
+  private boolean exhausted;
+
   /**
    * Constructor.
    * @param query query string
@@ -53,6 +64,7 @@ public final class ServerQuery extends Proc {
    * @throws IOException query exception
    */
   public void bind(final String name, final Object value, final String type) throws IOException {
+    close();
     try {
       init().bind(name, value, type);
     } catch(final QueryException ex) {
@@ -68,6 +80,7 @@ public final class ServerQuery extends Proc {
    * @throws IOException query exception
    */
   public void context(final Object value, final String type) throws IOException {
+    close();
     try {
       init().context(value, type);
     } catch(final QueryException ex) {
@@ -112,6 +125,7 @@ public final class ServerQuery extends Proc {
   public void execute(final boolean iter, final OutputStream out, final boolean encode,
       final boolean full) throws IOException {
 
+    close();
     try {
       // parses the query and registers the process
       ctx.register(parse());
@@ -120,6 +134,7 @@ public final class ServerQuery extends Proc {
       qp.compile();
       final QueryInfo qi = qp.qc.info;
       qi.compiling = perf.time();
+      qp.qc.serialize = true;
       final Iter ir = qp.iter();
       qi.evaluating = perf.time();
 
@@ -165,6 +180,113 @@ public final class ServerQuery extends Proc {
     }
   }
 
+  /**
+   * Returns the next chunk of the query result. When this function is called for the first time,
+   * the query is compiled, and the result iterator is kept open until all items have been
+   * returned or the cursor is closed. Items are written in the same format as by
+   * {@link #execute}. No more items will be written if one of the specified limits has been
+   * reached; as a result, at least one item will be returned if the result has not been
+   * exhausted yet. An empty chunk indicates that all items have been returned, and the next
+   * call will evaluate the query again.
+   *
+   * The databases accessed by the query are only locked while a chunk is generated, as locks
+   * are bound to the current thread, and the next request of a session may be processed by
+   * another thread. The opened databases cannot be dropped while the cursor is open, but
+   * updates of other clients may become visible between two chunks.
+   * @param max maximum number of items ({@code 0}: no limit)
+   * @param bytes maximum number of bytes ({@code 0}: no limit)
+   * @param out output stream
+   * @throws IOException I/O Exception
+   */
+  public synchronized void fetch(final int max, final long bytes, final OutputStream out)
+      throws IOException {
+
+    if(exhausted) {
+      exhausted = false;
+      return;
+    }
+    perf.time();
+    final QueryProcessor proc = parse();
+    ctx.register(proc);
+    try {
+      if(iter == null) {
+        // compiles the query and opens the cursor
+        proc.compile();
+        final QueryInfo qi = proc.qc.info;
+        qi.compiling = perf.time();
+        proc.qc.serialize = true;
+        iter = proc.iter();
+        qi.evaluating = perf.time();
+        qi.serializing = 0;
+        sopts = proc.qc.serParams();
+        items = 0;
+        size = 0;
+      }
+
+      // serialize items until a limit is reached or the result is exhausted
+      final PrintOutput po = PrintOutput.get(new EncodingOutput(out));
+      int c = 0;
+      Item it = null;
+      try(final Serializer ser = Serializer.get(po, sopts)) {
+        while((max <= 0 || c < max) && (bytes <= 0 || po.size() < bytes) &&
+            (it = iter.next()) != null) {
+          po.write(it.typeId().bytes());
+          ser.reset();
+          ser.serialize(it);
+          po.flush();
+          out.write(0);
+          c++;
+        }
+      }
+      items += c;
+      size += po.size();
+      final QueryInfo qi = proc.qc.info;
+      qi.serializing += perf.time();
+
+      if(it == null) {
+        // result is exhausted: generate query info and close the cursor
+        info = qi.toString(proc, size, items, ctx.options.get(MainOptions.QUERYINFO));
+        reset();
+        exhausted = c != 0;
+      }
+    } catch(final QueryException ex) {
+      reset();
+      throw new BaseXException(ex);
+    } catch(final StackOverflowError ex) {
+      reset();
+      Util.debug(ex);
+      throw new BaseXException(BASX_STACKOVERFLOW.desc);
+    } catch(final ProcException ex) {
+      reset();
+      throw new BaseXException(TIMEOUT_EXCEEDED);
+    } catch(final IOException | RuntimeException ex) {
+      reset();
+      throw ex;
+    } finally {
+      ctx.unregister(proc);
+    }
+  }
+
+  /**
+   * Closes an open cursor.
+   */
+  public synchronized void close() {
+    if(iter != null) reset();
+    exhausted = false;
+  }
+
+  /**
+   * Closes the cursor and the query processor.
+   */
+  private void reset() {
+    iter = null;
+    sopts = null;
+    exhausted = false;
+    qp.close();
+    parsed = false;
+    qp = null;
+  }
+
   /**
    * Initializes the query.
    * @return query processor
@@ -6,7 +6,7 @@ import org.basex.util.list.*;
  * This class compresses and decompresses tokens. It is inspired by the
  * Huffman coding, but was simplified to speed up processing.
  *
- * NOTE: this class is not thread-safe.
+ * NOTE: packing is not thread-safe.
  *
  * @author BaseX Team 2005-15, BSD License
  * @author Christian Gruen
@@ -19,10 +19,6 @@ public final class Compress {
   private int pc;
   /** Pack offset. */
   private int po;
-  /** Current unpack position. */
-  private int uc;
-  /** Unpack offset. */
-  private int uo;
 
   /**
    * Compresses the specified text. Returns the original text if the packed text is not shorter.
@@ -92,76 +88,75 @@ public final class Compress {
    * @param txt text to be unpacked
    * @return unpacked text
    */
-  public byte[] unpack(final byte[] txt) {
-    // initialize decompression
-    final byte[] tmp = bl.get();
-    bl.set(txt);
-    uc = Num.length(txt, 0);
-    uo = 0;
-
-    // read packer bit
-    pull();
+  public static byte[] unpack(final byte[] txt) {
+    final byte[] res = new byte[length(txt, 0)];
+    unpack(txt, 0, res);
+    return res;
+  }
+
+  /**
+   * Returns the length of a compressed text after decompression.
+   * @param txt array with the compressed text
+   * @param off offset of the compressed text
+   * @return length of the decompressed text
+   */
+  public static int length(final byte[] txt, final int off) {
+    return Num.get(txt, off);
+  }
+
+  /**
+   * Decompresses a text into the specified target array.
+   * This method is thread-safe, as it does not access any instance variables.
+   * @param txt array with the compressed text
+   * @param off offset of the compressed text
+   * @param target target array (must be large enough to hold the decompressed text)
+   */
+  public static void unpack(final byte[] txt, final int off, final byte[] target) {
+    // skip length and packer bit
+    int p = off + Num.length(txt, off) << 3;
+    p++;
     // choose mapping
-    final byte[] unpack = pull() ? UNPACK1 : UNPACK2;
+    final byte[] unpack = pull(txt, p++, 1) == 1 ? UNPACK1 : UNPACK2;
 
     // decompress all characters
-    final int l = Num.get(txt, 0);
-    final byte[] res = new byte[l];
+    final int l = length(txt, off);
     for(int r = 0; r < l; r++) {
       final int b;
-      if(pull()) { // 1 xxx
-        b = pull(3);
-      } else if(pull()) { // 01 xxx
-        b = pull(3) | 0x08;
-      } else if(pull()) { // 001 xxxx
-        b = pull(4) | 0x10;
-      } else if(pull()) { // 0001 xxxxx
-        b = pull(5) | 0x20;
+      if(pull(txt, p++, 1) == 1) { // 1 xxx
+        b = pull(txt, p, 3);
+        p += 3;
+      } else if(pull(txt, p++, 1) == 1) { // 01 xxx
+        b = pull(txt, p, 3) | 0x08;
+        p += 3;
+      } else if(pull(txt, p++, 1) == 1) { // 001 xxxx
+        b = pull(txt, p, 4) | 0x10;
+        p += 4;
+      } else if(pull(txt, p++, 1) == 1) { // 0001 xxxxx
+        b = pull(txt, p, 5) | 0x20;
+        p += 5;
       } else { // 0000 xxxxxxxx
-        b = pull(8);
+        b = pull(txt, p, 8);
+        p += 8;
       }
-      res[r] = (byte) (b >= 128 ? b : unpack[b]);
+      target[r] = (byte) (b >= 128 ? b : unpack[b]);
     }
-    // make sure that the external txt byte array does not remain in this class
-    bl.set(tmp);
-    return res;
   }
 
   /**
    * Pulls the specified number of bits and returns the result.
-   * @param s number of bytes
+   * @param txt compressed text
+   * @param pos bit position
+   * @param s number of bits
    * @return result
    */
-  private int pull(final int s) {
-    int oo = uo, oc = uc, x = 0;
-    final byte[] l = bl.get();
-    for(int i = 0; i < s; i++) {
-      if((l[oc] & 1 << oo) != 0) x |= 1 << i;
-      if(++oo == 8) {
-        oo = 0;
-        ++oc;
-      }
+  private static int pull(final byte[] txt, final int pos, final int s) {
+    int x = 0;
+    for(int i = 0, p = pos; i < s; i++, p++) {
+      if((txt[p >>> 3] & 1 << (p & 7)) != 0) x |= 1 << i;
     }
-    uo = oo;
-    uc = oc;
     return x;
   }
 
-  /**
-   * Pulls a single bit.
-   * @return result
-   */
-  private boolean pull() {
-    int oo = uo;
-    final boolean b = (bl.get()[uc] & 1 << oo) != 0;
-    if(++oo == 8) {
-      oo = 0;
-      ++uc;
-    }
-    uo = oo;
-    return b;
-  }
-
   /** First mapping for unpacking data. */
   private static final byte[] UNPACK1 = {
     0x20, 0x61, 0x65, 0x6E, 0x69, 0x6F, 0x72, 0x73, // encode via 1 xxx
@@ -205,15 +200,6 @@ public final class Compress {
 
   /** Local ByteList implementation to make protected fields accessible. */
   private static final class LocalList extends ByteList {
-    /**
-     * Exchanges the actual byte array backing this list instance.
-     * @param list new value
-     */
-    private void set(final byte[] list) {
-      this.list = list;
-      size = list.length;
-    }
-
     /**
      * Direct access to the backing byte array.
      * @return list
@@ -0,0 +1,53 @@
+package org.basex.util;
+
+import java.util.concurrent.*;
+
+/**
+ * Shared scheduler for timeouts and periodic checks. All tasks are run by a single daemon
+ * thread. Tasks should terminate quickly, as they delay all other tasks. Cancelled tasks are
+ * immediately removed from the queue.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class Scheduler {
+  /** Executor. */
+  private static final ScheduledThreadPoolExecutor EXECUTOR =
+    new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable r) {
+        final Thread thread = new Thread(r, Prop.NAME + "Scheduler");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
+  static {
+    EXECUTOR.setRemoveOnCancelPolicy(true);
+  }
+
+  /** Private constructor. */
+  private Scheduler() { }
+
+  /**
+   * Schedules a task that will be run once after the specified delay.
+   * @param task task
+   * @param delay delay (milliseconds)
+   * @return future, which can be used to cancel the task
+   */
+  public static ScheduledFuture<?> schedule(final Runnable task, final long delay) {
+    return EXECUTOR.schedule(task, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Schedules a task that will be run repeatedly.
+   * @param task task
+   * @param delay initial delay (milliseconds)
+   * @param period period between successive runs (milliseconds)
+   * @return future, which can be used to cancel the task
+   */
+  public static ScheduledFuture<?> schedule(final Runnable task, final long delay,
+      final long period) {
+    return EXECUTOR.scheduleWithFixedDelay(task, delay, period, TimeUnit.MILLISECONDS);
+  }
+}
@@ -160,6 +160,20 @@ public final class Util {
     return msg;
   }
 
+  /**
+   * Returns the exception that has been raised by a task of a fork/join pool.
+   * Checked exceptions are wrapped into runtime exceptions by the pool, and exceptions
+   * from other threads may be wrapped into new instances of the same class.
+   * @param throwable exception returned by {@link java.util.concurrent.Future#get()}
+   * @return original exception
+   */
+  public static Throwable cause(final Throwable throwable) {
+    Throwable th = throwable.getCause();
+    while(th.getCause() != null && (th.getClass() == RuntimeException.class ||
+        th.getClass() == th.getCause().getClass())) th = th.getCause();
+    return th;
+  }
+
   /**
    * Prints the exception stack trace if the {@link Prop#debug} flag is set.
    * @param throwable exception
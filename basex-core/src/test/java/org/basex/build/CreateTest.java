@@ -55,6 +55,8 @@ public final class CreateTest extends SandboxTest {
   @After
   public void tearDown() throws BaseXException {
     new DropDB(NAME).execute(context);
+    new Set(MainOptions.PARALLELPARSE, 1).execute(context);
+    new Set(MainOptions.SKIPCORRUPT, false).execute(context);
   }
 
   /**
@@ -144,6 +146,42 @@ public final class CreateTest extends SandboxTest {
     }
   }
 
+  /**
+   * CREATE DB {DB} {INPUT[]}, parsing files in parallel.
+   * @throws Exception exception
+   */
+  @Test
+  public void createDBParallel() throws Exception {
+    // create directory with various documents and a corrupt file
+    final IOFile dir = new IOFile(Prop.TMP + NAME + "dir");
+    for(int i = 0; i < 7; i++) new IOFile(dir, "sub" + i).md();
+    for(int i = 0; i < 200; i++) {
+      new IOFile(dir, "sub" + i % 7 + "/doc" + i + IO.XMLSUFFIX).write(Token.token(
+          "<?xml version='1.0' encoding='UTF-8'?><!--c" + i + "--><a xmlns:p='p" + i +
+          "' n='" + i + "'><p:b/><?pi " + i + "?><c>t" + i + "<d/>u</c>\u00e4</a>"));
+    }
+    new IOFile(dir, "sub3/corrupt" + IO.XMLSUFFIX).write(Token.token("<a>"));
+
+    final String query = "string-join(db:open('" + NAME + "') ! (db:path(.) || ':' || " +
+        "db:node-pre(.) || ':' || serialize(.)), '|')";
+    new Set(MainOptions.SKIPCORRUPT, true).execute(context);
+    try {
+      for(final String input : new String[] { FOLDER, dir.path(), "src/test/resources/xml.zip" }) {
+        new Set(MainOptions.PARALLELPARSE, 1).execute(context);
+        new CreateDB(NAME, input).execute(context);
+        final String expected = new XQuery(query).execute(context);
+        new Set(MainOptions.PARALLELPARSE, 4).execute(context);
+        new CreateDB(NAME, input).execute(context);
+        assertEquals(expected, new XQuery(query).execute(context));
+      }
+      // corrupt file is skipped
+      new CreateDB(NAME, dir.path()).execute(context);
+      assertEquals("200", new XQuery("count(db:open('" + NAME + "'))").execute(context));
+    } finally {
+      dir.delete();
+    }
+  }
+
   /**
    * Returns the name of the database.
    * @return database name
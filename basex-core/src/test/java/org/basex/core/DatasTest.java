@@ -0,0 +1,105 @@
+package org.basex.core;
+
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests databases that are kept open after they have been unpinned.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class DatasTest extends SandboxTest {
+  /** Second database. */
+  private static final String NAME2 = NAME + '2';
+
+  /**
+   * Creates the test databases and enables the pool.
+   * @throws BaseXException database exception
+   */
+  @Before
+  public void init() throws BaseXException {
+    new CreateDB(NAME2, "<b/>").execute(context);
+    new CreateDB(NAME, "<a/>").execute(context);
+    new Close().execute(context);
+    context.soptions.set(StaticOptions.KEEPWARM, 60);
+  }
+
+  /**
+   * Drops the test databases and resets the options.
+   * @throws BaseXException database exception
+   */
+  @After
+  public void finish() throws BaseXException {
+    context.soptions.set(StaticOptions.KEEPWARM, 0);
+    context.soptions.set(StaticOptions.KEEPWARMMAX, 16);
+    new DropDB(NAME).execute(context);
+    new DropDB(NAME2).execute(context);
+  }
+
+  /**
+   * Reuses databases that are kept open.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void reuse() throws BaseXException {
+    final Data data = open(NAME);
+    assertEquals(0, context.datas.pins(NAME));
+    assertSame(data, open(NAME));
+
+    // databases are closed if they are dropped or overwritten
+    new DropDB(NAME).execute(context);
+    new CreateDB(NAME, "<c/>").execute(context);
+    new Close().execute(context);
+    final Data data2 = open(NAME);
+    assertNotSame(data, data2);
+    new Open(NAME).execute(context);
+    assertEquals("<c/>", new XQuery("/").execute(context));
+    new Close().execute(context);
+    new CreateDB(NAME, "<d/>").execute(context);
+    new Close().execute(context);
+    assertNotSame(data2, open(NAME));
+  }
+
+  /**
+   * Closes least recently used databases.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void max() throws BaseXException {
+    context.soptions.set(StaticOptions.KEEPWARMMAX, 1);
+    final Data data = open(NAME);
+    open(NAME2);
+    assertNotSame(data, open(NAME));
+  }
+
+  /**
+   * Closes databases that have not been used for a while.
+   * @throws Exception exception
+   */
+  @Test
+  public void expire() throws Exception {
+    context.soptions.set(StaticOptions.KEEPWARM, 1);
+    final Data data = open(NAME);
+    Thread.sleep(2500);
+    assertNotSame(data, open(NAME));
+  }
+
+  /**
+   * Opens and closes a database.
+   * @param name name of database
+   * @return data reference
+   * @throws BaseXException database exception
+   */
+  private static Data open(final String name) throws BaseXException {
+    new Open(name).execute(context);
+    final Data data = context.data();
+    new Close().execute(context);
+    return data;
+  }
+}
@@ -1,9 +1,12 @@
 package org.basex.data;
 
 import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
 
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.CmdIndex;
+import org.basex.io.random.*;
 import org.basex.query.*;
 import org.junit.*;
 import org.junit.Test;
@@ -23,6 +26,12 @@ public final class IndexTest extends AdvancedQueryTest {
   public void after() throws BaseXException {
     run(new Set(MainOptions.UPDINDEX, false));
     run(new Set(MainOptions.AUTOOPTIMIZE, false));
+    run(new Set(MainOptions.FTINDEX, false));
+    run(new Set(MainOptions.PARALLELINDEX, 0));
+    run(new Set(MainOptions.INDEXSPLITSIZE, 0));
+    run(new Set(MainOptions.FTINDEXSPLITSIZE, 0));
+    run(new Set(MainOptions.TEXTINDEX, true));
+    run(new Set(MainOptions.ATTRINDEX, true));
   }
 
   /**
@@ -144,6 +153,150 @@ public final class IndexTest extends AdvancedQueryTest {
     run(new Close());
   }
 
+  /**
+   * Tests the updatable full-text index.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void updftindex() throws BaseXException {
+    run(new Set(MainOptions.UPDINDEX, true));
+    run(new Set(MainOptions.FTINDEX, true));
+    // large document: changes will not be merged into the index files
+    final StringBuilder sb = new StringBuilder("<x><a>one two</a><a>three</a>");
+    for(int i = 0; i < 1000; i++) sb.append("<b>text ").append(i).append("</b>");
+    run(new CreateDB(NAME, sb.append("</x>").toString()));
+    query(_FT_SEARCH.args(NAME, "two") + "/string()", "one two");
+
+    query("insert node <a>two four</a> into /x", "");
+    query(_FT_SEARCH.args(NAME, "two") + "/string()", "one two\ntwo four");
+    query("replace value of node /x/a[1] with 'five'", "");
+    query(_FT_SEARCH.args(NAME, "two") + "/string()", "two four");
+    query(_FT_SEARCH.args(NAME, "five") + "/string()", "five");
+    query("delete node /x/a[last()]", "");
+    query(_FT_SEARCH.args(NAME, "two"), "");
+    query("//a[text() contains text 'f.*' using wildcards]/string()", "five");
+    query("//a[text() contains text 'fiwe' using fuzzy]/string()", "five");
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", "true");
+
+    // reopen database and check if changes were written
+    run(new Close());
+    run(new Open(NAME));
+    query(_FT_SEARCH.args(NAME, "five") + "/string()", "five");
+    query(_FT_SEARCH.args(NAME, "three") + "/string()", "three");
+    query(_FT_SEARCH.args(NAME, "one"), "");
+  }
+
+  /**
+   * Tests if the changes of the full-text index are merged into the index files.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void updftindexMerge() throws BaseXException {
+    run(new Set(MainOptions.UPDINDEX, true));
+    run(new Set(MainOptions.FTINDEX, true));
+    run(new CreateDB(NAME, "<x><a>a</a></x>"));
+    for(int i = 0; i < 100; i++) query("insert node <a>b" + i + " c</a> into /x", "");
+    query("delete node /x/a[position() <= 50]", "");
+    query("count(" + _FT_SEARCH.args(NAME, "c") + ')', "51");
+    query(_FT_SEARCH.args(NAME, "b99") + "/string()", "b99 c");
+    query(_FT_SEARCH.args(NAME, "a"), "");
+    run(new Close());
+    run(new Open(NAME));
+    query("count(" + _FT_SEARCH.args(NAME, "c") + ')', "51");
+    query(_FT_SEARCH.args(NAME, "b0"), "");
+    query("count(//a[text() contains text 'b9.' using wildcards])", "10");
+  }
+
+  /**
+   * Tests the parallel creation of index structures.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void parallel() throws BaseXException {
+    for(final int p : new int[] { 1, 4 }) parallel(p);
+  }
+
+  /**
+   * Tests the parallel creation of index structures with a small number of table buffers.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void parallelSmallBuffers() throws BaseXException {
+    Buffers.max(64);
+    try {
+      parallel(4);
+    } finally {
+      Buffers.max(context.soptions.get(StaticOptions.BUFFERSIZE));
+    }
+  }
+
+  /**
+   * Tests the parallel creation of index structures in an opened database with a small number
+   * of table buffers: the results must equal the ones of a single worker.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void parallelCreateIndex() throws BaseXException {
+    run(new Set(MainOptions.TEXTINDEX, false));
+    run(new Set(MainOptions.ATTRINDEX, false));
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 100000; i++) {
+      sb.append("<a v='").append(i % 500).append("'>").append(i % 700).append("</a>");
+    }
+    run(new CreateDB(NAME, sb.append("</x>").toString()));
+    run(new Set(MainOptions.TEXTINDEX, true));
+    run(new Set(MainOptions.ATTRINDEX, true));
+
+    final String query = "string-join((" + _INDEX_TEXTS.args(NAME) + ", " +
+        _INDEX_ATTRIBUTES.args(NAME) + ") ! (. || ':' || @count), ',') || '/' || " +
+        "string-join((" + _DB_TEXT.args(NAME, "5") + ", " + _DB_ATTRIBUTE.args(NAME, "5") +
+        ") ! " + _DB_NODE_PRE.args(" .") + " ! string(), ',')";
+    final String[] results = new String[2];
+    Buffers.max(64);
+    try {
+      for(int r = 0; r < 2; r++) {
+        run(new Set(MainOptions.PARALLELINDEX, r == 0 ? 1 : 4));
+        run(new DropIndex(CmdIndex.TEXT));
+        run(new DropIndex(CmdIndex.ATTRIBUTE));
+        run(new CreateIndex(CmdIndex.TEXT));
+        run(new CreateIndex(CmdIndex.ATTRIBUTE));
+        results[r] = query(query);
+      }
+      assertEquals(results[0], results[1]);
+      run(new Optimize());
+      assertEquals(results[0], query(query));
+    } finally {
+      Buffers.max(context.soptions.get(StaticOptions.BUFFERSIZE));
+    }
+  }
+
+  /**
+   * Creates a database with the specified number of index workers and checks the index structures.
+   * @param p number of workers
+   * @throws BaseXException database exception
+   */
+  private static void parallel(final int p) throws BaseXException {
+    run(new Set(MainOptions.FTINDEX, true));
+    run(new Set(MainOptions.INDEXSPLITSIZE, 10000));
+    run(new Set(MainOptions.FTINDEXSPLITSIZE, 10000));
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 100000; i++) {
+      sb.append("<a b='").append(i % 1000).append("'>t").append(i % 1000).append("</a>");
+    }
+    final String doc = sb.append("</x>").toString();
+
+    run(new Set(MainOptions.PARALLELINDEX, p));
+    run(new CreateDB(NAME, doc));
+    query("count(" + _DB_TEXT.args(NAME, "t7") + ')', "100");
+    query("count(" + _DB_ATTRIBUTE.args(NAME, "7") + ')', "100");
+    query("count(" + _FT_SEARCH.args(NAME, "t999") + ')', "100");
+    query("count(" + _INDEX_TEXTS.args(NAME) + ')', "1000");
+    query("count(" + _INDEX_ATTRIBUTES.args(NAME) + ')', "1000");
+    // pre values of all text nodes must be returned in document order
+    query("deep-equal(" + _DB_TEXT.args(NAME, "t7") + " ! " + _DB_NODE_PRE.args(" .") +
+        ", (0 to 99999)[. mod 1000 = 7] ! (. * 3 + 4))", "true");
+  }
+
   /**
    * Test.
    * @throws BaseXException database exception
@@ -74,6 +74,63 @@ public final class IndexCacheTest {
     assertNull(cache.get(key));
   }
 
+  /** Tests if the memory consumption of the cache is bounded. */
+  @Test
+  public void testBounded() {
+    cache = new IndexCache(1 << 14);
+    for(int i = 0; i < 4000; ++i) cache.add(token("keyBounded" + i), i, i);
+    assertTrue(cache.bytes() <= cache.max());
+    assertTrue(cache.size() < 4000);
+    assertEquals(4000 - cache.size(), cache.evictions());
+    // most recently added entry must still be cached
+    assertCacheEntry(token("keyBounded" + 3999), 3999, 3999);
+  }
+
+  /** Tests if the cache can be resized. */
+  @Test
+  public void testResize() {
+    cache = new IndexCache(1 << 14);
+    for(int i = 0; i < 4000; ++i) cache.add(token("keyResize" + i), i, i);
+    final int size = cache.size();
+    cache.max(1 << 12);
+    assertEquals(1 << 12, cache.max());
+    assertTrue(cache.bytes() <= cache.max());
+    assertTrue(cache.size() < size);
+    assertEquals(4000 - cache.size(), cache.evictions());
+    cache.max(1 << 14);
+    for(int i = 0; i < 4000; ++i) cache.add(token("keyResize" + i), i, i);
+    assertEquals(size, cache.size());
+  }
+
+  /** Tests if frequently requested entries survive a scan of all index keys. */
+  @Test
+  public void testScanResistance() {
+    cache = new IndexCache(1 << 14);
+    for(int i = 0; i < 10; ++i) {
+      cache.add(token("keyHot" + i), i, i);
+      assertCacheEntry(token("keyHot" + i), i, i);
+    }
+    for(int i = 0; i < 4000; ++i) cache.add(token("keyScan" + i), i, i);
+    for(int i = 0; i < 10; ++i) assertCacheEntry(token("keyHot" + i), i, i);
+  }
+
+  /** Tests the cache statistics. */
+  @Test
+  public void testStatistics() {
+    final byte[] key = token("keyStats");
+    cache.add(key, 1, 1);
+    cache.get(key);
+    cache.get(key);
+    cache.get(token("keyMissing"));
+    assertEquals(2, cache.hits());
+    assertEquals(1, cache.misses());
+    assertEquals(1, cache.size());
+    assertEquals(0, cache.evictions());
+    cache.delete(key);
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.bytes());
+  }
+
   /**
    * Test that new records can be continuously added without hitting
    * {@link OutOfMemoryError}.
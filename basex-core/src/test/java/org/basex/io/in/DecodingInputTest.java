@@ -0,0 +1,62 @@
+package org.basex.io.in;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.out.*;
+import org.junit.*;
+
+/**
+ * Test class for the DecodingInput method.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class DecodingInputTest {
+  /**
+   * Decodes blocks of bytes with escaped end and escape bytes.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void readBlocks() throws IOException {
+    final Random rnd = new Random(0);
+    for(final int dl : new int[] { 0, 1, 2, 255, 4095, 4096, 100000 }) {
+      final byte[] data = new byte[dl];
+      for(int d = 0; d < dl; d++) {
+        final int r = rnd.nextInt(4);
+        data[d] = (byte) (r == 0 ? 0 : r == 1 ? 0xFF : rnd.nextInt(256));
+      }
+      final ArrayOutput ao = new ArrayOutput();
+      final EncodingOutput eo = new EncodingOutput(ao);
+      eo.write(data);
+      ao.write(0);
+      ao.write('x');
+      final byte[] encoded = ao.finish();
+
+      for(final int bs : new int[] { 1, 2, 7, 4096 }) {
+        final BufferInput bi = new BufferInput(new ByteArrayInputStream(encoded), bs);
+        assertArrayEquals(data, decode(new DecodingInput(bi), bs + 3));
+        // bytes after the end of the stream remain unread
+        assertEquals('x', bi.read());
+      }
+      assertArrayEquals(data, decode(new DecodingInput(new ByteArrayInputStream(encoded)), 5));
+    }
+  }
+
+  /**
+   * Decodes the specified input in blocks.
+   * @param di decoding input
+   * @param bs block size
+   * @return decoded bytes
+   * @throws IOException I/O exception
+   */
+  private static byte[] decode(final DecodingInput di, final int bs) throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    final byte[] buffer = new byte[bs];
+    for(int r; (r = di.read(buffer, 0, bs)) != -1;) ao.write(buffer, 0, r);
+    assertEquals(-1, di.read());
+    return ao.finish();
+  }
+}
@@ -3,6 +3,8 @@ package org.basex.io.random;
 import static org.junit.Assert.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.io.*;
 import org.basex.util.*;
@@ -193,6 +195,42 @@ public class DataAccessTest {
     assertEquals(STR, Token.string(da.readToken(BLOCK_BOUNDARY_POS)));
   }
 
+  /**
+   * Test method for {@link DataAccess#readToken(long, boolean)}.
+   * @throws Exception exception
+   */
+  @Test
+  public final void testReadTokenConcurrent() throws Exception {
+    // tokens are served from the buffers if no other thread is reading
+    final long hits = da.buffers().hits();
+    for(int i = 0; i < 10; i++) {
+      assertEquals(STR, Token.string(da.readToken(0L, false)));
+      assertEquals(STR, Token.string(da.readToken(BLOCK_BOUNDARY_POS, false)));
+    }
+    assertTrue(da.buffers().hits() - hits >= 10);
+
+    // concurrent threads read tokens via the buffers or via positional access
+    final ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      final ArrayList<Future<Boolean>> results = new ArrayList<>();
+      for(int t = 0; t < 8; t++) {
+        results.add(pool.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() {
+            for(int i = 0; i < 10000; i++) {
+              if(!STR.equals(Token.string(da.readToken(i % 2 == 0 ? 0L : BLOCK_BOUNDARY_POS,
+                  false)))) return false;
+            }
+            return true;
+          }
+        }));
+      }
+      for(final Future<Boolean> result : results) assertTrue(result.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   /** Test method for {@link DataAccess#readToken()}. */
   @Test
   public final void testReadToken() {
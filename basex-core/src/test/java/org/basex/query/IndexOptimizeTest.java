@@ -219,6 +219,35 @@ public final class IndexOptimizeTest extends AdvancedQueryTest {
     query("//a[not(. = '')]/text()", "1\n2 3");
 }
 
+  /**
+   * Checks if the index is skipped if a sequential scan is cheaper,
+   * and if estimated and actual results are shown in the query plan.
+   * @throws Exception unexpected exception
+   */
+  @Test
+  public void costs() throws Exception {
+    final StringBuilder sb = new StringBuilder("<xml><big>");
+    for(int i = 0; i < 1000; i++) sb.append("<x a='common'/>");
+    sb.append("</big><items><item a='common'/><item a='rare'/></items></xml>");
+    new CreateDB(NAME, sb.toString()).execute(context);
+
+    check("//item[@a = 'rare']", "<item a=\"rare\"/>");
+    try(QueryProcessor qp = new QueryProcessor("//item[@a = 'common']", context)) {
+      assertEquals("<item a=\"common\"/>", qp.value().serialize().toString());
+      final String plan = qp.plan().serialize().toString();
+      assertFalse("Index used:\n" + plan, plan.contains(Util.className(ValueAccess.class)));
+    }
+
+    new Set(MainOptions.XMLPLAN, true).execute(context);
+    try(QueryProcessor qp = new QueryProcessor("count(//x[@a = 'common'])", context)) {
+      assertEquals("1000", qp.value().serialize().toString());
+      final String plan = qp.plan().serialize().toString();
+      assertTrue(plan, plan.contains("estimate=\"1001\"") && plan.contains("results=\"1001\""));
+    } finally {
+      new Set(MainOptions.XMLPLAN, false).execute(context);
+    }
+  }
+
   /**
    * Creates a test database.
    * @throws Exception exception
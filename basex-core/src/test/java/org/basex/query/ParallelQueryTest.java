@@ -5,7 +5,10 @@ import static org.junit.Assert.*;
 import java.util.*;
 
 import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * Runs parallel queries.
@@ -16,6 +19,9 @@ import org.junit.*;
 public final class ParallelQueryTest extends SandboxTest {
   /** Query. */
   private static final String QUERY = "count((for $i in 1 to 50000 return <a><b/></a>)/b)";
+  /** Database query. */
+  private static final String DBQUERY = "sum(for $a in db:open('" + NAME + "')//a " +
+      "where $a/@id mod 3 = 0 return string-length($a/b))";
   /** Error. */
   private Throwable error;
   /** Reference result. */
@@ -28,10 +34,65 @@ public final class ParallelQueryTest extends SandboxTest {
   @Test
   public void test() throws Throwable {
     // generate reference result
-    result = query();
+    result = query(QUERY);
     // generate results to be compared
+    run(QUERY, 10, 1);
+  }
+
+  /**
+   * Runs parallel queries on a database.
+   * @throws Throwable throwable
+   */
+  @Test
+  public void database() throws Throwable {
+    create(10000);
+    result = query(DBQUERY);
+    run(DBQUERY, 10, 1);
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Measures the throughput of parallel database queries with an increasing number of threads.
+   * @throws Throwable throwable
+   */
+  @Test
+  @Ignore("Benchmark: measures the scalability of concurrent database reads")
+  public void throughput() throws Throwable {
+    create(200000);
+    result = query(DBQUERY);
+    final int cores = Runtime.getRuntime().availableProcessors(), runs = 20;
+    for(int threads = 1; threads <= cores; threads <<= 1) {
+      final Performance perf = new Performance();
+      run(DBQUERY, threads, runs);
+      final double ms = perf.time() / 1000000d;
+      Util.outln("Threads: %, Queries/s: %", threads, (int) (threads * runs * 1000 / ms));
+    }
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Creates a test database.
+   * @param size number of elements
+   * @throws Exception exception
+   */
+  private static void create(final int size) throws Exception {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < size; i++) sb.append("<a id='").append(i).append("'><b>").
+      append(Integer.toString(i, 36)).append("</b></a>");
+    new CreateDB(NAME, sb.append("</x>").toString()).execute(context);
+    new Close().execute(context);
+  }
+
+  /**
+   * Runs queries in parallel and compares their results with the reference result.
+   * @param query query
+   * @param threads number of threads
+   * @param runs number of runs per thread
+   * @throws Throwable throwable
+   */
+  private void run(final String query, final int threads, final int runs) throws Throwable {
     final ArrayList<Query> queries = new ArrayList<>();
-    for(int i = 0; i < 10; i++) queries.add(new Query());
+    for(int i = 0; i < threads; i++) queries.add(new Query(query, runs));
     for(final Query q : queries) q.start();
     for(final Query q : queries) q.join();
     if(error != null) throw error;
@@ -39,11 +100,12 @@ public final class ParallelQueryTest extends SandboxTest {
 
   /**
    * Runs a single query.
+   * @param query query
    * @return result
    * @throws Exception exception
    */
-  private static String query() throws Exception {
-    try(final QueryProcessor qp = new QueryProcessor(QUERY, context)) {
+  private static String query(final String query) throws Exception {
+    try(final QueryProcessor qp = new QueryProcessor(query, context)) {
       return qp.value().serialize().toString();
     }
   }
@@ -52,10 +114,25 @@ public final class ParallelQueryTest extends SandboxTest {
    * Query instance.
    */
   private class Query extends Thread {
+    /** Query. */
+    private final String query;
+    /** Number of runs. */
+    private final int runs;
+
+    /**
+     * Constructor.
+     * @param query query
+     * @param runs number of runs
+     */
+    Query(final String query, final int runs) {
+      this.query = query;
+      this.runs = runs;
+    }
+
     @Override
     public void run() {
       try {
-        assertEquals(result, query());
+        for(int r = 0; r < runs; r++) assertEquals(result, query(query));
       } catch(final Throwable th) {
         error = th;
       }
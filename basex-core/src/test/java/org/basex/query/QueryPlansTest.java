@@ -0,0 +1,168 @@
+package org.basex.query;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import org.basex.*;
+import org.basex.io.*;
+import org.basex.query.value.item.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * Tests for the query plan cache.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryPlansTest extends SandboxTest {
+  /** Initializes a test. */
+  @Before
+  public void init() {
+    context.plans.clear();
+  }
+
+  /**
+   * Repeated queries are only parsed once.
+   * @throws Exception exception
+   */
+  @Test
+  public void repeated() throws Exception {
+    final long hits = context.plans.hits();
+    for(int i = 0; i < 10; i++) assertEquals("6", query("count(1 to 6)"));
+    assertEquals(1, context.plans.size());
+    assertEquals(hits + 9, context.plans.hits());
+  }
+
+  /**
+   * Cached plans are bound to different external values.
+   * @throws Exception exception
+   */
+  @Test
+  public void bind() throws Exception {
+    final String query = "declare variable $a external; declare variable $b := 'b'; $a || $b";
+    for(int i = 0; i < 3; i++) {
+      try(final QueryProcessor qp = new QueryProcessor(query, context)) {
+        qp.bind("a", Int.get(i));
+        assertEquals(i + "b", qp.value().serialize().toString());
+      }
+    }
+    assertEquals(1, context.plans.size());
+
+    // bound value is checked against the declared type
+    final String typed = "declare variable $a as xs:integer external; $a + 1";
+    for(int i = 0; i < 3; i++) {
+      try(final QueryProcessor qp = new QueryProcessor(typed, context)) {
+        qp.bind("a", Int.get(i));
+        assertEquals(Integer.toString(i + 1), qp.value().serialize().toString());
+      }
+    }
+  }
+
+  /**
+   * Copied plans with local variables, closures and constructors.
+   * @throws Exception exception
+   */
+  @Test
+  public void copies() throws Exception {
+    final String query = "let $f := function($x) { <a>{ $x }</a> } " +
+        "return string-join(for $i in 1 to 3 group by $m := $i mod 2 return $f(sum($i)))";
+    for(int i = 0; i < 3; i++) assertEquals("42", query(query));
+    assertEquals(1, context.plans.size());
+  }
+
+  /**
+   * A plan with node constructors is only used by one query at a time.
+   * @throws Exception exception
+   */
+  @Test
+  public void exclusive() throws Exception {
+    final String query = "<x xmlns='u'>{ 1 }</x>";
+    try(final QueryProcessor qp1 = new QueryProcessor(query, context)) {
+      qp1.parse();
+      // second query is parsed while the first one holds the plan
+      assertEquals("1", query("string(" + query + ')'));
+      assertEquals("<x xmlns=\"u\">1</x>", qp1.value().serialize().toString());
+    }
+    assertEquals("1", query(query + "/string()"));
+  }
+
+  /**
+   * Functions, variables and options are copied.
+   * @throws Exception exception
+   */
+  @Test
+  public void prolog() throws Exception {
+    final String query = "declare option db:chop 'false'; " +
+        "declare variable $v := local:f(2); " +
+        "declare function local:f($i) { if($i = 0) then $v2 else local:f($i - 1) + 1 }; " +
+        "declare variable $v2 := count((1, 2)); " +
+        "declare %basex:lazy variable $l := local:f(0); " +
+        "declare function local:g() { $l * $v }; local:g()";
+    for(int i = 0; i < 3; i++) assertEquals("8", query(query));
+    assertEquals(1, context.plans.size());
+  }
+
+  /**
+   * Plans with imported modules are parsed again if a module has been modified.
+   * @throws Exception exception
+   */
+  @Test
+  public void module() throws Exception {
+    final IOFile file = new IOFile(sandbox(), "plan.xqm");
+    file.write(token("module namespace m = 'm'; declare function m:f() { 1 };"));
+    final String query = "import module namespace m = 'm' at '" + file.path() + "'; m:f()";
+    assertEquals("1", query(query));
+    final long hits = context.plans.hits();
+    assertEquals("1", query(query));
+    assertEquals(hits + 1, context.plans.hits());
+
+    file.write(token("module namespace m = 'm'; declare function m:f() { 2 };"));
+    file.file().setLastModified(file.timeStamp() + 2000);
+    assertEquals("2", query(query));
+    assertEquals(hits + 1, context.plans.hits());
+  }
+
+  /**
+   * Queries with a context item declaration are parsed again.
+   * @throws Exception exception
+   */
+  @Test
+  public void uncached() throws Exception {
+    final String query = "declare context item := 1; . + 1";
+    final long hits = context.plans.hits();
+    for(int i = 0; i < 3; i++) assertEquals("2", query(query));
+    assertEquals(0, context.plans.size());
+    assertEquals(hits, context.plans.hits());
+  }
+
+  /**
+   * Errors are not cached.
+   */
+  @Test
+  public void error() {
+    for(int i = 0; i < 2; i++) {
+      try {
+        query("1 +");
+        fail("Error expected.");
+      } catch(final QueryException ex) {
+        assertSame(QueryError.CALCEXPR, ex.error());
+      } catch(final Exception ex) {
+        throw new AssertionError(ex);
+      }
+    }
+    assertEquals(0, context.plans.size());
+  }
+
+  /**
+   * Runs a query.
+   * @param query query
+   * @return result
+   * @throws Exception exception
+   */
+  private static String query(final String query) throws Exception {
+    try(final QueryProcessor qp = new QueryProcessor(query, context)) {
+      return qp.value().serialize().toString();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package org.basex.query.ast;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.CmdIndex;
+import org.basex.query.expr.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests if numeric range queries are correctly evaluated with(out) the index.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class NumericRangeTest extends QueryPlanTest {
+  /** Name of database with updatable index structures. */
+  private static final String UPD = NAME + "upd";
+
+  /**
+   * Initializes the tests.
+   * @throws BaseXException database exception
+   */
+  @BeforeClass
+  public static void start() throws BaseXException {
+    // create initial document with negative, integer and double values
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add("<xml>");
+    for(int i = -400; i < 400; i++) tb.add("<n v='").add(Token.token(i / 4d)).add("'/>");
+    tb.add("</xml>");
+    new Set(MainOptions.UPDINDEX, true).execute(context);
+    new CreateDB(UPD, tb.toString()).execute(context);
+    new Set(MainOptions.UPDINDEX, false).execute(context);
+    new CreateDB(NAME, tb.toString()).execute(context);
+  }
+
+  /**
+   * Finishes the tests.
+   * @throws BaseXException database exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+    new DropDB(UPD).execute(context);
+  }
+
+  /**
+   * Testing closed ranges.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void closed() throws BaseXException {
+    test("count(//n[@v >= 10 and @v <= 20])", "41");
+    test("count(//n[@v >= 10.5 and @v <= 10.75])", "2");
+    test("count(//n[@v >= -1 and @v <= 1])", "9");
+    test("count(//n[@v >= 10.1 and @v <= 10.3])", "1");
+  }
+
+  /**
+   * Testing ranges with exclusive limits.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void exclusive() throws BaseXException {
+    test("count(//n[@v > 10 and @v < 20])", "39");
+    test("count(//n[@v > -5.5 and @v <= 0])", "22");
+    test("count(//n[@v >= -5.5 and @v < 0])", "22");
+  }
+
+  /**
+   * Testing half-open ranges.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void open() throws BaseXException {
+    test("count(//n[@v > 90])", "39");
+    test("count(//n[@v < -99])", "4");
+    test("count(//n[@v >= 99.75])", "1");
+  }
+
+  /**
+   * Tests a query with and without numeric index keys. Updatable indexes have no
+   * numeric keys, so closed integer ranges will be evaluated by scanning the index keys.
+   * @param query query
+   * @param result expected result
+   * @throws BaseXException database exception
+   */
+  private static void test(final String query, final String result) throws BaseXException {
+    new Open(NAME).execute(context);
+    new CreateIndex(CmdIndex.ATTRIBUTE).execute(context);
+    check(query, result, "exists(//" + Util.className(RangeAccess.class) + ')');
+    new DropIndex(CmdIndex.ATTRIBUTE).execute(context);
+    check(query, result, "not(//" + Util.className(RangeAccess.class) + ')');
+
+    new Open(UPD).execute(context);
+    check(query, result);
+  }
+}
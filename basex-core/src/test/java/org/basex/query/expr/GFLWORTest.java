@@ -3,6 +3,7 @@ package org.basex.query.expr;
 import static org.basex.query.QueryError.*;
 import static org.junit.Assert.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.util.*;
 import org.junit.*;
@@ -28,6 +29,87 @@ public final class GFLWORTest extends AdvancedQueryTest {
     query("let $i := 1 group by $i, $i return $i", "1");
   }
 
+  /** Evaluates the iterations of a for clause in parallel. */
+  @Test
+  public void parallel() {
+    query("deep-equal((# basex:parallel #) { for $i in 1 to 1000 return $i * 2 },"
+        + "(1 to 1000) ! (. * 2))", "true");
+    query("let $x := 3 return (# basex:parallel 2 #) { for $i in 1 to 10 return $i * $x }",
+        "3\n6\n9\n12\n15\n18\n21\n24\n27\n30");
+    query("(# basex:parallel 4 #) { let $n := 100 for $i at $p in (1 to $n) ! string() "
+        + "let $j := $i where $p mod 50 = 0 return $j || '/' || $p }", "50/50\n100/100");
+    query("(# basex:parallel #) { for $i allowing empty in () return count($i) }", "0");
+    query("<a><b>1</b><b>2</b></a>/((# basex:parallel #) { for $b in b return $b + count(*) })",
+        "3\n4");
+    query("declare variable $v := 5; declare function local:f($i) { $i * $v };"
+        + "sum((# basex:parallel #) { for $i in 1 to 1000 return local:f($i) })", "2502500");
+    // nested expressions are evaluated sequentially by the workers
+    query("count((# basex:parallel #) { for $i in 1 to 100 return "
+        + "(# basex:parallel #) { for $j in 1 to 100 return $i + $j } })", "10000");
+    // order by is evaluated after the parallel for clause
+    query("(# basex:parallel #) { for $i in 1 to 5 order by -$i for $j in 1 to 2 return $i }",
+        "5\n5\n4\n4\n3\n3\n2\n2\n1\n1");
+    // regular expressions are compiled concurrently
+    query("count(((# basex:parallel 8 #) { for $i in 1 to 100000 "
+        + "return matches('x' || $i || 'y', 'x' || $i || 'y') })[.])", "100000");
+
+    error("(# basex:parallel 4 #) { for $i in 1 to 100 return 1 div ($i - 50) }", DIVZERO_X);
+    error("(# basex:parallel #) { 1 }", BASX_PARALLEL);
+    error("(# basex:parallel #) { for $i in 1 to 3 order by $i return $i }", BASX_PARALLEL);
+    error("(# basex:parallel 0 #) { for $i in 1 to 3 return $i }", BASX_THREADS_X);
+    error("(# basex:parallel #) { for $i in 1 to 3 return random:double() }", BASX_PARALLEL_X);
+    error("(# basex:parallel #) { for $i in 1 to 3 return insert node <a/> into <b/> }",
+        BASX_PARALLEL_X);
+    error("(# basex:parallel #) { for $i in 1 to 3 return <a xmlns:p='p'>{ $i }</a> }",
+        BASX_PARALLEL_X);
+    error("(# basex:parallel #) { for $i in 1 to 3 return string($i) contains text '1' }",
+        BASX_PARALLEL_X);
+    error("(# basex:parallel #) { for $i in 1 to 3 return (# db:chop false #) { $i } }",
+        BASX_PARALLEL_X);
+  }
+
+  /** Tests for the order by clause. */
+  @Test
+  public void orderBy() {
+    query("for $i in (3, 1, 2) order by $i descending return $i", "3\n2\n1");
+    query("for $s in ('b', 'a', 'c') order by $s return $s", "a\nb\nc");
+    query("for $d in (2e0, 1e0, xs:double('NaN'), ()) order by $d empty greatest return $d",
+        "1\n2\nNaN");
+    query("for $i in (1 to 6) order by $i mod 2, $i descending return $i", "6\n4\n2\n5\n3\n1");
+    // stable order of tuples with equal keys
+    query("for $s in ('b1', 'a1', 'b2', 'a2') stable order by substring($s, 1, 1) return $s",
+        "a1\na2\nb1\nb2");
+    query("for $i in (<a>2</a>, <a>10</a>, <a>1</a>) order by $i return string($i)",
+        "1\n10\n2");
+    query("for $i in (2.5, 1, 1e0) order by $i return $i", "1\n1\n2.5");
+    query("count(for $i in 1 to 100000 order by -$i return $i)", "100000");
+
+    error("for $i in (1, 'a') order by $i return $i", INVCAST_X_X_X);
+  }
+
+  /** Sorts tuples that exceed the main memory limit in runs on disk. */
+  @Test
+  public void orderBySpill() {
+    final String[] queries = {
+      "for $i in 1 to 200000 order by $i mod 1000 descending, $i return $i",
+      "for $i in 1 to 100000 let $k := if($i mod 7 = 0) then () else string($i mod 100) "
+        + "order by $k empty greatest return ($k, $i * 1.5, xs:float($i) div 3, "
+        + "$i mod 2 = 0, xs:untypedAtomic($i), xs:byte($i mod 100))",
+      "for $i in 1 to 100000 stable order by $i mod 3 return <x>{ $i }</x>",
+      "for $i in 1 to 100000 order by $i mod 10 return [ $i ]"
+    };
+    final String[] results = new String[queries.length];
+    for(int q = 0; q < queries.length; q++) results[q] = query(queries[q]);
+    try {
+      context.options.set(MainOptions.SORTMEMORY, 1);
+      for(int q = 0; q < queries.length; q++) assertEquals(results[q], query(queries[q]));
+      query("head(for $i in 1 to 200000 order by -$i return $i)", "200000");
+      error("for $i in (1 to 200000, 'a') order by $i return $i", INVCAST_X_X_X);
+    } finally {
+      context.options.set(MainOptions.SORTMEMORY, 0);
+    }
+  }
+
   /**
    * Runs an updating query and matches the result of the second query
    * against the expected output.
@@ -1,5 +1,7 @@
 package org.basex.query.expr;
 
+import static org.basex.query.QueryError.*;
+
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.query.*;
@@ -198,4 +200,35 @@ public final class PathTest extends AdvancedQueryTest {
     query("for $i in (1,'a') return //ul/li[$i][2]");
     query("for $i in (1,'a') return //ul/li[$i][last()]", LI1 + '\n' + LI2);
   }
+
+  /**
+   * Scans the descendants of large databases in parallel.
+   * @throws BaseXException exception
+   */
+  @Test public void parallelScan() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 1; i <= 100000; i++) {
+      sb.append("<a n='").append(i).append("'>").append(i).append("</a>");
+    }
+    new CreateDB(NAME, sb.append("</x>").toString()).execute(context);
+
+    final String[] queries = { "//a[ends-with(., '77')]/@n/string()",
+      "descendant-or-self::node()[ends-with(., '777')] ! name()", "count(//a[@n = .])",
+      "count(//a[matches(., substring(., 1, 1) || substring(., 2) || '$')])",
+      "count(//a[<b>{ . }</b> = .])", "count(//a[. contains text '77'])" };
+    final String[] results = new String[queries.length];
+    for(int q = 0; q < queries.length; q++) results[q] = query(queries[q]);
+    try {
+      context.options.set(MainOptions.PARALLELSCAN, 4);
+      for(int q = 0; q < queries.length; q++) query(queries[q], results[q]);
+      error("//a[(xs:integer(.) - 99999) idiv (xs:integer(.) - 99999) = 1]", DIVZERO_X);
+      // remaining partitions are stopped if the results are not requested anymore
+      query("exists(//a[ends-with(., '7')])", "true");
+      query("head(//a[ends-with(., '7')])/string()", "7");
+      query("(//a[@n = .])[1]/string()", "1");
+    } finally {
+      context.options.set(MainOptions.PARALLELSCAN, 1);
+    }
+    query("declare option db:parallelscan '4'; " + queries[0], results[0]);
+  }
 }
@@ -79,6 +79,8 @@ public final class HofModuleTest extends QueryPlanTest {
     query("hof:top-k-by(1 to 1000, function($x) {-$x}, 0)", "");
     query("hof:top-k-by((), function($x) {-$x}, 5)", "");
     query("hof:top-k-by(1 to 1000, function($x) {-$x}, 5)", "1\n2\n3\n4\n5");
+    query("hof:top-k-by(1 to 100000, function($x) {$x mod 1000}, 3)", "999\n1999\n2999");
+    query("hof:top-k-by(('b', 'c', 'a'), string#1, 5)", "c\nb\na");
   }
 
   /** Test method. */
@@ -82,6 +82,20 @@ public final class ProfModuleTest extends AdvancedQueryTest {
     }
   }
 
+  /** Test method. */
+  @Test
+  public void regexCache() {
+    query(_PROF_REGEX_CACHE.args() + "?max", "1000");
+    // compiled patterns are shared by subsequent queries
+    final String regex = "^a+b*[0-9]?$";
+    query(MATCHES.args("aab", regex), "true");
+    final String hits = query(_PROF_REGEX_CACHE.args() + "?hits");
+    query(MATCHES.args("aab", regex), "true");
+    query(_PROF_REGEX_CACHE.args() + "?hits - " + hits + " >= 1", "true");
+    query("every $k in ('size', 'max', 'hits', 'misses') satisfies " +
+        _PROF_REGEX_CACHE.args() + "($k) instance of xs:integer", "true");
+  }
+
   /** Test method. */
   @Test
   public void voidd() {
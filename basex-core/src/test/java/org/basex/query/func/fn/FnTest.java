@@ -131,6 +131,20 @@ public final class FnTest extends AdvancedQueryTest {
     query(SORT.args("(1, 4, 6, 5, 3)"), "1\n3\n4\n5\n6");
     query(SORT.args("(1,-2,5,10,-10,10,8)", " abs#1"), "1\n-2\n5\n8\n10\n-10\n10");
     query(SORT.args("((1,0), (1,1), (0,1), (0,0))"), "0\n0\n0\n0\n1\n1\n1\n1");
+    query(SORT.args("('b', 'c', 'a')"), "a\nb\nc");
+    query(SORT.args("(2.5e0, 1e0, -1e0)"), "-1\n1\n2.5");
+    query(SORT.args("(2, 1.5, 1e0)"), "1\n1.5\n2");
+    query(SORT.args("(9223372036854775807, 9223372036854775806)"),
+        "9223372036854775806\n9223372036854775807");
+    // stable sort, shorter and empty keys first
+    query(SORT.args("('b1', 'a1', 'b2', 'a2', 'c')", " substring(?, 1, 1)"),
+        "a1\na2\nb1\nb2\nc");
+    query(SORT.args("(1 to 5)", " function($i) { (1 to $i mod 3) }"), "3\n1\n4\n2\n5");
+    query("deep-equal(" + SORT.args("(1 to 10000) ! (. mod 100 * 100000 + .)") + ", "
+        + "for $i in (1 to 10000) ! (. mod 100 * 100000 + .) order by $i return $i)", "true");
+
+    error(SORT.args("(1, 'a')"), CMPTYPES_X_X);
+    error(SORT.args("(1, sum#1)"), FIEQ_X);
   }
 
   /** Tests for the {@code outermost} and {@code innermost} functions. */
@@ -82,6 +82,15 @@ public final class UpdateTest extends AdvancedQueryTest {
     query("declare variable $d := document{ <x/> } update (); $d/x", "<x/>");
   }
 
+  /** Transform expression with a copy clause referencing a previous copy variable. */
+  @Test
+  public void transformCopies() {
+    query("copy $a := <x/>, $b := $a modify () return $b", "<x/>");
+    query("for $i in 1 to 2 return copy $a := <x>{ $i }</x>, $b := $a " +
+        "modify insert node <y/> into $b return ($a, $b)",
+        "<x>1</x>\n<x>1<y/>\n</x>\n<x>2</x>\n<x>2<y/>\n</x>");
+  }
+
   /** Transform expression containing a simple expression. */
   @Test
   public void transSimple() {
@@ -115,6 +124,75 @@ public final class UpdateTest extends AdvancedQueryTest {
     new Set("mainmem", "off").execute(context);
   }
 
+  /**
+   * Evaluates copy/modify expressions on database nodes without copying them first.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void lazyCopy() throws BaseXException {
+    final String doc = "<r><x a=\"1\">t1<b/>t2</x><x>t3<!--c--><?pi v?></x>t4</r>";
+    createDB(doc);
+    final String[] mods = {
+      "delete node $c//b", "delete node $c/x[1]", "delete node $c//@a",
+      "for $e in $c/descendant-or-self::*[1] return rename node $e as 'R'",
+      "for $a in $c//@a return rename node $a as 'z'",
+      "for $a in $c//@a return replace value of node $a with 'V'",
+      "for $t in $c//text() return replace value of node $t with 'T'",
+      "for $x in $c/x[1] return replace node $x with ('s', <y/>)",
+      "for $b in $c//b return replace node $b with <c/>",
+      "insert node 'T' into $c", "for $x in $c//x return insert node <i/> as first into $x",
+      "for $e in $c/descendant-or-self::*[1] return insert node attribute n { 1 } into $e",
+      "for $x in $c/x return insert node ('a', <i/>) before $x",
+      "for $x in $c/x return insert node <n>{ count($x/node()) }</n> after $x",
+      "delete node $c/..", "insert node <p>{ count(root($c)/*) }</p> into $c"
+    };
+    for(final String root : new String[] { "/r", "/r/x[2]", "." }) {
+      for(final String mod : mods) {
+        final String query = "copy $c := " + root + " modify (" + mod + ") return $c";
+        context.options.set(MainOptions.LAZYCOPY, false);
+        final String expected = query(query);
+        context.options.set(MainOptions.LAZYCOPY, true);
+        assertEquals(query, expected, query(query));
+      }
+    }
+    query("/r update delete node .//text()", "<r>\n<x a=\"1\">\n<b/>\n</x>\n<x>\n" +
+        "<!--c-->\n<?pi v?>\n</x>\n</r>");
+    query("serialize(/, map { 'indent': 'no' })", doc);
+
+    // updates of nodes that have not been copied
+    for(final String mod : new String[] { "delete node " + _DB_OPEN.args(NAME) + "/r/x",
+        "delete node doc('" + NAME + "')/r/x", "insert node <a/> into <b/>" }) {
+      error("copy $c := /r modify " + mod + " return $c", UPNOTCOPIED_X);
+    }
+    query("serialize(/, map { 'indent': 'no' })", doc);
+  }
+
+  /**
+   * Serializes the results of copy/modify expressions without creating the updated nodes.
+   * @throws BaseXException database exception
+   */
+  @Test
+  public void lazyCopySerialize() throws BaseXException {
+    createDB("<r><x a=\"1\">t1<b/>t2</x><x>t3<!--c--><?pi v?></x>t4</r>");
+    final String[] queries = {
+      "copy $c := /r modify delete node $c//b return $c",
+      "copy $c := /r modify (rename node $c/x[1] as 'y', delete node $c/x[1]/@a) return $c",
+      "copy $c := (/) modify insert node ('s', <i/>) after $c/r/x[2] return $c",
+      "/r update (insert node attribute n { 1 } into x[2], replace value of node x[1]/text()[2] " +
+        "with 'T', replace node x[2]/comment() with 'u')"
+    };
+    for(final String method : new String[] { "xml", "adaptive", "json" }) {
+      for(final String q : queries) {
+        final String query = "declare option output:method '" + method + "';" +
+          "declare option output:json 'format=jsonml';" + q;
+        context.options.set(MainOptions.LAZYCOPY, false);
+        final String expected = new XQuery(query).execute(context);
+        context.options.set(MainOptions.LAZYCOPY, true);
+        assertEquals(query, expected, new XQuery(query).execute(context));
+      }
+    }
+  }
+
   /**
    * Basic insert into.
    */
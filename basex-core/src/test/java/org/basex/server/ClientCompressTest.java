@@ -0,0 +1,32 @@
+package org.basex.server;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.api.client.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * This class tests the client/server session API with a fixed number of server threads
+ * and compressed data.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientCompressTest extends ClientSelectorTest {
+  /** Starts a session with compression. */
+  @Override
+  @Before
+  public void startSession() {
+    try {
+      final ClientSession cs = createClient();
+      assertTrue(cs.compress());
+      session = cs;
+      session.setOutputStream(out);
+    } catch(final IOException ex) {
+      fail(Util.message(ex));
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package org.basex.server;
+
+import static org.basex.core.Text.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.util.*;
+import org.junit.*;
+import org.junit.Test;
+
+/**
+ * This class tests the client/server session API with a fixed number of server threads.
+ *
+ * @author BaseX Team 2005-15, BSD License
+ * @author Christian Gruen
+ */
+public class ClientSelectorTest extends SessionTest {
+  /** Number of server threads. */
+  private static final int THREADS = 2;
+  /** Server reference. */
+  private static BaseXServer server;
+
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass
+  public static void startServer() throws IOException {
+    Prop.put(StaticOptions.SERVERTHREADS, THREADS);
+    server = createServer();
+  }
+
+  /**
+   * Stops the server.
+   * @throws IOException I/O exception
+   */
+  @AfterClass
+  public static void stop() throws IOException {
+    stopServer(server);
+    Prop.put(StaticOptions.SERVERTHREADS, 0);
+  }
+
+  /** Starts a session. */
+  @Before
+  public void startSession() {
+    try {
+      session = createClient();
+      session.setOutputStream(out);
+    } catch(final IOException ex) {
+      fail(Util.message(ex));
+    }
+  }
+
+  /**
+   * Opens more sessions than server threads and runs interleaved requests.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void idleSessions() throws IOException {
+    final ArrayList<ClientSession> sessions = new ArrayList<>();
+    try {
+      for(int s = 0; s < THREADS * 10; s++) sessions.add(createClient());
+      for(int i = 0; i < 3; i++) {
+        for(final ClientSession cs : sessions) {
+          assertEquals(Integer.toString(i), cs.execute("xquery " + i));
+          try(final ClientQuery cq = cs.query("declare variable $x external; $x")) {
+            cq.bind("x", i);
+            assertEquals(Integer.toString(i), cq.execute());
+          }
+        }
+      }
+    } finally {
+      for(final ClientSession cs : sessions) cs.close();
+    }
+  }
+
+  /**
+   * Opens more silent connections than server threads and logs in another session.
+   * @throws IOException I/O exception
+   */
+  @Test(timeout = 20000)
+  public void silentConnections() throws IOException {
+    final ArrayList<Socket> sockets = new ArrayList<>();
+    try {
+      for(int s = 0; s < THREADS * 4; s++) sockets.add(new Socket(S_LOCALHOST, DB_PORT));
+      try(final ClientSession cs = createClient()) {
+        assertEquals("ok", cs.execute("xquery 'ok'"));
+      }
+    } finally {
+      for(final Socket s : sockets) s.close();
+    }
+  }
+
+  /**
+   * Runs the requests of more sessions than server threads in parallel.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void concurrent() throws IOException {
+    try(final ClientSession cs = createClient()) {
+      final ArrayList<Thread> threads = new ArrayList<>();
+      final ArrayList<ClientSession> sessions = new ArrayList<>();
+      final String[] results = new String[THREADS * 4];
+      for(int t = 0; t < results.length; t++) {
+        final int n = t;
+        final ClientSession s = createClient();
+        sessions.add(s);
+        threads.add(new Thread() {
+          @Override
+          public void run() {
+            try {
+              results[n] = s.execute("xquery count(1 to " + (n + 1) + ')');
+            } catch(final IOException ex) {
+              results[n] = Util.message(ex);
+            }
+          }
+        });
+      }
+      for(final Thread t : threads) t.start();
+      for(final Thread t : threads) {
+        try {
+          t.join();
+        } catch(final InterruptedException ex) {
+          throw new AssertionError(ex);
+        }
+      }
+      for(final ClientSession s : sessions) s.close();
+      for(int t = 0; t < results.length; t++) assertEquals(Integer.toString(t + 1), results[t]);
+      assertEquals("ok", cs.execute("xquery 'ok'"));
+    }
+  }
+
+  /**
+   * Retrieves the chunks of open query cursors, which may be processed by different server
+   * threads, and runs other commands in between.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void fetchCommands() throws IOException {
+    final ArrayList<ClientSession> sessions = new ArrayList<>();
+    final ArrayList<ClientQuery> queries = new ArrayList<>();
+    try {
+      for(int s = 0; s < THREADS * 2; s++) {
+        final ClientSession cs = createClient();
+        sessions.add(cs);
+        final ClientQuery cq = cs.query("(1 to 10) ! <x>{ . }</x>");
+        cq.fetchSize(2, 0);
+        queries.add(cq);
+      }
+      for(int i = 1; i <= 10; i++) {
+        for(int s = 0; s < sessions.size(); s++) {
+          assertEquals("<x>" + i + "</x>", queries.get(s).next());
+          assertEquals(Integer.toString(i), sessions.get(s).execute("xquery " + i));
+        }
+      }
+      for(final ClientQuery cq : queries) assertNull(cq.next());
+    } finally {
+      for(final ClientQuery cq : queries) cq.close();
+      for(final ClientSession cs : sessions) cs.close();
+    }
+  }
+}
@@ -5,8 +5,14 @@ import static org.junit.Assert.*;
 import java.io.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.in.*;
+import org.basex.query.value.type.*;
 import org.basex.util.*;
 import org.junit.*;
+import org.junit.Test;
 
 /**
  * This class tests the client/server session API.
@@ -46,4 +52,194 @@ public class ClientSessionTest extends SessionTest {
       fail(Util.message(ex));
     }
   }
+
+  /**
+   * Sends requests without waiting for the responses in between.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void pipeline() throws IOException {
+    try(final ClientSession cs = createClient(); final ClientPipeline pl = cs.pipeline(4)) {
+      pl.execute("create db " + NAME);
+      for(int i = 0; i < 10; i++) pl.add("doc" + i + ".xml", new ArrayInput("<x>" + i + "</x>"));
+      pl.execute("xquery sum(db:open('" + NAME + "')/x)");
+      final String[] results = pl.sync();
+      assertEquals(12, results.length);
+      assertEquals("45", results[11]);
+      assertEquals(0, pl.pending());
+
+      // pending responses are read before the session is used
+      pl.execute("xquery 1");
+      assertEquals("2", cs.execute("xquery 2"));
+      assertArrayEquals(new String[] { "1" }, pl.sync());
+      cs.execute(new DropDB(NAME));
+    }
+  }
+
+  /**
+   * Sends large inputs while large responses are returned.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void pipelineLarge() throws IOException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 1000000; i++) sb.append("<y>").append(i).append("</y>");
+    final String doc = sb.append("</x>").toString();
+    try(final ClientSession cs = createClient(); final ClientPipeline pl = cs.pipeline(2)) {
+      pl.execute("create db " + NAME);
+      for(int i = 0; i < 2; i++) {
+        pl.execute("xquery (1 to 1000000) ! <z>{ . }</z>");
+        pl.add("doc" + i + ".xml", new ArrayInput(doc));
+      }
+      pl.execute("xquery count(db:open('" + NAME + "')//y)");
+      final String[] results = pl.sync();
+      assertEquals(6, results.length);
+      assertTrue(results[1].endsWith("<z>1000000</z>"));
+      assertEquals("2000000", results[5]);
+      cs.execute(new DropDB(NAME));
+    }
+  }
+
+  /**
+   * Reports the first error of a pipeline after all responses have been read.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void pipelineError() throws IOException {
+    try(final ClientSession cs = createClient(); final ClientPipeline pl = cs.pipeline()) {
+      pl.execute("xquery 1");
+      pl.execute("xquery (");
+      pl.execute("xquery 3");
+      try {
+        pl.sync();
+        fail("Error expected.");
+      } catch(final BaseXException ex) {
+        assertEquals(0, pl.pending());
+      }
+      pl.execute("xquery 4");
+      assertArrayEquals(new String[] { "4" }, pl.sync());
+    }
+  }
+
+  /**
+   * Compresses the exchanged data.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void compress() throws IOException {
+    try(final ClientSession cs = createClient()) {
+      assertTrue(cs.compress());
+      final String query = "xquery (1 to 100000) ! <x>{ . }</x>";
+      final String result = cs.execute(query);
+      assertTrue(result.endsWith("<x>100000</x>"));
+      try(final ClientPipeline pl = cs.pipeline()) {
+        for(int i = 0; i < 10; i++) pl.execute("xquery " + i);
+        assertEquals("9", pl.sync()[9]);
+      }
+      assertEquals(result, cs.execute(query));
+    }
+  }
+
+  /**
+   * Retrieves query results in chunks.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void fetch() throws IOException {
+    try(final ClientSession cs = createClient();
+        final ClientQuery cq = cs.query("(1 to 1000) ! <x>{ . }</x>")) {
+      cq.fetchSize(100, 0);
+      // results are retrieved again after the iterator has been exhausted
+      for(int r = 0; r < 2; r++) {
+        int c = 0;
+        while(cq.more()) {
+          assertEquals("<x>" + ++c + "</x>", cq.next());
+          assertSame(NodeType.ELM, cq.type());
+        }
+        assertEquals(1000, c);
+      }
+      // byte limit: every chunk contains at least one item
+      cq.fetchSize(0, 1);
+      int c = 0;
+      while(cq.next() != null) c++;
+      assertEquals(1000, c);
+    }
+    try(final ClientSession cs = createClient(); final ClientQuery cq = cs.query("()")) {
+      cq.fetchSize(10, 0);
+      assertFalse(cq.more());
+      assertFalse(cq.more());
+    }
+    // binding a value starts a new evaluation, even if the last chunk has not been confirmed
+    try(final ClientSession cs = createClient();
+        final ClientQuery cq = cs.query("declare variable $n external; 1 to $n")) {
+      cq.fetchSize(10, 0);
+      for(int n = 1; n <= 3; n++) {
+        cq.bind("n", n, "xs:integer");
+        for(int c = 1; c <= n; c++) assertEquals(Integer.toString(c), cq.next());
+      }
+    }
+  }
+
+  /**
+   * Closes a query cursor before all results have been retrieved.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void fetchClose() throws IOException {
+    try(final ClientSession cs = createClient()) {
+      cs.execute("create db " + NAME + " <x>1</x>");
+      try(final ClientQuery cq = cs.query("for $i in 1 to 1000 return db:open('" + NAME + "')")) {
+        cq.fetchSize(1, 0);
+        assertEquals("<x>1</x>", cq.next());
+        assertEquals("<x>1</x>", cq.next());
+      }
+      // locks of the query have been released
+      cs.execute(new DropDB(NAME));
+
+      // errors close the cursor
+      try(final ClientQuery cq = cs.query("(1, 2, error())")) {
+        cq.fetchSize(1, 0);
+        assertEquals("1", cq.next());
+        assertEquals("2", cq.next());
+        try {
+          cq.next();
+          fail("Error expected.");
+        } catch(final BaseXException ex) {
+          // expected
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs other commands while a query cursor is open.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void fetchCommands() throws IOException {
+    try(final ClientSession cs = createClient(); final ClientSession cs2 = createClient()) {
+      cs.execute(new CreateDB(NAME, "<x>1</x>"));
+      try(final ClientQuery cq = cs.query("for $i in 1 to 10 return db:open('" + NAME +
+          "')/x || $i")) {
+        cq.fetchSize(2, 0);
+        assertEquals("11", cq.next());
+        assertEquals("2", cs.execute("xquery 1 + 1"));
+        assertEquals("12", cq.next());
+        assertEquals("13", cq.next());
+        try(final ClientQuery cq2 = cs.query("count(db:open('" + NAME + "'))")) {
+          assertEquals("1", cq2.execute());
+        }
+        // databases are only locked while a chunk is generated
+        assertEquals("1", cs2.execute("xquery count(db:open('" + NAME + "'))"));
+        for(int i = 4; i <= 10; i++) assertEquals("1" + i, cq.next());
+        assertNull(cq.next());
+      }
+      try(final ClientQuery cq = cs.query("1 to 5")) {
+        cq.fetchSize(1, 0);
+        assertEquals("1", cq.next());
+        cs.execute(new DropDB(NAME));
+      }
+      assertEquals("ok", cs.execute("xquery 'ok'"));
+    }
+  }
 }
@@ -112,11 +112,20 @@ public final class CompressTest extends SandboxTest {
     for(final byte[] token : tokens) {
       final byte[] cpr = comp.pack(token);
       if(token != cpr) {
-        final byte[] pln = comp.unpack(cpr);
+        final byte[] pln = Compress.unpack(cpr);
         if(!eq(token, pln)) {
           fail("\n[E] " + Arrays.toString(token) + ",\n[F] " +
               Arrays.toString(pln));
         }
+        // decompress text at an offset into a target array
+        final byte[] arr = new byte[cpr.length + 1];
+        System.arraycopy(cpr, 0, arr, 1, cpr.length);
+        final byte[] trg = new byte[Compress.length(arr, 1)];
+        Compress.unpack(arr, 1, trg);
+        if(!eq(token, trg)) {
+          fail("\n[E] " + Arrays.toString(token) + ",\n[F] " +
+              Arrays.toString(trg));
+        }
       }
     }
   }